@@ -0,0 +1,36 @@
+package com.paytm.sdechallenge.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The Class BenchmarkRunner, the main class of benchmarks.jar.
+ *
+ * Runs the benchmarks selected by the JMH command line arguments, with the GC profiler reporting the allocation rate,
+ * and writes the results as JSON to jmh-result.json, so that the results of two releases can be compared. Any JMH
+ * option given on the command line, like -p window=10 or -rff other.json, overrides these defaults.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		//the options of a builder take precedence over its parent, so only the missing ones are set
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+		if(!commandLine.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if(!commandLine.getResult().hasValue()) {
+			builder.result("jmh-result.json");
+		}
+		if(commandLine.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		new Runner(builder.build()).run();
+	}
+}
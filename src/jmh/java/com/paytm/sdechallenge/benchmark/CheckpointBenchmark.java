@@ -0,0 +1,101 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+/**
+ * The Class CheckpointBenchmark, comparing the startup of a MovingAverageCalculatorImpl restored from a checkpoint
+ * with the startup replaying every element through add.
+ *
+ * replay adds elements already parsed, which reuses their BigDecimal objects, while replayText parses each one from
+ * its text first, as a startup replaying a log of prices does. The checkpoints are read from memory, so the cost of
+ * the disk is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CheckpointBenchmark {
+
+	@Param({"10000000"})
+	private int size;
+
+	@Param({"1000", "1000000"})
+	private int window;
+
+	private BigDecimal[] elements;
+
+	private String[] texts;
+
+	private byte[] windowCheckpoint;
+
+	private byte[] historyCheckpoint;
+
+	@Setup(Level.Trial)
+	public void createCheckpoints() throws IOException {
+		Random random = new Random(42);
+		elements = new BigDecimal[size];
+		texts = new String[size];
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(window, 4);
+		for(int i = 0; i < size; ++i) {
+			elements[i] = BigDecimal.valueOf(random.nextInt(100000000), 2);
+			texts[i] = elements[i].toString();
+			calculator.add(elements[i]);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		calculator.checkpoint(out, false);
+		windowCheckpoint = out.toByteArray();
+		out = new ByteArrayOutputStream();
+		calculator.checkpoint(out, true);
+		historyCheckpoint = out.toByteArray();
+	}
+
+	@Benchmark
+	public MovingAverageCalculatorImpl replay() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(window, 4);
+		for(BigDecimal element : elements) {
+			calculator.add(element);
+		}
+		return calculator;
+	}
+
+	@Benchmark
+	public MovingAverageCalculatorImpl replayText() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(window, 4);
+		for(String text : texts) {
+			calculator.add(new BigDecimal(text));
+		}
+		return calculator;
+	}
+
+	@Benchmark
+	public MovingAverageCalculatorImpl restoreWindow() throws IOException {
+		return MovingAverageCalculatorImpl.restore(new ByteArrayInputStream(windowCheckpoint));
+	}
+
+	@Benchmark
+	public MovingAverageCalculatorImpl restoreHistory() throws IOException {
+		return MovingAverageCalculatorImpl.restore(new ByteArrayInputStream(historyCheckpoint));
+	}
+}
@@ -0,0 +1,95 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.DoubleMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+/**
+ * The Class DoubleCalculatorBenchmark, measuring the throughput of adding an element and reading the moving average,
+ * with MovingAverageCalculatorImpl and with DoubleMovingAverageCalculator, through the BigDecimal interface or its
+ * double entry points.
+ *
+ * Each iteration starts from new calculators whose window is already full, so that add always evicts an element.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DoubleCalculatorBenchmark {
+
+	/** The number of distinct elements added, a power of two. */
+	private static final int ELEMENT_COUNT = 1 << 12;
+
+	@Param({"1000", "1000000"})
+	private int window;
+
+	/** The elements added, with up to 6 digits before the decimal point and 2 after. */
+	private BigDecimal[] elements;
+
+	private double[] doubleElements;
+
+	private MovingAverageCalculatorImpl exactCalculator;
+
+	private DoubleMovingAverageCalculator doubleCalculator;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void createElements() {
+		Random random = new Random(42);
+		elements = new BigDecimal[ELEMENT_COUNT];
+		doubleElements = new double[ELEMENT_COUNT];
+		for(int i = 0; i < ELEMENT_COUNT; ++i) {
+			elements[i] = BigDecimal.valueOf(random.nextInt(100000000), 2);
+			doubleElements[i] = elements[i].doubleValue();
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void fillWindow() {
+		exactCalculator = new MovingAverageCalculatorImpl(window, 2, RoundingMode.HALF_DOWN);
+		doubleCalculator = new DoubleMovingAverageCalculator(window, 2, RoundingMode.HALF_DOWN);
+		for(int i = 0; i < window; ++i) {
+			exactCalculator.add(elements[i & (ELEMENT_COUNT - 1)]);
+			doubleCalculator.add(doubleElements[i & (ELEMENT_COUNT - 1)]);
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public BigDecimal exact() {
+		exactCalculator.add(elements[next++ & (ELEMENT_COUNT - 1)]);
+		return exactCalculator.movingAverage();
+	}
+
+	@Benchmark
+	public BigDecimal doubleFromBigDecimal() {
+		doubleCalculator.add(elements[next++ & (ELEMENT_COUNT - 1)]);
+		return doubleCalculator.movingAverage();
+	}
+
+	@Benchmark
+	public double doublePrimitive() {
+		doubleCalculator.add(doubleElements[next++ & (ELEMENT_COUNT - 1)]);
+		return doubleCalculator.movingAverageDouble();
+	}
+}
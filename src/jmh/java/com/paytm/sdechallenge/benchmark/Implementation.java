@@ -0,0 +1,99 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.RoundingMode;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.ConcurrentMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.DoubleMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.FixedPointMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.PrefixSumMovingAverageCalculator;
+
+/**
+ * The Enum Implementation, the MovingAverageCalculator implementations compared side by side by the benchmarks. A new
+ * implementation is compared by adding a constant, the benchmarks take the constant names as a parameter.
+ */
+public enum Implementation {
+
+	/** MovingAverageCalculatorImpl. */
+	IMPL {
+		@Override
+		MovingAverageCalculator create(int window, int scale) {
+			return new MovingAverageCalculatorImpl(window, scale, RoundingMode.HALF_DOWN);
+		}
+
+		@Override
+		void setWindow(MovingAverageCalculator calculator, int window) {
+			((MovingAverageCalculatorImpl) calculator).setWindow(window);
+		}
+	},
+
+	/** FixedPointMovingAverageCalculator, with elements at the scale of the moving average. */
+	FIXED_POINT {
+		@Override
+		MovingAverageCalculator create(int window, int scale) {
+			return new FixedPointMovingAverageCalculator(window, scale, scale, RoundingMode.HALF_DOWN);
+		}
+
+		@Override
+		void setWindow(MovingAverageCalculator calculator, int window) {
+			((FixedPointMovingAverageCalculator) calculator).setWindow(window);
+		}
+	},
+
+	/** ConcurrentMovingAverageCalculator, used by a single thread. */
+	CONCURRENT {
+		@Override
+		MovingAverageCalculator create(int window, int scale) {
+			return new ConcurrentMovingAverageCalculator(window, scale, RoundingMode.HALF_DOWN);
+		}
+
+		@Override
+		void setWindow(MovingAverageCalculator calculator, int window) {
+			((ConcurrentMovingAverageCalculator) calculator).setWindow(window);
+		}
+	},
+
+	/** PrefixSumMovingAverageCalculator. */
+	PREFIX_SUM {
+		@Override
+		MovingAverageCalculator create(int window, int scale) {
+			return new PrefixSumMovingAverageCalculator(window, scale, RoundingMode.HALF_DOWN);
+		}
+
+		@Override
+		void setWindow(MovingAverageCalculator calculator, int window) {
+			((PrefixSumMovingAverageCalculator) calculator).setWindow(window);
+		}
+	},
+
+	/** DoubleMovingAverageCalculator, approximate. */
+	DOUBLE {
+		@Override
+		MovingAverageCalculator create(int window, int scale) {
+			return new DoubleMovingAverageCalculator(window, scale, RoundingMode.HALF_DOWN);
+		}
+
+		@Override
+		void setWindow(MovingAverageCalculator calculator, int window) {
+			((DoubleMovingAverageCalculator) calculator).setWindow(window);
+		}
+	};
+
+	/**
+	 * Creates a calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale of the elements and of the moving average
+	 * @return the calculator
+	 */
+	abstract MovingAverageCalculator create(int window, int scale);
+
+	/**
+	 * Sets the window of a calculator created by this implementation.
+	 *
+	 * @param calculator the calculator
+	 * @param window the new window
+	 */
+	abstract void setWindow(MovingAverageCalculator calculator, int window);
+}
@@ -0,0 +1,118 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.DecimalEncoding;
+import com.paytm.sdechallenge.collections.impl.DecimalIngestion;
+import com.paytm.sdechallenge.collections.impl.FixedPointMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+/**
+ * The Class IngestionBenchmark, measuring the values ingested per second from a buffer of one million encoded
+ * values: parsed with new BigDecimal(String) and added one by one, as before DecimalIngestion, or decoded in place by
+ * DecimalIngestion from text or binary records.
+ *
+ * Each invocation ingests the whole buffer into a new calculator, so the scores are in values per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IngestionBenchmark {
+
+	private static final int SIZE = 1000000;
+
+	private static final int WINDOW = 1000;
+
+	private byte[] text;
+
+	private ByteBuffer textBuffer;
+
+	private ByteBuffer binaryBuffer;
+
+	@Setup(Level.Trial)
+	public void createBuffers() {
+		Random random = new Random(42);
+		StringBuilder builder = new StringBuilder();
+		binaryBuffer = ByteBuffer.allocateDirect(SIZE * 12).order(ByteOrder.LITTLE_ENDIAN);
+		for(int i = 0; i < SIZE; ++i) {
+			long unscaled = random.nextInt(100000000);
+			builder.append(BigDecimal.valueOf(unscaled, 2).toPlainString()).append('\n');
+			binaryBuffer.putLong(unscaled).putInt(2);
+		}
+		binaryBuffer.flip();
+		text = builder.toString().getBytes(StandardCharsets.US_ASCII);
+		textBuffer = ByteBuffer.allocateDirect(text.length);
+		textBuffer.put(text).flip();
+	}
+
+	/**
+	 * Splits the text into a String per value, parsed with new BigDecimal(String) and added one by one.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public MovingAverageCalculator stringParsing() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(WINDOW, 4);
+		int start = 0;
+		for(int i = 0; i < text.length; ++i) {
+			if(text[i] == '\n') {
+				calculator.add(new BigDecimal(new String(text, start, i - start, StandardCharsets.US_ASCII)));
+				start = i + 1;
+			}
+		}
+		return calculator;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public MovingAverageCalculator textImpl() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(WINDOW, 4);
+		DecimalIngestion.addAll(calculator, textBuffer.duplicate(), DecimalEncoding.delimitedText());
+		return calculator;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public MovingAverageCalculator textFixedPoint() {
+		FixedPointMovingAverageCalculator calculator = new FixedPointMovingAverageCalculator(WINDOW, 2, 4);
+		DecimalIngestion.addAll(calculator, textBuffer.duplicate(), DecimalEncoding.delimitedText());
+		return calculator;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public MovingAverageCalculator binaryImpl() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(WINDOW, 4);
+		DecimalIngestion.addAll(calculator, binaryBuffer.duplicate(), DecimalEncoding.binary(ByteOrder.LITTLE_ENDIAN));
+		return calculator;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public MovingAverageCalculator binaryFixedPoint() {
+		FixedPointMovingAverageCalculator calculator = new FixedPointMovingAverageCalculator(WINDOW, 2, 4);
+		DecimalIngestion.addAll(calculator, binaryBuffer.duplicate(), DecimalEncoding.binary(ByteOrder.LITTLE_ENDIAN));
+		return calculator;
+	}
+}
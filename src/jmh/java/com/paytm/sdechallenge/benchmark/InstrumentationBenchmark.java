@@ -0,0 +1,82 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.CalculatorMetrics;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+/**
+ * The Class InstrumentationBenchmark, measuring the cost of CalculatorMetrics on the add and movingAverage paths of
+ * MovingAverageCalculatorImpl, with the metrics detached (the default) and attached.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class InstrumentationBenchmark {
+
+	/** The number of distinct elements added, a power of two. */
+	private static final int ELEMENT_COUNT = 1 << 12;
+
+	@Param({"false", "true"})
+	private boolean instrumented;
+
+	@Param({"1000"})
+	private int window;
+
+	private BigDecimal[] elements;
+
+	private MovingAverageCalculatorImpl calculator;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void createElements() {
+		Random random = new Random(42);
+		elements = new BigDecimal[ELEMENT_COUNT];
+		for(int i = 0; i < ELEMENT_COUNT; ++i) {
+			elements[i] = BigDecimal.valueOf(random.nextInt(100000000), 2);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void fillWindow() {
+		calculator = new MovingAverageCalculatorImpl(window);
+		if(instrumented) {
+			calculator.setMetrics(new CalculatorMetrics());
+		}
+		for(int i = 0; i < window; ++i) {
+			calculator.add(elements[i & (ELEMENT_COUNT - 1)]);
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void add() {
+		calculator.add(elements[next++ & (ELEMENT_COUNT - 1)]);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public BigDecimal movingAverage() {
+		return calculator.movingAverage();
+	}
+}
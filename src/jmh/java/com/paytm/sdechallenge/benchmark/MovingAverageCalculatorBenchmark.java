@@ -0,0 +1,114 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class MovingAverageCalculatorBenchmark, measuring the add throughput, the latency of add followed by
+ * movingAverage, the latency of a repeated movingAverage and the setWindow cost of each Implementation, for window
+ * sizes from 10 to 1M and element scales from 0 to 18.
+ *
+ * Each iteration starts from a new calculator whose window is already full, so that add always evicts an element and
+ * the history of elements grows during one iteration only.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MovingAverageCalculatorBenchmark {
+
+	/** The number of distinct elements added, a power of two. */
+	private static final int ELEMENT_COUNT = 1 << 12;
+
+	@Param({"IMPL", "FIXED_POINT", "CONCURRENT", "PREFIX_SUM", "DOUBLE"})
+	private Implementation implementation;
+
+	@Param({"10", "1000", "100000", "1000000"})
+	private int window;
+
+	@Param({"0", "2", "9", "18"})
+	private int scale;
+
+	/** The elements added, with up to 6 digits before the decimal point. */
+	private BigDecimal[] elements;
+
+	private MovingAverageCalculator calculator;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void createElements() {
+		Random random = new Random(42);
+		elements = new BigDecimal[ELEMENT_COUNT];
+		long bound = scale > 12 ? Long.MAX_VALUE / window : 1000000L * (long) Math.pow(10, scale);
+		for(int i = 0; i < ELEMENT_COUNT; ++i) {
+			elements[i] = BigDecimal.valueOf((random.nextLong() & Long.MAX_VALUE) % bound, scale);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void fillWindow() {
+		calculator = implementation.create(window, scale);
+		for(int i = 0; i < window; ++i) {
+			calculator.add(elements[i & (ELEMENT_COUNT - 1)]);
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void add() {
+		calculator.add(elements[next++ & (ELEMENT_COUNT - 1)]);
+	}
+
+	/**
+	 * Adds an element, then calculates the moving average. The add invalidates the average cached by
+	 * MovingAverageCalculatorImpl, so each call divides the window sum; the cost of the division alone is this score
+	 * less the time of add.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public BigDecimal movingAverage() {
+		calculator.add(elements[next++ & (ELEMENT_COUNT - 1)]);
+		return calculator.movingAverage();
+	}
+
+	/**
+	 * Calculates the moving average again without adding, as a caller polling between adds does. Implementations
+	 * caching the average only read the cache.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public BigDecimal cachedMovingAverage() {
+		return calculator.movingAverage();
+	}
+
+	/**
+	 * Halves and restores the window, alternately.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void setWindow() {
+		implementation.setWindow(calculator, (next++ & 1) == 0 ? Math.max(1, window / 2) : window);
+	}
+}
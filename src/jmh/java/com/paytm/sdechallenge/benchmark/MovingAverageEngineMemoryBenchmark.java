@@ -0,0 +1,94 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.MovingAverageEngineImpl;
+
+/**
+ * The Class MovingAverageEngineMemoryBenchmark, measuring the heap retained per series by MovingAverageEngineImpl,
+ * compared with one MovingAverageCalculatorImpl per series, and the time taken to create them.
+ *
+ * Each series has a window of 1 and one element added, so that the result is the overhead of a series rather than
+ * the size of its data. The retained heap is measured after a full collection, and reported by the bytesPerSeries
+ * counter, which JMH sums over the measurement iterations, so a single one is run. The GC profiler's allocation
+ * rate also counts the arrays discarded while the engine grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MovingAverageEngineMemoryBenchmark {
+
+	private static final BigDecimal ELEMENT = new BigDecimal("1.25");
+
+	@Param({"1000000"})
+	private int series;
+
+	/**
+	 * The heap retained per series by the structures created in an iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		private long before;
+
+		public double bytesPerSeries;
+
+		@Setup(Level.Iteration)
+		public void measureBefore() {
+			before = usedMemory();
+		}
+
+		void measureAfter(int series) {
+			bytesPerSeries = (double) (usedMemory() - before) / series;
+		}
+	}
+
+	@Benchmark
+	public Object engine(Footprint footprint) {
+		MovingAverageEngineImpl engine = new MovingAverageEngineImpl(1, 2);
+		for(int key = 0; key < series; ++key) {
+			engine.add(key, ELEMENT);
+		}
+		footprint.measureAfter(series);
+		return engine;
+	}
+
+	@Benchmark
+	public Object calculators(Footprint footprint) {
+		MovingAverageCalculatorImpl[] calculators = new MovingAverageCalculatorImpl[series];
+		for(int key = 0; key < series; ++key) {
+			calculators[key] = new MovingAverageCalculatorImpl(1);
+			calculators[key].add(ELEMENT);
+		}
+		footprint.measureAfter(series);
+		return calculators;
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 5; ++i) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
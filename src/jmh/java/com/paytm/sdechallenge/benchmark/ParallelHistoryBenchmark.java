@@ -0,0 +1,105 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+/**
+ * The Class ParallelHistoryBenchmark, measuring how the fork/join bulk operations of MovingAverageCalculatorImpl
+ * scale with the number of threads: re-summing the window on setWindow, summing the whole history, and calculating
+ * the series of moving averages of the whole history.
+ *
+ * Each operation is run from a ForkJoinPool of the given parallelism, whose threads then run the forked tasks.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParallelHistoryBenchmark {
+
+	@Param({"1", "2", "4", "8"})
+	private int parallelism;
+
+	@Param({"4000000"})
+	private int size;
+
+	private ForkJoinPool pool;
+
+	private MovingAverageCalculatorImpl calculator;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void createCalculator() {
+		pool = new ForkJoinPool(parallelism);
+		Random random = new Random(42);
+		calculator = new MovingAverageCalculatorImpl(10, 4);
+		for(int i = 0; i < size; ++i) {
+			calculator.add(BigDecimal.valueOf(random.nextInt(100000000), 2));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdownPool() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Grows the window to the whole history and shrinks it back, alternately, the grown window being re-summed.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int setWindow() {
+		final int window = (next++ & 1) == 0 ? size : 10;
+		return pool.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				calculator.setWindow(window);
+				return window;
+			}
+		}).join();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public BigDecimal sum() {
+		return pool.submit(new Callable<BigDecimal>() {
+			@Override
+			public BigDecimal call() {
+				return calculator.sum(0, size);
+			}
+		}).join();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public BigDecimal[] movingAverageSeries() {
+		return pool.submit(new Callable<BigDecimal[]>() {
+			@Override
+			public BigDecimal[] call() {
+				return calculator.movingAverageSeries(0, size);
+			}
+		}).join();
+	}
+}
@@ -0,0 +1,105 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCoordinator;
+import com.paytm.sdechallenge.collections.impl.PartialWindow;
+import com.paytm.sdechallenge.collections.impl.ShardWindow;
+import com.paytm.sdechallenge.collections.impl.WindowShard;
+
+/**
+ * The Class ShardMergeBenchmark, measuring the cost for a MovingAverageCoordinator to compute the moving average of a
+ * window of 100000 elements spread over 1 to 256 shards : merging the partial windows of ShardWindows in the same
+ * process, or of shards whose partial windows are serialized and read back, as they would cross the network.
+ *
+ * shipElements is the cost of summing the elements of the window in one place, to which the coordinator is compared.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ShardMergeBenchmark {
+
+	private static final int WINDOW = 100000;
+
+	private static final int SIZE = 4 * WINDOW;
+
+	@Param({"1", "4", "16", "64", "256"})
+	private int shards;
+
+	private long cut;
+
+	private BigDecimal[] window;
+
+	private MovingAverageCoordinator inProcess;
+
+	private MovingAverageCoordinator serialized;
+
+	@Setup(Level.Trial)
+	public void createShards() {
+		Random random = new Random(42);
+		List<ShardWindow> shardWindows = new ArrayList<ShardWindow>();
+		List<WindowShard> loopbacks = new ArrayList<WindowShard>();
+		for(int i = 0; i < shards; ++i) {
+			final ShardWindow shard = new ShardWindow(WINDOW);
+			shardWindows.add(shard);
+			loopbacks.add(new WindowShard() {
+				@Override
+				public PartialWindow partial(long cut) throws IOException {
+					return PartialWindow.fromByteArray(shard.partial(cut).toByteArray());
+				}
+			});
+		}
+		window = new BigDecimal[WINDOW];
+		for(int sequence = 0; sequence < SIZE; ++sequence) {
+			BigDecimal element = BigDecimal.valueOf(random.nextInt(100000000), 2);
+			shardWindows.get(random.nextInt(shards)).add(sequence, element);
+			window[sequence % WINDOW] = element;
+		}
+		cut = SIZE - 1;
+		inProcess = new MovingAverageCoordinator(shardWindows);
+		serialized = new MovingAverageCoordinator(loopbacks);
+	}
+
+	@Benchmark
+	public BigDecimal mergeInProcess() throws IOException {
+		return inProcess.movingAverage(cut);
+	}
+
+	@Benchmark
+	public BigDecimal mergeSerialized() throws IOException {
+		return serialized.movingAverage(cut);
+	}
+
+	/**
+	 * Sums the elements of the window in one place, as a coordinator receiving every element would.
+	 */
+	@Benchmark
+	public BigDecimal shipElements() {
+		BigDecimal sum = BigDecimal.ZERO;
+		for(BigDecimal element : window) {
+			sum = sum.add(element);
+		}
+		return sum;
+	}
+}
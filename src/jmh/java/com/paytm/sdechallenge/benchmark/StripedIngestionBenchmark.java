@@ -0,0 +1,91 @@
+package com.paytm.sdechallenge.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.paytm.sdechallenge.collections.impl.ConcurrentMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.StripedMovingAverageCalculator;
+
+/**
+ * The Class StripedIngestionBenchmark, measuring the throughput of add with several producer threads feeding one
+ * series: StripedMovingAverageCalculator, whose producers merge their stripes into a ConcurrentMovingAverageCalculator
+ * when full, against a MovingAverageCalculatorImpl whose calls are synchronized.
+ *
+ * The number of producer threads is set with the JMH option -t, for example -t 1, -t 2, -t 4 and so on up to the
+ * number of processors. The calculators are shared by all threads and created again for each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StripedIngestionBenchmark {
+
+	/** The number of distinct elements added, a power of two. */
+	private static final int ELEMENT_COUNT = 1 << 10;
+
+	private BigDecimal[] elements;
+
+	private MovingAverageCalculatorImpl lockBased;
+
+	private StripedMovingAverageCalculator striped;
+
+	/**
+	 * The position of a producer thread in the elements.
+	 */
+	@State(Scope.Thread)
+	public static class Producer {
+
+		private int next;
+	}
+
+	@Setup(Level.Trial)
+	public void createElements() {
+		elements = new BigDecimal[ELEMENT_COUNT];
+		for(int i = 0; i < ELEMENT_COUNT; ++i) {
+			elements[i] = BigDecimal.valueOf(i, 2);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void createCalculators() {
+		lockBased = new MovingAverageCalculatorImpl(1000);
+		striped = new StripedMovingAverageCalculator(new ConcurrentMovingAverageCalculator(1000), 4096);
+	}
+
+	/**
+	 * Merges the elements left in the stripes, so that each iteration pays for all the elements it added.
+	 */
+	@TearDown(Level.Iteration)
+	public void mergeStripes() {
+		striped.merge();
+	}
+
+	@Benchmark
+	public void synchronizedAdd(Producer producer) {
+		BigDecimal element = elements[producer.next++ & (ELEMENT_COUNT - 1)];
+		synchronized (lockBased) {
+			lockBased.add(element);
+		}
+	}
+
+	@Benchmark
+	public void stripedAdd(Producer producer) {
+		striped.add(elements[producer.next++ & (ELEMENT_COUNT - 1)]);
+	}
+}
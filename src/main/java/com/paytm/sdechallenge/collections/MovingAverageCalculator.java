@@ -1,6 +1,7 @@
 package com.paytm.sdechallenge.collections;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,6 +27,59 @@ public interface MovingAverageCalculator {
 	 */
 	public void add(BigDecimal element);
 	
+	/**
+	 * Adds all the elements, in order.
+	 * The result is the same as adding the elements one at a time, implementations may update the window in one
+	 * pass over the batch.
+	 *
+	 * @param elements the BigDecimal elements
+	 */
+	public default void addAll(BigDecimal[] elements) {
+		for(BigDecimal element : elements) {
+			add(element);
+		}
+	}
+	
+	/**
+	 * Adds all the elements, in order, and stores the moving average after each element added.
+	 *
+	 * @param elements the BigDecimal elements
+	 * @param movingAverages the array receiving, at the index of each element, the moving average after that
+	 * element was added
+	 * @throws IllegalArgumentException if movingAverages is shorter than elements
+	 */
+	public default void addAll(BigDecimal[] elements, BigDecimal[] movingAverages) {
+		if(movingAverages.length < elements.length) {
+			throw new IllegalArgumentException("Moving averages array is shorter than the elements");
+		}
+		for(int i = 0; i < elements.length; ++i) {
+			add(elements[i]);
+			movingAverages[i] = movingAverage();
+		}
+	}
+	
+	/**
+	 * Adds all the elements, in the iteration order of the collection.
+	 *
+	 * @param elements the collection of BigDecimal elements
+	 */
+	public default void addAll(Collection<? extends BigDecimal> elements) {
+		addAll(elements.toArray(new BigDecimal[elements.size()]));
+	}
+	
+	/**
+	 * Adds all the elements given as unscaled values, in order.
+	 * eg : with a scale of 2, the unscaled value 1050 is the element 10.50
+	 *
+	 * @param unscaled the unscaled values of the elements
+	 * @param scale the scale of all the elements
+	 */
+	public default void addAll(long[] unscaled, int scale) {
+		for(long value : unscaled) {
+			add(BigDecimal.valueOf(value, scale));
+		}
+	}
+	
 	/**
 	 * Calculates the Moving average.
 	 *
@@ -0,0 +1,76 @@
+package com.paytm.sdechallenge.collections;
+
+import java.math.BigDecimal;
+
+/**
+ * The Interface MovingAverageEngine.
+ *
+ * This interface provides methods for calculating the moving averages of many independent series at once, each
+ * series being identified by a long key. Each series has its own window, the scale of the elements added to it and
+ * the scale of its moving average.
+ *
+ * Series are created either explicitly with register, or implicitly with the default configuration of the engine
+ * the first time an element is added for their key. Unlike MovingAverageCalculator, an engine only keeps the elements
+ * inside the window of each series, not the history of all elements.
+ *
+ */
+public interface MovingAverageEngine {
+
+	/**
+	 * Registers a new series.
+	 *
+	 * @param key the key of the series
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added to the series
+	 * @param scale the scale of the moving average
+	 */
+	public void register(long key, int window, int inputScale, int scale);
+
+	/**
+	 * Adds the new element to a series, creating the series if required.
+	 *
+	 * @param key the key of the series
+	 * @param element the BigDecimal element
+	 */
+	public void add(long key, BigDecimal element);
+
+	/**
+	 * Adds the new element to a series, given as an unscaled value at the input scale of the series, creating the
+	 * series if required.
+	 *
+	 * @param key the key of the series
+	 * @param unscaled the unscaled value of the element
+	 */
+	public void add(long key, long unscaled);
+
+	/**
+	 * Calculates the Moving average of a series.
+	 *
+	 * @param key the key of the series
+	 * @return the big decimal moving average
+	 */
+	public BigDecimal movingAverage(long key);
+
+	/**
+	 * Calculates the unscaled value of the Moving average of a series, at the scale of the series.
+	 *
+	 * @param key the key of the series
+	 * @return the unscaled moving average
+	 */
+	public long movingAverageUnscaled(long key);
+
+	/**
+	 * Checks if a series exists.
+	 *
+	 * @param key the key of the series
+	 * @return true, if the series exists
+	 */
+	public boolean contains(long key);
+
+	/**
+	 * Series count.
+	 *
+	 * @return the int number of series
+	 */
+	public int seriesCount();
+}
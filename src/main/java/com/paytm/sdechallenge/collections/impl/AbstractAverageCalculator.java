@@ -0,0 +1,59 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.RoundingMode;
+
+/**
+ * The Class AbstractAverageCalculator, holding the scale and rounding mode of the averages computed by a calculator,
+ * with their validating setters.
+ *
+ * Subclasses validate the scale and rounding mode given to their constructors, assign them, and read them when
+ * rounding an average.
+ */
+abstract class AbstractAverageCalculator {
+
+	/** The scale, which is the number of decimal places the moving average will have. */
+	int scale = 5;
+
+	/** The rounding mode to be used to round moving average to the exact decimal points required.
+	 *	https://docs.oracle.com/en/java/javase/11/docs/api/java.base/java/math/RoundingMode.html
+	 */
+	RoundingMode roundingMode = RoundingMode.HALF_DOWN;
+
+	/**
+	 * Gets the scale.
+	 *
+	 * @return the scale
+	 */
+	public int getScale() {
+		return scale;
+	}
+
+	/**
+	 * Sets the scale.
+	 *
+	 * @param scale the new scale
+	 */
+	public void setScale(int scale) {
+		MovingAverageValidator.validateScale(scale);
+		this.scale = scale;
+	}
+
+	/**
+	 * Gets the rounding mode.
+	 *
+	 * @return the rounding mode
+	 */
+	public RoundingMode getRoundingMode() {
+		return roundingMode;
+	}
+
+	/**
+	 * Sets the rounding mode.
+	 *
+	 * @param roundingMode the new rounding mode
+	 */
+	public void setRoundingMode(RoundingMode roundingMode) {
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+		this.roundingMode = roundingMode;
+	}
+}
@@ -0,0 +1,71 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * The Class BoundedElementHistory, which keeps the last K elements added.
+ *
+ * The elements are stored in a circular array of size K. Once it is full, each new element overwrites the oldest
+ * one, which is no longer retained.
+ */
+class BoundedElementHistory implements ElementHistory {
+
+	/** The circular array holding the last elements. */
+	private final BigDecimal[] elements;
+
+	/** The number of elements added. */
+	private int size;
+
+	/**
+	 * Instantiates a new bounded element history.
+	 *
+	 * @param capacity the number of elements retained
+	 */
+	BoundedElementHistory(int capacity) {
+		this.elements = new BigDecimal[capacity];
+	}
+
+	@Override
+	public void add(BigDecimal element) {
+		elements[size % elements.length] = element;
+		++size;
+	}
+
+	@Override
+	public BigDecimal get(int index) {
+		if (index < firstIndex() || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return elements[index % elements.length];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int firstIndex() {
+		return size > elements.length ? size - elements.length : 0;
+	}
+
+	@Override
+	public int residentSize() {
+		return size - firstIndex();
+	}
+
+	@Override
+	public long offHeapBytes() {
+		return 0L;
+	}
+
+	@Override
+	public boolean isConcurrentlyReadable() {
+		return true;
+	}
+
+	@Override
+	public void close() {
+		//nothing to release
+	}
+}
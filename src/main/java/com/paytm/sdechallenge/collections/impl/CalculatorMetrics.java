@@ -0,0 +1,161 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The Class CalculatorMetrics, the instrumentation of a MovingAverageCalculatorImpl.
+ *
+ * Metrics are disabled by default: a calculator without metrics only checks a null field on add and movingAverage.
+ * Once attached with MovingAverageCalculatorImpl.setMetrics, they record
+ *
+ *  the number of elements added and of moving averages calculated, with histograms of the latency of add and
+ *  movingAverage. addAll counts its elements but does not record a latency.
+ *
+ *  the recomputes of the window sum caused by setWindow, and the number of elements each one read.
+ *
+ *  the window size, the number of elements in the window, the number of elements retained by the history, an
+ *  estimate of the heap size of those held on the heap, and the size of the files holding the others when the
+ *  history spills to disk or is persistent, read from the calculator when a snapshot is taken.
+ *
+ * The metrics are read with snapshot, or through JMX once registered. Counters can be read by any thread; the values
+ * read from the calculator are exact only when read by the thread using the calculator.
+ */
+public class CalculatorMetrics implements CalculatorMetricsMXBean {
+
+	/** The estimated heap size of a retained element: a BigDecimal with a long unscaled value, and its reference. */
+	static final long ESTIMATED_ELEMENT_BYTES = 48;
+
+	/** The domain of the JMX object names. */
+	private static final String DOMAIN = "com.paytm.sdechallenge";
+
+	/** Error message when the metrics are attached to a second calculator. */
+	private static String ALREADY_ATTACHED = "Metrics are already attached to a calculator";
+
+	/** Error message when the metrics cannot be registered. */
+	private static String REGISTRATION_FAILED = "Metrics cannot be registered : %s";
+
+	private final LongAdder addCount = new LongAdder();
+
+	private final LongAdder queryCount = new LongAdder();
+
+	private final LatencyHistogram addLatency = new LatencyHistogram();
+
+	private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+	private final LongAdder recomputeCount = new LongAdder();
+
+	private final LongAdder recomputedElements = new LongAdder();
+
+	/** The calculator the metrics are attached to, null until attached. */
+	private volatile MovingAverageCalculatorImpl calculator;
+
+	/** The name the metrics are registered with, null if not registered. */
+	private ObjectName objectName;
+
+	/**
+	 * Gets a snapshot of the metrics.
+	 *
+	 * @return the snapshot
+	 */
+	public MetricsSnapshot snapshot() {
+		MovingAverageCalculatorImpl current = calculator;
+		int window = current == null ? 0 : current.getWindow();
+		int windowFill = current == null ? 0 : Math.min(window, current.size());
+		int historySize = current == null ? 0 : current.size() - current.getFirstIndex();
+		ElementHistory history = current == null ? null : current.getHistory();
+		long heapBytes = history == null ? 0L : history.residentSize() * ESTIMATED_ELEMENT_BYTES;
+		long offHeapBytes = history == null ? 0L : history.offHeapBytes();
+		return new MetricsSnapshot(addCount.sum(), queryCount.sum(), addLatency.percentile(0.5),
+				addLatency.percentile(0.99), addLatency.max(), queryLatency.percentile(0.5), queryLatency.percentile(0.99),
+				queryLatency.max(), window, windowFill, historySize, heapBytes, offHeapBytes, recomputeCount.sum(),
+				recomputedElements.sum());
+	}
+
+	@Override
+	public MetricsSnapshot getSnapshot() {
+		return snapshot();
+	}
+
+	@Override
+	public void reset() {
+		addCount.reset();
+		queryCount.reset();
+		addLatency.reset();
+		queryLatency.reset();
+		recomputeCount.reset();
+		recomputedElements.reset();
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, as com.paytm.sdechallenge:type=MovingAverageCalculator
+	 * with the given name.
+	 *
+	 * @param name the name of the calculator
+	 */
+	public synchronized void register(String name) {
+		try {
+			ObjectName registered = new ObjectName(DOMAIN + ":type=MovingAverageCalculator,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+			objectName = registered;
+		} catch (JMException e) {
+			throw new IllegalStateException(String.format(REGISTRATION_FAILED, name), e);
+		}
+	}
+
+	/**
+	 * Unregisters the metrics from the platform MBean server, if registered.
+	 */
+	public synchronized void unregister() {
+		if(objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			objectName = null;
+		} catch (JMException e) {
+			throw new IllegalStateException(String.format(REGISTRATION_FAILED, objectName), e);
+		}
+	}
+
+	/**
+	 * Attaches the metrics to a calculator.
+	 *
+	 * @param attached the calculator
+	 */
+	synchronized void attach(MovingAverageCalculatorImpl attached) {
+		if(calculator != null && calculator != attached) {
+			throw new IllegalArgumentException(ALREADY_ATTACHED);
+		}
+		calculator = attached;
+	}
+
+	/**
+	 * Detaches the metrics from their calculator.
+	 */
+	synchronized void detach() {
+		calculator = null;
+	}
+
+	void recordAdd(long nanos) {
+		addCount.increment();
+		addLatency.record(nanos);
+	}
+
+	void recordAdds(int count) {
+		addCount.add(count);
+	}
+
+	void recordQuery(long nanos) {
+		queryCount.increment();
+		queryLatency.record(nanos);
+	}
+
+	void recordRecompute(int elements) {
+		recomputeCount.increment();
+		recomputedElements.add(elements);
+	}
+}
@@ -0,0 +1,19 @@
+package com.paytm.sdechallenge.collections.impl;
+
+/**
+ * The Interface CalculatorMetricsMXBean, the management interface of CalculatorMetrics exposed through JMX.
+ */
+public interface CalculatorMetricsMXBean {
+
+	/**
+	 * Gets a snapshot of the metrics.
+	 *
+	 * @return the snapshot, shown as composite data by JMX clients
+	 */
+	MetricsSnapshot getSnapshot();
+
+	/**
+	 * Clears the counters and latency histograms.
+	 */
+	void reset();
+}
@@ -0,0 +1,358 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The Class CheckpointCodec, the binary format of the checkpoints of the calculators.
+ *
+ * Format
+ *
+ *
+ *  A checkpoint starts with a header: the magic number 0x4D414350 ("MACP") as a big endian int, the version of the
+ *  format as a byte, and the kind of calculator as a byte. The body that follows is specific to each calculator.
+ *
+ *  Integers are written as variable length integers of 7 bits per byte, the lowest bits first, the high bit of a byte
+ *  being set when another byte follows. Signed integers are zigzag encoded first, so that small negative values stay
+ *  short. A BigDecimal is written as a header, the zigzag encoded scale shifted left by one, whose lowest bit is set
+ *  when the unscaled value does not fit in a long. The unscaled value follows, as a zigzag encoded long, or as the
+ *  length and the big endian two's complement bytes of a BigInteger. The elements of most series are written in one
+ *  to three bytes for their unscaled value.
+ *
+ *  The Writer and the Reader buffer the bytes themselves, so that the checkpoint is written and read sequentially in
+ *  large blocks, and they never close the stream. A checkpoint has no length prefix, as it is written while the
+ *  elements are read, so the Reader may read a block past its end. When the stream supports mark and reset, finish
+ *  returns the bytes read past the end to the stream, so that the data following a checkpoint can still be read.
+ */
+final class CheckpointCodec {
+
+	/** The magic number starting every checkpoint. */
+	static final int MAGIC = 0x4D414350;
+
+	/** The version of the format. */
+	static final int VERSION = 1;
+
+	/** The kind of a checkpoint of a MovingAverageCalculatorImpl. */
+	static final int KIND_IMPL = 1;
+
+	/** The kind of a checkpoint of a FixedPointMovingAverageCalculator. */
+	static final int KIND_FIXED_POINT = 2;
+
+	/** The kind of a serialized PartialWindow. */
+	static final int KIND_PARTIAL_WINDOW = 3;
+
+	/** The size of the buffers. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Error message when the stream does not start with the magic number. */
+	private static String MAGIC_INVALID = "Checkpoint is invalid : magic number %08x";
+
+	/** Error message when the version of the format is not supported. */
+	private static String VERSION_INVALID = "Checkpoint version is not supported : %s";
+
+	/** Error message when the checkpoint is of another kind of calculator. */
+	private static String KIND_INVALID = "Checkpoint is of another calculator : %s";
+
+	/** Error message when a value read is invalid. */
+	private static String VALUE_INVALID = "Checkpoint is invalid : %s";
+
+	private CheckpointCodec() {
+	}
+
+	/**
+	 * Builds the exception thrown when a value read is invalid.
+	 *
+	 * @param description the description of the value
+	 * @return the exception
+	 */
+	static IOException invalid(String description) {
+		return new IOException(String.format(VALUE_INVALID, description));
+	}
+
+	/**
+	 * The writer of a checkpoint.
+	 */
+	static final class Writer {
+
+		private final OutputStream out;
+
+		private final byte[] buffer;
+
+		private int position;
+
+		Writer(OutputStream out) {
+			this(out, BUFFER_SIZE);
+		}
+
+		/**
+		 * Instantiates a new writer, with a smaller buffer for short messages.
+		 *
+		 * @param out the stream
+		 * @param bufferSize the size of the buffer, at least 10 bytes
+		 */
+		Writer(OutputStream out, int bufferSize) {
+			this.out = out;
+			this.buffer = new byte[bufferSize];
+		}
+
+		/**
+		 * Writes the header of a checkpoint.
+		 *
+		 * @param kind the kind of calculator
+		 */
+		void writeHeader(int kind) throws IOException {
+			writeByte(MAGIC >>> 24);
+			writeByte(MAGIC >>> 16);
+			writeByte(MAGIC >>> 8);
+			writeByte(MAGIC);
+			writeByte(VERSION);
+			writeByte(kind);
+		}
+
+		void writeByte(int value) throws IOException {
+			if(position == buffer.length) {
+				drain();
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		/**
+		 * Writes a non negative integer as a variable length integer.
+		 *
+		 * @param value the value, read as unsigned
+		 */
+		void writeVarLong(long value) throws IOException {
+			if(buffer.length - position < 10) {
+				drain();
+			}
+			while((value & ~0x7FL) != 0) {
+				buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		/**
+		 * Writes a signed integer, zigzag encoded.
+		 *
+		 * @param value the value
+		 */
+		void writeZigZag(long value) throws IOException {
+			writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		void writeDouble(double value) throws IOException {
+			long bits = Double.doubleToLongBits(value);
+			for(int shift = 56; shift >= 0; shift -= 8) {
+				writeByte((int) (bits >>> shift));
+			}
+		}
+
+		void writeDecimal(BigDecimal value) throws IOException {
+			BigInteger unscaled = value.unscaledValue();
+			long scale = value.scale();
+			if(unscaled.bitLength() < 64) {
+				writeZigZag(scale << 1);
+				writeZigZag(unscaled.longValue());
+			} else {
+				byte[] bytes = unscaled.toByteArray();
+				writeZigZag(scale << 1 | 1);
+				writeVarLong(bytes.length);
+				for(byte b : bytes) {
+					writeByte(b);
+				}
+			}
+		}
+
+		/**
+		 * Writes the bytes buffered to the stream, and flushes it.
+		 */
+		void flush() throws IOException {
+			drain();
+			out.flush();
+		}
+
+		private void drain() throws IOException {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * The reader of a checkpoint.
+	 */
+	static final class Reader {
+
+		private final InputStream in;
+
+		private final byte[] buffer;
+
+		private int position;
+
+		private int limit;
+
+		/** Whether the stream was marked before the block in the buffer was read. */
+		private boolean marked;
+
+		Reader(InputStream in) {
+			this.in = in;
+			this.buffer = new byte[BUFFER_SIZE];
+		}
+
+		/**
+		 * Instantiates a new reader of the bytes of a message in memory, read without copying them.
+		 *
+		 * @param bytes the bytes
+		 */
+		Reader(byte[] bytes) {
+			this.in = null;
+			this.buffer = bytes;
+			this.limit = bytes.length;
+		}
+
+		/**
+		 * Reads the header of a checkpoint, checking it is a checkpoint of the given kind in a supported version.
+		 *
+		 * @param kind the kind of calculator expected
+		 */
+		void readHeader(int kind) throws IOException {
+			int magic = readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+			if(magic != MAGIC) {
+				throw new IOException(String.format(MAGIC_INVALID, magic));
+			}
+			int version = readByte();
+			if(version != VERSION) {
+				throw new IOException(String.format(VERSION_INVALID, version));
+			}
+			int actualKind = readByte();
+			if(actualKind != kind) {
+				throw new IOException(String.format(KIND_INVALID, actualKind));
+			}
+		}
+
+		/**
+		 * Reads a byte.
+		 *
+		 * @return the byte, between 0 and 255
+		 * @throws EOFException if the stream ends
+		 */
+		int readByte() throws IOException {
+			if(position == limit) {
+				fill();
+			}
+			return buffer[position++] & 0xFF;
+		}
+
+		long readVarLong() throws IOException {
+			long value = 0L;
+			for(int shift = 0; shift < 64; shift += 7) {
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw invalid("variable length integer");
+		}
+
+		/**
+		 * Reads a non negative variable length integer that must fit in an int.
+		 *
+		 * @param description the description of the value, for the error message
+		 * @return the value
+		 */
+		int readVarInt(String description) throws IOException {
+			long value = readVarLong();
+			if(value < 0 || value > Integer.MAX_VALUE) {
+				throw invalid(description);
+			}
+			return (int) value;
+		}
+
+		long readZigZag() throws IOException {
+			long value = readVarLong();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		double readDouble() throws IOException {
+			long bits = 0L;
+			for(int i = 0; i < 8; ++i) {
+				bits = bits << 8 | readByte();
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		BigDecimal readDecimal() throws IOException {
+			long header = readZigZag();
+			long scale = header >> 1;
+			if(scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE) {
+				throw invalid("scale " + scale);
+			}
+			if((header & 1) == 0) {
+				return BigDecimal.valueOf(readZigZag(), (int) scale);
+			}
+			byte[] bytes = new byte[readVarInt("length")];
+			if(bytes.length == 0) {
+				throw invalid("length 0");
+			}
+			for(int i = 0; i < bytes.length; ++i) {
+				bytes[i] = (byte) readByte();
+			}
+			return new BigDecimal(new BigInteger(bytes), (int) scale);
+		}
+
+		/**
+		 * Checks that every byte of a message in memory was read.
+		 *
+		 * @throws IOException if bytes remain after the message
+		 */
+		void readEnd() throws IOException {
+			if(position != limit) {
+				throw invalid((limit - position) + " bytes after the end");
+			}
+		}
+
+		/**
+		 * Ends the reading of a checkpoint, positioning the stream right after its last byte read when it supports
+		 * mark and reset. Otherwise the bytes of the block read past the checkpoint are lost.
+		 */
+		void finish() throws IOException {
+			if(!marked) {
+				return;
+			}
+			in.reset();
+			long remaining = position;
+			while(remaining > 0) {
+				long skipped = in.skip(remaining);
+				if(skipped <= 0) {
+					if(in.read() < 0) {
+						throw new EOFException();
+					}
+					skipped = 1;
+				}
+				remaining -= skipped;
+			}
+			marked = false;
+		}
+
+		private void fill() throws IOException {
+			if(in == null) {
+				throw new EOFException();
+			}
+			marked = in.markSupported();
+			if(marked) {
+				in.mark(buffer.length);
+			}
+			int read = in.read(buffer, 0, buffer.length);
+			if(read <= 0) {
+				throw new EOFException();
+			}
+			position = 0;
+			limit = read;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * The Class ChunkedElementHistory, which keeps every element added.
+ *
+ * Elements are stored in fixed size chunks, so adding an element never copies the elements already stored. Only the
+ * directory of chunks grows, which holds one reference per CHUNK_SIZE elements. The first chunk starts small and
+ * grows up to CHUNK_SIZE, so that a history of a few elements does not hold a full chunk.
+ *
+ * A history restored from a checkpoint may start at a global index other than 0, the elements before it having not
+ * been checkpointed.
+ */
+class ChunkedElementHistory implements ElementHistory {
+
+	/** The initial size of the first chunk. */
+	private static final int FIRST_CHUNK_SIZE = 8;
+
+	/** The chunks holding the elements. */
+	private BigDecimal[][] chunks = new BigDecimal[16][];
+
+	/** The global index of the first element. */
+	private final int firstIndex;
+
+	/** The number of elements stored. */
+	private int stored;
+
+	/**
+	 * Instantiates a new history, whose first element has the global index 0.
+	 */
+	ChunkedElementHistory() {
+		this(0);
+	}
+
+	/**
+	 * Instantiates a new history, whose first element has the given global index.
+	 *
+	 * @param firstIndex the global index of the first element
+	 */
+	ChunkedElementHistory(int firstIndex) {
+		this.firstIndex = firstIndex;
+	}
+
+	@Override
+	public void add(BigDecimal element) {
+		int chunk = stored >>> CHUNK_SHIFT;
+		if(chunk == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunk << 1);
+		}
+		int offset = stored & CHUNK_MASK;
+		if(chunks[chunk] == null) {
+			chunks[chunk] = new BigDecimal[chunk == 0 ? FIRST_CHUNK_SIZE : CHUNK_SIZE];
+		} else if(offset == chunks[chunk].length) {
+			//only the first chunk grows, up to CHUNK_SIZE, so that small histories stay small
+			chunks[chunk] = Arrays.copyOf(chunks[chunk], Math.min(offset << 1, CHUNK_SIZE));
+		}
+		chunks[chunk][offset] = element;
+		++stored;
+	}
+
+	@Override
+	public BigDecimal get(int index) {
+		int position = index - firstIndex;
+		if (index < firstIndex || position >= stored) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks[position >>> CHUNK_SHIFT][position & CHUNK_MASK];
+	}
+
+	@Override
+	public int size() {
+		return firstIndex + stored;
+	}
+
+	@Override
+	public int firstIndex() {
+		return firstIndex;
+	}
+
+	@Override
+	public int residentSize() {
+		return stored;
+	}
+
+	@Override
+	public long offHeapBytes() {
+		return 0L;
+	}
+
+	@Override
+	public boolean isConcurrentlyReadable() {
+		return true;
+	}
+
+	@Override
+	public void close() {
+		//nothing to release
+	}
+}
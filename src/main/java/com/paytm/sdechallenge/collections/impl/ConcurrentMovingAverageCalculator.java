@@ -0,0 +1,425 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class ConcurrentMovingAverageCalculator, a thread safe implementation of the MovingAverageCalculator interface.
+ *
+ * Writers and Readers
+ *
+ *
+ *  Methods changing the calculator (add, addAll, setWindow, setScale, setRoundingMode) are sequenced by a lock which is only
+ *  taken by writers. After each change, the writer publishes an immutable snapshot holding the window sum, the number
+ *  of elements in the window, the number of elements added and the configuration, through a volatile field.
+ *
+ *  Methods reading the calculator (movingAverage, size, isEmpty, get, getAll) never take a lock. They read the
+ *  snapshot once and answer from it only, so they never block behind a writer and never see a sum that does not
+ *  match its count.
+ *
+ *
+ * Storing Data
+ *
+ *
+ *  elements - The elements are stored in fixed size chunks. An element is written before the snapshot counting it is
+ *  published, so a reader can read every element counted by the snapshot it read. Chunks are never moved, and the
+ *  directory of chunks is copied when it grows, so readers holding an older snapshot keep a valid directory.
+ *
+ *  windowElements - A circular array of size window holding the elements inside the window, only used by writers.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, get, getAll, size, isEmpty methods have time complexity O(1)
+ *  The addAll method has a complexity of O(b), where b is the number of elements added, and publishes one snapshot
+ *  The setWindow method has a complexity of O(n), where n is the new window size
+ *
+ */
+public class ConcurrentMovingAverageCalculator implements MovingAverageCalculator, SlidingWindowCalculator {
+
+	/** Error message when an element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** Error message when an element of a batch is null. */
+	private static String BATCH_ELEMENT_NULL = "Element of the batch is null at index : %s";
+
+	/** The latest snapshot published by a writer. */
+	private volatile Snapshot snapshot;
+
+	/** The lock sequencing writers. */
+	private final Object writeLock = new Object();
+
+	/** A circular array storing all elements currently in the window, guarded by writeLock. */
+	private BigDecimal[] windowElements;
+
+	/** The index of the oldest element in windowElements, guarded by writeLock. */
+	private int windowHead;
+
+	/** The directory of chunks storing all elements, guarded by writeLock. */
+	private BigDecimal[][] chunks = new BigDecimal[16][];
+
+	/** The sum of elements in the window, guarded by writeLock. */
+	private BigDecimal windowSum = BigDecimal.ZERO;
+
+	/** The number of elements in the window, guarded by writeLock. */
+	private int windowCount;
+
+	/** The number of elements added, guarded by writeLock. */
+	private int size;
+
+	/**
+	 * Instantiates a new concurrent moving average calculator.
+	 *
+	 * @param window the window size
+	 */
+	public ConcurrentMovingAverageCalculator(int window) {
+		this(window, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new concurrent moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale
+	 */
+	public ConcurrentMovingAverageCalculator(int window, int scale) {
+		this(window, scale, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new concurrent moving average calculator.
+	 *
+	 * @param window the window
+	 * @param roundingMode the rounding mode
+	 */
+	public ConcurrentMovingAverageCalculator(int window, RoundingMode roundingMode) {
+		this(window, 5, roundingMode);
+	}
+
+	/**
+	 * Instantiates a new concurrent moving average calculator.
+	 *
+	 * @param window the window
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public ConcurrentMovingAverageCalculator(int window, int scale, RoundingMode roundingMode) {
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.windowElements = new BigDecimal[window];
+		this.snapshot = new Snapshot(BigDecimal.ZERO, 0, 0, chunks, window, scale, roundingMode);
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		if(element == null) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		synchronized (writeLock) {
+			append(element, snapshot.window);
+			publish(snapshot);
+		}
+	}
+
+	/**
+	 * Adds all the elements, in order, publishing a single snapshot once all are added. The batch is rejected as a
+	 * whole, before any element is added, if one of its elements is null.
+	 *
+	 * @param elements the BigDecimal elements
+	 */
+	@Override
+	public void addAll(BigDecimal[] elements) {
+		validateElements(elements);
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			for(BigDecimal element : elements) {
+				append(element, current.window);
+			}
+			publish(current);
+		}
+	}
+
+	/**
+	 * Adds all the elements, in order, and stores the moving average after each element added. A single snapshot
+	 * is published once all are added. The batch is rejected as a whole, before any element is added, if one of its
+	 * elements is null.
+	 *
+	 * @param elements the BigDecimal elements
+	 * @param movingAverages the array receiving, at the index of each element, the moving average after that
+	 * element was added
+	 */
+	@Override
+	public void addAll(BigDecimal[] elements, BigDecimal[] movingAverages) {
+		if(movingAverages.length < elements.length) {
+			throw new IllegalArgumentException("Moving averages array is shorter than the elements");
+		}
+		validateElements(elements);
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			for(int i = 0; i < elements.length; ++i) {
+				append(elements[i], current.window);
+				movingAverages[i] = windowSum.divide(new BigDecimal(windowCount), current.scale, current.roundingMode);
+			}
+			publish(current);
+		}
+	}
+
+	/**
+	 * Calculates the Moving average.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		Snapshot current = snapshot;
+		if(current.windowCount == 0) {
+			return current.windowSum.setScale(current.scale);
+		}
+		return current.windowSum.divide(new BigDecimal(current.windowCount), current.scale, current.roundingMode);
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return snapshot.size;
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return snapshot.size == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the big decimal value
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return snapshot.get(index);
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view of the elements added when this method was called.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return snapshot;
+	}
+
+	/**
+	 * Gets the scale.
+	 *
+	 * @return the scale
+	 */
+	public int getScale() {
+		return snapshot.scale;
+	}
+
+	/**
+	 * Sets the scale.
+	 *
+	 * @param scale the new scale
+	 */
+	public void setScale(int scale) {
+		MovingAverageValidator.validateScale(scale);
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			snapshot = new Snapshot(current.windowSum, current.windowCount, current.size, current.chunks,
+					current.window, scale, current.roundingMode);
+		}
+	}
+
+	/**
+	 * Gets the rounding mode.
+	 *
+	 * @return the rounding mode
+	 */
+	public RoundingMode getRoundingMode() {
+		return snapshot.roundingMode;
+	}
+
+	/**
+	 * Sets the rounding mode.
+	 *
+	 * @param roundingMode the new rounding mode
+	 */
+	public void setRoundingMode(RoundingMode roundingMode) {
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			snapshot = new Snapshot(current.windowSum, current.windowCount, current.size, current.chunks,
+					current.window, current.scale, roundingMode);
+		}
+	}
+
+	/**
+	 * Gets the window size.
+	 *
+	 * @return the window size
+	 */
+	@Override
+	public int getWindow() {
+		return snapshot.window;
+	}
+
+	/**
+	 * Sets the window, rebuilding the window from the last elements added.
+	 *
+	 * @param window the new window
+	 */
+	public void setWindow(int window) {
+		MovingAverageValidator.validateWindow(window);
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			windowCount = Math.min(window, size);
+			BigDecimal[] resized = new BigDecimal[window];
+			windowSum = BigDecimal.ZERO;
+			int startIndex = size - windowCount;
+			for(int i = 0; i < windowCount; ++i) {
+				BigDecimal element = current.get(startIndex + i);
+				resized[i] = element;
+				windowSum = windowSum.add(element);
+			}
+			windowElements = resized;
+			windowHead = 0;
+			snapshot = new Snapshot(windowSum, windowCount, size, chunks, window, current.scale,
+					current.roundingMode);
+		}
+	}
+
+	/**
+	 * Checks that no element of a batch is null, so that a rejected batch leaves the calculator unchanged.
+	 *
+	 * @param elements the BigDecimal elements
+	 */
+	private static void validateElements(BigDecimal[] elements) {
+		for(int i = 0; i < elements.length; ++i) {
+			if(elements[i] == null) {
+				throw new IllegalArgumentException(String.format(BATCH_ELEMENT_NULL, i));
+			}
+		}
+	}
+
+	/**
+	 * Appends an element to the chunks and the window, without publishing it. Called under writeLock only.
+	 *
+	 * @param element the BigDecimal element
+	 * @param window the window size
+	 */
+	private void append(BigDecimal element, int window) {
+		int chunk = size >>> ElementHistory.CHUNK_SHIFT;
+		if(chunk == chunks.length) {
+			//readers of older snapshots keep the previous directory
+			chunks = Arrays.copyOf(chunks, chunk << 1);
+		}
+		if(chunks[chunk] == null) {
+			chunks[chunk] = new BigDecimal[ElementHistory.CHUNK_SIZE];
+		}
+		chunks[chunk][size & ElementHistory.CHUNK_MASK] = element;
+		++size;
+
+		//Subtraction is required only if the window is full, the new element then replaces the oldest one
+		if(windowCount == window) {
+			windowSum = windowSum.subtract(windowElements[windowHead]);
+			windowElements[windowHead] = element;
+			if(++windowHead == window) {
+				windowHead = 0;
+			}
+		} else {
+			int tail = windowHead + windowCount;
+			windowElements[tail < window ? tail : tail - window] = element;
+			++windowCount;
+		}
+		windowSum = windowSum.add(element);
+	}
+
+	/**
+	 * Publishes the state of the writer, keeping the configuration of the current snapshot. Called under writeLock
+	 * only.
+	 *
+	 * @param current the current snapshot
+	 */
+	private void publish(Snapshot current) {
+		snapshot = new Snapshot(windowSum, windowCount, size, chunks, current.window, current.scale,
+				current.roundingMode);
+	}
+
+	/**
+	 * The immutable state published by writers. It is also the read only list view of the elements it counts.
+	 */
+	private static final class Snapshot extends AbstractList<BigDecimal> implements RandomAccess {
+
+		/** The sum of elements in the window. */
+		private final BigDecimal windowSum;
+
+		/** The number of elements in the window. */
+		private final int windowCount;
+
+		/** The number of elements added. */
+		private final int size;
+
+		/** The directory of chunks holding the elements. */
+		private final BigDecimal[][] chunks;
+
+		/** The window size. */
+		private final int window;
+
+		/** The scale. */
+		private final int scale;
+
+		/** The rounding mode. */
+		private final RoundingMode roundingMode;
+
+		private Snapshot(BigDecimal windowSum, int windowCount, int size, BigDecimal[][] chunks, int window,
+				int scale, RoundingMode roundingMode) {
+			this.windowSum = windowSum;
+			this.windowCount = windowCount;
+			this.size = size;
+			this.chunks = chunks;
+			this.window = window;
+			this.scale = scale;
+			this.roundingMode = roundingMode;
+		}
+
+		@Override
+		public BigDecimal get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException();
+			}
+			return chunks[index >>> ElementHistory.CHUNK_SHIFT][index & ElementHistory.CHUNK_MASK];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,303 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Class DecimalEncoding, the encoding of the decimal values read by DecimalIngestion.
+ *
+ * Text
+ *
+ *
+ *  delimitedText - Values written as ASCII decimal text, eg : -12.50, separated by commas, semicolons, spaces, tabs
+ *  or line breaks, as in a CSV file with one column or a file of one value per line.
+ *
+ *  fixedWidthText - Values written as ASCII decimal text in fields of a fixed number of bytes, padded with spaces.
+ *  Line breaks between fields are skipped.
+ *
+ *  The text is parsed into an unscaled long and a scale, without building a String: 12.50 is read as 1250 at the
+ *  scale 2, as new BigDecimal("12.50") would be. A value with an exponent, or with too many digits for a long, is
+ *  the only one parsed through a String.
+ *
+ *
+ * Binary
+ *
+ *
+ *  binary - Records of 12 bytes, the unscaled value as a long followed by the scale as an int, in the given byte
+ *  order. The records are read as they are, without conversion.
+ */
+public final class DecimalEncoding {
+
+	/** The size of a binary record, a long and an int. */
+	static final int RECORD_SIZE = 12;
+
+	/** Error message when the width of the fields is invalid. */
+	private static String WIDTH_INVALID = "Width is invalid : %s";
+
+	/** Error message when the byte order is null. */
+	private static String BYTE_ORDER_NULL = "Byte Order is null";
+
+	/** Error message when a value is not a decimal. */
+	private static String VALUE_INVALID = "Value is invalid : %s";
+
+	/** Error message when the input ends in the middle of a field or a record. */
+	private static String INPUT_TRUNCATED = "Input is truncated : %s bytes left";
+
+	private static final int DELIMITED = 0;
+
+	private static final int FIXED_WIDTH = 1;
+
+	private static final int BINARY = 2;
+
+	/** The kind of encoding. */
+	private final int kind;
+
+	/** The width of the fields of fixed width text. */
+	private final int width;
+
+	/** The byte order of binary records. */
+	private final ByteOrder order;
+
+	private DecimalEncoding(int kind, int width, ByteOrder order) {
+		this.kind = kind;
+		this.width = width;
+		this.order = order;
+	}
+
+	/**
+	 * Gets the encoding of values written as text, separated by commas, semicolons, whitespace or line breaks.
+	 *
+	 * @return the delimited text encoding
+	 */
+	public static DecimalEncoding delimitedText() {
+		return new DecimalEncoding(DELIMITED, 0, null);
+	}
+
+	/**
+	 * Gets the encoding of values written as text in fields of a fixed width, padded with spaces.
+	 *
+	 * @param width the number of bytes of a field
+	 * @return the fixed width text encoding
+	 */
+	public static DecimalEncoding fixedWidthText(int width) {
+		if(width <= 0) {
+			throw new IllegalArgumentException(String.format(WIDTH_INVALID, width));
+		}
+		return new DecimalEncoding(FIXED_WIDTH, width, null);
+	}
+
+	/**
+	 * Gets the encoding of binary records, an unscaled long followed by an int scale.
+	 *
+	 * @param order the byte order of the records
+	 * @return the binary encoding
+	 */
+	public static DecimalEncoding binary(ByteOrder order) {
+		if(null == order) {
+			throw new IllegalArgumentException(BYTE_ORDER_NULL);
+		}
+		return new DecimalEncoding(BINARY, 0, order);
+	}
+
+	/**
+	 * Decodes the values of a buffer, from its position to its limit, and moves its position past the last value
+	 * decoded. Unless the end of the input is reached, a value that may continue after the limit is left in the
+	 * buffer, to be decoded once more bytes are read.
+	 *
+	 * @param buffer the buffer
+	 * @param endOfInput whether the input ends at the limit of the buffer
+	 * @param sink the sink receiving the values
+	 * @return the number of values decoded
+	 * @throws NumberFormatException if a value is invalid, or the input ends in the middle of a field or record
+	 */
+	int decode(ByteBuffer buffer, boolean endOfInput, Sink sink) {
+		switch(kind) {
+		case DELIMITED:
+			return decodeDelimited(buffer, endOfInput, sink);
+		case FIXED_WIDTH:
+			return decodeFixedWidth(buffer, endOfInput, sink);
+		default:
+			return decodeBinary(buffer, endOfInput, sink);
+		}
+	}
+
+	private int decodeDelimited(ByteBuffer buffer, boolean endOfInput, Sink sink) {
+		int position = buffer.position();
+		int limit = buffer.limit();
+		int count = 0;
+		while(true) {
+			while(position < limit && isDelimiter(buffer.get(position))) {
+				++position;
+			}
+			if(position == limit) {
+				break;
+			}
+			int end = parse(buffer, position, limit, endOfInput, sink);
+			if(end < 0) {
+				break;
+			}
+			++count;
+			position = end;
+		}
+		buffer.position(position);
+		return count;
+	}
+
+	private int decodeFixedWidth(ByteBuffer buffer, boolean endOfInput, Sink sink) {
+		int position = buffer.position();
+		int limit = buffer.limit();
+		int count = 0;
+		while(true) {
+			while(position < limit && isLineBreak(buffer.get(position))) {
+				++position;
+			}
+			if(limit - position < width) {
+				break;
+			}
+			int start = position;
+			int end = position + width;
+			while(start < end && buffer.get(start) == ' ') {
+				++start;
+			}
+			while(end > start && buffer.get(end - 1) == ' ') {
+				--end;
+			}
+			if(start == end || parse(buffer, start, end, true, sink) != end) {
+				throw new NumberFormatException(String.format(VALUE_INVALID, text(buffer, position, position + width)));
+			}
+			++count;
+			position += width;
+		}
+		buffer.position(position);
+		if(endOfInput && position < limit) {
+			throw new NumberFormatException(String.format(INPUT_TRUNCATED, limit - position));
+		}
+		return count;
+	}
+
+	private int decodeBinary(ByteBuffer buffer, boolean endOfInput, Sink sink) {
+		ByteBuffer records = buffer.order() == order ? buffer : buffer.duplicate().order(order);
+		int position = buffer.position();
+		int limit = buffer.limit();
+		int count = 0;
+		while(limit - position >= RECORD_SIZE) {
+			sink.accept(records.getLong(position), records.getInt(position + 8));
+			++count;
+			position += RECORD_SIZE;
+		}
+		buffer.position(position);
+		if(endOfInput && position < limit) {
+			throw new NumberFormatException(String.format(INPUT_TRUNCATED, limit - position));
+		}
+		return count;
+	}
+
+	/**
+	 * Parses the decimal text starting at an index of the buffer, up to the next delimiter, into an unscaled long and
+	 * a scale, in one pass.
+	 *
+	 * @param buffer the buffer
+	 * @param start the index of the first byte
+	 * @param limit the index after which the text cannot continue
+	 * @param complete whether the text ends at the limit if no delimiter is found before
+	 * @param sink the sink receiving the value
+	 * @return the index after the value, or -1 if the value may continue after the limit, in which case nothing is
+	 * parsed
+	 */
+	private static int parse(ByteBuffer buffer, int start, int limit, boolean complete, Sink sink) {
+		int index = start;
+		boolean negative = false;
+		byte b = buffer.get(index);
+		if(b == '-' || b == '+') {
+			negative = b == '-';
+			++index;
+		}
+		//the value is accumulated as a negative long, whose range includes Long.MIN_VALUE
+		long unscaled = 0L;
+		int scale = 0;
+		int digits = 0;
+		boolean point = false;
+		//set if the value does not fit in a long, has an exponent or is invalid, and is then parsed through a String
+		boolean slow = false;
+		for(; index < limit; ++index) {
+			b = buffer.get(index);
+			int digit = b - '0';
+			if(digit >= 0 && digit <= 9) {
+				//18 digits always fit in a long, the next ones are checked
+				if(digits >= 18 && unscaled < (Long.MIN_VALUE + digit) / 10) {
+					slow = true;
+				}
+				unscaled = unscaled * 10 - digit;
+				++digits;
+				if(point) {
+					++scale;
+				}
+			} else if(b == '.' && !point) {
+				point = true;
+			} else if(isDelimiter(b)) {
+				break;
+			} else {
+				slow = true;
+			}
+		}
+		if(index == limit && !complete) {
+			return -1;
+		}
+		if(digits == 0) {
+			throw new NumberFormatException(String.format(VALUE_INVALID, text(buffer, start, index)));
+		}
+		if(slow || !negative && unscaled == Long.MIN_VALUE) {
+			sink.accept(parseBigDecimal(buffer, start, index));
+		} else {
+			sink.accept(negative ? unscaled : -unscaled, scale);
+		}
+		return index;
+	}
+
+	private static BigDecimal parseBigDecimal(ByteBuffer buffer, int start, int end) {
+		try {
+			return new BigDecimal(text(buffer, start, end));
+		} catch (NumberFormatException e) {
+			throw new NumberFormatException(String.format(VALUE_INVALID, text(buffer, start, end)));
+		}
+	}
+
+	private static String text(ByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for(int i = start; i < end; ++i) {
+			bytes[i - start] = buffer.get(i);
+		}
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+
+	private static boolean isDelimiter(byte b) {
+		return b == ',' || b == ';' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	private static boolean isLineBreak(byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+	/**
+	 * The receiver of the values decoded.
+	 */
+	interface Sink {
+
+		/**
+		 * Receives a value.
+		 *
+		 * @param unscaled the unscaled value
+		 * @param scale the scale
+		 */
+		void accept(long unscaled, int scale);
+
+		/**
+		 * Receives a value which does not fit an unscaled long, or was written with an exponent.
+		 *
+		 * @param value the value
+		 */
+		void accept(BigDecimal value);
+	}
+}
@@ -0,0 +1,60 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * The Class DecimalHolder, a mutable decimal made of an unscaled long and a scale, into which a calculator writes its
+ * moving average so that a caller polling it allocates nothing.
+ * eg : an unscaled value of 750 with a scale of 2 holds 7.50
+ */
+public final class DecimalHolder {
+
+	/** The unscaled value. */
+	private long unscaledValue;
+
+	/** The scale, the number of decimal places of the value. */
+	private int scale;
+
+	/**
+	 * Sets the value.
+	 *
+	 * @param unscaledValue the unscaled value
+	 * @param scale the scale
+	 */
+	public void set(long unscaledValue, int scale) {
+		this.unscaledValue = unscaledValue;
+		this.scale = scale;
+	}
+
+	/**
+	 * Gets the unscaled value.
+	 *
+	 * @return the unscaled value
+	 */
+	public long getUnscaledValue() {
+		return unscaledValue;
+	}
+
+	/**
+	 * Gets the scale.
+	 *
+	 * @return the scale
+	 */
+	public int getScale() {
+		return scale;
+	}
+
+	/**
+	 * Converts the value to a BigDecimal.
+	 *
+	 * @return the big decimal value
+	 */
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(unscaledValue, scale);
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+}
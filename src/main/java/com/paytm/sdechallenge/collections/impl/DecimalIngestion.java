@@ -0,0 +1,242 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class DecimalIngestion, the bulk ingestion of encoded decimal values into a MovingAverageCalculator, read
+ * straight from a ByteBuffer, a channel or a memory-mapped file.
+ *
+ * The values are decoded in place with a DecimalEncoding, without building a String for each one, and added to the
+ * calculator in batches with addAll. A FixedPointMovingAverageCalculator receives the unscaled longs rescaled to its
+ * input scale, so no object is allocated per value. Any other calculator receives BigDecimals built from the unscaled
+ * longs, equal to those new BigDecimal(String) would return for the same text.
+ *
+ * A file is mapped in regions of at most 1GB, which are read by the decoder in place, a value straddling two regions
+ * being decoded at the start of the next one. A channel is read through a direct buffer of 64KB.
+ *
+ * If a value is invalid, the values decoded before it are added and a NumberFormatException is thrown.
+ */
+public final class DecimalIngestion {
+
+	/** The number of values added to the calculator at once. */
+	static final int BATCH_SIZE = 4096;
+
+	/** The size of the buffer a channel is read through. */
+	private static final int CHANNEL_BUFFER_SIZE = 1 << 16;
+
+	/** The largest region of a file mapped at once. */
+	private static final long MAPPED_REGION_SIZE = 1L << 30;
+
+	/** Error message when the calculator is null. */
+	private static String CALCULATOR_NULL = "Calculator is null";
+
+	/** Error message when the encoding is null. */
+	private static String ENCODING_NULL = "Encoding is null";
+
+	/** Error message when a value does not fit in the buffer it is read through. */
+	private static String VALUE_TOO_LONG = "Value is longer than %s bytes";
+
+	private DecimalIngestion() {
+	}
+
+	/**
+	 * Adds the values of a buffer, from its position to its limit, to the calculator. The position of the buffer is
+	 * moved to its limit.
+	 *
+	 * @param calculator the calculator
+	 * @param buffer the buffer
+	 * @param encoding the encoding of the values
+	 * @return the number of values added
+	 * @throws NumberFormatException if a value is invalid
+	 */
+	public static long addAll(MovingAverageCalculator calculator, ByteBuffer buffer, DecimalEncoding encoding) {
+		BatchSink sink = sink(calculator, encoding);
+		try {
+			return encoding.decode(buffer, true, sink);
+		} finally {
+			sink.flush();
+		}
+	}
+
+	/**
+	 * Adds the values read from a channel, such as a FileChannel, until its end, to the calculator. The channel is
+	 * not closed.
+	 *
+	 * @param calculator the calculator
+	 * @param channel the channel
+	 * @param encoding the encoding of the values
+	 * @return the number of values added
+	 * @throws IOException if the channel cannot be read
+	 * @throws NumberFormatException if a value is invalid
+	 */
+	public static long addAll(MovingAverageCalculator calculator, ReadableByteChannel channel,
+			DecimalEncoding encoding) throws IOException {
+		BatchSink sink = sink(calculator, encoding);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(CHANNEL_BUFFER_SIZE);
+		long count = 0;
+		try {
+			while(channel.read(buffer) >= 0) {
+				buffer.flip();
+				count += encoding.decode(buffer, false, sink);
+				buffer.compact();
+				if(!buffer.hasRemaining()) {
+					throw new NumberFormatException(String.format(VALUE_TOO_LONG, CHANNEL_BUFFER_SIZE));
+				}
+			}
+			buffer.flip();
+			count += encoding.decode(buffer, true, sink);
+		} finally {
+			sink.flush();
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the values of a file to the calculator, reading it memory-mapped.
+	 *
+	 * @param calculator the calculator
+	 * @param path the path of the file
+	 * @param encoding the encoding of the values
+	 * @return the number of values added
+	 * @throws IOException if the file cannot be read
+	 * @throws NumberFormatException if a value is invalid
+	 */
+	public static long addAll(MovingAverageCalculator calculator, Path path, DecimalEncoding encoding)
+			throws IOException {
+		BatchSink sink = sink(calculator, encoding);
+		long count = 0;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			while(position < size) {
+				long length = Math.min(size - position, MAPPED_REGION_SIZE);
+				boolean last = position + length == size;
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				count += encoding.decode(region, last, sink);
+				if(!last && region.position() == 0) {
+					throw new NumberFormatException(String.format(VALUE_TOO_LONG, MAPPED_REGION_SIZE));
+				}
+				position += region.position();
+			}
+		} finally {
+			sink.flush();
+		}
+		return count;
+	}
+
+	private static BatchSink sink(MovingAverageCalculator calculator, DecimalEncoding encoding) {
+		if(null == calculator) {
+			throw new IllegalArgumentException(CALCULATOR_NULL);
+		}
+		if(null == encoding) {
+			throw new IllegalArgumentException(ENCODING_NULL);
+		}
+		if(calculator instanceof FixedPointMovingAverageCalculator) {
+			return new UnscaledBatchSink((FixedPointMovingAverageCalculator) calculator);
+		}
+		return new DecimalBatchSink(calculator);
+	}
+
+	/**
+	 * A sink adding the values to the calculator in batches.
+	 */
+	private interface BatchSink extends DecimalEncoding.Sink {
+
+		/**
+		 * Adds the values of the batch not yet added.
+		 */
+		void flush();
+	}
+
+	/**
+	 * The sink of a fixed point calculator, batching the values as unscaled longs at its input scale.
+	 */
+	private static final class UnscaledBatchSink implements BatchSink {
+
+		private final FixedPointMovingAverageCalculator calculator;
+
+		private final int inputScale;
+
+		private final long[] batch = new long[BATCH_SIZE];
+
+		private int count;
+
+		private UnscaledBatchSink(FixedPointMovingAverageCalculator calculator) {
+			this.calculator = calculator;
+			this.inputScale = calculator.getInputScale();
+		}
+
+		@Override
+		public void accept(long unscaled, int scale) {
+			batch[count] = FixedPointMath.rescale(unscaled, scale, inputScale);
+			if(++count == BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		@Override
+		public void accept(BigDecimal value) {
+			batch[count] = FixedPointMath.toUnscaled(value, inputScale);
+			if(++count == BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		@Override
+		public void flush() {
+			if(count > 0) {
+				calculator.addUnscaled(batch, count);
+				count = 0;
+			}
+		}
+	}
+
+	/**
+	 * The sink of any other calculator, batching the values as BigDecimals.
+	 */
+	private static final class DecimalBatchSink implements BatchSink {
+
+		private final MovingAverageCalculator calculator;
+
+		private BigDecimal[] batch = new BigDecimal[BATCH_SIZE];
+
+		private int count;
+
+		private DecimalBatchSink(MovingAverageCalculator calculator) {
+			this.calculator = calculator;
+		}
+
+		@Override
+		public void accept(long unscaled, int scale) {
+			accept(BigDecimal.valueOf(unscaled, scale));
+		}
+
+		@Override
+		public void accept(BigDecimal value) {
+			batch[count] = value;
+			if(++count == BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		@Override
+		public void flush() {
+			if(count > 0) {
+				//the batch is handed over to the calculator, which may keep it
+				calculator.addAll(count == BATCH_SIZE ? batch : Arrays.copyOf(batch, count));
+				batch = new BigDecimal[BATCH_SIZE];
+				count = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,574 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class DoubleMovingAverageCalculator, which implements MovingAverageCalculator interface.
+ *
+ * This class is an opt-in approximation of MovingAverageCalculatorImpl, for consumers such as monitoring which do not
+ * need exact decimals : elements are stored as doubles and the moving average is within a bound of the exact one.
+ *
+ *
+ * Storing Data
+ *
+ *
+ *  elements - The values of all elements inserted as doubles, in chunks of ElementHistory.CHUNK_SIZE doubles as
+ *  ChunkedElementHistory stores BigDecimals, so adding an element never copies the elements already stored. An element
+ *  added as a BigDecimal is rounded to the nearest double, and get returns the shortest decimal of that double.
+ *
+ *  windowElements - A circular array of size window, holding the elements inside the window.
+ *
+ *  windowSum - The sum of the elements inside the window, kept with Neumaier compensated summation : the running sum
+ *  and a compensation collecting the low order bits that each addition of an element and each subtraction of an
+ *  evicted element loses.
+ *
+ *  reanchor - Every reanchorInterval updates, the windowSum is recomputed from the window elements with an exact
+ *  summation into non overlapping partial sums, rounded once. The error of the windowSum then only depends on the
+ *  updates since the last re-anchoring, however many elements were added before.
+ *
+ *
+ * Error Bound
+ *
+ *
+ *  With u = 2^-53 the unit roundoff of a double, S0 the windowSum at the last re-anchoring, S the exact sum of the
+ *  doubles in the window, k the updates since the last re-anchoring and T the sum of the magnitudes of the elements
+ *  added and evicted by those updates, the windowSum is within
+ *
+ *  3u(|S0| + |S|) + 2(2k + 1)^2 u^2 (|S0| + T)
+ *
+ *  of S, and the moving average within that error divided by the window count, plus 2u times the average.
+ *  movingAverageErrorBound returns this bound for the current window. With the default interval of 2^20 updates, the
+ *  second term is below 2^-60 (|S0| + T) : the moving average is within a few units in the last place of the larger
+ *  of the window sums, divided by the window count. Elements added as BigDecimal also carry their own rounding to a
+ *  double, at most u times their magnitude each, which the bound does not include.
+ *
+ *  The bound assumes no sum overflows. Elements are therefore limited to a magnitude of 2^990, about 1e298 : with at
+ *  most 2^31 elements in the window and 2^31 updates between re-anchorings, the windowSum, the partial sums of a
+ *  re-anchoring and the sum of the magnitudes updated stay below 2^1023, where two elements near Double.MAX_VALUE
+ *  would overflow them to infinity. A larger element is rejected.
+ *
+ *
+ * Moving Average Calculation
+ *
+ *
+ *  movingAverageDouble returns the compensated windowSum divided by the window count. movingAverage multiplies that
+ *  double by ten to the power of the scale and rounds it to a long with the rounding mode, without building the exact
+ *  BigDecimal value of the double, as long as the product stays below 2^52. An average of 1.35 is then rounded as the
+ *  tie it is written as, rather than as the double slightly away from it. Larger averages round the exact value of
+ *  the double.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, get, size, isEmpty methods have time complexity O(1), amortized for add as one
+ *  re-anchoring of O(n) happens every reanchorInterval adds, where n is the window size
+ *  The setWindow method has a complexity of O(n), where n is the window size
+ *
+ *  Space Complexity:
+ *  The add, movingAverage, get, size, isEmpty methods have complexity O(1)
+ *  The setWindow method has a complexity of O(n), where n is the window size
+ *
+ */
+public class DoubleMovingAverageCalculator extends AbstractAverageCalculator
+		implements MovingAverageCalculator, SlidingWindowCalculator {
+
+	/** The initial capacity of the directory of chunks and of the partial sums. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The minimum number of updates between two re-anchorings by default. */
+	private static final int DEFAULT_REANCHOR_INTERVAL = 1 << 20;
+
+	/** The powers of ten that are exact doubles, up to 10^22. */
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1.0;
+		for(int i = 1; i < POWERS_OF_TEN.length; ++i) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+		}
+	}
+
+	/** The unit roundoff of a double. */
+	private static final double UNIT_ROUNDOFF = Math.ulp(1.0) / 2;
+
+	/** The largest magnitude of an element, so that no sum of the window or of the updates overflows. */
+	private static final double MAX_MAGNITUDE = 0x1p990;
+
+	/** Error message when Element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** Error message when Element is not a finite double of a magnitude up to MAX_MAGNITUDE. */
+	private static String ELEMENT_INVALID = "Element is invalid : %s";
+
+	/** Error message when a batch is null. */
+	private static String BATCH_NULL = "Batch is null";
+
+	/** Error message when the re-anchoring interval is invalid. */
+	private static String REANCHOR_INTERVAL_INVALID = "Reanchor interval is invalid : %s";
+
+	/** The chunks holding the values of all elements. */
+	private double[][] chunks = new double[INITIAL_CAPACITY][];
+
+	/** The number of elements added. */
+	private int size;
+
+	/** The window size to calculate moving average. */
+	private int window;
+
+	/** The circular array storing the elements currently in the window. */
+	private double[] windowElements;
+
+	/** The index of the oldest element in windowElements. */
+	private int windowHead;
+
+	/** The number of elements currently in windowElements. */
+	private int windowCount;
+
+	/** The running sum of the elements in the window. */
+	private double windowSum;
+
+	/** The low order bits lost by the additions to windowSum. */
+	private double compensation;
+
+	/** The number of updates between two re-anchorings. */
+	private final int reanchorInterval;
+
+	/** The number of updates since the last re-anchoring. */
+	private int updates;
+
+	/** The magnitude of windowSum at the last re-anchoring. */
+	private double anchorMagnitude;
+
+	/** The sum of the magnitudes of the elements added and evicted since the last re-anchoring. */
+	private double updatedMagnitude;
+
+	/** The non overlapping partial sums of an exact summation, reused by each re-anchoring. */
+	private double[] partials = new double[INITIAL_CAPACITY];
+
+	/**
+	 * Instantiates a new double moving average calculator, re-anchoring every 2^20 updates or every window if larger.
+	 *
+	 * @param window the window size
+	 */
+	public DoubleMovingAverageCalculator(int window) {
+		this(window, 5, RoundingMode.HALF_DOWN, Math.max(window, DEFAULT_REANCHOR_INTERVAL));
+	}
+
+	/**
+	 * Instantiates a new double moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale
+	 */
+	public DoubleMovingAverageCalculator(int window, int scale) {
+		this(window, scale, RoundingMode.HALF_DOWN, Math.max(window, DEFAULT_REANCHOR_INTERVAL));
+	}
+
+	/**
+	 * Instantiates a new double moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public DoubleMovingAverageCalculator(int window, int scale, RoundingMode roundingMode) {
+		this(window, scale, roundingMode, Math.max(window, DEFAULT_REANCHOR_INTERVAL));
+	}
+
+	/**
+	 * Instantiates a new double moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 * @param reanchorInterval the number of updates between two exact re-summings of the window
+	 */
+	public DoubleMovingAverageCalculator(int window, int scale, RoundingMode roundingMode, int reanchorInterval) {
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+		if(reanchorInterval <= 0) {
+			throw new IllegalArgumentException(String.format(REANCHOR_INTERVAL_INVALID, reanchorInterval));
+		}
+
+		this.window = window;
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+		this.reanchorInterval = reanchorInterval;
+		this.windowElements = new double[window];
+	}
+
+	/**
+	 * Adds the new element, rounded to the nearest double.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		add(element.doubleValue());
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the element, a finite double of a magnitude up to 2^990
+	 */
+	public void add(double element) {
+		validateElement(element);
+		int chunk = size >>> ElementHistory.CHUNK_SHIFT;
+		int offset = size & ElementHistory.CHUNK_MASK;
+		if(offset == 0) {
+			if(chunk == chunks.length) {
+				chunks = Arrays.copyOf(chunks, chunk << 1);
+			}
+			chunks[chunk] = new double[ElementHistory.CHUNK_SIZE];
+		}
+		chunks[chunk][offset] = element;
+		++size;
+		//Subtraction is required only if the window is full
+		if(windowCount == window) {
+			double evicted = windowElements[windowHead];
+			windowElements[windowHead] = element;
+			if(++windowHead == window) {
+				windowHead = 0;
+			}
+			accumulate(-evicted);
+			updatedMagnitude += Math.abs(evicted);
+		} else {
+			int tail = windowHead + windowCount;
+			windowElements[tail < window ? tail : tail - window] = element;
+			++windowCount;
+		}
+		accumulate(element);
+		updatedMagnitude += Math.abs(element);
+		if(++updates == reanchorInterval) {
+			reanchor();
+		}
+	}
+
+	/**
+	 * Adds all the elements, in order. The whole batch is validated first, so that a rejected batch leaves the
+	 * calculator unchanged.
+	 *
+	 * @param batch the elements, finite doubles of a magnitude up to 2^990
+	 */
+	public void addAll(double[] batch) {
+		if(null == batch) {
+			throw new IllegalArgumentException(BATCH_NULL);
+		}
+		for(double element : batch) {
+			validateElement(element);
+		}
+		for(double element : batch) {
+			add(element);
+		}
+	}
+
+	/**
+	 * Adds all the elements given as unscaled values at the given scale, in order. An unscaled value below 2^53 at a
+	 * scale up to 22 is divided by the power of ten as doubles, both being exact, which rounds the element to the
+	 * nearest double without building a BigDecimal.
+	 *
+	 * @param unscaled the unscaled values of the elements
+	 * @param scale the scale of all the elements
+	 */
+	@Override
+	public void addAll(long[] unscaled, int scale) {
+		if(null == unscaled) {
+			throw new IllegalArgumentException(BATCH_NULL);
+		}
+		boolean exactPower = scale >= 0 && scale < POWERS_OF_TEN.length;
+		double[] batch = new double[unscaled.length];
+		for(int i = 0; i < unscaled.length; ++i) {
+			long value = unscaled[i];
+			if(exactPower && Math.abs(value) < 1L << 53) {
+				batch[i] = value / POWERS_OF_TEN[scale];
+			} else {
+				batch[i] = BigDecimal.valueOf(value, scale).doubleValue();
+			}
+		}
+		addAll(batch);
+	}
+
+	/**
+	 * Checks that an element is a finite double of a magnitude up to MAX_MAGNITUDE.
+	 *
+	 * @param element the element
+	 */
+	private static void validateElement(double element) {
+		//false for NaN as well
+		if(!(Math.abs(element) <= MAX_MAGNITUDE)) {
+			throw new IllegalArgumentException(String.format(ELEMENT_INVALID, element));
+		}
+	}
+
+	/**
+	 * Adds a term to windowSum with Neumaier compensated summation : the rounding error of the addition is exact in
+	 * double arithmetic, computed from whichever operand is larger, and kept in compensation.
+	 *
+	 * @param term the term
+	 */
+	private void accumulate(double term) {
+		double total = windowSum + term;
+		if(Math.abs(windowSum) >= Math.abs(term)) {
+			compensation += (windowSum - total) + term;
+		} else {
+			compensation += (term - total) + windowSum;
+		}
+		windowSum = total;
+	}
+
+	/**
+	 * Recomputes windowSum from the window elements exactly, as Shewchuk's summation does : the elements are added
+	 * into a list of non overlapping partial sums whose total is the exact sum, which is then rounded once, the
+	 * residual of the rounding becoming the compensation.
+	 */
+	public void reanchor() {
+		int count = 0;
+		for(int i = 0; i < windowCount; ++i) {
+			double x = windowElements[i];
+			int kept = 0;
+			for(int j = 0; j < count; ++j) {
+				double y = partials[j];
+				if(Math.abs(x) < Math.abs(y)) {
+					double swap = x;
+					x = y;
+					y = swap;
+				}
+				double high = x + y;
+				double low = y - (high - x);
+				if(low != 0.0) {
+					partials[kept++] = low;
+				}
+				x = high;
+			}
+			if(kept == partials.length) {
+				partials = Arrays.copyOf(partials, kept << 1);
+			}
+			partials[kept++] = x;
+			count = kept;
+		}
+		//adds the partial sums from the largest, stopping at the first addition that is not exact
+		double high = 0.0;
+		double low = 0.0;
+		if(count > 0) {
+			high = partials[--count];
+			while(count > 0) {
+				double x = high;
+				double y = partials[--count];
+				high = x + y;
+				low = y - (high - x);
+				if(low != 0.0) {
+					break;
+				}
+			}
+		}
+		windowSum = high;
+		compensation = low;
+		anchorMagnitude = Math.abs(high);
+		updatedMagnitude = 0.0;
+		updates = 0;
+	}
+
+	/**
+	 * Calculates the Moving average.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		if(windowCount == 0) {
+			return BigDecimal.valueOf(0L, scale);
+		}
+		double average = movingAverageDouble();
+		if(scale <= FixedPointMath.MAX_SCALE) {
+			//powers of ten up to 10^18 are exact doubles
+			double scaled = average * FixedPointMath.pow10(scale);
+			if(Math.abs(scaled) < 0x1p52) {
+				return BigDecimal.valueOf(round(scaled), scale);
+			}
+		}
+		return new BigDecimal(average).setScale(scale, roundingMode);
+	}
+
+	/**
+	 * Rounds a double to a long using the rounding mode.
+	 *
+	 * @param scaled the double, whose magnitude is below 2^52 so that its fraction is exact
+	 * @return the rounded value
+	 */
+	private long round(double scaled) {
+		double floor = Math.floor(scaled);
+		double fraction = scaled - floor;
+		if(fraction == 0.0) {
+			return (long) floor;
+		}
+		boolean up;
+		switch(roundingMode) {
+		case FLOOR:
+			up = false;
+			break;
+		case CEILING:
+			up = true;
+			break;
+		case DOWN:
+			up = scaled < 0;
+			break;
+		case UP:
+			up = scaled > 0;
+			break;
+		case HALF_UP:
+			up = fraction > 0.5 || fraction == 0.5 && scaled > 0;
+			break;
+		case HALF_DOWN:
+			up = fraction > 0.5 || fraction == 0.5 && scaled < 0;
+			break;
+		default:
+			up = fraction > 0.5 || fraction == 0.5 && ((long) floor & 1L) != 0L;
+			break;
+		}
+		return (long) floor + (up ? 1L : 0L);
+	}
+
+	/**
+	 * Calculates the Moving average as a double, without rounding it to the scale.
+	 *
+	 * @return the Moving Average, 0 if the window is empty
+	 */
+	public double movingAverageDouble() {
+		if(windowCount == 0) {
+			return 0.0;
+		}
+		return (windowSum + compensation) / windowCount;
+	}
+
+	/**
+	 * Gets the bound of the error of movingAverageDouble against the exact average of the doubles in the window.
+	 *
+	 * @return the error bound, 0 if the window is empty
+	 */
+	public double movingAverageErrorBound() {
+		if(windowCount == 0) {
+			return 0.0;
+		}
+		double u = UNIT_ROUNDOFF;
+		double sum = Math.abs(windowSum + compensation);
+		double terms = 2.0 * updates + 1;
+		double sumBound = 3 * u * (anchorMagnitude + sum) + 2 * terms * terms * u * u
+				* (anchorMagnitude + updatedMagnitude);
+		return sumBound / windowCount + 2 * u * sum / windowCount;
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the shortest big decimal value of the double stored
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return BigDecimal.valueOf(getDouble(index));
+	}
+
+	/**
+	 * Gets the double value of the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the double value
+	 */
+	public double getDouble(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks[index >>> ElementHistory.CHUNK_SHIFT][index & ElementHistory.CHUNK_MASK];
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view, which builds the BigDecimal values on access.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return new AbstractList<BigDecimal>() {
+			@Override
+			public BigDecimal get(int index) {
+				return DoubleMovingAverageCalculator.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Gets the window size.
+	 *
+	 * @return the window size
+	 */
+	@Override
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Sets the window.
+	 *
+	 * @param window the new window
+	 */
+	public void setWindow(int window) {
+		MovingAverageValidator.validateWindow(window);
+		//rebuilds windowElements from the last elements added, and re-anchors windowSum on them
+		this.window = window;
+		windowElements = new double[window];
+		windowHead = 0;
+		windowCount = Math.min(window, size);
+		int startIndex = size - windowCount;
+		for(int i = 0; i < windowCount; ++i) {
+			windowElements[i] = getDouble(startIndex + i);
+		}
+		reanchor();
+	}
+
+	/**
+	 * Gets the number of updates between two re-anchorings.
+	 *
+	 * @return the reanchor interval
+	 */
+	public int getReanchorInterval() {
+		return reanchorInterval;
+	}
+}
@@ -0,0 +1,80 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+
+/**
+ * The Interface ElementHistory.
+ *
+ * The storage of the elements added to a calculator. Elements are addressed by their global index, which is the
+ * number of elements added before them. Depending on the HistoryPolicy, the oldest elements may no longer be
+ * retained, in which case firstIndex is greater than 0.
+ */
+interface ElementHistory extends Closeable {
+
+	/** The log2 of the number of elements held by one chunk. */
+	int CHUNK_SHIFT = 10;
+
+	/** The number of elements held by one chunk. */
+	int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/** The mask giving the index of an element inside its chunk. */
+	int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	void add(BigDecimal element);
+
+	/**
+	 * Gets the element at the given global index.
+	 *
+	 * @param index the global index, between firstIndex and size - 1
+	 * @return the big decimal value
+	 * @throws IndexOutOfBoundsException if the index is invalid or the element is no longer retained
+	 */
+	BigDecimal get(int index);
+
+	/**
+	 * Size.
+	 *
+	 * @return the int number of elements ever added
+	 */
+	int size();
+
+	/**
+	 * Gets the global index of the oldest element retained.
+	 *
+	 * @return the first index
+	 */
+	int firstIndex();
+
+	/**
+	 * Checks if elements can be read by several threads at once, while no element is added.
+	 *
+	 * @return true, if get has no side effect
+	 */
+	boolean isConcurrentlyReadable();
+
+	/**
+	 * Gets the number of retained elements held on the heap, leaving out the elements only held in files.
+	 *
+	 * @return the number of elements on the heap
+	 */
+	int residentSize();
+
+	/**
+	 * Gets the number of bytes of the files holding elements, spilled or mapped, which are not on the heap.
+	 *
+	 * @return the size of the files, 0 if the elements are only held on the heap
+	 */
+	long offHeapBytes();
+
+	/**
+	 * Releases the resources held by the history.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,40 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The Class ElementHistoryView, the read only list view of the elements retained by an ElementHistory, returned by
+ * the getAll method of the calculators storing their elements in one.
+ *
+ * The first element of the list is the oldest element retained, at the global index firstIndex() of the history,
+ * which is 0 unless the history drops older elements. The view reads the history, so it reflects later adds.
+ */
+final class ElementHistoryView extends AbstractList<BigDecimal> implements RandomAccess {
+
+	/** The history read. */
+	private final ElementHistory elements;
+
+	/**
+	 * Instantiates a new view of a history.
+	 *
+	 * @param elements the history
+	 */
+	ElementHistoryView(ElementHistory elements) {
+		this.elements = elements;
+	}
+
+	@Override
+	public BigDecimal get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return elements.get(elements.firstIndex() + index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size() - elements.firstIndex();
+	}
+}
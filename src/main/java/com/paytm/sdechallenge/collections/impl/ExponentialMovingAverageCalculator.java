@@ -0,0 +1,189 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class ExponentialMovingAverageCalculator, a MovingAverageCalculator returning the exponential moving average
+ * of the elements added.
+ *
+ * Moving Average Calculation
+ *
+ *
+ *  The exponential moving average is seeded with the first element added, then updated on each add as
+ *  ema = ema + alpha * (element - ema), where alpha is the smoothing factor, between 0 exclusive and 1 inclusive.
+ *  The smoothing factor can also be given as a span N, alpha then being 2 / (N + 1).
+ *
+ *  Unlike the simple moving average, each update multiplies by alpha, so the exact value would need more digits after
+ *  every add. The running value is therefore kept with the 34 significant digits of MathContext.DECIMAL128, and the
+ *  scale and rounding mode are applied to the result only, as with the other calculators.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, get, getAll, size, isEmpty methods have time complexity O(1)
+ *
+ */
+public class ExponentialMovingAverageCalculator extends AbstractAverageCalculator
+		implements MovingAverageCalculator {
+
+	/** Error message when the smoothing factor is invalid. */
+	private static String SMOOTHING_FACTOR_INVALID = "Smoothing factor is invalid : %s";
+
+	/** Error message when the span is invalid. */
+	private static String SPAN_INVALID = "Span is invalid : %s";
+
+	/** The precision of the running exponential moving average. */
+	private static final MathContext PRECISION = MathContext.DECIMAL128;
+
+	/** The history storing the elements. */
+	private final ElementHistory elements = HistoryPolicy.keepAll().createHistory();
+
+	/** The smoothing factor, the weight of the newest element. */
+	private final BigDecimal smoothingFactor;
+
+	/** The running exponential moving average. */
+	private BigDecimal ema = BigDecimal.ZERO;
+
+	/**
+	 * Instantiates a new exponential moving average calculator.
+	 *
+	 * @param smoothingFactor the smoothing factor, between 0 exclusive and 1 inclusive
+	 */
+	public ExponentialMovingAverageCalculator(BigDecimal smoothingFactor) {
+		this(smoothingFactor, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new exponential moving average calculator, with a smoothing factor of 2 / (span + 1).
+	 *
+	 * @param span the span
+	 */
+	public ExponentialMovingAverageCalculator(int span) {
+		this(span, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new exponential moving average calculator, with a smoothing factor of 2 / (span + 1).
+	 *
+	 * @param span the span
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public ExponentialMovingAverageCalculator(int span, int scale, RoundingMode roundingMode) {
+		this(spanToSmoothingFactor(span), scale, roundingMode);
+	}
+
+	/**
+	 * Instantiates a new exponential moving average calculator.
+	 *
+	 * @param smoothingFactor the smoothing factor, between 0 exclusive and 1 inclusive
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public ExponentialMovingAverageCalculator(BigDecimal smoothingFactor, int scale, RoundingMode roundingMode) {
+		if(null == smoothingFactor || smoothingFactor.signum() <= 0 || smoothingFactor.compareTo(BigDecimal.ONE) > 0) {
+			throw new IllegalArgumentException(String.format(SMOOTHING_FACTOR_INVALID, smoothingFactor));
+		}
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.smoothingFactor = smoothingFactor;
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		if(elements.size() == 0) {
+			ema = element;
+		} else {
+			ema = ema.add(smoothingFactor.multiply(element.subtract(ema), PRECISION), PRECISION);
+		}
+		elements.add(element);
+	}
+
+	/**
+	 * Calculates the exponential Moving average.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		return ema.setScale(scale, roundingMode);
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return elements.size() == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the big decimal value
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view of the elements.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return new ElementHistoryView(elements);
+	}
+
+	/**
+	 * Gets the smoothing factor.
+	 *
+	 * @return the smoothing factor
+	 */
+	public BigDecimal getSmoothingFactor() {
+		return smoothingFactor;
+	}
+
+	/**
+	 * Converts a span to a smoothing factor.
+	 *
+	 * @param span the span
+	 * @return the smoothing factor, 2 / (span + 1)
+	 */
+	private static BigDecimal spanToSmoothingFactor(int span) {
+		if(span <= 0) {
+			throw new IllegalArgumentException(String.format(SPAN_INVALID, span));
+		}
+		return new BigDecimal(2).divide(BigDecimal.valueOf(span + 1L), PRECISION);
+	}
+}
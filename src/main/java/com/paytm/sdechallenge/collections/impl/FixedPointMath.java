@@ -0,0 +1,285 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * The Class FixedPointMath.
+ *
+ * Helper methods for calculators that keep their values as unscaled longs at a fixed scale.
+ *
+ * The rounding done here follows the rules of BigDecimal.divide(BigDecimal, int, RoundingMode), so that a result
+ * computed from unscaled longs is identical to the one the BigDecimal based calculator returns for the same input.
+ * Sums that do not fit into a long are kept as 128 bit two's complement values held in a pair of longs
+ * (high, low).
+ */
+final class FixedPointMath {
+
+	/** The powers of ten that fit into a long. */
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		POWERS_OF_TEN[0] = 1L;
+		for(int i = 1; i < POWERS_OF_TEN.length; ++i) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+		}
+	}
+
+	/** The largest scale which can be represented by a long power of ten. */
+	static final int MAX_SCALE = POWERS_OF_TEN.length - 1;
+
+	/** Two to the power 64, used to rebuild 128 bit values. */
+	private static final BigInteger TWO_POW_64 = BigInteger.ONE.shiftLeft(64);
+
+	/** Error message when rounding is required but the Rounding Mode is UNNECESSARY. */
+	private static String ROUNDING_NECESSARY = "Rounding necessary";
+
+	/** Error message when a rescaled value does not fit in a long. */
+	private static String OVERFLOW = "long overflow";
+
+	private FixedPointMath() {
+	}
+
+	/**
+	 * Gets ten to the power of the exponent.
+	 *
+	 * @param exponent the exponent, between 0 and MAX_SCALE
+	 * @return the power of ten
+	 */
+	static long pow10(int exponent) {
+		return POWERS_OF_TEN[exponent];
+	}
+
+	/**
+	 * Divides the dividend by a positive divisor and rounds the quotient using the rounding mode.
+	 *
+	 * @param dividend the dividend
+	 * @param divisor the divisor, must be greater than 0
+	 * @param roundingMode the rounding mode
+	 * @return the rounded quotient
+	 */
+	static long divideAndRound(long dividend, long divisor, RoundingMode roundingMode) {
+		long quotient = dividend / divisor;
+		long remainder = dividend % divisor;
+		if(remainder == 0) {
+			return quotient;
+		}
+		//The divisor is positive, so the sign of the quotient is the sign of the dividend
+		int sign = dividend < 0 ? -1 : 1;
+		boolean increment;
+		switch (roundingMode) {
+		case UP:
+			increment = true;
+			break;
+		case DOWN:
+			increment = false;
+			break;
+		case CEILING:
+			increment = sign > 0;
+			break;
+		case FLOOR:
+			increment = sign < 0;
+			break;
+		case HALF_UP:
+		case HALF_DOWN:
+		case HALF_EVEN:
+			//compares |remainder| with the half of the divisor, without overflowing on 2 * |remainder|
+			long absRemainder = Math.abs(remainder);
+			int half = Long.compare(absRemainder, divisor - absRemainder);
+			if(half == 0) {
+				if(roundingMode == RoundingMode.HALF_UP) {
+					increment = true;
+				} else if(roundingMode == RoundingMode.HALF_DOWN) {
+					increment = false;
+				} else {
+					increment = (quotient & 1L) != 0;
+				}
+			} else {
+				increment = half > 0;
+			}
+			break;
+		default:
+			throw new ArithmeticException(ROUNDING_NECESSARY);
+		}
+		return increment ? quotient + sign : quotient;
+	}
+
+	/**
+	 * Checks if the 128 bit value (high, low) fits into a long.
+	 *
+	 * @param high the high 64 bits
+	 * @param low the low 64 bits
+	 * @return true, if the value fits into a long
+	 */
+	static boolean fitsInLong(long high, long low) {
+		return high == (low >> 63);
+	}
+
+	/**
+	 * Gets the high 64 bits of the 128 bit sum of (high, low) and value.
+	 *
+	 * @param high the high 64 bits
+	 * @param low the low 64 bits
+	 * @param value the value added
+	 * @return the high 64 bits of the sum
+	 */
+	static long addHigh(long high, long low, long value) {
+		long sum = low + value;
+		//sign extension of value, plus the carry out of the low 64 bits
+		return high + (value >> 63) + (Long.compareUnsigned(sum, low) < 0 ? 1L : 0L);
+	}
+
+	/**
+	 * Gets the high 64 bits of the 128 bit difference of (high, low) and value.
+	 *
+	 * @param high the high 64 bits
+	 * @param low the low 64 bits
+	 * @param value the value subtracted
+	 * @return the high 64 bits of the difference
+	 */
+	static long subtractHigh(long high, long low, long value) {
+		//sign extension of value, plus the borrow out of the low 64 bits
+		return high - (value >> 63) - (Long.compareUnsigned(low, value) < 0 ? 1L : 0L);
+	}
+
+	/**
+	 * Converts the 128 bit value (high, low) to a BigInteger.
+	 *
+	 * @param high the high 64 bits
+	 * @param low the low 64 bits
+	 * @return the big integer
+	 */
+	static BigInteger toBigInteger(long high, long low) {
+		if(fitsInLong(high, low)) {
+			return BigInteger.valueOf(low);
+		}
+		BigInteger unsignedLow = BigInteger.valueOf(low);
+		if(low < 0) {
+			unsignedLow = unsignedLow.add(TWO_POW_64);
+		}
+		return BigInteger.valueOf(high).shiftLeft(64).add(unsignedLow);
+	}
+
+	/**
+	 * Converts the element to an unscaled long at the given scale.
+	 *
+	 * The element is rescaled without rounding, so that no information is lost.
+	 *
+	 * @param element the element
+	 * @param scale the scale of the unscaled value
+	 * @return the unscaled long
+	 * @throws ArithmeticException if the element has more decimal places than the scale or does not fit in a long
+	 */
+	static long toUnscaled(BigDecimal element, int scale) {
+		return element.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Converts an unscaled long from one scale to another, without rounding and without allocating.
+	 * eg : rescale(15, 1, 2) returns 150, and rescale(150, 2, 1) returns 15
+	 *
+	 * @param unscaled the unscaled value
+	 * @param fromScale the scale of the unscaled value
+	 * @param toScale the scale of the result
+	 * @return the unscaled long at toScale
+	 * @throws ArithmeticException if the value has more decimal places than toScale or does not fit in a long
+	 */
+	static long rescale(long unscaled, int fromScale, int toScale) {
+		if(unscaled == 0L || fromScale == toScale) {
+			return unscaled;
+		}
+		if(fromScale < toScale) {
+			if(toScale - fromScale > MAX_SCALE) {
+				throw new ArithmeticException(OVERFLOW);
+			}
+			return Math.multiplyExact(unscaled, POWERS_OF_TEN[toScale - fromScale]);
+		}
+		if(fromScale - toScale > MAX_SCALE || unscaled % POWERS_OF_TEN[fromScale - toScale] != 0L) {
+			throw new ArithmeticException(ROUNDING_NECESSARY);
+		}
+		return unscaled / POWERS_OF_TEN[fromScale - toScale];
+	}
+
+	/**
+	 * Calculates the average of an unscaled 128 bit sum.
+	 *
+	 * The result is sum.divide(new BigDecimal(count), scale, roundingMode), where sum is the BigDecimal with
+	 * unscaled value (high, low) and scale sumScale.
+	 *
+	 * @param high the high 64 bits of the unscaled sum
+	 * @param low the low 64 bits of the unscaled sum
+	 * @param sumScale the scale of the sum
+	 * @param count the number of elements summed, must be greater than 0
+	 * @param scale the scale of the result
+	 * @param roundingMode the rounding mode
+	 * @return the average
+	 */
+	static BigDecimal average(long high, long low, int sumScale, long count, int scale, RoundingMode roundingMode) {
+		if(isLongDivision(high, low, sumScale, count, scale)) {
+			return BigDecimal.valueOf(divideLong(low, sumScale, count, scale, roundingMode), scale);
+		}
+		return new BigDecimal(toBigInteger(high, low), sumScale).divide(BigDecimal.valueOf(count), scale, roundingMode);
+	}
+
+	/**
+	 * Calculates the unscaled average of an unscaled 128 bit sum.
+	 *
+	 * The result is the unscaled value of average(high, low, sumScale, count, scale, roundingMode). The division is
+	 * done with longs whenever the intermediate values fit into a long, so that no objects are allocated.
+	 *
+	 * @param high the high 64 bits of the unscaled sum
+	 * @param low the low 64 bits of the unscaled sum
+	 * @param sumScale the scale of the sum
+	 * @param count the number of elements summed, must be greater than 0
+	 * @param scale the scale of the result
+	 * @param roundingMode the rounding mode
+	 * @return the unscaled average
+	 * @throws ArithmeticException if the unscaled average does not fit in a long
+	 */
+	static long averageUnscaled(long high, long low, int sumScale, long count, int scale, RoundingMode roundingMode) {
+		if(isLongDivision(high, low, sumScale, count, scale)) {
+			return divideLong(low, sumScale, count, scale, roundingMode);
+		}
+		return average(high, low, sumScale, count, scale, roundingMode).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Checks if the average of the sum can be calculated with a long division.
+	 *
+	 * @param high the high 64 bits of the unscaled sum
+	 * @param low the low 64 bits of the unscaled sum
+	 * @param sumScale the scale of the sum
+	 * @param count the number of elements summed
+	 * @param scale the scale of the result
+	 * @return true, if the sum rescaled to the scale of the result or the rescaled count fits into a long
+	 */
+	private static boolean isLongDivision(long high, long low, int sumScale, long count, int scale) {
+		if(!fitsInLong(high, low) || low == Long.MIN_VALUE) {
+			return false;
+		}
+		int shift = scale - sumScale;
+		if(shift >= 0) {
+			return shift <= MAX_SCALE && Math.abs(low) <= Long.MAX_VALUE / POWERS_OF_TEN[shift];
+		}
+		return -shift <= MAX_SCALE && count <= Long.MAX_VALUE / POWERS_OF_TEN[-shift];
+	}
+
+	/**
+	 * Calculates the unscaled average of a sum that passed isLongDivision.
+	 *
+	 * @param sum the unscaled sum
+	 * @param sumScale the scale of the sum
+	 * @param count the number of elements summed
+	 * @param scale the scale of the result
+	 * @param roundingMode the rounding mode
+	 * @return the unscaled average
+	 */
+	private static long divideLong(long sum, int sumScale, long count, int scale, RoundingMode roundingMode) {
+		int shift = scale - sumScale;
+		if(shift >= 0) {
+			return divideAndRound(sum * POWERS_OF_TEN[shift], count, roundingMode);
+		}
+		return divideAndRound(sum, count * POWERS_OF_TEN[-shift], roundingMode);
+	}
+}
@@ -0,0 +1,556 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class FixedPointMovingAverageCalculator, which implements MovingAverageCalculator interface.
+ *
+ * This class returns the same moving averages as MovingAverageCalculatorImpl, but does not allocate any objects
+ * when elements are added or when the primitive entry points are used to read the moving average.
+ *
+ *
+ * Storing Data
+ *
+ *
+ *  inputScale - All elements are stored as unscaled longs at a fixed input scale. eg : with an input scale of 2
+ *  the element 10.5 is stored as 1050. Elements with more decimal places than the input scale are rejected, as they
+ *  cannot be stored without rounding. Elements returned by get and getAll have the input scale.
+ *
+ *  elements - The unscaled values of all elements inserted, in chunks of ElementHistory.CHUNK_SIZE longs as
+ *  ChunkedElementHistory stores BigDecimals, so adding an element never copies the elements already stored. Only the
+ *  first chunk grows, up to CHUNK_SIZE, so that a calculator of a few elements does not hold a full chunk.
+ *
+ *  windowElements - A circular array of size window, holding the unscaled values of the elements inside the window.
+ *
+ *  windowSum - The sum of the unscaled values inside the window, kept as a 128 bit value in two longs
+ *  (windowSumHigh, windowSumLow), so that the sum never overflows.
+ *
+ *  checkpoint - The state of the calculator can be written to a compact binary checkpoint holding every element,
+ *  as zigzag encoded variable length longs, and the exact windowSum. restore reads it back in one sequential pass,
+ *  without summing any element.
+ *
+ *
+ * Moving Average Calculation
+ *
+ *
+ *  movingAverageUnscaled returns the unscaled value of the moving average at the scale set, rounded with the rounding
+ *  mode set. The division is done with longs whenever the sum fits into a long, and with BigDecimal otherwise.
+ *  movingAverage returns the same value as a BigDecimal, and also works for averages that do not fit into a long
+ *  once unscaled. The result is identical to the result MovingAverageCalculatorImpl returns for the same elements,
+ *  scale and rounding mode.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, get, size, isEmpty methods have time complexity O(1)
+ *  The setWindow method has a complexity of O(n), where n is the window size
+ *
+ *  Space Complexity:
+ *  The add, movingAverage, get, size, isEmpty methods have complexity O(1)
+ *  The setWindow method has a complexity of O(n), where n is the window size
+ *
+ */
+public class FixedPointMovingAverageCalculator extends AbstractAverageCalculator
+		implements MovingAverageCalculator, SlidingWindowCalculator {
+
+	/** The initial capacity of the directory of chunks. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The initial size of the first chunk. */
+	private static final int FIRST_CHUNK_SIZE = 8;
+
+	/** Error message when the stream of a checkpoint is null. */
+	private static String STREAM_NULL = "Stream is null";
+
+	/** The chunks holding the unscaled values of all elements. */
+	private long[][] chunks = new long[INITIAL_CAPACITY][];
+
+	/** The number of elements added. */
+	private int size;
+
+	/** The scale of the stored elements. */
+	private final int inputScale;
+
+	/** The window size to calculate moving average. */
+	private int window;
+
+	/** The circular array storing the unscaled values of elements currently in the window. */
+	private long[] windowElements;
+
+	/** The index of the oldest element in windowElements. */
+	private int windowHead;
+
+	/** The number of elements currently in windowElements. */
+	private int windowCount;
+
+	/** The high 64 bits of the unscaled sum of elements in the window. */
+	private long windowSumHigh;
+
+	/** The low 64 bits of the unscaled sum of elements in the window. */
+	private long windowSumLow;
+
+	/**
+	 * Instantiates a new fixed point moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added
+	 */
+	public FixedPointMovingAverageCalculator(int window, int inputScale) {
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateFixedPointScale(inputScale);
+
+		this.window = window;
+		this.inputScale = inputScale;
+		this.windowElements = new long[window];
+	}
+
+	/**
+	 * Instantiates a new fixed point moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added
+	 * @param scale the scale
+	 */
+	public FixedPointMovingAverageCalculator(int window, int inputScale, int scale) {
+		this(window, inputScale);
+		MovingAverageValidator.validateScale(scale);
+
+		this.scale = scale;
+	}
+
+	/**
+	 * Instantiates a new fixed point moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added
+	 * @param roundingMode the rounding mode
+	 */
+	public FixedPointMovingAverageCalculator(int window, int inputScale, RoundingMode roundingMode) {
+		this(window, inputScale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Instantiates a new fixed point moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public FixedPointMovingAverageCalculator(int window, int inputScale, int scale, RoundingMode roundingMode) {
+		this(window, inputScale);
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the BigDecimal element
+	 * @throws ArithmeticException if the element has more decimal places than the input scale or does not fit in
+	 * a long at the input scale
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		add(FixedPointMath.toUnscaled(element, inputScale));
+	}
+
+	/**
+	 * Adds the new element, given as an unscaled value at the input scale.
+	 * eg : with an input scale of 2, add(1050) adds the element 10.50
+	 *
+	 * @param unscaled the unscaled value of the element
+	 */
+	public void add(long unscaled) {
+		store(unscaled);
+		addToWindow(unscaled);
+	}
+
+	/**
+	 * Appends an unscaled value to the chunks.
+	 *
+	 * @param unscaled the unscaled value of the element
+	 */
+	private void store(long unscaled) {
+		int chunk = size >>> ElementHistory.CHUNK_SHIFT;
+		int offset = size & ElementHistory.CHUNK_MASK;
+		if(chunk == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunk << 1);
+		}
+		if(chunks[chunk] == null) {
+			chunks[chunk] = new long[chunk == 0 ? FIRST_CHUNK_SIZE : ElementHistory.CHUNK_SIZE];
+		} else if(offset == chunks[chunk].length) {
+			//only the first chunk grows, up to CHUNK_SIZE, so that small calculators stay small
+			chunks[chunk] = Arrays.copyOf(chunks[chunk], Math.min(offset << 1, ElementHistory.CHUNK_SIZE));
+		}
+		chunks[chunk][offset] = unscaled;
+		++size;
+	}
+
+	/**
+	 * Adds the unscaled value to windowElements and windowSum.
+	 *
+	 * @param unscaled the unscaled value of the element
+	 */
+	private void addToWindow(long unscaled) {
+		//Subtraction is required only if the window is full
+		if(windowCount == window) {
+			long evicted = windowElements[windowHead];
+			windowSumHigh = FixedPointMath.subtractHigh(windowSumHigh, windowSumLow, evicted);
+			windowSumLow -= evicted;
+			windowElements[windowHead] = unscaled;
+			if(++windowHead == window) {
+				windowHead = 0;
+			}
+		} else {
+			int tail = windowHead + windowCount;
+			windowElements[tail < window ? tail : tail - window] = unscaled;
+			++windowCount;
+		}
+		windowSumHigh = FixedPointMath.addHigh(windowSumHigh, windowSumLow, unscaled);
+		windowSumLow += unscaled;
+	}
+
+	/**
+	 * Adds all the elements, in order.
+	 *
+	 * @param batch the BigDecimal elements
+	 * @throws ArithmeticException if an element has more decimal places than the input scale or does not fit in
+	 * a long at the input scale, in which case no element is added
+	 */
+	@Override
+	public void addAll(BigDecimal[] batch) {
+		long[] unscaled = new long[batch.length];
+		for(int i = 0; i < batch.length; ++i) {
+			unscaled[i] = FixedPointMath.toUnscaled(batch[i], inputScale);
+		}
+		addAll(unscaled);
+	}
+
+	/**
+	 * Adds all the elements given as unscaled values at the given scale, in order.
+	 *
+	 * The whole batch is rescaled to the input scale before any element is added, so that a value that cannot be
+	 * rescaled leaves the calculator unchanged.
+	 *
+	 * @param unscaled the unscaled values of the elements
+	 * @param scale the scale of all the elements
+	 * @throws ArithmeticException if a value needs rounding or overflows a long at the input scale, in which case no
+	 * element is added
+	 */
+	@Override
+	public void addAll(long[] unscaled, int scale) {
+		if(scale == inputScale) {
+			addAll(unscaled);
+		} else {
+			long[] rescaled = new long[unscaled.length];
+			for(int i = 0; i < unscaled.length; ++i) {
+				rescaled[i] = FixedPointMath.toUnscaled(BigDecimal.valueOf(unscaled[i], scale), inputScale);
+			}
+			addAll(rescaled);
+		}
+	}
+
+	/**
+	 * Adds all the elements given as unscaled values at the input scale, in order.
+	 * The values are appended to the chunks at once. When the batch is at least as large as the window, the
+	 * window is replaced by the last elements of the batch and only those are summed.
+	 *
+	 * @param unscaled the unscaled values of the elements
+	 */
+	public void addAll(long[] unscaled) {
+		addUnscaled(unscaled, unscaled.length);
+	}
+
+	/**
+	 * Adds the first elements of an array of unscaled values at the input scale, in order.
+	 *
+	 * @param unscaled the unscaled values of the elements
+	 * @param count the number of elements added
+	 */
+	void addUnscaled(long[] unscaled, int count) {
+		for(int i = 0; i < count; ++i) {
+			store(unscaled[i]);
+		}
+		if(count < window) {
+			for(int i = 0; i < count; ++i) {
+				addToWindow(unscaled[i]);
+			}
+			return;
+		}
+		long high = 0L;
+		long low = 0L;
+		int startIndex = count - window;
+		for(int i = 0; i < window; ++i) {
+			long value = unscaled[startIndex + i];
+			windowElements[i] = value;
+			high = FixedPointMath.addHigh(high, low, value);
+			low += value;
+		}
+		windowHead = 0;
+		windowCount = window;
+		windowSumHigh = high;
+		windowSumLow = low;
+	}
+
+	/**
+	 * Calculates the Moving average.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		if(windowCount == 0) {
+			return BigDecimal.valueOf(0L, scale);
+		}
+		return FixedPointMath.average(windowSumHigh, windowSumLow, inputScale, windowCount, scale, roundingMode);
+	}
+
+	/**
+	 * Calculates the unscaled value of the Moving average at the scale set.
+	 * eg : with a scale of 2, a moving average of 7.50 is returned as 750
+	 *
+	 * @return the unscaled Moving Average
+	 * @throws ArithmeticException if the unscaled moving average does not fit in a long
+	 */
+	public long movingAverageUnscaled() {
+		if(windowCount == 0) {
+			return 0L;
+		}
+		return FixedPointMath.averageUnscaled(windowSumHigh, windowSumLow, inputScale, windowCount, scale,
+				roundingMode);
+	}
+
+	/**
+	 * Writes the Moving average into a holder, as its unscaled value at the scale set and the scale, allocating
+	 * nothing while the window sum and the rescaled average fit into a long.
+	 *
+	 * @param holder the holder receiving the Moving Average
+	 * @throws ArithmeticException if the unscaled moving average does not fit in a long
+	 */
+	public void movingAverage(DecimalHolder holder) {
+		holder.set(movingAverageUnscaled(), scale);
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the big decimal value, with decimal places equal to the input scale
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return BigDecimal.valueOf(getUnscaled(index), inputScale);
+	}
+
+	/**
+	 * Gets the unscaled value of the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the unscaled value at the input scale
+	 */
+	public long getUnscaled(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks[index >>> ElementHistory.CHUNK_SHIFT][index & ElementHistory.CHUNK_MASK];
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view, which builds the BigDecimal values on access.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return new AbstractList<BigDecimal>() {
+
+			@Override
+			public BigDecimal get(int index) {
+				return FixedPointMovingAverageCalculator.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Gets the input scale.
+	 *
+	 * @return the input scale
+	 */
+	public int getInputScale() {
+		return inputScale;
+	}
+
+	/**
+	 * Gets the window size.
+	 *
+	 * @return the window size
+	 */
+	@Override
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Sets the window.
+	 *
+	 * @param window the new window
+	 */
+	public void setWindow(int window) {
+		MovingAverageValidator.validateWindow(window);
+		//rebuilds windowElements and windowSum from the last elements added
+		this.window = window;
+		windowElements = new long[window];
+		windowHead = 0;
+		windowCount = Math.min(window, size);
+		windowSumHigh = 0L;
+		windowSumLow = 0L;
+		int startIndex = size - windowCount;
+		for(int i = 0; i < windowCount; ++i) {
+			long value = getUnscaled(startIndex + i);
+			windowElements[i] = value;
+			windowSumHigh = FixedPointMath.addHigh(windowSumHigh, windowSumLow, value);
+			windowSumLow += value;
+		}
+	}
+
+	/**
+	 * Writes a checkpoint of the calculator to a stream, which is flushed but not closed. Every element is included,
+	 * as the window can be resized from any of them.
+	 *
+	 * @param out the stream
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void checkpoint(OutputStream out) throws IOException {
+		if(null == out) {
+			throw new IllegalArgumentException(STREAM_NULL);
+		}
+		CheckpointCodec.Writer writer = new CheckpointCodec.Writer(out);
+		writer.writeHeader(CheckpointCodec.KIND_FIXED_POINT);
+		writer.writeVarLong(window);
+		writer.writeVarLong(inputScale);
+		writer.writeVarLong(scale);
+		writer.writeByte(roundingMode.ordinal());
+		writer.writeVarLong(size);
+		writer.writeZigZag(windowSumHigh);
+		writer.writeZigZag(windowSumLow);
+		for(int i = 0; i < size; ++i) {
+			writer.writeZigZag(getUnscaled(i));
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes a checkpoint of the calculator to a file, replacing it if it exists.
+	 *
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void checkpoint(Path path) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			checkpoint(out);
+		}
+	}
+
+	/**
+	 * Restores a calculator from a checkpoint read from a stream, which is not closed. The window is copied from the
+	 * last elements and windowSum is read from the checkpoint rather than summed. If the stream supports mark and
+	 * reset, it is left positioned right after the checkpoint, otherwise up to 64 KB past it may have been consumed.
+	 *
+	 * @param in the stream, positioned at the start of the checkpoint
+	 * @return the calculator restored
+	 * @throws IOException if the stream cannot be read or does not hold a valid checkpoint
+	 */
+	public static FixedPointMovingAverageCalculator restore(InputStream in) throws IOException {
+		if(null == in) {
+			throw new IllegalArgumentException(STREAM_NULL);
+		}
+		CheckpointCodec.Reader reader = new CheckpointCodec.Reader(in);
+		reader.readHeader(CheckpointCodec.KIND_FIXED_POINT);
+		int window = reader.readVarInt("window");
+		int inputScale = reader.readVarInt("input scale");
+		int scale = reader.readVarInt("scale");
+		int roundingMode = reader.readByte();
+		int size = reader.readVarInt("size");
+		if(roundingMode >= RoundingMode.values().length) {
+			throw CheckpointCodec.invalid("rounding mode " + roundingMode);
+		}
+		FixedPointMovingAverageCalculator calculator;
+		try {
+			calculator = new FixedPointMovingAverageCalculator(window, inputScale, scale,
+					RoundingMode.values()[roundingMode]);
+		} catch (IllegalArgumentException e) {
+			throw CheckpointCodec.invalid(e.getMessage());
+		}
+		calculator.windowSumHigh = reader.readZigZag();
+		calculator.windowSumLow = reader.readZigZag();
+		for(int i = 0; i < size; ++i) {
+			calculator.store(reader.readZigZag());
+		}
+		int windowCount = Math.min(window, size);
+		for(int i = 0; i < windowCount; ++i) {
+			calculator.windowElements[i] = calculator.getUnscaled(size - windowCount + i);
+		}
+		calculator.windowCount = windowCount;
+		reader.finish();
+		return calculator;
+	}
+
+	/**
+	 * Restores a calculator from a checkpoint file.
+	 *
+	 * @param path the path of the file
+	 * @return the calculator restored
+	 * @throws IOException if the file cannot be read or does not hold a valid checkpoint
+	 */
+	public static FixedPointMovingAverageCalculator restore(Path path) throws IOException {
+		try (InputStream in = Files.newInputStream(path)) {
+			return restore(in);
+		}
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.paytm.sdechallenge.collections.impl;
+
+/**
+ * The Enum FullBufferPolicy, what a RingBufferIngestor does with an element published while its ring buffer is full.
+ */
+public enum FullBufferPolicy {
+
+	/** The producer waits with the WaitStrategy until the consumer makes room, pushing back on the producers. */
+	BLOCK,
+
+	/** The element is dropped and counted, the producer returning at once. */
+	DROP
+}
@@ -0,0 +1,166 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.nio.file.Path;
+
+/**
+ * The Class HistoryPolicy, which defines how many of the elements added a calculator retains.
+ *
+ * Available policies
+ *
+ *
+ *  keepAll - Every element added is kept in memory. This is the default policy.
+ *
+ *  keepLast - Only the last K elements added are kept in memory. Elements older than that can no longer be read
+ *  and the window can only grow up to K elements.
+ *
+ *  spillToDisk - The newest elements are kept in memory, and older elements are written to a compact segment file
+ *  in the given directory. Every element can still be read, older ones being read back from disk.
+ *
+ *  persistent - Every element is appended to a log of memory-mapped segment files in the given directory, which
+ *  survives restarts. A calculator opened on an existing log holds all the elements of the log, and rebuilds its
+ *  window from the last elements of the log. Elements are read from the mapped files, not from the heap.
+ *
+ *
+ * Under every policy, elements are addressed with their global index, the number of elements added before them, and
+ * the size is the number of elements ever added. Elements are stored in chunks of a fixed size, so adding an element
+ * never copies the elements already stored.
+ */
+public final class HistoryPolicy {
+
+	/** Error message when the number of elements retained is invalid. */
+	private static String CAPACITY_INVALID = "Number of elements retained is invalid : %s";
+
+	/** Error message when the directory is null. */
+	private static String DIRECTORY_NULL = "Directory is null";
+
+	/** Error message when the segment size is invalid. */
+	private static String SEGMENT_SIZE_INVALID = "Segment size is invalid : %s";
+
+	/** The default size of the segment files of a persistent history. */
+	private static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+	/** The policy keeping every element in memory. */
+	private static final HistoryPolicy KEEP_ALL = new HistoryPolicy(Kind.KEEP_ALL, 0, null);
+
+	/**
+	 * The kinds of history.
+	 */
+	private enum Kind {
+		KEEP_ALL, KEEP_LAST, SPILL_TO_DISK, PERSISTENT
+	}
+
+	/** The kind of history. */
+	private final Kind kind;
+
+	/** The number of elements retained in memory, or the segment size of a persistent history. */
+	private final int capacity;
+
+	/** The directory in which elements are written, null if elements are only kept in memory. */
+	private final Path directory;
+
+	private HistoryPolicy(Kind kind, int capacity, Path directory) {
+		this.kind = kind;
+		this.capacity = capacity;
+		this.directory = directory;
+	}
+
+	/**
+	 * Gets the policy keeping every element in memory.
+	 *
+	 * @return the history policy
+	 */
+	public static HistoryPolicy keepAll() {
+		return KEEP_ALL;
+	}
+
+	/**
+	 * Gets the policy keeping only the last elements in memory.
+	 *
+	 * @param count the number of elements retained
+	 * @return the history policy
+	 */
+	public static HistoryPolicy keepLast(int count) {
+		validateCapacity(count);
+		return new HistoryPolicy(Kind.KEEP_LAST, count, null);
+	}
+
+	/**
+	 * Gets the policy keeping the newest elements in memory and spilling older elements to disk.
+	 *
+	 * @param directory the directory in which the segment file is created
+	 * @param hotCount the minimum number of newest elements kept in memory
+	 * @return the history policy
+	 */
+	public static HistoryPolicy spillToDisk(Path directory, int hotCount) {
+		validateCapacity(hotCount);
+		validateDirectory(directory);
+		return new HistoryPolicy(Kind.SPILL_TO_DISK, hotCount, directory);
+	}
+
+	/**
+	 * Gets the policy appending every element to a persistent log of memory-mapped segment files.
+	 *
+	 * @param directory the directory holding the segment files
+	 * @return the history policy
+	 */
+	public static HistoryPolicy persistent(Path directory) {
+		return persistent(directory, DEFAULT_SEGMENT_BYTES);
+	}
+
+	/**
+	 * Gets the policy appending every element to a persistent log of memory-mapped segment files.
+	 *
+	 * @param directory the directory holding the segment files
+	 * @param segmentBytes the size of each segment file
+	 * @return the history policy
+	 */
+	public static HistoryPolicy persistent(Path directory, int segmentBytes) {
+		validateDirectory(directory);
+		if(segmentBytes <= MappedLogElementHistory.HEADER_BYTES) {
+			throw new IllegalArgumentException(String.format(SEGMENT_SIZE_INVALID, segmentBytes));
+		}
+		return new HistoryPolicy(Kind.PERSISTENT, segmentBytes, directory);
+	}
+
+	/**
+	 * Creates the storage of the elements for this policy.
+	 *
+	 * @return the element history
+	 */
+	ElementHistory createHistory() {
+		switch (kind) {
+		case KEEP_LAST:
+			return new BoundedElementHistory(capacity);
+		case SPILL_TO_DISK:
+			//one more chunk than required, as the newest chunk is only partially filled
+			int hotChunks = ((capacity - 1) >>> ElementHistory.CHUNK_SHIFT) + 2;
+			return new SpillingElementHistory(directory, hotChunks);
+		case PERSISTENT:
+			return new MappedLogElementHistory(directory, capacity);
+		default:
+			return new ChunkedElementHistory();
+		}
+	}
+
+	/**
+	 * Validate directory.
+	 *
+	 * @param directory the directory
+	 */
+	private static void validateDirectory(Path directory) {
+		if(null == directory) {
+			throw new IllegalArgumentException(DIRECTORY_NULL);
+		}
+	}
+
+	/**
+	 * Validate the number of elements retained.
+	 *
+	 * @param capacity the number of elements retained
+	 */
+	private static void validateCapacity(int capacity) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException(String.format(CAPACITY_INVALID, capacity));
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The Class LatencyHistogram, a histogram of durations in nanoseconds with one bucket per power of two.
+ *
+ * Recording a duration increments one bucket, so it can be done by many threads without a lock. A percentile is
+ * estimated as the upper bound of its bucket, so it is at most twice the actual duration.
+ */
+final class LatencyHistogram {
+
+	/** The counts, the bucket k holding the durations in [2^(k-1), 2^k - 1], and the bucket 0 the zero durations. */
+	private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos the duration, in nanoseconds
+	 */
+	void record(long nanos) {
+		buckets.incrementAndGet(nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos));
+	}
+
+	/**
+	 * Estimates a percentile.
+	 *
+	 * @param q the quantile, between 0 and 1
+	 * @return the upper bound of the bucket of the percentile, in nanoseconds, 0 if no duration was recorded
+	 */
+	long percentile(double q) {
+		long[] counts = new long[buckets.length()];
+		long total = 0;
+		for(int i = 0; i < counts.length; ++i) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		long rank = Math.max(1, (long) Math.ceil(q * total));
+		for(int i = 0; i < counts.length; ++i) {
+			rank -= counts[i];
+			if(rank <= 0) {
+				return upperBound(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Estimates the largest duration recorded.
+	 *
+	 * @return the upper bound of the highest bucket used, in nanoseconds, 0 if no duration was recorded
+	 */
+	long max() {
+		for(int i = buckets.length() - 1; i >= 0; --i) {
+			if(buckets.get(i) != 0) {
+				return upperBound(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Clears the durations recorded.
+	 */
+	void reset() {
+		for(int i = 0; i < buckets.length(); ++i) {
+			buckets.set(i, 0);
+		}
+	}
+
+	private static long upperBound(int bucket) {
+		return bucket == 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+}
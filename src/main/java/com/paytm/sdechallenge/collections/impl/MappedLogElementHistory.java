@@ -0,0 +1,544 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Class MappedLogElementHistory, which persists every element added to an append-only log of memory-mapped
+ * segment files.
+ *
+ * Log format
+ *
+ *
+ *  Each segment file is named after the global index of its first element, and starts with a header holding a magic
+ *  number, the format version and the number of records, which is written when the segment is sealed. A segment is
+ *  sealed when the next record does not fit into it, and a new segment is then created.
+ *
+ *  Each record holds the length of the rest of the record, the scale of the element and the two's complement bytes
+ *  of its unscaled value. The length is written after the rest of the record, and a length of 0 marks the end of
+ *  the log, as new segment files are filled with zeros.
+ *
+ *
+ * Crash Recovery
+ *
+ *
+ *  When the log is opened, sealed segments are not read: their number of records is in their header. Only the
+ *  records of the last segment, which was not sealed, are scanned. A record which was not completely written is
+ *  discarded, and the rest of the segment is cleared so that it can be appended to again.
+ *
+ *
+ * Reading Elements
+ *
+ *
+ *  Elements are decoded from the mapped segments when they are read, they are never all loaded onto the heap. The
+ *  offset of every INDEX_STRIDE-th record of a segment is kept, and is computed for a sealed segment the first time
+ *  one of its elements is read. Reading the element following the last one read does not need the index.
+ *
+ *  Only the active segment is mapped for writing, and its channel is kept open until it is sealed or the log is
+ *  closed. A sealed segment is only mapped, read-only, the first time one of its elements is read, so opening a log
+ *  of many segments reads their headers but maps none of them.
+ */
+class MappedLogElementHistory implements ElementHistory {
+
+	/** The magic number starting each segment file. */
+	private static final int MAGIC = 0x4D41_4C47;
+
+	/** The version of the log format. */
+	private static final int VERSION = 1;
+
+	/** The offset of the number of records in the segment header. */
+	private static final int COUNT_OFFSET = 8;
+
+	/** The size of the segment header. */
+	static final int HEADER_BYTES = 16;
+
+	/** The size of the length and scale of a record. */
+	private static final int RECORD_OVERHEAD = 8;
+
+	/** The log2 of the number of records between two offsets kept in the index. */
+	private static final int INDEX_STRIDE_SHIFT = 6;
+
+	/** The mask giving the position of a record after the last offset kept in the index. */
+	private static final int INDEX_STRIDE_MASK = (1 << INDEX_STRIDE_SHIFT) - 1;
+
+	/** The prefix of segment file names. */
+	private static final String SEGMENT_PREFIX = "elements-";
+
+	/** The suffix of segment file names. */
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	/** Error message when a file is not a segment of the log. */
+	private static String SEGMENT_INVALID = "Segment file is invalid : %s";
+
+	/** Error message when an element does not fit into a segment. */
+	private static String ELEMENT_TOO_LARGE = "Element is too large for the segment size : %s";
+
+	/** The directory holding the segment files. */
+	private final Path directory;
+
+	/** The size of a new segment file. */
+	private final int segmentBytes;
+
+	/** The segments, ordered by the index of their first element. */
+	private final List<Segment> segments = new ArrayList<>();
+
+	/** The segment appended to, null if the last segment is sealed. */
+	private Segment active;
+
+	/** The number of elements in the log. */
+	private int size;
+
+	/**
+	 * Opens the log in the directory, recovering the elements it already holds.
+	 *
+	 * @param directory the directory holding the segment files
+	 * @param segmentBytes the size of a new segment file
+	 */
+	MappedLogElementHistory(Path directory, int segmentBytes) {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+		try {
+			Files.createDirectories(directory);
+			List<Path> files = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+					SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+				for(Path file : stream) {
+					files.add(file);
+				}
+			}
+			Collections.sort(files);
+			for(int i = 0; i < files.size(); ++i) {
+				Segment segment = Segment.open(files.get(i), size);
+				//segments are sealed before the next one is created, so only the last one can be unsealed
+				if(!segment.sealed && i < files.size() - 1) {
+					throw new IllegalStateException(String.format(SEGMENT_INVALID, files.get(i)));
+				}
+				segments.add(segment);
+				size += segment.count;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if(!segments.isEmpty() && !segments.get(segments.size() - 1).sealed) {
+			active = segments.get(segments.size() - 1);
+		}
+	}
+
+	@Override
+	public void add(BigDecimal element) {
+		byte[] unscaled = element.unscaledValue().toByteArray();
+		int recordBytes = RECORD_OVERHEAD + unscaled.length;
+		if(active == null || !active.hasRoom(recordBytes)) {
+			roll(recordBytes);
+		}
+		active.append(element.scale(), unscaled);
+		++size;
+	}
+
+	@Override
+	public BigDecimal get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		Segment segment = segments.get(findSegment(index));
+		return segment.get(index - segment.firstIndex);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int firstIndex() {
+		return 0;
+	}
+
+	@Override
+	public boolean isConcurrentlyReadable() {
+		//a segment moves its cursor on each read
+		return false;
+	}
+
+	/**
+	 * Gets 0, elements are decoded from the segment files each time they are read.
+	 */
+	@Override
+	public int residentSize() {
+		return 0;
+	}
+
+	@Override
+	public long offHeapBytes() {
+		long bytes = 0L;
+		for(Segment segment : segments) {
+			bytes += segment.capacity;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Forces the appended records to the segment files, closes the channel of the active segment and drops the
+	 * mappings of all segments, which are unmapped once garbage collected. A segment read or appended to after the
+	 * log is closed is mapped again.
+	 */
+	@Override
+	public void close() {
+		for(Segment segment : segments) {
+			segment.release();
+		}
+	}
+
+	/**
+	 * Seals the active segment and creates a new one.
+	 *
+	 * @param recordBytes the size of the next record
+	 */
+	private void roll(int recordBytes) {
+		if(HEADER_BYTES + recordBytes > segmentBytes) {
+			throw new IllegalArgumentException(String.format(ELEMENT_TOO_LARGE, recordBytes));
+		}
+		Path file = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, size, SEGMENT_SUFFIX));
+		//created before the active segment is sealed, so that a segment that cannot be created leaves the log as it was
+		Segment created = Segment.create(file, size, segmentBytes);
+		if(active != null) {
+			active.seal();
+		}
+		active = created;
+		segments.add(active);
+	}
+
+	/**
+	 * Finds the segment holding the element at the given index.
+	 *
+	 * @param index the global index
+	 * @return the position of the segment in segments
+	 */
+	private int findSegment(int index) {
+		int low = 0;
+		int high = segments.size() - 1;
+		while(low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if(segments.get(middle).firstIndex <= index) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * A segment file of the log, mapped into memory.
+	 */
+	private static final class Segment {
+
+		/** The segment file. */
+		private final Path file;
+
+		/** The global index of the first element of the segment. */
+		private final int firstIndex;
+
+		/** The size of the segment file. */
+		private final int capacity;
+
+		/** The mapped segment file, read-write while the segment is active, null until mapped. */
+		private MappedByteBuffer buffer;
+
+		/** The channel of the active segment, kept open while it is mapped for writing. */
+		private FileChannel channel;
+
+		/** The number of records in the segment. */
+		private int count;
+
+		/** True, if the segment is sealed and no longer appended to. */
+		private boolean sealed;
+
+		/** The offset after the last record, only known for the active segment or once indexed. */
+		private int end;
+
+		/** The offsets of every INDEX_STRIDE-th record, null until the segment is indexed. */
+		private int[] index;
+
+		/** The position in the segment of the last record read, -1 if none. */
+		private int cursorPosition = -1;
+
+		/** The offset of the last record read. */
+		private int cursorOffset;
+
+		private Segment(Path file, int firstIndex, int capacity) {
+			this.file = file;
+			this.firstIndex = firstIndex;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Creates a new segment file filled with zeros.
+		 *
+		 * @param file the segment file
+		 * @param firstIndex the global index of the first element of the segment
+		 * @param segmentBytes the size of the segment file
+		 * @return the segment
+		 */
+		static Segment create(Path file, int firstIndex, int segmentBytes) {
+			try {
+				FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Segment segment = new Segment(file, firstIndex, segmentBytes);
+			MappedByteBuffer buffer = segment.mapped();
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			segment.end = HEADER_BYTES;
+			segment.index = new int[16];
+			return segment;
+		}
+
+		/**
+		 * Opens an existing segment file, recovering its records if it was not sealed.
+		 *
+		 * @param file the segment file
+		 * @param firstIndex the global index of the first element of the segment
+		 * @return the segment
+		 */
+		static Segment open(Path file, int firstIndex) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			long length;
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				length = channel.size();
+				if(length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+					throw new IllegalStateException(String.format(SEGMENT_INVALID, file));
+				}
+				while(header.hasRemaining()) {
+					channel.read(header, header.position());
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Segment segment = new Segment(file, firstIndex, (int) length);
+			segment.count = header.getInt(COUNT_OFFSET);
+			segment.sealed = segment.count > 0;
+			if(segment.sealed) {
+				//sealed segments are mapped when first read
+				if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+					throw new IllegalStateException(String.format(SEGMENT_INVALID, file));
+				}
+				return segment;
+			}
+			MappedByteBuffer buffer = segment.mapped();
+			if(buffer.getInt(0) == 0 && buffer.getInt(4) == 0) {
+				//the segment was created just before a crash, before its header was written
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+			}
+			if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				segment.release();
+				throw new IllegalStateException(String.format(SEGMENT_INVALID, file));
+			}
+			segment.recover();
+			return segment;
+		}
+
+		/**
+		 * Gets the mapped segment file, mapping it read-write with its channel kept open if the segment is active, or
+		 * read-only if it is sealed.
+		 *
+		 * @return the mapped segment file
+		 */
+		private MappedByteBuffer mapped() {
+			if(buffer == null) {
+				try {
+					if(sealed) {
+						try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+							buffer = readChannel.map(MapMode.READ_ONLY, 0, capacity);
+						}
+					} else {
+						channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+						buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return buffer;
+		}
+
+		/**
+		 * Forces the records of the active segment to the file, closes its channel and drops the mapping.
+		 */
+		void release() {
+			if(channel != null) {
+				buffer.force();
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				channel = null;
+			}
+			buffer = null;
+		}
+
+		/**
+		 * Checks if the segment has room for a record.
+		 *
+		 * @param recordBytes the size of the record
+		 * @return true, if the record fits after the last record
+		 */
+		boolean hasRoom(int recordBytes) {
+			return end + recordBytes <= capacity;
+		}
+
+		/**
+		 * Appends a record. The length is written last, so that a record is only visible once complete.
+		 *
+		 * @param scale the scale of the element
+		 * @param unscaled the bytes of the unscaled value of the element
+		 */
+		void append(int scale, byte[] unscaled) {
+			int offset = end;
+			MappedByteBuffer buffer = mapped();
+			buffer.putInt(offset + 4, scale);
+			for(int i = 0; i < unscaled.length; ++i) {
+				buffer.put(offset + RECORD_OVERHEAD + i, unscaled[i]);
+			}
+			buffer.putInt(offset, 4 + unscaled.length);
+			addRecord(offset);
+			end = offset + RECORD_OVERHEAD + unscaled.length;
+		}
+
+		/**
+		 * Writes the number of records into the header, after which the segment is no longer appended to. The
+		 * read-write mapping is released, the segment is mapped read-only when read again.
+		 */
+		void seal() {
+			mapped().putInt(COUNT_OFFSET, count);
+			release();
+			sealed = true;
+		}
+
+		/**
+		 * Gets the element of a record.
+		 *
+		 * @param position the position of the record in the segment
+		 * @return the big decimal value
+		 */
+		BigDecimal get(int position) {
+			MappedByteBuffer buffer = mapped();
+			int offset;
+			if(position == cursorPosition) {
+				offset = cursorOffset;
+			} else if(cursorPosition >= 0 && position == cursorPosition + 1) {
+				offset = cursorOffset + 4 + buffer.getInt(cursorOffset);
+			} else {
+				if(index == null) {
+					scan(false);
+				}
+				offset = index[position >>> INDEX_STRIDE_SHIFT];
+				for(int i = position & INDEX_STRIDE_MASK; i > 0; --i) {
+					offset += 4 + buffer.getInt(offset);
+				}
+			}
+			cursorPosition = position;
+			cursorOffset = offset;
+			int length = buffer.getInt(offset);
+			int scale = buffer.getInt(offset + 4);
+			byte[] unscaled = new byte[length - 4];
+			for(int i = 0; i < unscaled.length; ++i) {
+				unscaled[i] = buffer.get(offset + RECORD_OVERHEAD + i);
+			}
+			return new BigDecimal(new BigInteger(unscaled), scale);
+		}
+
+		/**
+		 * Scans the records of a segment that was not sealed, discarding a record that was not completely written
+		 * and clearing the rest of the segment.
+		 */
+		private void recover() {
+			scan(true);
+			int offset = end;
+			for(; offset + 8 <= capacity; offset += 8) {
+				buffer.putLong(offset, 0L);
+			}
+			for(; offset < capacity; ++offset) {
+				buffer.put(offset, (byte) 0);
+			}
+		}
+
+		/**
+		 * Scans the records of the segment to build the index.
+		 *
+		 * @param counting true, if the number of records is not known and must be counted
+		 */
+		private void scan(boolean counting) {
+			MappedByteBuffer buffer = mapped();
+			index = new int[16];
+			int records = 0;
+			int offset = HEADER_BYTES;
+			while(counting ? isRecord(offset) : records < count) {
+				if((records & INDEX_STRIDE_MASK) == 0) {
+					addIndex(records, offset);
+				}
+				offset += 4 + buffer.getInt(offset);
+				++records;
+			}
+			count = records;
+			end = offset;
+		}
+
+		/**
+		 * Checks if a complete record starts at the offset.
+		 *
+		 * @param offset the offset
+		 * @return true, if the length at the offset is valid and the record fits into the segment
+		 */
+		private boolean isRecord(int offset) {
+			if(offset + RECORD_OVERHEAD > capacity) {
+				return false;
+			}
+			int length = buffer.getInt(offset);
+			return length > 4 && length <= capacity - offset - 4;
+		}
+
+		/**
+		 * Counts a record appended at the offset.
+		 *
+		 * @param offset the offset of the record
+		 */
+		private void addRecord(int offset) {
+			if((count & INDEX_STRIDE_MASK) == 0) {
+				addIndex(count, offset);
+			}
+			++count;
+		}
+
+		/**
+		 * Keeps the offset of an indexed record.
+		 *
+		 * @param position the position of the record, a multiple of INDEX_STRIDE
+		 * @param offset the offset of the record
+		 */
+		private void addIndex(int position, int offset) {
+			int slot = position >>> INDEX_STRIDE_SHIFT;
+			if(slot == index.length) {
+				index = Arrays.copyOf(index, slot << 1);
+			}
+			index[slot] = offset;
+		}
+	}
+}
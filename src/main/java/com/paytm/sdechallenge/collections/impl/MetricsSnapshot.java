@@ -0,0 +1,145 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The Class MetricsSnapshot, the immutable values of the CalculatorMetrics of a calculator at one point in time.
+ *
+ * Latencies are estimated from histograms with one bucket per power of two, as the upper bound of the bucket, in
+ * nanoseconds.
+ */
+public final class MetricsSnapshot {
+
+	private final long addCount;
+
+	private final long queryCount;
+
+	private final long addLatencyP50Nanos;
+
+	private final long addLatencyP99Nanos;
+
+	private final long addLatencyMaxNanos;
+
+	private final long queryLatencyP50Nanos;
+
+	private final long queryLatencyP99Nanos;
+
+	private final long queryLatencyMaxNanos;
+
+	private final int window;
+
+	private final int windowFill;
+
+	private final int historySize;
+
+	private final long historyEstimatedBytes;
+
+	private final long historyOffHeapBytes;
+
+	private final long recomputeCount;
+
+	private final long recomputedElements;
+
+	/**
+	 * Instantiates a new metrics snapshot.
+	 *
+	 * @param addCount the number of elements added
+	 * @param queryCount the number of moving averages calculated
+	 * @param addLatencyP50Nanos the median latency of add
+	 * @param addLatencyP99Nanos the 99th percentile latency of add
+	 * @param addLatencyMaxNanos the largest latency of add
+	 * @param queryLatencyP50Nanos the median latency of movingAverage
+	 * @param queryLatencyP99Nanos the 99th percentile latency of movingAverage
+	 * @param queryLatencyMaxNanos the largest latency of movingAverage
+	 * @param window the window size
+	 * @param windowFill the number of elements in the window
+	 * @param historySize the number of elements retained by the history
+	 * @param historyEstimatedBytes the estimated heap size of the elements retained by the history on the heap
+	 * @param historyOffHeapBytes the size of the files holding the elements spilled or persisted by the history
+	 * @param recomputeCount the number of times the window sum was recomputed
+	 * @param recomputedElements the number of elements read by the recomputes
+	 */
+	@ConstructorProperties({"addCount", "queryCount", "addLatencyP50Nanos", "addLatencyP99Nanos", "addLatencyMaxNanos",
+			"queryLatencyP50Nanos", "queryLatencyP99Nanos", "queryLatencyMaxNanos", "window", "windowFill",
+			"historySize", "historyEstimatedBytes", "historyOffHeapBytes", "recomputeCount", "recomputedElements"})
+	public MetricsSnapshot(long addCount, long queryCount, long addLatencyP50Nanos, long addLatencyP99Nanos,
+			long addLatencyMaxNanos, long queryLatencyP50Nanos, long queryLatencyP99Nanos, long queryLatencyMaxNanos,
+			int window, int windowFill, int historySize, long historyEstimatedBytes, long historyOffHeapBytes,
+			long recomputeCount, long recomputedElements) {
+		this.addCount = addCount;
+		this.queryCount = queryCount;
+		this.addLatencyP50Nanos = addLatencyP50Nanos;
+		this.addLatencyP99Nanos = addLatencyP99Nanos;
+		this.addLatencyMaxNanos = addLatencyMaxNanos;
+		this.queryLatencyP50Nanos = queryLatencyP50Nanos;
+		this.queryLatencyP99Nanos = queryLatencyP99Nanos;
+		this.queryLatencyMaxNanos = queryLatencyMaxNanos;
+		this.window = window;
+		this.windowFill = windowFill;
+		this.historySize = historySize;
+		this.historyEstimatedBytes = historyEstimatedBytes;
+		this.historyOffHeapBytes = historyOffHeapBytes;
+		this.recomputeCount = recomputeCount;
+		this.recomputedElements = recomputedElements;
+	}
+
+	public long getAddCount() {
+		return addCount;
+	}
+
+	public long getQueryCount() {
+		return queryCount;
+	}
+
+	public long getAddLatencyP50Nanos() {
+		return addLatencyP50Nanos;
+	}
+
+	public long getAddLatencyP99Nanos() {
+		return addLatencyP99Nanos;
+	}
+
+	public long getAddLatencyMaxNanos() {
+		return addLatencyMaxNanos;
+	}
+
+	public long getQueryLatencyP50Nanos() {
+		return queryLatencyP50Nanos;
+	}
+
+	public long getQueryLatencyP99Nanos() {
+		return queryLatencyP99Nanos;
+	}
+
+	public long getQueryLatencyMaxNanos() {
+		return queryLatencyMaxNanos;
+	}
+
+	public int getWindow() {
+		return window;
+	}
+
+	public int getWindowFill() {
+		return windowFill;
+	}
+
+	public int getHistorySize() {
+		return historySize;
+	}
+
+	public long getHistoryEstimatedBytes() {
+		return historyEstimatedBytes;
+	}
+
+	public long getHistoryOffHeapBytes() {
+		return historyOffHeapBytes;
+	}
+
+	public long getRecomputeCount() {
+		return recomputeCount;
+	}
+
+	public long getRecomputedElements() {
+		return recomputedElements;
+	}
+}
@@ -1,11 +1,16 @@
 package com.paytm.sdechallenge.collections.impl;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Queue;
 
 import com.paytm.sdechallenge.collections.MovingAverageCalculator;
 
@@ -26,18 +31,47 @@ import com.paytm.sdechallenge.collections.MovingAverageCalculator;
  * Storing Data
  * 
  * 
- *  elements - The class stores all elements inserted as a list of BigDecimals.
+ *  elements - The class stores the elements inserted in an ElementHistory, as defined by the HistoryPolicy. By
+ *  default all elements are kept in memory, in chunks of a fixed size so that adding an element never copies the
+ *  elements already stored. The history can also keep only the last K elements, spill older elements to disk, or
+ *  persist every element to a memory-mapped log. A calculator opened on an existing log rebuilds windowSum from the
+ *  last elements of the log only. Elements are always addressed by their global index.
  *  
  *  window - The window size to calculate the Moving Average. Must be initialized using the available constructors
  *  and can be updated using the setter method 
  *  
- *  windowElements - A FIFO queue is used to hold all elements that fall inside the window (last N elements)
- *  for moving average calculation. This queue is updated whenever an element is inserted, by removing the first
- *  element and adding the new element to the last. This ensures that the correct elements are present inside the
- *  window after each insertion.
+ *  windowElements - A circular array of size window is used to hold all elements that fall inside the window
+ *  (last N elements) for moving average calculation. The array is allocated once for the window size, except for a
+ *  restored calculator, whose array only holds the elements read from the checkpoint and grows up to the window size
+ *  as elements are added. When an element is inserted into a full window, it overwrites the oldest element at the head index and the head moves forward.
+ *  This ensures that the correct elements are present inside the window after each insertion, without allocating
+ *  a node for every element.
  *  
  *  windowSum - The sum of all elements inside the window is calculated after every insertion and stored, so that
  *  the moving average calculation can be done without any iteration.
+ *  
+ *  statistics - The minimum, maximum, variance and standard deviation of the window can be enabled with
+ *  enableStatistics. The minimum and maximum are kept in monotonic deques, and the variance is derived from a running
+ *  sum of the squares of the window elements, all updated when an element is added next to windowSum. Exact
+ *  percentiles are selected by rank from an order statistic tree of the window, and approximate percentiles from a
+ *  sketch of logarithmic buckets, whose size does not depend on the window. No statistic is maintained unless
+ *  enabled.
+ *  
+ *  rollups - The open, high, low and close elements, the sum and the count of each block of a fixed number of
+ *  elements can be enabled with enableRollups, at several levels such as blocks of 1k, 64k and 4M elements. They are
+ *  kept as unscaled longs in primitive arrays, updated as each element is added, so that a range of the history can
+ *  be aggregated or charted from the coarsest blocks inside it rather than from its elements.
+ *  
+ *  metrics - CalculatorMetrics can be attached to record the adds, the moving averages calculated, their latencies
+ *  and the recomputes of windowSum, exposed through a snapshot or JMX. Without metrics, add and movingAverage only
+ *  check a null field.
+ *  
+ *  checkpoint - The state of the calculator can be written to a compact binary checkpoint: the window size, scale,
+ *  rounding mode and statistics enabled, the elements of the window, the exact windowSum and optionally the elements
+ *  retained before the window. restore reads it back in one sequential pass, without summing any element, and the
+ *  restored calculator keeps the global indices of the elements. The history of a restored calculator keeps all its
+ *  elements in memory, whatever the HistoryPolicy of the calculator checkpointed. Metrics and rollups are not
+ *  checkpointed.
  * 
  * 
  * Scale and RoundingMode
@@ -66,32 +100,59 @@ import com.paytm.sdechallenge.collections.MovingAverageCalculator;
  * 
  *  When each element is added, the windowSum is calculated by adding the newly added element and popping the first
  *  element in the windowElements.
+ *  When a batch of elements is added, windowSum is updated once: when the batch is at least as large as the window,
+ *  only the last window elements of the batch are summed, otherwise the sum of the elements evicted by the batch is
+ *  subtracted and the sum of the batch is added.
  *  When the moving average method is called, the windowSum is calculated by dividing windowElements with the
- *  window size and then setting scale
- *  When the window size is updated, a recalculation is done to update windowElements and windowSum
+ *  window size and then setting scale. The divisor of a full window is kept as a BigDecimal, and the result is
+ *  cached until an element is added or the window, scale or rounding mode changes, so that polling the moving
+ *  average between adds does not divide again. movingAverageUnscaled and movingAverage(DecimalHolder) return
+ *  the cached result as an unscaled long, allocating nothing.
+ *  When the window size is updated, windowElements is resized keeping the elements that are still inside the new
+ *  window. Only the elements leaving or entering the window are subtracted from or added to windowSum. Large sums are
+ *  split into blocks summed in parallel with fork/join, then added exactly, as are the sum and average of a range of
+ *  elements and the series of moving averages of a range, derived from exact prefix sums.
  *   	 
  * 
  * Complexities
  * 
  *  Time Complexity:
  *  The add, movingAverage, get, getAll, size, isEmpty methods have time complexity O(1)
- *  The setWindow method, used to update the window size has a complexity of O(n), where n is the window size
+ *  The addAll method has a complexity of O(b), where b is the number of elements added
+ *  The setWindow method, used to update the window size has a complexity of O(n), where n is the new window size
+ *  The sum, average and movingAverageSeries methods have a complexity of O(r), where r is the size of the range,
+ *  divided between the threads of the fork/join pool
+ *  The min, max, variance and standardDeviation methods have time complexity O(1), maintaining them adds an
+ *  amortized O(1) to each add
+ *  The percentile method has an expected time complexity of O(log n), maintaining it adds O(log n) to each add
+ *  The approximatePercentile method has a time complexity of O(b), where b is the number of buckets of the sketch,
+ *  maintaining it adds O(1) to each add
+ *  The checkpoint and restore methods have a complexity of O(h), where h is the number of elements written
+ *  Maintaining rollups adds O(l) to each add, where l is the number of levels. The aggregate method has a complexity
+ *  of O(r / B + b), where B is the block size of the coarsest level and b the block size of the finest level, and
+ *  the rollups method of O(k), where k is the number of blocks returned
  *  
  *  Space Complexity:
  *  The add, movingAverage, setWindow methods have complexity O(n), where n is the window size
  *  The get, getAll, size, isEmpty methods have complexity O(1)
  *   
  */
-public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
+public class MovingAverageCalculatorImpl implements MovingAverageCalculator, SlidingWindowCalculator, Closeable {
 	
-	/** The list storing all elements. */
-	private List<BigDecimal> elements = new ArrayList<>();
+	/** The history storing the elements. */
+	private ElementHistory elements = HistoryPolicy.keepAll().createHistory();
 	
 	/** The window size to calculate moving average. */
 	private int window;
 	
-	/** A FIFO queue storing all elements currently in the window for moving average calculation. */
-	private Queue<BigDecimal> windowElements = new LinkedList<>();
+	/** A circular array storing all elements currently in the window for moving average calculation. */
+	private BigDecimal[] windowElements;
+
+	/** The index of the oldest element in windowElements. */
+	private int windowHead;
+
+	/** The number of elements currently in windowElements. */
+	private int windowCount;
 
 	/** The scale, which is the number of decimal places the moving average will have. */
 	private int scale = 5;
@@ -104,19 +165,91 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	/** The sum of elements in the window at any point. */
 	private BigDecimal windowSum = BigDecimal.ZERO;
 	
-	/** Error message when Window Size is Invalid. */
-	private static String WINDOW_INVALID = "Window size is invalid : %s";
+	/** The window size as a BigDecimal, the divisor of windowSum once the window is full. */
+	private BigDecimal windowDivisor;
+	
+	/** The moving average last calculated, null once it is invalidated. */
+	private BigDecimal cachedMovingAverage;
+	
+	/** The unscaled value of cachedMovingAverage, valid if unscaledCached. */
+	private long cachedUnscaled;
+	
+	/** Whether cachedUnscaled holds the unscaled value of cachedMovingAverage. */
+	private boolean unscaledCached;
+	
+	/** The statistics enabled. */
+	private final EnumSet<WindowStatistic> enabledStatistics = EnumSet.noneOf(WindowStatistic.class);
+	
+	/** The statistics of the window, null if none is enabled. */
+	private WindowStatistics statistics;
+	
+	/** The aggregates of the blocks of elements, null if disabled. */
+	private Rollups rollups;
+	
+	/** The metrics recording the use of the calculator, null if disabled. */
+	private CalculatorMetrics metrics;
+	
+	/** The relative accuracy of the approximate percentiles. */
+	private double percentileAccuracy = 0.01;
+	
+	/** Error message when a quantile is invalid. */
+	private static String QUANTILE_INVALID = "Quantile is invalid : %s";
+	
+	/** Error message when the accuracy of the approximate percentiles is invalid. */
+	private static String ACCURACY_INVALID = "Relative accuracy is invalid : %s";
+	
+	/** Error message when a statistic is null. */
+	private static String STATISTIC_NULL = "Statistic is null";
+	
+	/** Error message when a statistic is not enabled. */
+	private static String STATISTIC_NOT_ENABLED = "Statistic is not enabled : %s";
+	
+	/** Error message when the Window Size requires elements no longer retained by the history. */
+	private static String WINDOW_NOT_RETAINED = "Window size is larger than the history retained : %s";
 	
-	/** Error message when Scale is Invalid. */
-	private static String SCALE_INVALID = "Scale is invalid : %s";
+	/** Error message when a range is empty. */
+	private static String RANGE_EMPTY = "Range is empty : [%s, %s)";
 	
-	/** Error message when Rounding Mode is null. */
-	private static String ROUNDING_MODE_NULL = "Rounding Mode is null";
+	/** Error message when History Policy is null. */
+	private static String HISTORY_POLICY_NULL = "History Policy is null";
 	
-	/** Error message when Rounding Mode is UNESCESSARY. 
-	 *	Rounding Mode cannot be UNESCESSARY as division with BigDecimals always require a RoundingMode
+	/** Error message when the rollups are not enabled. */
+	private static String ROLLUPS_NOT_ENABLED = "Rollups are not enabled";
+	
+	/** Error message when a block size is not the one of a level of the rollups. */
+	private static String BLOCK_SIZE_NOT_A_LEVEL = "Block size is not a rollup level : %s";
+	
+	/** The block sizes of the rollup levels enabled by default, 1k, 64k and 4M elements. */
+	private static final int[] DEFAULT_ROLLUP_BLOCK_SIZES = {1 << 10, 1 << 16, 1 << 22};
+	
+	/** Error message when the stream of a checkpoint is null. */
+	private static String STREAM_NULL = "Stream is null";
+
+	/** Error message when Element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** Error message when a batch is null. */
+	private static String BATCH_NULL = "Batch is null";
+
+	/** Error message when an element of a batch is null. */
+	private static String BATCH_ELEMENT_NULL = "Element of the batch is null at index : %s";
+
+	/** Error message when the length of a batch is not within the array. */
+	private static String BATCH_LENGTH_INVALID = "Batch length is invalid : %s";
+	
+	/**
+	 * Instantiates a restored calculator, whose windowElements holds the elements of the window read from a
+	 * checkpoint rather than being allocated for the window size, which the checkpoint does not prove.
+	 *
+	 * @param window the window size
+	 * @param windowElements the elements of the window, oldest first
 	 */
-	private static String ROUNDING_MODE_CANT_BE_UNESCESSARY = "Rounding Mode cant be UNESCESSARY";
+	private MovingAverageCalculatorImpl(int window, BigDecimal[] windowElements) {
+		this.window = window;
+		this.windowElements = windowElements;
+		this.windowDivisor = BigDecimal.valueOf(window);
+		this.windowCount = windowElements.length;
+	}
 
 	/**
 	 * Instantiates a new moving average calculator impl.
@@ -124,8 +257,10 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 * @param window the window size
 	 */
 	public MovingAverageCalculatorImpl(int window) {
-		validateWindow(window);		
+		MovingAverageValidator.validateWindow(window);		
 		this.window = window;
+		this.windowElements = new BigDecimal[window];
+		this.windowDivisor = BigDecimal.valueOf(window);
 	}
 		
 	/**
@@ -135,10 +270,12 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 * @param scale the scale
 	 */
 	public MovingAverageCalculatorImpl(int window, int scale) {
-		validateWindow(window);
-		validateScale(scale);
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateScale(scale);
 
 		this.window = window;	
+		this.windowElements = new BigDecimal[window];
+		this.windowDivisor = BigDecimal.valueOf(window);
 		this.scale = scale;
 	}
 	
@@ -149,10 +286,12 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 * @param roundingMode the rounding mode
 	 */
 	public MovingAverageCalculatorImpl(int window, RoundingMode roundingMode) {
-		validateWindow(window);
-		validateRoundingMode(roundingMode);
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
 		
 		this.window = window;
+		this.windowElements = new BigDecimal[window];
+		this.windowDivisor = BigDecimal.valueOf(window);
 		this.roundingMode = roundingMode;
 	}
 
@@ -164,30 +303,208 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 * @param roundingMode the rounding mode
 	 */
 	public MovingAverageCalculatorImpl(int window, int scale, RoundingMode roundingMode) {
-		validateWindow(window);
-		validateScale(scale);
-		validateRoundingMode(roundingMode);
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
 		
 		this.window = window;
+		this.windowElements = new BigDecimal[window];
+		this.windowDivisor = BigDecimal.valueOf(window);
 		
 		this.scale = scale;
 		this.roundingMode = roundingMode;
 	}
+	/**
+	 * Instantiates a new moving average calculator impl.
+	 *
+	 * @param window the window
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 * @param historyPolicy the policy defining which elements are retained
+	 */
+	public MovingAverageCalculatorImpl(int window, int scale, RoundingMode roundingMode, HistoryPolicy historyPolicy) {
+		this(window, scale, roundingMode);
+		if(null == historyPolicy) {
+			throw new IllegalArgumentException(HISTORY_POLICY_NULL);
+		}
+		this.elements = historyPolicy.createHistory();
+		//a persistent history may already hold elements, the window is rebuilt from the last ones
+		if(elements.size() > 0) {
+			resizeWindow(window);
+		}
+	}
+
 
 	/**
 	 * Adds the new element.
 	 *
 	 * @param element the BigDecimal element
+	 * @throws ArithmeticException if rollups are enabled and the element has more decimal places than their scale
 	 */
 	@Override
 	public void add(BigDecimal element) {
-		//Subtraction is required only if window size >= number of elements currently inserted
-		if(elements.size() >= window) {
-			windowSum = windowSum.subtract(windowElements.poll());
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
 		}
+		CalculatorMetrics metrics = this.metrics;
+		long start = metrics == null ? 0 : System.nanoTime();
+		Rollups rollups = this.rollups;
+		//converted first, so that an element rejected by the rollups is not added
+		long unscaled = rollups == null ? 0L : rollups.toUnscaled(element);
+		//appended first, so that an element the history rejects, like a record too large for a log segment or a
+		//spill that fails, leaves the window and windowSum unchanged
 		elements.add(element);
-		windowElements.add(element);
+		invalidateMovingAverage();
+		BigDecimal evicted = null;
+		//Subtraction is required only if the window is full, the new element then replaces the oldest one
+		if(windowCount == window) {
+			evicted = windowElements[windowHead];
+			windowSum = windowSum.subtract(evicted);
+			windowElements[windowHead] = element;
+			if(++windowHead == window) {
+				windowHead = 0;
+			}
+		} else {
+			if(windowCount == windowElements.length) {
+				growWindowElements();
+			}
+			windowElements[windowIndex(windowCount)] = element;
+			++windowCount;
+		}
 		windowSum = windowSum.add(element);
+		if(statistics != null) {
+			int size = elements.size();
+			statistics.add(size - 1, element, evicted, size - windowCount);
+		}
+		if(rollups != null) {
+			rollups.add(elements.size() - 1, unscaled);
+		}
+		if(metrics != null) {
+			metrics.recordAdd(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Adds all the elements, in order.
+	 * The window is updated in one pass: when the batch is at least as large as the window, the window is replaced by
+	 * the last elements of the batch and only those are summed. Otherwise the elements evicted by the batch are the
+	 * oldest ones of the window, and windowSum is updated once with their sum and the sum of the batch.
+	 *
+	 * @param batch the BigDecimal elements
+	 * @throws ArithmeticException if rollups are enabled and an element has more decimal places than their scale, in
+	 * which case no element is added
+	 */
+	@Override
+	public void addAll(BigDecimal[] batch) {
+		if(null == batch) {
+			throw new IllegalArgumentException(BATCH_NULL);
+		}
+		addAll(batch, batch.length);
+	}
+	
+	/**
+	 * Adds the first elements of a batch, in order, so that a batch array can be reused for runs of any length.
+	 *
+	 * @param batch the BigDecimal elements
+	 * @param length the number of elements of the batch to add
+	 * @throws IllegalArgumentException if the batch is null, the length is not within it or one of its first
+	 * elements is null, in which case no element is added
+	 * @throws ArithmeticException if rollups are enabled and an element has more decimal places than their scale, in
+	 * which case no element is added
+	 */
+	public void addAll(BigDecimal[] batch, int length) {
+		//validated first, so that a rejected batch leaves the history and the window unchanged
+		if(null == batch) {
+			throw new IllegalArgumentException(BATCH_NULL);
+		}
+		if(length < 0 || length > batch.length) {
+			throw new IllegalArgumentException(String.format(BATCH_LENGTH_INVALID, length));
+		}
+		for(int i = 0; i < length; ++i) {
+			if(batch[i] == null) {
+				throw new IllegalArgumentException(String.format(BATCH_ELEMENT_NULL, i));
+			}
+		}
+		long[] unscaled = null;
+		if(rollups != null) {
+			unscaled = new long[length];
+			for(int i = 0; i < length; ++i) {
+				unscaled[i] = rollups.toUnscaled(batch[i]);
+			}
+		}
+		if(metrics != null) {
+			metrics.recordAdds(length);
+		}
+		invalidateMovingAverage();
+		for(int i = 0; i < length; ++i) {
+			elements.add(batch[i]);
+			if(unscaled != null) {
+				rollups.add(elements.size() - 1, unscaled[i]);
+			}
+		}
+		if(length >= window) {
+			if(windowElements.length < window) {
+				windowElements = new BigDecimal[window];
+			}
+			BigDecimal sum = BigDecimal.ZERO;
+			int startIndex = length - window;
+			for(int i = 0; i < window; ++i) {
+				BigDecimal element = batch[startIndex + i];
+				windowElements[i] = element;
+				sum = sum.add(element);
+			}
+			windowHead = 0;
+			windowCount = window;
+			windowSum = sum;
+			rebuildStatistics();
+			return;
+		}
+		int evicted = Math.max(0, windowCount + length - window);
+		BigDecimal evictedSum = BigDecimal.ZERO;
+		for(int i = 0; i < evicted; ++i) {
+			evictedSum = evictedSum.add(windowElements[windowIndex(i)]);
+		}
+		BigDecimal batchSum = BigDecimal.ZERO;
+		int index = elements.size() - length;
+		for(int i = 0; i < length; ++i) {
+			BigDecimal element = batch[i];
+			if(windowCount == window) {
+				if(statistics != null) {
+					statistics.add(index, element, windowElements[windowHead], index - window + 1);
+				}
+				windowElements[windowHead] = element;
+				if(++windowHead == window) {
+					windowHead = 0;
+				}
+			} else {
+				if(windowCount == windowElements.length) {
+					growWindowElements();
+				}
+				windowElements[windowIndex(windowCount)] = element;
+				++windowCount;
+				if(statistics != null) {
+					statistics.add(index, element, null, index + 1 - windowCount);
+				}
+			}
+			batchSum = batchSum.add(element);
+			++index;
+		}
+		windowSum = windowSum.subtract(evictedSum).add(batchSum);
+	}
+	
+	/**
+	 * Adds all the elements given as unscaled values, in order.
+	 *
+	 * @param unscaled the unscaled values of the elements
+	 * @param scale the scale of all the elements
+	 */
+	@Override
+	public void addAll(long[] unscaled, int scale) {
+		BigDecimal[] batch = new BigDecimal[unscaled.length];
+		for(int i = 0; i < unscaled.length; ++i) {
+			batch[i] = BigDecimal.valueOf(unscaled[i], scale);
+		}
+		addAll(batch);
 	}
 
 	/**
@@ -197,18 +514,77 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 */
 	@Override
 	public BigDecimal movingAverage() {
-		BigDecimal movingAverage;
-		if(!isEmpty()) {
-			//If number of elements less that window size, MA = sum/num of elements
-			int size = elements.size() >= window ? window : elements.size();
-			movingAverage = windowSum.divide(new BigDecimal(size), scale, roundingMode);
-		} else {
-			//Return 0, which is the initial value of windowSum
-			movingAverage = windowSum.setScale(scale);
+		CalculatorMetrics metrics = this.metrics;
+		long start = metrics == null ? 0 : System.nanoTime();
+		BigDecimal movingAverage = cachedMovingAverage();
+		if(metrics != null) {
+			metrics.recordQuery(System.nanoTime() - start);
+		}
+		return movingAverage;
+	}
+
+	/**
+	 * Calculates the unscaled value of the Moving average at the scale set.
+	 * eg : with a scale of 2, a moving average of 7.50 is returned as 750
+	 * Once calculated, the value is returned without allocating until the moving average is invalidated.
+	 *
+	 * @return the unscaled Moving Average
+	 * @throws ArithmeticException if the unscaled moving average does not fit in a long
+	 */
+	public long movingAverageUnscaled() {
+		CalculatorMetrics metrics = this.metrics;
+		long start = metrics == null ? 0 : System.nanoTime();
+		if(!unscaledCached) {
+			cachedUnscaled = cachedMovingAverage().unscaledValue().longValueExact();
+			unscaledCached = true;
+		}
+		if(metrics != null) {
+			metrics.recordQuery(System.nanoTime() - start);
+		}
+		return cachedUnscaled;
+	}
+
+	/**
+	 * Writes the Moving average into a holder, as its unscaled value at the scale set and the scale.
+	 * Once calculated, the value is written without allocating until the moving average is invalidated.
+	 *
+	 * @param holder the holder receiving the Moving Average
+	 * @throws ArithmeticException if the unscaled moving average does not fit in a long
+	 */
+	public void movingAverage(DecimalHolder holder) {
+		holder.set(movingAverageUnscaled(), scale);
+	}
+
+	/**
+	 * Gets the cached Moving average, calculating it if it was invalidated.
+	 *
+	 * @return the big decimal Moving Average
+	 */
+	private BigDecimal cachedMovingAverage() {
+		BigDecimal movingAverage = cachedMovingAverage;
+		if(movingAverage == null) {
+			if(!isEmpty()) {
+				//If number of elements less that window size, MA = sum/num of elements
+				BigDecimal divisor = windowCount == window ? windowDivisor : BigDecimal.valueOf(windowCount);
+				movingAverage = windowSum.divide(divisor, scale, roundingMode);
+			} else {
+				//Return 0, which is the initial value of windowSum
+				movingAverage = windowSum.setScale(scale);
+			}
+			cachedMovingAverage = movingAverage;
 		}
 		return movingAverage;
 	}
 
+	/**
+	 * Invalidates the cached Moving average, once an element is added or the window, the scale or the rounding mode
+	 * changes.
+	 */
+	private void invalidateMovingAverage() {
+		cachedMovingAverage = null;
+		unscaledCached = false;
+	}
+
 	/**
 	 * Size method.
 	 *
@@ -226,32 +602,366 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 */
 	@Override
 	public boolean isEmpty() {
-		return elements.isEmpty();
+		return elements.size() == 0;
 	}
 
 	/**
 	 * Gets the element at a given index.
 	 *
-	 * @param index the index
+	 * @param index the global index
 	 * @return the big decimal value
+	 * @throws IndexOutOfBoundsException if the index is invalid or the element is no longer retained
 	 */
 	@Override
 	public BigDecimal get(int index) {
-		if (index < 0 || index >= elements.size()) {
-			throw new IndexOutOfBoundsException();
-		}
 		return elements.get(index);
 	}
 
 	/**
 	 * Gets the list of elements.
+	 * The list returned is a read only view of the elements retained, the first one being at the global index
+	 * getFirstIndex().
 	 *
 	 * @return the list of bigdecimal elements
 	 */
 	@Override
 	public List<BigDecimal> getAll() {
+		return new ElementHistoryView(elements);
+	}
+	
+	/**
+	 * Gets the global index of the oldest element retained by the history.
+	 *
+	 * @return the first index, 0 unless the history policy drops older elements
+	 */
+	public int getFirstIndex() {
+		return elements.firstIndex();
+	}
+
+	/**
+	 * Gets the history storing the elements, read by the metrics.
+	 *
+	 * @return the element history
+	 */
+	ElementHistory getHistory() {
 		return elements;
-	}	
+	}
+	
+	/**
+	 * Sums the elements of a range of global indices, in parallel when the range is large.
+	 *
+	 * @param from the global index of the first element, inclusive
+	 * @param to the global index of the last element, exclusive
+	 * @return the exact sum, 0 if the range is empty
+	 * @throws IndexOutOfBoundsException if the range is invalid or not retained
+	 */
+	public BigDecimal sum(int from, int to) {
+		if (from < elements.firstIndex() || to > elements.size() || from > to) {
+			throw new IndexOutOfBoundsException();
+		}
+		return ParallelSums.sum(elements, from, to, null, 0);
+	}
+	
+	/**
+	 * Calculates the average of the elements of a range of global indices, in parallel when the range is large.
+	 *
+	 * @param from the global index of the first element, inclusive
+	 * @param to the global index of the last element, exclusive
+	 * @return the big decimal average, with decimal places equal to the scale set
+	 * @throws IndexOutOfBoundsException if the range is invalid or not retained
+	 */
+	public BigDecimal average(int from, int to) {
+		if (from < elements.firstIndex() || to > elements.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (from >= to) {
+			throw new IllegalArgumentException(String.format(RANGE_EMPTY, from, to));
+		}
+		return ParallelSums.sum(elements, from, to, null, 0).divide(BigDecimal.valueOf(to - from), scale,
+				roundingMode);
+	}
+	
+	/**
+	 * Calculates the Moving averages of the window at each element of a range of global indices, in parallel when
+	 * the range is large. The moving average at the global index i is the one returned by movingAverage once the
+	 * element i was added, had the window size and scale been the current ones.
+	 *
+	 * @param from the global index of the first moving average, inclusive
+	 * @param to the global index of the last moving average, exclusive
+	 * @return the moving averages, the one at the global index i being at i - from
+	 * @throws IndexOutOfBoundsException if the range is invalid
+	 * @throws IllegalArgumentException if the windows of the range are no longer retained
+	 */
+	public BigDecimal[] movingAverageSeries(int from, int to) {
+		if (from < 0 || to > elements.size() || from > to) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (from < to && Math.max(0, from + 1 - window) < elements.firstIndex()) {
+			throw new IllegalArgumentException(String.format(WINDOW_NOT_RETAINED, window));
+		}
+		return ParallelSums.movingAverages(elements, from, to, window, scale, roundingMode);
+	}
+	
+	/**
+	 * Enables rollups, the aggregates of each block of a fixed number of elements, at several levels of resolution.
+	 * The rollups are first calculated from the elements retained by the history, then maintained as elements are
+	 * added. Every element must have at most scale decimal places, the aggregates being kept as unscaled longs.
+	 * eg : enableRollups(2) keeps the aggregates of the blocks of 1k, 64k and 4M elements of prices in cents
+	 *
+	 * @param scale the scale of the aggregates
+	 * @param blockSizes the block sizes of the levels, increasing powers of two, 1k, 64k and 4M if none is given
+	 * @throws ArithmeticException if an element retained has more decimal places than the scale
+	 */
+	public void enableRollups(int scale, int... blockSizes) {
+		MovingAverageValidator.validateScale(scale);
+		int first = elements.firstIndex();
+		Rollups enabled = new Rollups(scale, blockSizes.length == 0 ? DEFAULT_ROLLUP_BLOCK_SIZES : blockSizes, first);
+		for(int i = first; i < elements.size(); ++i) {
+			enabled.add(i, enabled.toUnscaled(elements.get(i)));
+		}
+		rollups = enabled;
+	}
+	
+	/**
+	 * Disables the rollups.
+	 */
+	public void disableRollups() {
+		rollups = null;
+	}
+	
+	/**
+	 * Aggregates a range of global indices from the rollups: the range is covered by the coarsest blocks inside it,
+	 * and only the elements at its edges that are not aligned on a block of the finest level are read from the
+	 * history. Requires rollups.
+	 *
+	 * @param from the global index of the first element, inclusive
+	 * @param to the global index of the last element, exclusive
+	 * @return the open, high, low, close, sum and count of the range, at the scale of the rollups
+	 * @throws IndexOutOfBoundsException if the range is invalid, or its edges are not retained by the history
+	 */
+	public Rollup aggregate(int from, int to) {
+		Rollups enabled = enabledRollups();
+		if (from < 0 || to > elements.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (from >= to) {
+			throw new IllegalArgumentException(String.format(RANGE_EMPTY, from, to));
+		}
+		return enabled.aggregate(elements, from, to);
+	}
+	
+	/**
+	 * Gets the aggregates of the blocks of one level of the rollups holding a range of global indices, to chart the
+	 * range at the resolution of the level. Requires rollups.
+	 *
+	 * @param blockSize the block size of the level
+	 * @param from the global index of the first element, inclusive
+	 * @param to the global index of the last element, exclusive
+	 * @return the aggregates of each block holding an element of the range, in order, the last one being partial if
+	 * elements are still added to it
+	 * @throws IndexOutOfBoundsException if the range is invalid or starts before the rollups
+	 */
+	public Rollup[] rollups(int blockSize, int from, int to) {
+		Rollups enabled = enabledRollups();
+		if(!enabled.hasLevel(blockSize)) {
+			throw new IllegalArgumentException(String.format(BLOCK_SIZE_NOT_A_LEVEL, blockSize));
+		}
+		if (from < enabled.getStart() || to > elements.size() || from > to) {
+			throw new IndexOutOfBoundsException();
+		}
+		return enabled.series(blockSize, from, to, elements.size());
+	}
+	
+	/**
+	 * Gets the block sizes of the levels of the rollups.
+	 *
+	 * @return the block sizes, from the finest to the coarsest, empty if rollups are disabled
+	 */
+	public int[] getRollupBlockSizes() {
+		return rollups == null ? new int[0] : rollups.getBlockSizes();
+	}
+	
+	/**
+	 * Gets the rollups, checking they are enabled.
+	 *
+	 * @return the rollups
+	 */
+	private Rollups enabledRollups() {
+		if(rollups == null) {
+			throw new IllegalStateException(ROLLUPS_NOT_ENABLED);
+		}
+		return rollups;
+	}
+	
+	/**
+	 * Releases the resources held by the history, like the files of elements spilled to disk.
+	 */
+	@Override
+	public void close() {
+		elements.close();
+	}
+	
+	/**
+	 * Writes a checkpoint of the calculator to a stream, which is flushed but not closed. The elements retained before
+	 * the window are included if requested, so that get, getAll and setWindow work on the restored calculator as they
+	 * do on this one, otherwise only the elements of the window are restored.
+	 *
+	 * @param out the stream
+	 * @param includeHistory whether the elements retained before the window are included
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void checkpoint(OutputStream out, boolean includeHistory) throws IOException {
+		if(null == out) {
+			throw new IllegalArgumentException(STREAM_NULL);
+		}
+		int size = elements.size();
+		int windowStart = size - windowCount;
+		int historyStart = includeHistory ? Math.min(elements.firstIndex(), windowStart) : windowStart;
+		int statisticsMask = 0;
+		for(WindowStatistic statistic : enabledStatistics) {
+			statisticsMask |= 1 << statistic.ordinal();
+		}
+		CheckpointCodec.Writer writer = new CheckpointCodec.Writer(out);
+		writer.writeHeader(CheckpointCodec.KIND_IMPL);
+		writer.writeVarLong(window);
+		writer.writeZigZag(scale);
+		writer.writeByte(roundingMode.ordinal());
+		writer.writeVarLong(statisticsMask);
+		writer.writeDouble(percentileAccuracy);
+		writer.writeVarLong(size);
+		writer.writeVarLong(windowCount);
+		writer.writeVarLong(historyStart);
+		writer.writeDecimal(windowSum);
+		for(int i = historyStart; i < windowStart; ++i) {
+			writer.writeDecimal(elements.get(i));
+		}
+		for(int i = 0; i < windowCount; ++i) {
+			writer.writeDecimal(windowElements[windowIndex(i)]);
+		}
+		writer.flush();
+	}
+	
+	/**
+	 * Writes a checkpoint of the calculator to a file, replacing it if it exists.
+	 *
+	 * @param path the path of the file
+	 * @param includeHistory whether the elements retained before the window are included
+	 * @throws IOException if the file cannot be written
+	 */
+	public void checkpoint(Path path, boolean includeHistory) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			checkpoint(out, includeHistory);
+		}
+	}
+	
+	/**
+	 * Restores a calculator from a checkpoint read from a stream, which is not closed. windowSum is read from the
+	 * checkpoint rather than summed, and the statistics enabled are rebuilt from the elements of the window.
+	 * The stream is read in blocks: if it supports mark and reset, it is left positioned right after the checkpoint,
+	 * otherwise up to 64 KB of the bytes following the checkpoint may have been consumed.
+	 *
+	 * @param in the stream, positioned at the start of the checkpoint
+	 * @return the calculator restored
+	 * @throws IOException if the stream cannot be read or does not hold a valid checkpoint
+	 */
+	public static MovingAverageCalculatorImpl restore(InputStream in) throws IOException {
+		if(null == in) {
+			throw new IllegalArgumentException(STREAM_NULL);
+		}
+		CheckpointCodec.Reader reader = new CheckpointCodec.Reader(in);
+		reader.readHeader(CheckpointCodec.KIND_IMPL);
+		int window = reader.readVarInt("window");
+		long scale = reader.readZigZag();
+		int roundingMode = reader.readByte();
+		int statisticsMask = reader.readVarInt("statistics");
+		double percentileAccuracy = reader.readDouble();
+		int size = reader.readVarInt("size");
+		int windowCount = reader.readVarInt("window count");
+		int historyStart = reader.readVarInt("history start");
+		//the window always holds the last elements added, up to its size
+		if(window == 0 || windowCount != Math.min(window, size) || historyStart > size - windowCount) {
+			throw CheckpointCodec.invalid("window " + window + ", " + windowCount + " of " + size + " elements");
+		}
+		if(scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE) {
+			throw CheckpointCodec.invalid("scale " + scale);
+		}
+		try {
+			MovingAverageValidator.validateScale((int) scale);
+		} catch (IllegalArgumentException e) {
+			throw CheckpointCodec.invalid(e.getMessage());
+		}
+		if(roundingMode >= RoundingMode.values().length) {
+			throw CheckpointCodec.invalid("rounding mode " + roundingMode);
+		}
+		if(statisticsMask >>> WindowStatistic.values().length != 0) {
+			throw CheckpointCodec.invalid("statistics " + statisticsMask);
+		}
+		if(!(percentileAccuracy > 0 && percentileAccuracy < 1)) {
+			throw CheckpointCodec.invalid("relative accuracy " + percentileAccuracy);
+		}
+		//the sizes read are not trusted: the elements are read first, into a history growing with the elements
+		//actually present, so that a corrupt size ends the stream rather than allocating a huge array
+		BigDecimal windowSum = reader.readDecimal();
+		ElementHistory history = new ChunkedElementHistory(historyStart);
+		for(int i = historyStart; i < size; ++i) {
+			history.add(reader.readDecimal());
+		}
+		BigDecimal[] windowElements = new BigDecimal[windowCount];
+		for(int i = 0; i < windowCount; ++i) {
+			windowElements[i] = history.get(size - windowCount + i);
+		}
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(window, windowElements);
+		calculator.scale = (int) scale;
+		calculator.roundingMode = RoundingMode.values()[roundingMode];
+		calculator.percentileAccuracy = percentileAccuracy;
+		calculator.windowSum = windowSum;
+		calculator.elements = history;
+		for(WindowStatistic statistic : WindowStatistic.values()) {
+			if((statisticsMask & 1 << statistic.ordinal()) != 0) {
+				calculator.enabledStatistics.add(statistic);
+			}
+		}
+		calculator.rebuildStatistics();
+		reader.finish();
+		return calculator;
+	}
+	
+	/**
+	 * Restores a calculator from a checkpoint file.
+	 *
+	 * @param path the path of the file
+	 * @return the calculator restored
+	 * @throws IOException if the file cannot be read or does not hold a valid checkpoint
+	 */
+	public static MovingAverageCalculatorImpl restore(Path path) throws IOException {
+		try (InputStream in = Files.newInputStream(path)) {
+			return restore(in);
+		}
+	}
+	
+	/**
+	 * Attaches metrics recording the use of the calculator, or disables them.
+	 *
+	 * @param metrics the metrics, null to disable them
+	 */
+	public void setMetrics(CalculatorMetrics metrics) {
+		if(metrics != null) {
+			metrics.attach(this);
+		}
+		if(this.metrics != null && this.metrics != metrics) {
+			this.metrics.detach();
+		}
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Gets the metrics recording the use of the calculator.
+	 *
+	 * @return the metrics, null if disabled
+	 */
+	public CalculatorMetrics getMetrics() {
+		return metrics;
+	}
 	
 	/**
 	 * Gets the scale.
@@ -269,6 +979,7 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 */
 	public void setScale(int scale) {
 		this.scale = scale;
+		invalidateMovingAverage();
 	}
 
 	/**
@@ -287,6 +998,7 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 */
 	public void setRoundingMode(RoundingMode roundingMode) {
 		this.roundingMode = roundingMode;
+		invalidateMovingAverage();
 	}
 	
 	/**
@@ -294,6 +1006,7 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 *
 	 * @return the window size
 	 */
+	@Override
 	public int getWindow() {
 		return window;
 	}
@@ -304,52 +1017,239 @@ public class MovingAverageCalculatorImpl implements MovingAverageCalculator {
 	 * @param window the new window
 	 */
 	public void setWindow(int window) {
-		validateWindow(window);
-		//resets window, windowElements and windowSum
+		MovingAverageValidator.validateWindow(window);
+		resizeWindow(window);
+	}
+
+	/**
+	 * Resizes windowElements to the window size and updates windowSum.
+	 *
+	 * @param window the new window
+	 */
+	private void resizeWindow(int window) {
+		//if window greater than number of elements, all elements are in the window
+		int newCount = Math.min(window, elements.size());
+		if(elements.size() - newCount < elements.firstIndex()) {
+			throw new IllegalArgumentException(String.format(WINDOW_NOT_RETAINED, window));
+		}
+		BigDecimal[] resized = new BigDecimal[window];
+		if(newCount <= windowCount) {
+			//the oldest elements leave the window, subtracts them or sums the retained ones, whichever is fewer
+			int dropped = windowCount - newCount;
+			if(metrics != null) {
+				metrics.recordRecompute(Math.min(dropped, newCount));
+			}
+			for(int i = 0; i < newCount; ++i) {
+				resized[i] = windowElements[windowIndex(dropped + i)];
+			}
+			if(dropped <= newCount) {
+				for(int i = 0; i < dropped; ++i) {
+					windowSum = windowSum.subtract(windowElements[windowIndex(i)]);
+				}
+			} else {
+				windowSum = ParallelSums.sum(resized, 0, newCount);
+			}
+		} else {
+			//older elements enter the window from the history, ahead of the retained ones
+			int entering = newCount - windowCount;
+			int startIndex = elements.size() - newCount;
+			if(metrics != null) {
+				metrics.recordRecompute(entering);
+			}
+			windowSum = windowSum.add(ParallelSums.sum(elements, startIndex, startIndex + entering, resized, 0));
+			for(int i = 0; i < windowCount; ++i) {
+				resized[entering + i] = windowElements[windowIndex(i)];
+			}
+		}
 		this.window = window;
-		windowElements.clear();
-		windowSum = BigDecimal.ZERO;
-		//if window greater than number of elements, add all elements to windowElements 
-		int startIndex = window < elements.size() ? elements.size() - window : 0;
-		for(int i = startIndex; i < elements.size(); ++i) {
-			windowSum = windowSum.add(elements.get(i));
+		windowElements = resized;
+		windowDivisor = BigDecimal.valueOf(window);
+		invalidateMovingAverage();
+		windowHead = 0;
+		windowCount = newCount;
+		rebuildStatistics();
+	}
+
+	/**
+	 * Enables statistics of the window, maintained from now on next to the moving average. The statistics are first
+	 * calculated from the elements currently in the window.
+	 *
+	 * @param enabled the statistics to enable
+	 */
+	public void enableStatistics(WindowStatistic... enabled) {
+		for(WindowStatistic statistic : enabled) {
+			if(null == statistic) {
+				throw new IllegalArgumentException(STATISTIC_NULL);
+			}
+			enabledStatistics.add(statistic);
 		}
+		rebuildStatistics();
 	}
-	
+
 	/**
-	 * Validate window.
+	 * Enables the approximate percentiles of the window, estimated within a relative accuracy.
 	 *
-	 * @param window the window size
+	 * @param relativeAccuracy the relative accuracy, between 0 and 1 exclusive, 0.01 by default
 	 */
-	private void validateWindow(int window) {
-		if(window <= 0) {
-			throw new IllegalArgumentException(String.format(WINDOW_INVALID, window));
+	public void enableApproximatePercentiles(double relativeAccuracy) {
+		if(!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+			throw new IllegalArgumentException(String.format(ACCURACY_INVALID, relativeAccuracy));
 		}
+		this.percentileAccuracy = relativeAccuracy;
+		enableStatistics(WindowStatistic.APPROXIMATE_PERCENTILE);
 	}
-	
+
+	/**
+	 * Disables all statistics of the window.
+	 */
+	public void disableStatistics() {
+		enabledStatistics.clear();
+		statistics = null;
+	}
+
 	/**
-	 * Validate scale.
+	 * Gets the smallest element of the window. Requires WindowStatistic.MIN.
 	 *
-	 * @param scale the scale
+	 * @return the minimum, null if the calculator is empty
+	 */
+	public BigDecimal min() {
+		return enabled(WindowStatistic.MIN).min();
+	}
+
+	/**
+	 * Gets the largest element of the window. Requires WindowStatistic.MAX.
+	 *
+	 * @return the maximum, null if the calculator is empty
+	 */
+	public BigDecimal max() {
+		return enabled(WindowStatistic.MAX).max();
+	}
+
+	/**
+	 * Gets a percentile of the window, the element of rank ceil(q * n) among the n elements of the window, the
+	 * smallest element having the rank 1. Requires WindowStatistic.PERCENTILE.
+	 *
+	 * @param q the quantile, between 0 and 1, for example 0.95 for the 95th percentile
+	 * @return the element, null if the calculator is empty
+	 */
+	public BigDecimal percentile(double q) {
+		WindowStatistics windowStatistics = enabled(WindowStatistic.PERCENTILE);
+		int rank = rank(q);
+		return windowCount == 0 ? null : windowStatistics.percentile(rank);
+	}
+
+	/**
+	 * Gets the median of the window, the element of rank ceil(n / 2). Requires WindowStatistic.PERCENTILE.
+	 *
+	 * @return the median, null if the calculator is empty
 	 */
-	private void validateScale(int scale) {
-		if(scale < 0) {
-			throw new IllegalArgumentException(String.format(SCALE_INVALID, scale));
+	public BigDecimal median() {
+		return percentile(0.5);
+	}
+
+	/**
+	 * Estimates a percentile of the window, within the relative accuracy of the element percentile(q) returns.
+	 * Requires WindowStatistic.APPROXIMATE_PERCENTILE.
+	 *
+	 * @param q the quantile, between 0 and 1, for example 0.95 for the 95th percentile
+	 * @return the big decimal estimate, with decimal places equal to the scale set, null if the calculator is empty
+	 */
+	public BigDecimal approximatePercentile(double q) {
+		WindowStatistics windowStatistics = enabled(WindowStatistic.APPROXIMATE_PERCENTILE);
+		int rank = rank(q);
+		if(windowCount == 0) {
+			return null;
 		}
+		return BigDecimal.valueOf(windowStatistics.approximatePercentile(rank)).setScale(scale, roundingMode);
 	}
 
 	/**
-	 * Validate rounding mode.
+	 * Calculates the population variance of the window. Requires WindowStatistic.VARIANCE.
 	 *
-	 * @param roundingMode the rounding mode
+	 * @return the big decimal variance, with decimal places equal to the scale set
+	 */
+	public BigDecimal variance() {
+		WindowStatistics windowStatistics = enabled(WindowStatistic.VARIANCE);
+		if(windowCount == 0) {
+			return BigDecimal.ZERO.setScale(scale);
+		}
+		return windowStatistics.variance(windowSum, windowCount, scale, roundingMode);
+	}
+
+	/**
+	 * Calculates the population standard deviation of the window. Requires WindowStatistic.VARIANCE.
+	 *
+	 * @return the big decimal standard deviation, with decimal places equal to the scale set
+	 */
+	public BigDecimal standardDeviation() {
+		WindowStatistics windowStatistics = enabled(WindowStatistic.VARIANCE);
+		if(windowCount == 0) {
+			return BigDecimal.ZERO.setScale(scale);
+		}
+		return windowStatistics.standardDeviation(windowSum, windowCount, scale, roundingMode);
+	}
+
+	/**
+	 * Gets the statistics of the window, checking a statistic is enabled.
+	 *
+	 * @param statistic the statistic required
+	 * @return the statistics of the window
+	 */
+	private WindowStatistics enabled(WindowStatistic statistic) {
+		if(statistics == null || !statistics.isEnabled(statistic)) {
+			throw new IllegalStateException(String.format(STATISTIC_NOT_ENABLED, statistic));
+		}
+		return statistics;
+	}
+
+	/**
+	 * Gets the rank, 0 being the smallest element, of the element of a quantile of the window.
+	 *
+	 * @param q the quantile
+	 * @return the rank
+	 */
+	private int rank(double q) {
+		if(!(q >= 0 && q <= 1)) {
+			throw new IllegalArgumentException(String.format(QUANTILE_INVALID, q));
+		}
+		//q * n is rounded up from the decimal value of q, as 0.07 * 100 is 7.000000000000001 in double
+		int rank = BigDecimal.valueOf(q).multiply(new BigDecimal(windowCount)).setScale(0, RoundingMode.CEILING)
+				.intValue();
+		return Math.max(0, rank - 1);
+	}
+
+	/**
+	 * Calculates the enabled statistics from the elements currently in the window.
 	 */
-	private void validateRoundingMode(RoundingMode roundingMode) {
-		if(null == roundingMode) {
-			throw new IllegalArgumentException(ROUNDING_MODE_NULL);
+	private void rebuildStatistics() {
+		if(enabledStatistics.isEmpty()) {
+			return;
 		}
-		if(roundingMode == RoundingMode.UNNECESSARY) {
-			throw new IllegalArgumentException(String.format(ROUNDING_MODE_CANT_BE_UNESCESSARY, roundingMode.toString()));
+		statistics = new WindowStatistics(enabledStatistics, window, percentileAccuracy);
+		int firstIndex = elements.size() - windowCount;
+		for(int i = 0; i < windowCount; ++i) {
+			statistics.add(firstIndex + i, windowElements[windowIndex(i)], null, firstIndex);
 		}
 	}
 
+	/**
+	 * Grows windowElements of a restored calculator, allocated for the elements read rather than for the window, so
+	 * that it holds one more element. Only called while the window is not full, windowHead being 0 then.
+	 */
+	private void growWindowElements() {
+		windowElements = Arrays.copyOf(windowElements,
+				(int) Math.min(window, Math.max(16L, windowElements.length * 2L)));
+	}
+
+	/**
+	 * Gets the index in windowElements of the element at the given position in the window.
+	 *
+	 * @param position the position in the window, 0 being the oldest element
+	 * @return the index in windowElements
+	 */
+	private int windowIndex(int position) {
+		int index = windowHead + position;
+		return index < windowElements.length ? index : index - windowElements.length;
+	}
+	
 }
@@ -0,0 +1,109 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Class MovingAverageCoordinator, which computes the moving average of a series spread over several shards from
+ * their partial windows, without reading their elements.
+ *
+ * Moving Average Calculation
+ *
+ *
+ *  For a cut sequence, the partial window of each shard over the same range is read and merged, giving the exact sum
+ *  and count of the window. The moving average is the sum divided by the count, rounded to the scale with the
+ *  rounding mode, as MovingAverageCalculatorImpl does for the same elements.
+ *
+ *  The cut is chosen by the caller, usually the last sequence assigned by whatever spreads the elements over the
+ *  shards. If an element up to the cut has not reached its shard yet, the merged window is incomplete and the moving
+ *  average fails with an IllegalStateException rather than averaging fewer elements.
+ *
+ *
+ * Complexities
+ *
+ *
+ *  movingAverage -  Time Complexity - O(shards)			Space Complexity - O(1)
+ */
+public class MovingAverageCoordinator {
+
+	/** Error message when no shard is given. */
+	private static String SHARDS_EMPTY = "Shards are empty";
+
+	/** Error message when a shard is null. */
+	private static String SHARD_NULL = "Shard is null";
+
+	/** The shards. */
+	private final List<WindowShard> shards;
+
+	/** The scale. */
+	private final int scale;
+
+	/** The rounding mode. */
+	private final RoundingMode roundingMode;
+
+	/**
+	 * Instantiates a new coordinator with the default scale of 2 and rounding mode HALF_UP.
+	 *
+	 * @param shards the shards
+	 */
+	public MovingAverageCoordinator(List<? extends WindowShard> shards) {
+		this(shards, 2, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Instantiates a new coordinator.
+	 *
+	 * @param shards the shards
+	 * @param scale the scale of the moving average
+	 * @param roundingMode the rounding mode
+	 */
+	public MovingAverageCoordinator(List<? extends WindowShard> shards, int scale, RoundingMode roundingMode) {
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+		if(null == shards || shards.isEmpty()) {
+			throw new IllegalArgumentException(SHARDS_EMPTY);
+		}
+		for(WindowShard shard : shards) {
+			if(null == shard) {
+				throw new IllegalArgumentException(SHARD_NULL);
+			}
+		}
+		this.shards = new ArrayList<WindowShard>(shards);
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Merges the partial windows of every shard ending at a cut.
+	 *
+	 * @param cut the last sequence of the window
+	 * @return the merged window, which may be incomplete
+	 * @throws IOException if a shard cannot be reached
+	 */
+	public PartialWindow merge(long cut) throws IOException {
+		PartialWindow merged = shards.get(0).partial(cut);
+		for(int i = 1; i < shards.size(); ++i) {
+			merged = merged.merge(shards.get(i).partial(cut));
+		}
+		return merged;
+	}
+
+	/**
+	 * Gets the moving average of the window ending at a cut.
+	 *
+	 * @param cut the last sequence of the window
+	 * @return the moving average
+	 * @throws IOException if a shard cannot be reached
+	 * @throws IllegalStateException if an element of the window has not reached its shard
+	 */
+	public BigDecimal movingAverage(long cut) throws IOException {
+		return merge(cut).movingAverage(scale, roundingMode);
+	}
+
+	public int getShardCount() {
+		return shards.size();
+	}
+}
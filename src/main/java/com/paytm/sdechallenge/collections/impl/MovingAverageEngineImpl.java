@@ -0,0 +1,428 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import com.paytm.sdechallenge.collections.MovingAverageEngine;
+
+/**
+ * The Class MovingAverageEngineImpl, which implements MovingAverageEngine interface.
+ *
+ * Storing Data
+ *
+ *
+ *  Elements are stored as unscaled longs at the input scale of their series, like in
+ *  FixedPointMovingAverageCalculator, and moving averages have the same values as the ones MovingAverageCalculatorImpl
+ *  returns. No object is created per series: the state of all series is kept in shared primitive arrays (struct of
+ *  arrays), indexed by the number of the series.
+ *
+ *  keys - The key of each series.
+ *
+ *  table - An open addressing hash table with linear probing, mapping a key to the number of its series plus one,
+ *  0 marking an empty slot. The table is at most half full.
+ *
+ *  windowSumHigh, windowSumLow - The unscaled sum of the window of each series, as a 128 bit value.
+ *
+ *  windows, windowHeads, windowCounts - The window size of each series, the index of the oldest element in its
+ *  window and the number of elements in its window.
+ *
+ *  pages, offsets - The window of each series is a circular array of window longs, allocated contiguously inside
+ *  shared pages of longs. Windows larger than a page get a page of their own.
+ *
+ *  inputScales, scales - The scale of the elements added to each series and the scale of its moving average.
+ *
+ *
+ * Memory
+ *
+ *  Each series takes 46 bytes in the arrays above plus 8 to 16 bytes in the hash table, and 8 bytes per element of
+ *  its window. Arrays grow by doubling, so up to half of their capacity can be unused.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, contains methods have expected time complexity O(1)
+ *
+ *
+ * This class is not thread safe.
+ *
+ */
+public class MovingAverageEngineImpl implements MovingAverageEngine {
+
+	/** The log2 of the number of longs in a shared page. */
+	private static final int PAGE_SHIFT = 20;
+
+	/** The number of longs in a shared page. */
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	/** The initial number of series the arrays can hold. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Error message when a series is not found. */
+	private static String SERIES_NOT_FOUND = "Series not found : %s";
+
+	/** Error message when a series is already registered. */
+	private static String SERIES_EXISTS = "Series already registered : %s";
+
+	/** The default window size of a series. */
+	private final int defaultWindow;
+
+	/** The default scale of the elements added to a series. */
+	private final int defaultInputScale;
+
+	/** The default scale of the moving average of a series. */
+	private final int defaultScale;
+
+	/** The rounding mode used for the moving average of all series. */
+	private final RoundingMode roundingMode;
+
+	/** The number of series. */
+	private int seriesCount;
+
+	/** The hash table mapping a key to its series number plus one. */
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+
+	/** The key of each series. */
+	private long[] keys = new long[INITIAL_CAPACITY];
+
+	/** The high 64 bits of the unscaled window sum of each series. */
+	private long[] windowSumHigh = new long[INITIAL_CAPACITY];
+
+	/** The low 64 bits of the unscaled window sum of each series. */
+	private long[] windowSumLow = new long[INITIAL_CAPACITY];
+
+	/** The window size of each series. */
+	private int[] windows = new int[INITIAL_CAPACITY];
+
+	/** The index of the oldest element in the window of each series. */
+	private int[] windowHeads = new int[INITIAL_CAPACITY];
+
+	/** The number of elements in the window of each series. */
+	private int[] windowCounts = new int[INITIAL_CAPACITY];
+
+	/** The page holding the window of each series. */
+	private int[] pages = new int[INITIAL_CAPACITY];
+
+	/** The offset of the window of each series in its page. */
+	private int[] offsets = new int[INITIAL_CAPACITY];
+
+	/** The scale of the elements added to each series. */
+	private byte[] inputScales = new byte[INITIAL_CAPACITY];
+
+	/** The scale of the moving average of each series. */
+	private byte[] scales = new byte[INITIAL_CAPACITY];
+
+	/** The pages holding the windows of all series. */
+	private long[][] windowPages = new long[0][];
+
+	/** The page in which windows are currently allocated, -1 if none. */
+	private int currentPage = -1;
+
+	/** The number of longs allocated in the current page. */
+	private int currentPageUsed;
+
+	/**
+	 * Instantiates a new moving average engine impl.
+	 *
+	 * @param defaultWindow the window size of series created by add
+	 * @param defaultInputScale the scale of the elements added to series created by add
+	 */
+	public MovingAverageEngineImpl(int defaultWindow, int defaultInputScale) {
+		this(defaultWindow, defaultInputScale, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new moving average engine impl.
+	 *
+	 * @param defaultWindow the window size of series created by add
+	 * @param defaultInputScale the scale of the elements added to series created by add
+	 * @param defaultScale the scale of the moving average of series created by add
+	 * @param roundingMode the rounding mode of all series
+	 */
+	public MovingAverageEngineImpl(int defaultWindow, int defaultInputScale, int defaultScale, RoundingMode roundingMode) {
+		validateSeries(defaultWindow, defaultInputScale, defaultScale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.defaultWindow = defaultWindow;
+		this.defaultInputScale = defaultInputScale;
+		this.defaultScale = defaultScale;
+		this.roundingMode = roundingMode;
+	}
+
+	@Override
+	public void register(long key, int window, int inputScale, int scale) {
+		validateSeries(window, inputScale, scale);
+		if(find(key) >= 0) {
+			throw new IllegalArgumentException(String.format(SERIES_EXISTS, key));
+		}
+		create(key, window, inputScale, scale);
+	}
+
+	@Override
+	public void add(long key, BigDecimal element) {
+		int series = find(key);
+		if(series >= 0) {
+			add(series, FixedPointMath.toUnscaled(element, inputScales[series]));
+		} else {
+			//converted first, so that a series is not created for an element that is rejected
+			long unscaled = FixedPointMath.toUnscaled(element, defaultInputScale);
+			add(create(key, defaultWindow, defaultInputScale, defaultScale), unscaled);
+		}
+	}
+
+	@Override
+	public void add(long key, long unscaled) {
+		add(findOrCreate(key), unscaled);
+	}
+
+	@Override
+	public BigDecimal movingAverage(long key) {
+		int series = get(key);
+		if(windowCounts[series] == 0) {
+			return BigDecimal.valueOf(0L, scales[series]);
+		}
+		return FixedPointMath.average(windowSumHigh[series], windowSumLow[series], inputScales[series],
+				windowCounts[series], scales[series], roundingMode);
+	}
+
+	@Override
+	public long movingAverageUnscaled(long key) {
+		int series = get(key);
+		if(windowCounts[series] == 0) {
+			return 0L;
+		}
+		return FixedPointMath.averageUnscaled(windowSumHigh[series], windowSumLow[series], inputScales[series],
+				windowCounts[series], scales[series], roundingMode);
+	}
+
+	@Override
+	public boolean contains(long key) {
+		return find(key) >= 0;
+	}
+
+	@Override
+	public int seriesCount() {
+		return seriesCount;
+	}
+
+	/**
+	 * Gets the window size of a series.
+	 *
+	 * @param key the key of the series
+	 * @return the window size
+	 */
+	public int getWindow(long key) {
+		return windows[get(key)];
+	}
+
+	/**
+	 * Gets the rounding mode.
+	 *
+	 * @return the rounding mode
+	 */
+	public RoundingMode getRoundingMode() {
+		return roundingMode;
+	}
+
+	/**
+	 * Adds an unscaled element to the window of a series.
+	 *
+	 * @param series the number of the series
+	 * @param unscaled the unscaled value of the element
+	 */
+	private void add(int series, long unscaled) {
+		long[] page = windowPages[pages[series]];
+		int offset = offsets[series];
+		int window = windows[series];
+		int head = windowHeads[series];
+		int count = windowCounts[series];
+		long high = windowSumHigh[series];
+		long low = windowSumLow[series];
+		//Subtraction is required only if the window is full, the new element then replaces the oldest one
+		if(count == window) {
+			long evicted = page[offset + head];
+			high = FixedPointMath.subtractHigh(high, low, evicted);
+			low -= evicted;
+			page[offset + head] = unscaled;
+			windowHeads[series] = head + 1 == window ? 0 : head + 1;
+		} else {
+			int tail = head + count;
+			page[offset + (tail < window ? tail : tail - window)] = unscaled;
+			windowCounts[series] = count + 1;
+		}
+		windowSumHigh[series] = FixedPointMath.addHigh(high, low, unscaled);
+		windowSumLow[series] = low + unscaled;
+	}
+
+	/**
+	 * Gets the number of an existing series.
+	 *
+	 * @param key the key of the series
+	 * @return the number of the series
+	 */
+	private int get(long key) {
+		int series = find(key);
+		if(series < 0) {
+			throw new IllegalArgumentException(String.format(SERIES_NOT_FOUND, key));
+		}
+		return series;
+	}
+
+	/**
+	 * Gets the number of a series, creating it with the default configuration if required.
+	 *
+	 * @param key the key of the series
+	 * @return the number of the series
+	 */
+	private int findOrCreate(long key) {
+		int series = find(key);
+		return series >= 0 ? series : create(key, defaultWindow, defaultInputScale, defaultScale);
+	}
+
+	/**
+	 * Finds the number of a series.
+	 *
+	 * @param key the key of the series
+	 * @return the number of the series, -1 if not found
+	 */
+	private int find(long key) {
+		int mask = table.length - 1;
+		for(int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			int entry = table[slot];
+			if(entry == 0) {
+				return -1;
+			}
+			if(keys[entry - 1] == key) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Creates a series.
+	 *
+	 * @param key the key of the series
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added
+	 * @param scale the scale of the moving average
+	 * @return the number of the series
+	 */
+	private int create(long key, int window, int inputScale, int scale) {
+		if(seriesCount == keys.length) {
+			growSeries();
+		}
+		int series = seriesCount++;
+		keys[series] = key;
+		windows[series] = window;
+		inputScales[series] = (byte) inputScale;
+		scales[series] = (byte) scale;
+		allocateWindow(series, window);
+		if(seriesCount * 2 > table.length) {
+			rehash();
+		} else {
+			insert(table, series);
+		}
+		return series;
+	}
+
+	/**
+	 * Allocates the window of a series in the shared pages.
+	 *
+	 * @param series the number of the series
+	 * @param window the window size
+	 */
+	private void allocateWindow(int series, int window) {
+		if(window > PAGE_SIZE) {
+			pages[series] = addPage(new long[window]);
+			offsets[series] = 0;
+			return;
+		}
+		if(currentPage < 0 || currentPageUsed + window > PAGE_SIZE) {
+			currentPage = addPage(new long[PAGE_SIZE]);
+			currentPageUsed = 0;
+		}
+		pages[series] = currentPage;
+		offsets[series] = currentPageUsed;
+		currentPageUsed += window;
+	}
+
+	/**
+	 * Adds a page of longs.
+	 *
+	 * @param page the page
+	 * @return the number of the page
+	 */
+	private int addPage(long[] page) {
+		windowPages = Arrays.copyOf(windowPages, windowPages.length + 1);
+		windowPages[windowPages.length - 1] = page;
+		return windowPages.length - 1;
+	}
+
+	/**
+	 * Doubles the capacity of the arrays holding the series.
+	 */
+	private void growSeries() {
+		int capacity = keys.length << 1;
+		keys = Arrays.copyOf(keys, capacity);
+		windowSumHigh = Arrays.copyOf(windowSumHigh, capacity);
+		windowSumLow = Arrays.copyOf(windowSumLow, capacity);
+		windows = Arrays.copyOf(windows, capacity);
+		windowHeads = Arrays.copyOf(windowHeads, capacity);
+		windowCounts = Arrays.copyOf(windowCounts, capacity);
+		pages = Arrays.copyOf(pages, capacity);
+		offsets = Arrays.copyOf(offsets, capacity);
+		inputScales = Arrays.copyOf(inputScales, capacity);
+		scales = Arrays.copyOf(scales, capacity);
+	}
+
+	/**
+	 * Doubles the hash table and inserts all series again.
+	 */
+	private void rehash() {
+		int[] rehashed = new int[table.length << 1];
+		for(int series = 0; series < seriesCount; ++series) {
+			insert(rehashed, series);
+		}
+		table = rehashed;
+	}
+
+	/**
+	 * Inserts a series into a hash table.
+	 *
+	 * @param into the hash table
+	 * @param series the number of the series
+	 */
+	private void insert(int[] into, int series) {
+		int mask = into.length - 1;
+		int slot = hash(keys[series]) & mask;
+		while(into[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		into[slot] = series + 1;
+	}
+
+	/**
+	 * Hashes a key, mixing all its bits into the low bits.
+	 *
+	 * @param key the key
+	 * @return the hash
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Validate the configuration of a series.
+	 *
+	 * @param window the window size
+	 * @param inputScale the scale of the elements added
+	 * @param scale the scale of the moving average
+	 */
+	private static void validateSeries(int window, int inputScale, int scale) {
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateFixedPointScale(inputScale);
+		MovingAverageValidator.validateFixedPointScale(scale);
+	}
+}
@@ -0,0 +1,329 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class MovingAverageProcessor, a reactive streams Processor adding the elements it receives to a
+ * MovingAverageCalculator and emitting the moving average after each one.
+ *
+ * Backpressure
+ *
+ *
+ *  Each element received gives exactly one moving average, so the processor holds no buffer: the demand of its
+ *  subscriber is forwarded to the publisher of the elements, which never sends more elements than moving averages
+ *  were requested. Demand requested before the processor is subscribed to a publisher is kept and forwarded once it
+ *  is. Cancelling the subscription of the moving averages cancels the subscription of the elements.
+ *
+ *  The processor has a single subscriber. A completion or an error of the publisher is delivered to the subscriber as
+ *  soon as it subscribes if it happened before. An exception of the calculator cancels the publisher and is delivered
+ *  to the subscriber as an error.
+ *
+ *  The signals of the subscriber never overlap, as required by rule 1.3 of the specification. An error raised by an
+ *  invalid request while a moving average is being emitted on the thread of the publisher is recorded, and delivered
+ *  by that thread once the moving average is emitted.
+ *
+ *  org.reactivestreams.Processor is the Java 8 equivalent of java.util.concurrent.Flow.Processor, on Java 9 and later
+ *  the processor is adapted with org.reactivestreams.FlowAdapters.toFlowProcessor.
+ *
+ * The calculator must not be used by anything else while the processor runs.
+ */
+public class MovingAverageProcessor implements Processor<BigDecimal, BigDecimal> {
+
+	/** Error message when the calculator is null. */
+	private static String CALCULATOR_NULL = "Calculator is null";
+
+	/** Error message when the processor already has a subscriber. */
+	private static String ALREADY_SUBSCRIBED = "Processor already has a subscriber";
+
+	/** Error message when the demand requested is not positive, as required by rule 3.9 of the specification. */
+	private static String REQUEST_INVALID = "Request is invalid : %s";
+
+	/** The calculator of the moving averages. */
+	private final MovingAverageCalculator calculator;
+
+	/** The lock guarding the state shared between the publisher and the subscriber. */
+	private final Object lock = new Object();
+
+	/** The subscription to the publisher of the elements, null until subscribed. */
+	private Subscription upstream;
+
+	/** The subscriber of the moving averages, null until subscribed. */
+	private Subscriber<? super BigDecimal> downstream;
+
+	/** The demand requested by the subscriber before the subscription to the publisher. */
+	private long pendingDemand;
+
+	/** Whether the publisher completed before the subscriber subscribed. */
+	private boolean completed;
+
+	/** The error of the publisher before the subscriber subscribed, null if none. */
+	private Throwable error;
+
+	/** Whether the subscription was cancelled or terminated, after which signals are dropped. */
+	private boolean done;
+
+	/** Whether a moving average is being emitted to the subscriber. */
+	private boolean emitting;
+
+	/** The error to deliver to the subscriber once the moving average being emitted is delivered, null if none. */
+	private Throwable pendingError;
+
+	/**
+	 * Instantiates a new moving average processor.
+	 *
+	 * @param calculator the calculator of the moving averages
+	 */
+	public MovingAverageProcessor(MovingAverageCalculator calculator) {
+		if(null == calculator) {
+			throw new IllegalArgumentException(CALCULATOR_NULL);
+		}
+		this.calculator = calculator;
+	}
+
+	/**
+	 * Subscribes to the moving averages.
+	 *
+	 * @param subscriber the subscriber
+	 */
+	@Override
+	public void subscribe(Subscriber<? super BigDecimal> subscriber) {
+		if(null == subscriber) {
+			throw new NullPointerException();
+		}
+		boolean rejected;
+		boolean terminated;
+		Throwable terminalError;
+		synchronized (lock) {
+			rejected = downstream != null;
+			if(!rejected) {
+				downstream = subscriber;
+			}
+			terminated = !rejected && (completed || error != null);
+			terminalError = error;
+			if(terminated) {
+				done = true;
+			}
+		}
+		if(rejected) {
+			subscriber.onSubscribe(new CancelledSubscription());
+			subscriber.onError(new IllegalStateException(ALREADY_SUBSCRIBED));
+			return;
+		}
+		subscriber.onSubscribe(new DownstreamSubscription());
+		if(terminated) {
+			if(terminalError != null) {
+				subscriber.onError(terminalError);
+			} else {
+				subscriber.onComplete();
+			}
+		}
+	}
+
+	/**
+	 * Receives the subscription to the publisher of the elements, and requests the demand already requested by the
+	 * subscriber.
+	 *
+	 * @param subscription the subscription
+	 */
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		if(null == subscription) {
+			throw new NullPointerException();
+		}
+		synchronized (lock) {
+			if(upstream != null || done) {
+				//rule 2.5, a second subscription is cancelled
+				subscription.cancel();
+				return;
+			}
+			upstream = subscription;
+			if(pendingDemand > 0) {
+				subscription.request(pendingDemand);
+				pendingDemand = 0;
+			}
+		}
+	}
+
+	/**
+	 * Adds the element to the calculator and emits the moving average.
+	 *
+	 * @param element the element
+	 */
+	@Override
+	public void onNext(BigDecimal element) {
+		if(null == element) {
+			throw new NullPointerException();
+		}
+		Subscriber<? super BigDecimal> subscriber;
+		synchronized (lock) {
+			if(done) {
+				return;
+			}
+			emitting = true;
+			subscriber = downstream;
+		}
+		BigDecimal movingAverage = null;
+		RuntimeException failure = null;
+		try {
+			calculator.add(element);
+			movingAverage = calculator.movingAverage();
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		if(failure == null) {
+			subscriber.onNext(movingAverage);
+		}
+		Throwable terminalError;
+		synchronized (lock) {
+			emitting = false;
+			terminalError = pendingError;
+			pendingError = null;
+		}
+		if(terminalError != null) {
+			subscriber.onError(terminalError);
+		} else if(failure != null) {
+			fail(failure);
+		}
+	}
+
+	/**
+	 * Receives the error of the publisher of the elements.
+	 *
+	 * @param throwable the error
+	 */
+	@Override
+	public void onError(Throwable throwable) {
+		if(null == throwable) {
+			throw new NullPointerException();
+		}
+		Subscriber<? super BigDecimal> subscriber;
+		synchronized (lock) {
+			if(done) {
+				return;
+			}
+			subscriber = downstream;
+			if(subscriber == null) {
+				error = throwable;
+				return;
+			}
+			done = true;
+		}
+		subscriber.onError(throwable);
+	}
+
+	/**
+	 * Receives the completion of the publisher of the elements.
+	 */
+	@Override
+	public void onComplete() {
+		Subscriber<? super BigDecimal> subscriber;
+		synchronized (lock) {
+			if(done) {
+				return;
+			}
+			subscriber = downstream;
+			if(subscriber == null) {
+				completed = true;
+				return;
+			}
+			done = true;
+		}
+		subscriber.onComplete();
+	}
+
+	/**
+	 * Gets the calculator of the moving averages.
+	 *
+	 * @return the calculator
+	 */
+	public MovingAverageCalculator getCalculator() {
+		return calculator;
+	}
+
+	/**
+	 * Terminates the subscriber with an error and cancels the subscription to the publisher, unless already done. If
+	 * a moving average is being emitted, the error is left to the emitting thread, so that it does not overlap onNext.
+	 *
+	 * @param throwable the error
+	 */
+	private void fail(Throwable throwable) {
+		Subscriber<? super BigDecimal> subscriber;
+		synchronized (lock) {
+			if(done) {
+				return;
+			}
+			done = true;
+			if(upstream != null) {
+				upstream.cancel();
+			}
+			if(emitting) {
+				pendingError = throwable;
+				return;
+			}
+			subscriber = downstream;
+		}
+		subscriber.onError(throwable);
+	}
+
+	/**
+	 * Marks the processor as done and cancels the subscription to the publisher, if any.
+	 */
+	private void cancelUpstream() {
+		synchronized (lock) {
+			done = true;
+			if(upstream != null) {
+				upstream.cancel();
+			}
+		}
+	}
+
+	/**
+	 * The subscription of the subscriber, forwarding its demand to the publisher of the elements.
+	 */
+	private final class DownstreamSubscription implements Subscription {
+
+		@Override
+		public void request(long n) {
+			if(n <= 0) {
+				fail(new IllegalArgumentException(String.format(REQUEST_INVALID, n)));
+				return;
+			}
+			synchronized (lock) {
+				if(done) {
+					return;
+				}
+				if(upstream != null) {
+					upstream.request(n);
+				} else {
+					//the demand is capped at Long.MAX_VALUE, meaning unbounded
+					pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+				}
+			}
+		}
+
+		@Override
+		public void cancel() {
+			cancelUpstream();
+		}
+	}
+
+	/**
+	 * The subscription given to a subscriber that is rejected.
+	 */
+	private static final class CancelledSubscription implements Subscription {
+
+		@Override
+		public void request(long n) {
+		}
+
+		@Override
+		public void cancel() {
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class MovingAverageStreams, the adapters feeding a MovingAverageCalculator from a java.util.stream pipeline.
+ *
+ * movingAverage and movingAverageSeries are Collectors adding the elements of a stream to a new calculator, and
+ * returning its last moving average or the moving average after each element. movingAverages maps a stream of
+ * elements to the stream of its moving averages, lazily, one moving average being calculated when the element is
+ * consumed.
+ *
+ * The elements are always added in the encounter order of the stream. A parallel stream collected with
+ * movingAverage or movingAverageSeries fills one calculator per part of the stream. When the calculators have a
+ * sliding window, like MovingAverageCalculatorImpl, each part also keeps its first and last window - 1 elements, and
+ * combining two parts only recalculates the first window - 1 moving averages of the later part, from the last
+ * elements of the earlier part, so the elements of a part are never added twice. Other calculators, like
+ * ExponentialMovingAverageCalculator whose average depends on every element, are combined by adding all the elements
+ * of the later part to the calculator of the earlier part, and must then retain all the elements of their part, as
+ * with the default HistoryPolicy.
+ */
+public final class MovingAverageStreams {
+
+	/** Error message when the calculator supplier is null. */
+	private static String CALCULATOR_SUPPLIER_NULL = "Calculator supplier is null";
+
+	/** Error message when the calculator is null. */
+	private static String CALCULATOR_NULL = "Calculator is null";
+
+	private MovingAverageStreams() {
+	}
+
+	/**
+	 * Returns a Collector adding the elements to a new calculator and returning its moving average once all are added.
+	 * eg : Stream.of(prices).collect(MovingAverageStreams.movingAverage(() -> new MovingAverageCalculatorImpl(20)))
+	 *
+	 * @param calculatorSupplier the supplier of new, empty calculators
+	 * @return the collector of the last moving average
+	 */
+	public static Collector<BigDecimal, ?, BigDecimal> movingAverage(
+			Supplier<? extends MovingAverageCalculator> calculatorSupplier) {
+		return new MovingAverageCollector<>(calculatorSupplier, false, new Function<Accumulator, BigDecimal>() {
+			@Override
+			public BigDecimal apply(Accumulator accumulator) {
+				return accumulator.calculator.movingAverage();
+			}
+		});
+	}
+
+	/**
+	 * Returns a Collector adding the elements to a new calculator and returning the moving average after each element.
+	 *
+	 * @param calculatorSupplier the supplier of new, empty calculators
+	 * @return the collector of the moving averages, in the encounter order of the elements
+	 */
+	public static Collector<BigDecimal, ?, List<BigDecimal>> movingAverageSeries(
+			Supplier<? extends MovingAverageCalculator> calculatorSupplier) {
+		return new MovingAverageCollector<>(calculatorSupplier, true, new Function<Accumulator, List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> apply(Accumulator accumulator) {
+				return accumulator.series;
+			}
+		});
+	}
+
+	/**
+	 * Maps a stream of elements to the stream of the moving averages of the calculator after each element is added.
+	 * The elements are pulled from the stream and added to the calculator only as the moving averages are consumed.
+	 * Closing the returned stream closes the stream of elements.
+	 *
+	 * @param elements the stream of elements
+	 * @param calculator the calculator, not used by anything else while the stream is consumed
+	 * @return the sequential stream of moving averages
+	 */
+	public static Stream<BigDecimal> movingAverages(Stream<BigDecimal> elements, MovingAverageCalculator calculator) {
+		if(null == calculator) {
+			throw new IllegalArgumentException(CALCULATOR_NULL);
+		}
+		final Stream<BigDecimal> source = elements;
+		return StreamSupport.stream(new MovingAverageSpliterator(elements.spliterator(), calculator), false)
+				.onClose(new Runnable() {
+					@Override
+					public void run() {
+						source.close();
+					}
+				});
+	}
+
+	/**
+	 * The mutable container of a Collector, the calculator of one part of the stream and its moving averages.
+	 */
+	private static final class Accumulator {
+
+		/** The supplier of the calculators, used to recalculate moving averages when parts are combined. */
+		private final Supplier<? extends MovingAverageCalculator> calculatorSupplier;
+
+		/** The calculator whose last moving average is the one of the part. */
+		private MovingAverageCalculator calculator;
+
+		/** The moving average after each element, null if not collected. */
+		private final List<BigDecimal> series;
+
+		/** The window size of the calculator, 0 if its moving average may depend on every element. */
+		private final int window;
+
+		/** The first window - 1 elements of the part, null if the window is unknown. */
+		private final List<BigDecimal> head;
+
+		/** The last window - 1 elements of the part, null if the window is unknown. */
+		private final ArrayDeque<BigDecimal> tail;
+
+		/** The number of elements of the part. */
+		private long count;
+
+		private Accumulator(Supplier<? extends MovingAverageCalculator> calculatorSupplier, boolean collectSeries) {
+			this.calculatorSupplier = calculatorSupplier;
+			this.calculator = calculatorSupplier.get();
+			this.series = collectSeries ? new ArrayList<BigDecimal>() : null;
+			this.window = calculator instanceof SlidingWindowCalculator
+					? ((SlidingWindowCalculator) calculator).getWindow() : 0;
+			this.head = window > 0 ? new ArrayList<BigDecimal>() : null;
+			this.tail = window > 0 ? new ArrayDeque<BigDecimal>() : null;
+		}
+
+		private void add(BigDecimal element) {
+			calculator.add(element);
+			if(series != null) {
+				series.add(calculator.movingAverage());
+			}
+			++count;
+			if(window > 1) {
+				if(head.size() < window - 1) {
+					head.add(element);
+				}
+				tail.addLast(element);
+				if(tail.size() > window - 1) {
+					tail.removeFirst();
+				}
+			}
+		}
+
+		/**
+		 * Appends a later part of the stream to this part.
+		 *
+		 * @param later the accumulator of the later part
+		 */
+		private void addAll(Accumulator later) {
+			if(later.count == 0) {
+				//an empty part, often left by a filter, changes nothing, and its calculator must not replace this one
+				return;
+			}
+			if(window == 0) {
+				replay(later);
+				return;
+			}
+			int overlap = window - 1;
+			MovingAverageCalculator combined = later.calculator;
+			//the moving averages of the later part from its window-th element on only depend on its own elements
+			if(overlap > 0 && count > 0 && (series != null || later.count < window)) {
+				MovingAverageCalculator recalculated = calculatorSupplier.get();
+				recalculated.addAll(tail.toArray(new BigDecimal[tail.size()]));
+				for(int i = 0; i < later.head.size(); ++i) {
+					recalculated.add(later.head.get(i));
+					if(series != null) {
+						later.series.set(i, recalculated.movingAverage());
+					}
+				}
+				if(later.count < window) {
+					//every element of the later part is in its head, after the last elements of this part
+					combined = recalculated;
+				}
+			}
+			if(series != null) {
+				series.addAll(later.series);
+			}
+			for(int i = 0; i < later.head.size() && head.size() < overlap; ++i) {
+				head.add(later.head.get(i));
+			}
+			for(BigDecimal element : later.tail) {
+				tail.addLast(element);
+				if(tail.size() > overlap) {
+					tail.removeFirst();
+				}
+			}
+			calculator = combined;
+			count += later.count;
+		}
+
+		/**
+		 * Adds every element of a later part of the stream, whose moving averages are recalculated from the elements
+		 * of this part, when the moving average may depend on every element.
+		 *
+		 * @param later the accumulator of the later part
+		 */
+		private void replay(Accumulator later) {
+			if(series == null) {
+				calculator.addAll(later.calculator.getAll());
+				count += later.count;
+			} else {
+				for(BigDecimal element : later.calculator.getAll()) {
+					add(element);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The Collector of the moving average or of the series of moving averages.
+	 *
+	 * @param <R> the type of the result
+	 */
+	private static final class MovingAverageCollector<R> implements Collector<BigDecimal, Accumulator, R> {
+
+		private final Supplier<? extends MovingAverageCalculator> calculatorSupplier;
+
+		private final boolean collectSeries;
+
+		private final Function<Accumulator, R> finisher;
+
+		private MovingAverageCollector(Supplier<? extends MovingAverageCalculator> calculatorSupplier,
+				boolean collectSeries, Function<Accumulator, R> finisher) {
+			if(null == calculatorSupplier) {
+				throw new IllegalArgumentException(CALCULATOR_SUPPLIER_NULL);
+			}
+			this.calculatorSupplier = calculatorSupplier;
+			this.collectSeries = collectSeries;
+			this.finisher = finisher;
+		}
+
+		@Override
+		public Supplier<Accumulator> supplier() {
+			return new Supplier<Accumulator>() {
+				@Override
+				public Accumulator get() {
+					return new Accumulator(calculatorSupplier, collectSeries);
+				}
+			};
+		}
+
+		@Override
+		public BiConsumer<Accumulator, BigDecimal> accumulator() {
+			return new BiConsumer<Accumulator, BigDecimal>() {
+				@Override
+				public void accept(Accumulator accumulator, BigDecimal element) {
+					accumulator.add(element);
+				}
+			};
+		}
+
+		@Override
+		public BinaryOperator<Accumulator> combiner() {
+			return new BinaryOperator<Accumulator>() {
+				@Override
+				public Accumulator apply(Accumulator earlier, Accumulator later) {
+					earlier.addAll(later);
+					return earlier;
+				}
+			};
+		}
+
+		@Override
+		public Function<Accumulator, R> finisher() {
+			return finisher;
+		}
+
+		@Override
+		public Set<Characteristics> characteristics() {
+			//not CONCURRENT nor UNORDERED, the elements are added in encounter order
+			return Collections.unmodifiableSet(EnumSet.noneOf(Characteristics.class));
+		}
+	}
+
+	/**
+	 * The Spliterator of the moving averages, adding each element of the source to the calculator as it is consumed.
+	 * It does not split, as each moving average depends on the elements before it.
+	 */
+	private static final class MovingAverageSpliterator implements Spliterator<BigDecimal>, Consumer<BigDecimal> {
+
+		private final Spliterator<BigDecimal> source;
+
+		private final MovingAverageCalculator calculator;
+
+		private MovingAverageSpliterator(Spliterator<BigDecimal> source, MovingAverageCalculator calculator) {
+			this.source = source;
+			this.calculator = calculator;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super BigDecimal> action) {
+			if(!source.tryAdvance(this)) {
+				return false;
+			}
+			action.accept(calculator.movingAverage());
+			return true;
+		}
+
+		@Override
+		public void accept(BigDecimal element) {
+			calculator.add(element);
+		}
+
+		@Override
+		public Spliterator<BigDecimal> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return source.estimateSize();
+		}
+
+		@Override
+		public int characteristics() {
+			return source.characteristics() & (SIZED | ORDERED) | NONNULL;
+		}
+	}
+}
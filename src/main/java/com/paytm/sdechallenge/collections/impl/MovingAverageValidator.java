@@ -0,0 +1,75 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.RoundingMode;
+
+/**
+ * The Class MovingAverageValidator.
+ *
+ * Validations of the configuration shared by the moving average calculator implementations.
+ */
+final class MovingAverageValidator {
+
+	/** Error message when Window Size is Invalid. */
+	private static String WINDOW_INVALID = "Window size is invalid : %s";
+
+	/** Error message when Scale is Invalid. */
+	private static String SCALE_INVALID = "Scale is invalid : %s";
+
+	/** Error message when Rounding Mode is null. */
+	private static String ROUNDING_MODE_NULL = "Rounding Mode is null";
+
+	/** Error message when Rounding Mode is UNESCESSARY.
+	 *	Rounding Mode cannot be UNESCESSARY as division with BigDecimals always require a RoundingMode
+	 */
+	private static String ROUNDING_MODE_CANT_BE_UNESCESSARY = "Rounding Mode cant be UNESCESSARY";
+
+	private MovingAverageValidator() {
+	}
+
+	/**
+	 * Validate window.
+	 *
+	 * @param window the window size
+	 */
+	static void validateWindow(int window) {
+		if(window <= 0) {
+			throw new IllegalArgumentException(String.format(WINDOW_INVALID, window));
+		}
+	}
+
+	/**
+	 * Validate scale.
+	 *
+	 * @param scale the scale
+	 */
+	static void validateScale(int scale) {
+		if(scale < 0) {
+			throw new IllegalArgumentException(String.format(SCALE_INVALID, scale));
+		}
+	}
+
+	/**
+	 * Validate a scale that is used as the exponent of a long power of ten.
+	 *
+	 * @param scale the scale
+	 */
+	static void validateFixedPointScale(int scale) {
+		if(scale < 0 || scale > FixedPointMath.MAX_SCALE) {
+			throw new IllegalArgumentException(String.format(SCALE_INVALID, scale));
+		}
+	}
+
+	/**
+	 * Validate rounding mode.
+	 *
+	 * @param roundingMode the rounding mode
+	 */
+	static void validateRoundingMode(RoundingMode roundingMode) {
+		if(null == roundingMode) {
+			throw new IllegalArgumentException(ROUNDING_MODE_NULL);
+		}
+		if(roundingMode == RoundingMode.UNNECESSARY) {
+			throw new IllegalArgumentException(ROUNDING_MODE_CANT_BE_UNESCESSARY);
+		}
+	}
+}
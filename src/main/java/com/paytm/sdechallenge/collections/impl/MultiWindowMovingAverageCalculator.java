@@ -0,0 +1,336 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class MultiWindowMovingAverageCalculator, a MovingAverageCalculator maintaining the moving averages of several
+ * windows over one stream of elements.
+ *
+ * Storing Data
+ *
+ *
+ *  elements - The elements are stored once, in an ElementHistory keeping all elements, shared by every window.
+ *
+ *  windowSums - The running sum of each registered window, sorted by window size. No window keeps its own copy of
+ *  its elements: the element leaving a window is read from the history at the index size - window.
+ *
+ *  primary window - The first window given to the constructor. movingAverage() returns the moving average of the
+ *  primary window, which cannot be removed. The moving average of any registered window is returned by
+ *  movingAverage(window).
+ *
+ *
+ * Registering Windows
+ *
+ *
+ *  A window registered at runtime does not re-sum its elements. Its sum is derived from the sum of the registered
+ *  window closest in size, adding or subtracting only the elements between the two windows. Removing a window only
+ *  drops its sum.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add method has a complexity of O(k), where k is the number of registered windows
+ *  The movingAverage, get, getAll, size, isEmpty methods have time complexity O(1)
+ *  The addWindow method has a complexity of O(d + k), where d is the difference between the new window and the
+ *  closest registered window
+ *  The removeWindow method has a complexity of O(k)
+ *
+ *  Space Complexity:
+ *  The elements are stored once, whatever the number of windows, plus one sum for each registered window
+ *
+ */
+public class MultiWindowMovingAverageCalculator extends AbstractAverageCalculator
+		implements MovingAverageCalculator, SlidingWindowCalculator {
+
+	/** Error message when no window is given. */
+	private static String WINDOWS_EMPTY = "No window is given";
+
+	/** Error message when a window is registered twice. */
+	private static String WINDOW_ALREADY_REGISTERED = "Window already registered : %s";
+
+	/** Error message when a window is not registered. */
+	private static String WINDOW_NOT_REGISTERED = "Window not registered : %s";
+
+	/** Error message when the primary window is removed. */
+	private static String PRIMARY_WINDOW_REMOVED = "Primary window cannot be removed : %s";
+
+	/** Error message when Element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** The history storing the elements, shared by all windows. */
+	private final ElementHistory elements = HistoryPolicy.keepAll().createHistory();
+
+	/** The sums of the registered windows, sorted by window size. */
+	private WindowSum[] windowSums;
+
+	/** The sum of each registered window, by window size. */
+	private final Map<Integer, WindowSum> windowSumsBySize = new HashMap<>();
+
+	/** The sum of the primary window. */
+	private final WindowSum primary;
+
+	/**
+	 * Instantiates a new multi window moving average calculator.
+	 *
+	 * @param windows the window sizes, the first one being the primary window
+	 */
+	public MultiWindowMovingAverageCalculator(int[] windows) {
+		this(windows, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new multi window moving average calculator.
+	 *
+	 * @param windows the window sizes, the first one being the primary window
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public MultiWindowMovingAverageCalculator(int[] windows, int scale, RoundingMode roundingMode) {
+		if(null == windows || windows.length == 0) {
+			throw new IllegalArgumentException(WINDOWS_EMPTY);
+		}
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.windowSums = new WindowSum[0];
+		for(int window : windows) {
+			addWindow(window);
+		}
+		this.primary = windowSumsBySize.get(windows[0]);
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Adds the new element, updating the sum of every registered window.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		int size = elements.size();
+		//appended first, so that an element the history rejects leaves every window sum unchanged
+		elements.add(element);
+		for(WindowSum windowSum : windowSums) {
+			//Subtraction is required only if the window is full, the new element then replaces the oldest one
+			if(size >= windowSum.window) {
+				windowSum.sum = windowSum.sum.subtract(elements.get(size - windowSum.window)).add(element);
+			} else {
+				windowSum.sum = windowSum.sum.add(element);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the Moving average of the primary window.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		return movingAverage(primary);
+	}
+
+	/**
+	 * Calculates the Moving average of a registered window.
+	 *
+	 * @param window the window size
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	public BigDecimal movingAverage(int window) {
+		return movingAverage(registered(window));
+	}
+
+	/**
+	 * Registers a new window.
+	 *
+	 * @param window the window size
+	 */
+	public void addWindow(int window) {
+		MovingAverageValidator.validateWindow(window);
+		if(windowSumsBySize.containsKey(window)) {
+			throw new IllegalArgumentException(String.format(WINDOW_ALREADY_REGISTERED, window));
+		}
+		WindowSum added = new WindowSum(window);
+		added.sum = deriveSum(window);
+
+		int position = 0;
+		while(position < windowSums.length && windowSums[position].window < window) {
+			++position;
+		}
+		WindowSum[] grown = new WindowSum[windowSums.length + 1];
+		System.arraycopy(windowSums, 0, grown, 0, position);
+		grown[position] = added;
+		System.arraycopy(windowSums, position, grown, position + 1, windowSums.length - position);
+		windowSums = grown;
+		windowSumsBySize.put(window, added);
+	}
+
+	/**
+	 * Removes a registered window.
+	 *
+	 * @param window the window size
+	 */
+	public void removeWindow(int window) {
+		WindowSum removed = registered(window);
+		if(removed == primary) {
+			throw new IllegalArgumentException(String.format(PRIMARY_WINDOW_REMOVED, window));
+		}
+		WindowSum[] shrunk = new WindowSum[windowSums.length - 1];
+		int next = 0;
+		for(WindowSum windowSum : windowSums) {
+			if(windowSum != removed) {
+				shrunk[next++] = windowSum;
+			}
+		}
+		windowSums = shrunk;
+		windowSumsBySize.remove(window);
+	}
+
+	/**
+	 * Gets the registered window sizes.
+	 *
+	 * @return the window sizes, in increasing order
+	 */
+	public int[] getWindows() {
+		int[] windows = new int[windowSums.length];
+		for(int i = 0; i < windows.length; ++i) {
+			windows[i] = windowSums[i].window;
+		}
+		return windows;
+	}
+
+	/**
+	 * Gets the primary window size.
+	 *
+	 * @return the primary window size
+	 */
+	@Override
+	public int getWindow() {
+		return primary.window;
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return elements.size() == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the big decimal value
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view of the elements.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return new ElementHistoryView(elements);
+	}
+
+	/**
+	 * Calculates the Moving average of a window from its sum.
+	 *
+	 * @param windowSum the sum of the window
+	 * @return the big decimal Moving Average
+	 */
+	private BigDecimal movingAverage(WindowSum windowSum) {
+		int count = Math.min(windowSum.window, elements.size());
+		if(count == 0) {
+			return windowSum.sum.setScale(scale);
+		}
+		return windowSum.sum.divide(new BigDecimal(count), scale, roundingMode);
+	}
+
+	/**
+	 * Gets the sum of a registered window.
+	 *
+	 * @param window the window size
+	 * @return the window sum
+	 */
+	private WindowSum registered(int window) {
+		WindowSum windowSum = windowSumsBySize.get(window);
+		if(null == windowSum) {
+			throw new IllegalArgumentException(String.format(WINDOW_NOT_REGISTERED, window));
+		}
+		return windowSum;
+	}
+
+	/**
+	 * Calculates the sum of the last elements of a new window, from the registered window closest in size.
+	 *
+	 * @param window the window size
+	 * @return the sum of the window
+	 */
+	private BigDecimal deriveSum(int window) {
+		int size = elements.size();
+		int count = Math.min(window, size);
+		//the window sum starts from an empty window when no registered window is closer
+		int closestCount = 0;
+		BigDecimal sum = BigDecimal.ZERO;
+		for(WindowSum windowSum : windowSums) {
+			int registeredCount = Math.min(windowSum.window, size);
+			if(Math.abs(registeredCount - count) < Math.abs(closestCount - count)) {
+				closestCount = registeredCount;
+				sum = windowSum.sum;
+			}
+		}
+		for(int i = size - count; i < size - closestCount; ++i) {
+			sum = sum.add(elements.get(i));
+		}
+		for(int i = size - closestCount; i < size - count; ++i) {
+			sum = sum.subtract(elements.get(i));
+		}
+		return sum;
+	}
+
+	/**
+	 * The running sum of a registered window.
+	 */
+	private static final class WindowSum {
+
+		/** The window size. */
+		private final int window;
+
+		/** The sum of the elements in the window. */
+		private BigDecimal sum = BigDecimal.ZERO;
+
+		private WindowSum(int window) {
+			this.window = window;
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * The Class OrderStatisticTree, a balanced binary search tree of the elements of a window, indexable by rank.
+ *
+ * The tree is a treap: nodes are ordered by element, then by global index so that equal elements are distinct, and
+ * balanced by random priorities. Each node holds the size of its subtree, so the element of any rank is found by one
+ * walk from the root. Adding, removing and selecting an element have an expected complexity of O(log n).
+ */
+final class OrderStatisticTree {
+
+	/** The root of the tree, null if empty. */
+	private Node root;
+
+	/** The state of the xorshift generator of priorities. */
+	private int seed = 0x2545F491;
+
+	/**
+	 * Adds an element.
+	 *
+	 * @param element the element
+	 * @param index the global index of the element
+	 */
+	void add(BigDecimal element, int index) {
+		root = insert(root, new Node(element, index, nextPriority()));
+	}
+
+	/**
+	 * Removes an element added before.
+	 *
+	 * @param element the element
+	 * @param index the global index of the element
+	 */
+	void remove(BigDecimal element, int index) {
+		root = delete(root, element, index);
+	}
+
+	/**
+	 * Size.
+	 *
+	 * @return the number of elements
+	 */
+	int size() {
+		return size(root);
+	}
+
+	/**
+	 * Gets the element of a given rank.
+	 *
+	 * @param rank the rank, 0 being the smallest element
+	 * @return the element
+	 */
+	BigDecimal select(int rank) {
+		Node node = root;
+		while(true) {
+			int leftSize = size(node.left);
+			if(rank < leftSize) {
+				node = node.left;
+			} else if(rank > leftSize) {
+				rank -= leftSize + 1;
+				node = node.right;
+			} else {
+				return node.element;
+			}
+		}
+	}
+
+	private Node insert(Node node, Node added) {
+		if(node == null) {
+			return added;
+		}
+		if(compare(added.element, added.index, node) < 0) {
+			node.left = insert(node.left, added);
+			if(node.left.priority > node.priority) {
+				node = rotateRight(node);
+			}
+		} else {
+			node.right = insert(node.right, added);
+			if(node.right.priority > node.priority) {
+				node = rotateLeft(node);
+			}
+		}
+		node.update();
+		return node;
+	}
+
+	private Node delete(Node node, BigDecimal element, int index) {
+		if(node == null) {
+			return null;
+		}
+		int comparison = compare(element, index, node);
+		if(comparison < 0) {
+			node.left = delete(node.left, element, index);
+		} else if(comparison > 0) {
+			node.right = delete(node.right, element, index);
+		} else {
+			//the node sinks below the child of higher priority until it is a leaf
+			if(node.left == null) {
+				return node.right;
+			}
+			if(node.right == null) {
+				return node.left;
+			}
+			if(node.left.priority > node.right.priority) {
+				node = rotateRight(node);
+				node.right = delete(node.right, element, index);
+			} else {
+				node = rotateLeft(node);
+				node.left = delete(node.left, element, index);
+			}
+		}
+		node.update();
+		return node;
+	}
+
+	private static Node rotateRight(Node node) {
+		Node left = node.left;
+		node.left = left.right;
+		left.right = node;
+		node.update();
+		left.update();
+		return left;
+	}
+
+	private static Node rotateLeft(Node node) {
+		Node right = node.right;
+		node.right = right.left;
+		right.left = node;
+		node.update();
+		right.update();
+		return right;
+	}
+
+	private static int compare(BigDecimal element, int index, Node node) {
+		int comparison = element.compareTo(node.element);
+		return comparison != 0 ? comparison : Integer.compare(index, node.index);
+	}
+
+	private static int size(Node node) {
+		return node == null ? 0 : node.size;
+	}
+
+	private int nextPriority() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return seed;
+	}
+
+	/**
+	 * A node of the tree.
+	 */
+	private static final class Node {
+
+		private final BigDecimal element;
+
+		private final int index;
+
+		private final int priority;
+
+		private int size = 1;
+
+		private Node left;
+
+		private Node right;
+
+		private Node(BigDecimal element, int index, int priority) {
+			this.element = element;
+			this.index = index;
+			this.priority = priority;
+		}
+
+		private void update() {
+			size = 1 + OrderStatisticTree.size(left) + OrderStatisticTree.size(right);
+		}
+	}
+}
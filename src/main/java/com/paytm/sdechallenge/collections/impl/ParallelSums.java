@@ -0,0 +1,272 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Class ParallelSums, the bulk operations over a large number of elements, run with fork/join.
+ *
+ * The elements are split into blocks of THRESHOLD elements, each summed on one thread, and the partial sums are
+ * added in order. As BigDecimal additions are exact, the result is the same as a sequential sum whatever the number
+ * of threads. Fewer than THRESHOLD elements, or elements of a history that cannot be read by several threads, are
+ * summed sequentially in the calling thread.
+ *
+ * The tasks are forked into the pool of the calling thread if it runs in a ForkJoinPool, otherwise into the common
+ * pool, whose parallelism defaults to the number of processors less one.
+ */
+final class ParallelSums {
+
+	/** The number of elements below which a sum is not split. */
+	static final int THRESHOLD = 1 << 13;
+
+	private ParallelSums() {
+	}
+
+	/**
+	 * Sums elements of an array.
+	 *
+	 * @param array the array
+	 * @param from the index of the first element, inclusive
+	 * @param to the index of the last element, exclusive
+	 * @return the exact sum
+	 */
+	static BigDecimal sum(BigDecimal[] array, int from, int to) {
+		return new SumTask(null, array, from, to, null, 0, true).invoke();
+	}
+
+	/**
+	 * Sums elements of a history, copying them into an array if given.
+	 *
+	 * @param history the history
+	 * @param from the global index of the first element, inclusive
+	 * @param to the global index of the last element, exclusive
+	 * @param copy the array receiving the elements, null if not copied
+	 * @param copyOffset the index in copy of the first element
+	 * @return the exact sum
+	 */
+	static BigDecimal sum(ElementHistory history, int from, int to, BigDecimal[] copy, int copyOffset) {
+		return new SumTask(history, null, from, to, copy, copyOffset, history.isConcurrentlyReadable()).invoke();
+	}
+
+	/**
+	 * Calculates the moving averages of a window at each element of a range of a history. The moving average at the
+	 * global index i is the average of the elements from max(0, i + 1 - window) to i, as returned by movingAverage
+	 * once the element i is added.
+	 *
+	 * The exact prefix sums of the elements from max(0, from + 1 - window) to to are calculated in two passes: the
+	 * sums of the blocks, then each block from the sum of the blocks before it. The moving averages are then divided
+	 * from the difference of two prefix sums, block by block.
+	 *
+	 * @param history the history, retaining the elements from max(0, from + 1 - window)
+	 * @param from the global index of the first moving average, inclusive
+	 * @param to the global index of the last moving average, exclusive
+	 * @param window the window size
+	 * @param scale the scale of the moving averages
+	 * @param roundingMode the rounding mode of the moving averages
+	 * @return the moving averages, the one at the global index i being at i - from
+	 */
+	static BigDecimal[] movingAverages(ElementHistory history, int from, int to, int window, int scale,
+			RoundingMode roundingMode) {
+		int start = Math.max(0, from + 1 - window);
+		boolean parallel = history.isConcurrentlyReadable();
+		//prefixSums[i] is the sum of the elements from start to start + i - 1
+		BigDecimal[] prefixSums = new BigDecimal[to - start + 1];
+		prefixSums[0] = BigDecimal.ZERO;
+
+		List<SumTask> blockSums = new ArrayList<>();
+		for(int blockStart = start; blockStart < to; blockStart += THRESHOLD) {
+			blockSums.add(new SumTask(history, null, blockStart, Math.min(to, blockStart + THRESHOLD), null, 0, false));
+		}
+		invokeAll(blockSums, parallel);
+		List<PrefixSumTask> prefixes = new ArrayList<>();
+		BigDecimal offset = BigDecimal.ZERO;
+		for(int block = 0; block < blockSums.size(); ++block) {
+			int blockStart = start + block * THRESHOLD;
+			prefixes.add(new PrefixSumTask(history, start, blockStart, Math.min(to, blockStart + THRESHOLD), offset,
+					prefixSums));
+			offset = offset.add(blockSums.get(block).join());
+		}
+		invokeAll(prefixes, parallel);
+
+		BigDecimal[] movingAverages = new BigDecimal[to - from];
+		BigDecimal windowDivisor = BigDecimal.valueOf(window);
+		List<MovingAverageTask> averages = new ArrayList<>();
+		for(int blockStart = from; blockStart < to; blockStart += THRESHOLD) {
+			averages.add(new MovingAverageTask(prefixSums, start, from, blockStart, Math.min(to, blockStart + THRESHOLD),
+					window, windowDivisor, scale, roundingMode, movingAverages));
+		}
+		//the prefix sums are in memory, so the moving averages can always be divided in parallel
+		invokeAll(averages, true);
+		return movingAverages;
+	}
+
+	private static void invokeAll(List<? extends ForkJoinTask<?>> tasks, boolean parallel) {
+		if(parallel) {
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			for(ForkJoinTask<?> task : tasks) {
+				task.invoke();
+			}
+		}
+	}
+
+	/**
+	 * Sums a range of elements, split in halves while larger than THRESHOLD.
+	 */
+	private static final class SumTask extends RecursiveTask<BigDecimal> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The history holding the elements, null if read from array. */
+		private final ElementHistory history;
+
+		/** The array holding the elements, null if read from history. */
+		private final BigDecimal[] array;
+
+		private final int from;
+
+		private final int to;
+
+		/** The array receiving the elements, null if not copied. */
+		private final BigDecimal[] copy;
+
+		/** The index in copy of the element at from. */
+		private final int copyOffset;
+
+		/** Whether the range may be split. */
+		private final boolean parallel;
+
+		private SumTask(ElementHistory history, BigDecimal[] array, int from, int to, BigDecimal[] copy,
+				int copyOffset, boolean parallel) {
+			this.history = history;
+			this.array = array;
+			this.from = from;
+			this.to = to;
+			this.copy = copy;
+			this.copyOffset = copyOffset;
+			this.parallel = parallel;
+		}
+
+		@Override
+		protected BigDecimal compute() {
+			if(!parallel || to - from <= THRESHOLD) {
+				BigDecimal sum = BigDecimal.ZERO;
+				for(int i = from; i < to; ++i) {
+					BigDecimal element = array != null ? array[i] : history.get(i);
+					if(copy != null) {
+						copy[copyOffset + i - from] = element;
+					}
+					sum = sum.add(element);
+				}
+				return sum;
+			}
+			int middle = (from + to) >>> 1;
+			SumTask left = new SumTask(history, array, from, middle, copy, copyOffset, true);
+			SumTask right = new SumTask(history, array, middle, to, copy, copyOffset + middle - from, true);
+			left.fork();
+			BigDecimal rightSum = right.compute();
+			return left.join().add(rightSum);
+		}
+	}
+
+	/**
+	 * Fills the prefix sums of one block, from the sum of the blocks before it.
+	 */
+	private static final class PrefixSumTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ElementHistory history;
+
+		/** The global index of the element before which the prefix sum is 0. */
+		private final int start;
+
+		private final int from;
+
+		private final int to;
+
+		/** The sum of the elements from start to from - 1. */
+		private final BigDecimal offset;
+
+		private final BigDecimal[] prefixSums;
+
+		private PrefixSumTask(ElementHistory history, int start, int from, int to, BigDecimal offset,
+				BigDecimal[] prefixSums) {
+			this.history = history;
+			this.start = start;
+			this.from = from;
+			this.to = to;
+			this.offset = offset;
+			this.prefixSums = prefixSums;
+		}
+
+		@Override
+		protected void compute() {
+			BigDecimal sum = offset;
+			for(int i = from; i < to; ++i) {
+				sum = sum.add(history.get(i));
+				prefixSums[i + 1 - start] = sum;
+			}
+		}
+	}
+
+	/**
+	 * Divides the moving averages of one block from the prefix sums.
+	 */
+	private static final class MovingAverageTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BigDecimal[] prefixSums;
+
+		/** The global index of the element before which the prefix sum is 0. */
+		private final int start;
+
+		/** The global index of the first moving average of the series. */
+		private final int seriesFrom;
+
+		private final int from;
+
+		private final int to;
+
+		private final int window;
+
+		private final BigDecimal windowDivisor;
+
+		private final int scale;
+
+		private final RoundingMode roundingMode;
+
+		private final BigDecimal[] movingAverages;
+
+		private MovingAverageTask(BigDecimal[] prefixSums, int start, int seriesFrom, int from, int to, int window,
+				BigDecimal windowDivisor, int scale, RoundingMode roundingMode, BigDecimal[] movingAverages) {
+			this.prefixSums = prefixSums;
+			this.start = start;
+			this.seriesFrom = seriesFrom;
+			this.from = from;
+			this.to = to;
+			this.window = window;
+			this.windowDivisor = windowDivisor;
+			this.scale = scale;
+			this.roundingMode = roundingMode;
+			this.movingAverages = movingAverages;
+		}
+
+		@Override
+		protected void compute() {
+			for(int i = from; i < to; ++i) {
+				int first = Math.max(0, i + 1 - window);
+				BigDecimal sum = prefixSums[i + 1 - start].subtract(prefixSums[first - start]);
+				int count = i + 1 - first;
+				BigDecimal divisor = count == window ? windowDivisor : BigDecimal.valueOf(count);
+				movingAverages[i - seriesFrom] = sum.divide(divisor, scale, roundingMode);
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The Class PartialWindow, the exact sum and count of the elements a shard holds in a range of global sequences.
+ *
+ * The elements of a series are spread over shards, each element being stamped with its sequence, its position in the
+ * whole series from 0. The window ending at a cut sequence is the range of the last window sequences up to the cut,
+ * and each shard sums the elements it holds in that range. The partial windows of every shard for the same range are
+ * merged by adding their sums and counts, which gives the exact sum and count of the whole window, without moving a
+ * single element.
+ *
+ * The merged window is complete when its count equals the number of sequences of the range, that is when every
+ * element up to the cut has reached its shard. A shard lagging behind gives a smaller count, which is detected
+ * instead of being averaged over fewer elements.
+ *
+ * Serialized form
+ *
+ *
+ *  toByteArray writes the CheckpointCodec header, then the first and last sequences and the count as variable length
+ *  longs and the sum as a variable length decimal, about 20 bytes for a sum fitting an unscaled long.
+ */
+public final class PartialWindow {
+
+	/** Error message when partial windows do not cover the same sequences. */
+	private static String RANGE_MISMATCH = "Partial windows cover different sequences : %s";
+
+	/** Error message when the merged window lacks elements. */
+	private static String WINDOW_INCOMPLETE = "Window is incomplete : %s";
+
+	/** The first sequence of the range, inclusive. */
+	private final long fromSequence;
+
+	/** The last sequence of the range, inclusive, the cut. */
+	private final long toSequence;
+
+	/** The number of elements held in the range. */
+	private final long count;
+
+	/** The exact sum of the elements held in the range. */
+	private final BigDecimal sum;
+
+	PartialWindow(long fromSequence, long toSequence, long count, BigDecimal sum) {
+		this.fromSequence = fromSequence;
+		this.toSequence = toSequence;
+		this.count = count;
+		this.sum = sum;
+	}
+
+	/**
+	 * Gets the first sequence of the range, inclusive.
+	 *
+	 * @return the first sequence
+	 */
+	public long getFromSequence() {
+		return fromSequence;
+	}
+
+	/**
+	 * Gets the last sequence of the range, inclusive, the cut the window ends at.
+	 *
+	 * @return the last sequence
+	 */
+	public long getToSequence() {
+		return toSequence;
+	}
+
+	/**
+	 * Gets the number of elements held in the range.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the exact sum of the elements held in the range.
+	 *
+	 * @return the sum
+	 */
+	public BigDecimal getSum() {
+		return sum;
+	}
+
+	/**
+	 * Checks if every sequence of the range has an element, in which case the window is the whole of the last window
+	 * elements up to the cut.
+	 *
+	 * @return true, if the window is complete
+	 */
+	public boolean isComplete() {
+		return count == toSequence - fromSequence + 1;
+	}
+
+	/**
+	 * Merges the partial window of another shard for the same range.
+	 *
+	 * @param other the partial window of another shard
+	 * @return the partial window of both shards
+	 */
+	public PartialWindow merge(PartialWindow other) {
+		if(other.fromSequence != fromSequence || other.toSequence != toSequence) {
+			throw new IllegalArgumentException(String.format(RANGE_MISMATCH, this + " and " + other));
+		}
+		return new PartialWindow(fromSequence, toSequence, count + other.count, sum.add(other.sum));
+	}
+
+	/**
+	 * Gets the moving average of a complete window.
+	 *
+	 * @param scale the scale of the moving average
+	 * @param roundingMode the rounding mode
+	 * @return the moving average
+	 * @throws IllegalStateException if the window is not complete
+	 */
+	public BigDecimal movingAverage(int scale, RoundingMode roundingMode) {
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+		if(!isComplete()) {
+			throw new IllegalStateException(String.format(WINDOW_INCOMPLETE, this));
+		}
+		return sum.divide(BigDecimal.valueOf(count), scale, roundingMode);
+	}
+
+	/**
+	 * Writes the serialized form of the partial window.
+	 *
+	 * @return the bytes
+	 */
+	public byte[] toByteArray() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		try {
+			CheckpointCodec.Writer writer = new CheckpointCodec.Writer(bytes, 64);
+			writer.writeHeader(CheckpointCodec.KIND_PARTIAL_WINDOW);
+			writer.writeVarLong(fromSequence);
+			writer.writeVarLong(toSequence);
+			writer.writeVarLong(count);
+			writer.writeDecimal(sum);
+			writer.flush();
+		} catch (IOException e) {
+			//a ByteArrayOutputStream does not throw
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads a partial window from its serialized form.
+	 *
+	 * @param bytes the bytes written by toByteArray
+	 * @return the partial window
+	 * @throws IOException if the bytes are not a partial window, or if bytes remain after it
+	 */
+	public static PartialWindow fromByteArray(byte[] bytes) throws IOException {
+		CheckpointCodec.Reader reader = new CheckpointCodec.Reader(bytes);
+		reader.readHeader(CheckpointCodec.KIND_PARTIAL_WINDOW);
+		long fromSequence = reader.readVarLong();
+		long toSequence = reader.readVarLong();
+		long count = reader.readVarLong();
+		BigDecimal sum = reader.readDecimal();
+		reader.readEnd();
+		if(toSequence < fromSequence || count < 0 || count > toSequence - fromSequence + 1) {
+			throw CheckpointCodec.invalid("range " + fromSequence + " to " + toSequence + " of " + count);
+		}
+		return new PartialWindow(fromSequence, toSequence, count, sum);
+	}
+
+	@Override
+	public String toString() {
+		return "PartialWindow [fromSequence=" + fromSequence + ", toSequence=" + toSequence + ", count=" + count
+				+ ", sum=" + sum + "]";
+	}
+}
@@ -0,0 +1,227 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class PrefixSumMovingAverageCalculator, a MovingAverageCalculator answering historical queries over the
+ * elements added.
+ *
+ * Storing Data
+ *
+ *
+ *  elements - The elements added, stored in chunks and addressed by their index.
+ *
+ *  prefixSums - An index next to elements, holding at position i the exact BigDecimal sum of the elements 0 to i.
+ *  As elements are only appended, each prefix sum is computed once from the previous one, and the sum of any range
+ *  of elements [from, to) is the difference of two prefix sums. No Fenwick tree is required, as no stored element is
+ *  ever updated.
+ *
+ *
+ * Moving Average Calculation
+ *
+ *
+ *  The moving average is the sum of the last window elements, taken from prefixSums, divided by the number of
+ *  elements in the window. No window of elements is kept, so setWindow only changes the window size.
+ *  average(from, to) returns the average of the elements [from, to), and movingAverageAt(index, window) the moving
+ *  average of a window as it stood when the element at index was added.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, average, movingAverageAt, setWindow, get, getAll, size, isEmpty methods have time
+ *  complexity O(1)
+ *
+ *  Space Complexity:
+ *  One prefix sum is stored for each element added
+ *
+ */
+public class PrefixSumMovingAverageCalculator extends AbstractAverageCalculator
+		implements MovingAverageCalculator, SlidingWindowCalculator {
+
+	/** Error message when a range of elements is empty. */
+	private static String RANGE_EMPTY = "Range is empty : [%s, %s)";
+
+	/** Error message when Element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** The elements added. */
+	private final ElementHistory elements = new ChunkedElementHistory();
+
+	/** The sum of the elements 0 to i, at index i. */
+	private final ElementHistory prefixSums = new ChunkedElementHistory();
+
+	/** The window size to calculate moving average. */
+	private int window;
+
+	/**
+	 * Instantiates a new prefix sum moving average calculator.
+	 *
+	 * @param window the window size
+	 */
+	public PrefixSumMovingAverageCalculator(int window) {
+		this(window, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new prefix sum moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public PrefixSumMovingAverageCalculator(int window, int scale, RoundingMode roundingMode) {
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.window = window;
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		int size = elements.size();
+		prefixSums.add(size == 0 ? element : prefixSums.get(size - 1).add(element));
+		elements.add(element);
+	}
+
+	/**
+	 * Calculates the Moving average.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		int size = elements.size();
+		if(size == 0) {
+			return BigDecimal.ZERO.setScale(scale);
+		}
+		return average(Math.max(0, size - window), size);
+	}
+
+	/**
+	 * Calculates the moving average of a window as it stood when the element at the given index was added.
+	 *
+	 * @param index the index of the last element of the window
+	 * @param window the window size
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	public BigDecimal movingAverageAt(int index, int window) {
+		MovingAverageValidator.validateWindow(window);
+		if (index < 0 || index >= elements.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return average(Math.max(0, index + 1 - window), index + 1);
+	}
+
+	/**
+	 * Calculates the average of the elements in the range [from, to).
+	 *
+	 * @param from the index of the first element, inclusive
+	 * @param to the index of the last element, exclusive
+	 * @return the big decimal average, with decimal places equal to the scale set
+	 */
+	public BigDecimal average(int from, int to) {
+		if (from < 0 || to > elements.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (from >= to) {
+			throw new IllegalArgumentException(String.format(RANGE_EMPTY, from, to));
+		}
+		return sum(from, to).divide(new BigDecimal(to - from), scale, roundingMode);
+	}
+
+	/**
+	 * Calculates the exact sum of the elements in the range [from, to).
+	 *
+	 * @param from the index of the first element, inclusive
+	 * @param to the index of the last element, exclusive
+	 * @return the big decimal sum
+	 */
+	public BigDecimal sum(int from, int to) {
+		if (from < 0 || to > elements.size() || from > to) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (from == to) {
+			return BigDecimal.ZERO;
+		}
+		BigDecimal sum = prefixSums.get(to - 1);
+		return from == 0 ? sum : sum.subtract(prefixSums.get(from - 1));
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return elements.size() == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the big decimal value
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view of the elements.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return new ElementHistoryView(elements);
+	}
+
+	/**
+	 * Gets the window size.
+	 *
+	 * @return the window size
+	 */
+	@Override
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Sets the window. The window sum is taken from the prefix sums, so nothing is re-summed.
+	 *
+	 * @param window the new window
+	 */
+	public void setWindow(int window) {
+		MovingAverageValidator.validateWindow(window);
+		this.window = window;
+	}
+}
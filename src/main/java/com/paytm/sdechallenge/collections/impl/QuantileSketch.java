@@ -0,0 +1,219 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.util.Arrays;
+
+/**
+ * The Class QuantileSketch, a mergeable sketch of the distribution of a window, answering quantiles with a bounded
+ * relative error.
+ *
+ * Values are counted in logarithmic buckets: the bucket k of positive values holds the values in
+ * (gamma^(k-1), gamma^k], where gamma = (1 + accuracy) / (1 - accuracy), and any value of a bucket is estimated within
+ * the relative accuracy. Negative values are counted in the same way by magnitude, and zeros separately. As a bucket
+ * only holds a count, an element leaving the window is removed by decrementing its bucket, and two sketches with the
+ * same accuracy are merged by adding their counts. Adding and removing a value is O(1), a quantile is found by one
+ * pass over the buckets, whose number only depends on the accuracy and the range of the values.
+ *
+ * The keys are clamped to the buckets of the normal doubles: a value above Double.MAX_VALUE, like the infinite double
+ * value of a BigDecimal above 1e308, is counted in the bucket of Double.MAX_VALUE and estimated as Double.MAX_VALUE,
+ * and a subnormal value is counted in the bucket of Double.MIN_NORMAL. The relative accuracy only holds for values
+ * whose magnitude is between Double.MIN_NORMAL and Double.MAX_VALUE, and the number of buckets stays bounded.
+ */
+final class QuantileSketch {
+
+	/** Error message when the accuracy is invalid. */
+	private static String ACCURACY_INVALID = "Relative accuracy is invalid : %s";
+
+	/** Error message when merging sketches of different accuracies. */
+	private static String ACCURACY_MISMATCH = "Sketches have different accuracies : %s, %s";
+
+	/** The relative accuracy. */
+	private final double accuracy;
+
+	/** The ratio of the bounds of a bucket. */
+	private final double gamma;
+
+	/** The natural logarithm of gamma. */
+	private final double logGamma;
+
+	/** The key of the bucket of Double.MIN_NORMAL, the lowest key counted. */
+	private final int minKey;
+
+	/** The key of the bucket of Double.MAX_VALUE, the highest key counted. */
+	private final int maxKey;
+
+	/** The counts of the positive values, by bucket. */
+	private final Buckets positives = new Buckets();
+
+	/** The counts of the negative values, by bucket of their magnitude. */
+	private final Buckets negatives = new Buckets();
+
+	/** The number of zeros. */
+	private long zeros;
+
+	/** The number of values. */
+	private long count;
+
+	/**
+	 * Instantiates a new quantile sketch.
+	 *
+	 * @param accuracy the relative accuracy, between 0 and 1 exclusive
+	 */
+	QuantileSketch(double accuracy) {
+		if(!(accuracy > 0 && accuracy < 1)) {
+			throw new IllegalArgumentException(String.format(ACCURACY_INVALID, accuracy));
+		}
+		this.accuracy = accuracy;
+		this.gamma = (1 + accuracy) / (1 - accuracy);
+		this.logGamma = Math.log(gamma);
+		this.minKey = (int) Math.ceil(Math.log(Double.MIN_NORMAL) / logGamma);
+		this.maxKey = (int) Math.ceil(Math.log(Double.MAX_VALUE) / logGamma);
+	}
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value the value
+	 */
+	void add(double value) {
+		update(value, 1);
+	}
+
+	/**
+	 * Removes a value added before.
+	 *
+	 * @param value the value
+	 */
+	void remove(double value) {
+		update(value, -1);
+	}
+
+	/**
+	 * Adds the counts of another sketch.
+	 *
+	 * @param other the sketch, with the same accuracy
+	 */
+	void merge(QuantileSketch other) {
+		if(other.accuracy != accuracy) {
+			throw new IllegalArgumentException(String.format(ACCURACY_MISMATCH, accuracy, other.accuracy));
+		}
+		positives.merge(other.positives);
+		negatives.merge(other.negatives);
+		zeros += other.zeros;
+		count += other.count;
+	}
+
+	/**
+	 * Count.
+	 *
+	 * @return the number of values
+	 */
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Gets the relative accuracy.
+	 *
+	 * @return the relative accuracy
+	 */
+	double accuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Estimates the value of a given rank.
+	 *
+	 * @param rank the rank, 0 being the smallest value, lower than count
+	 * @return the estimated value, within the relative accuracy of the value of that rank
+	 */
+	double select(long rank) {
+		//negative values, from the largest magnitude down
+		for(int i = negatives.counts.length - 1; i >= 0; --i) {
+			rank -= negatives.counts[i];
+			if(rank < 0) {
+				return -value(negatives.offset + i);
+			}
+		}
+		rank -= zeros;
+		if(rank < 0) {
+			return 0;
+		}
+		for(int i = 0; i < positives.counts.length; ++i) {
+			rank -= positives.counts[i];
+			if(rank < 0) {
+				return value(positives.offset + i);
+			}
+		}
+		throw new IndexOutOfBoundsException();
+	}
+
+	private void update(double value, int delta) {
+		if(value > 0) {
+			positives.update(key(value), delta);
+		} else if(value < 0) {
+			negatives.update(key(-value), delta);
+		} else {
+			zeros += delta;
+		}
+		count += delta;
+	}
+
+	/**
+	 * Gets the bucket of a positive value, clamped to the buckets of the normal doubles.
+	 *
+	 * @param value the positive value
+	 * @return the key of its bucket
+	 */
+	private int key(double value) {
+		//an infinite value gives Integer.MAX_VALUE, a subnormal one a key below minKey
+		int key = (int) Math.ceil(Math.log(value) / logGamma);
+		return Math.max(minKey, Math.min(maxKey, key));
+	}
+
+	/**
+	 * Gets the estimate of the values of a bucket, at the same relative distance of both bounds.
+	 *
+	 * @param key the key of the bucket
+	 * @return the estimate
+	 */
+	private double value(int key) {
+		//the upper bound of the last bucket may be beyond the largest double
+		return Math.min(2 * Math.pow(gamma, key) / (gamma + 1), Double.MAX_VALUE);
+	}
+
+	/**
+	 * The counts of a contiguous range of buckets, growing to hold new keys.
+	 */
+	private static final class Buckets {
+
+		/** The counts, the count of the key offset + i being at i. */
+		private long[] counts = new long[0];
+
+		/** The key of the first count. */
+		private int offset;
+
+		private void update(int key, long delta) {
+			if(counts.length == 0) {
+				counts = new long[16];
+				offset = key - 8;
+			} else if(key < offset) {
+				int grow = Math.max(offset - key, counts.length);
+				long[] grown = new long[counts.length + grow];
+				System.arraycopy(counts, 0, grown, grow, counts.length);
+				counts = grown;
+				offset -= grow;
+			} else if(key >= offset + counts.length) {
+				counts = Arrays.copyOf(counts, Math.max(key - offset + 1, counts.length << 1));
+			}
+			counts[key - offset] += delta;
+		}
+
+		private void merge(Buckets other) {
+			for(int i = 0; i < other.counts.length; ++i) {
+				if(other.counts[i] != 0) {
+					update(other.offset + i, other.counts[i]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Class RingBufferIngestor, an asynchronous front end to a MovingAverageCalculatorImpl. Producer threads publish
+ * elements into a preallocated ring buffer and return at once, and a dedicated consumer thread drains the buffer in
+ * batches into the calculator.
+ *
+ * Ring Buffer
+ *
+ *
+ *  The ring buffer is a preallocated array of slots, whose size is a power of two. Each element published gets the
+ *  next sequence, claimed by a compare and swap of the producer cursor, and is written into the slot of the sequence
+ *  modulo the size. The slot is then marked available by writing its sequence into the array of available
+ *  sequences, after which the consumer can read it. A sequence is only claimed when the slot is free, the consumer
+ *  having drained the element written one lap earlier, so no element is overwritten before it is consumed. When the
+ *  buffer is full, the FullBufferPolicy either makes the producer wait, or drops the element.
+ *
+ *  The consumer takes every contiguous element available as one batch, copies it into a reusable array, adds it to
+ *  the calculator with one addAll, publishes one snapshot of the moving average, then frees the slots. Producers and
+ *  the consumer wait with the WaitStrategy.
+ *
+ *  If the calculator throws, the consumer stops and keeps the failure: publish, flush, movingAverage and close then
+ *  throw an IllegalStateException caused by it, rather than waiting for a consumer that is gone or serving a snapshot
+ *  that will never be updated again.
+ *
+ *
+ * Snapshots and Latency
+ *
+ *
+ *  Readers never touch the calculator: movingAverage returns the moving average published after the last batch, with
+ *  the number of elements it includes. The time from the publication of an element to the publication of the first
+ *  snapshot including it is recorded in a log2 histogram, giving the publish to visible latency percentiles.
+ *
+ * The calculator must not be used by anything else until the ingestor is closed.
+ */
+public class RingBufferIngestor implements Closeable {
+
+	/** Error message when the calculator is null. */
+	private static String CALCULATOR_NULL = "Calculator is null";
+
+	/** Error message when the capacity is not a power of two. */
+	private static String CAPACITY_INVALID = "Capacity is invalid : %s";
+
+	/** Error message when the wait strategy is null. */
+	private static String WAIT_STRATEGY_NULL = "Wait Strategy is null";
+
+	/** Error message when the full buffer policy is null. */
+	private static String FULL_BUFFER_POLICY_NULL = "Full Buffer Policy is null";
+
+	/** Error message when an element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** Error message when an element is published after close. */
+	private static String INGESTOR_CLOSED = "Ingestor is closed";
+
+	/** Error message when the consumer stopped because the calculator threw. */
+	private static String CONSUMER_FAILED = "Consumer failed";
+
+	/** The calculator, only used by the consumer thread. */
+	private final MovingAverageCalculatorImpl calculator;
+
+	/** The elements published, by slot. */
+	private final BigDecimal[] elements;
+
+	/** The batch copied from the slots by the consumer, reused for every batch. */
+	private final BigDecimal[] batch;
+
+	/** The time each element was published at, by slot, in System.nanoTime. */
+	private final long[] publishedNanos;
+
+	/** The sequence of the element available in each slot, -1 until the first lap. */
+	private final AtomicLongArray availableSequences;
+
+	/** The mask giving the slot of a sequence. */
+	private final int mask;
+
+	/** The next sequence to claim. */
+	private final AtomicLong claimCursor = new AtomicLong();
+
+	/** The next sequence to consume, every slot of a lower sequence being free. */
+	private final AtomicLong consumerCursor = new AtomicLong();
+
+	private final WaitStrategy waitStrategy;
+
+	private final FullBufferPolicy fullBufferPolicy;
+
+	/** The number of elements dropped because the buffer was full. */
+	private final LongAdder dropped = new LongAdder();
+
+	/** The publish to visible latencies. */
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	/** The thread draining the buffer into the calculator. */
+	private final Thread consumer;
+
+	/** The latest snapshot published by the consumer. */
+	private volatile Snapshot snapshot;
+
+	/** Whether the ingestor was closed, after which no element is accepted. */
+	private volatile boolean closed;
+
+	/** The failure that stopped the consumer, null while it runs. */
+	private volatile Throwable failure;
+
+	/**
+	 * Instantiates a new ring buffer ingestor, whose consumer parks while waiting and whose producers wait for room.
+	 *
+	 * @param calculator the calculator
+	 * @param capacity the number of slots of the ring buffer, a power of two
+	 */
+	public RingBufferIngestor(MovingAverageCalculatorImpl calculator, int capacity) {
+		this(calculator, capacity, WaitStrategy.PARK, FullBufferPolicy.BLOCK);
+	}
+
+	/**
+	 * Instantiates a new ring buffer ingestor, and starts its consumer thread.
+	 *
+	 * @param calculator the calculator
+	 * @param capacity the number of slots of the ring buffer, a power of two
+	 * @param waitStrategy the wait strategy of the consumer and of the producers
+	 * @param fullBufferPolicy the policy applied to an element published while the buffer is full
+	 */
+	public RingBufferIngestor(MovingAverageCalculatorImpl calculator, int capacity, WaitStrategy waitStrategy,
+			FullBufferPolicy fullBufferPolicy) {
+		if(null == calculator) {
+			throw new IllegalArgumentException(CALCULATOR_NULL);
+		}
+		if(capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException(String.format(CAPACITY_INVALID, capacity));
+		}
+		if(null == waitStrategy) {
+			throw new IllegalArgumentException(WAIT_STRATEGY_NULL);
+		}
+		if(null == fullBufferPolicy) {
+			throw new IllegalArgumentException(FULL_BUFFER_POLICY_NULL);
+		}
+		this.calculator = calculator;
+		this.elements = new BigDecimal[capacity];
+		this.batch = new BigDecimal[capacity];
+		this.publishedNanos = new long[capacity];
+		this.availableSequences = new AtomicLongArray(capacity);
+		for(int i = 0; i < capacity; ++i) {
+			availableSequences.set(i, -1L);
+		}
+		this.mask = capacity - 1;
+		this.waitStrategy = waitStrategy;
+		this.fullBufferPolicy = fullBufferPolicy;
+		this.snapshot = new Snapshot(calculator.movingAverage(), 0L);
+		this.consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, "moving-average-ingestor");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/**
+	 * Publishes an element, to be added to the calculator by the consumer thread.
+	 *
+	 * @param element the BigDecimal element
+	 * @return true, if published, false if dropped because the buffer was full
+	 * @throws IllegalStateException if the ingestor is closed, or if the consumer failed
+	 */
+	public boolean publish(BigDecimal element) {
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		long sequence;
+		while(true) {
+			checkFailure();
+			if(closed) {
+				throw new IllegalStateException(INGESTOR_CLOSED);
+			}
+			sequence = claimCursor.get();
+			if(sequence - consumerCursor.get() >= elements.length) {
+				if(fullBufferPolicy == FullBufferPolicy.DROP) {
+					dropped.increment();
+					return false;
+				}
+				waitStrategy.idle();
+			} else if(claimCursor.compareAndSet(sequence, sequence + 1)) {
+				break;
+			}
+		}
+		int slot = (int) sequence & mask;
+		elements[slot] = element;
+		publishedNanos[slot] = System.nanoTime();
+		//the volatile write makes the element and its time visible to the consumer reading the sequence
+		availableSequences.set(slot, sequence);
+		return true;
+	}
+
+	/**
+	 * Gets the moving average of the last snapshot published by the consumer.
+	 *
+	 * @return the big decimal Moving Average
+	 * @throws IllegalStateException if the consumer failed
+	 */
+	public BigDecimal movingAverage() {
+		checkFailure();
+		return snapshot.movingAverage;
+	}
+
+	/**
+	 * Gets the number of elements included in the last snapshot published by the consumer.
+	 *
+	 * @return the number of elements visible
+	 */
+	public long getVisibleCount() {
+		return snapshot.count;
+	}
+
+	/**
+	 * Gets the number of elements dropped because the buffer was full.
+	 *
+	 * @return the number of elements dropped
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Estimates a percentile of the time from the publication of an element to the snapshot including it.
+	 *
+	 * @param q the quantile, between 0 and 1
+	 * @return the upper bound of the percentile, in nanoseconds
+	 */
+	public long publishToVisibleNanos(double q) {
+		return latencies.percentile(q);
+	}
+
+	/**
+	 * Waits until every element published before the call is visible in a snapshot.
+	 *
+	 * @throws IllegalStateException if the consumer failed
+	 */
+	public void flush() {
+		long published = claimCursor.get();
+		while(snapshot.count < published && consumer.isAlive()) {
+			waitStrategy.idle();
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Stops accepting elements, waits until the consumer drained the elements already published, and stops it.
+	 * Producers should be stopped first, as an element published while closing may not be drained.
+	 *
+	 * @throws IllegalStateException if the consumer failed
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		boolean interrupted = false;
+		while(consumer.isAlive()) {
+			try {
+				consumer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Throws the failure that stopped the consumer, if any.
+	 *
+	 * @throws IllegalStateException if the consumer failed
+	 */
+	private void checkFailure() {
+		Throwable cause = failure;
+		if(cause != null) {
+			throw new IllegalStateException(CONSUMER_FAILED, cause);
+		}
+	}
+
+	/**
+	 * Runs the consumer loop, keeping the failure that stops it.
+	 */
+	private void consume() {
+		try {
+			drain();
+		} catch (RuntimeException | Error e) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * The loop of the consumer thread, draining batches until closed and drained.
+	 */
+	private void drain() {
+		long next = 0;
+		while(true) {
+			long end = next;
+			while(availableSequences.get((int) end & mask) == end) {
+				++end;
+			}
+			if(end == next) {
+				if(closed && claimCursor.get() == next) {
+					return;
+				}
+				waitStrategy.idle();
+				continue;
+			}
+			int length = (int) (end - next);
+			int slot = (int) next & mask;
+			int firstLength = Math.min(length, elements.length - slot);
+			//the batch may wrap around the end of the ring
+			System.arraycopy(elements, slot, batch, 0, firstLength);
+			System.arraycopy(elements, 0, batch, firstLength, length - firstLength);
+			Arrays.fill(elements, slot, slot + firstLength, null);
+			Arrays.fill(elements, 0, length - firstLength, null);
+			calculator.addAll(batch, length);
+			Arrays.fill(batch, 0, length, null);
+			snapshot = new Snapshot(calculator.movingAverage(), end);
+			long now = System.nanoTime();
+			for(long sequence = next; sequence < end; ++sequence) {
+				latencies.record(now - publishedNanos[(int) sequence & mask]);
+			}
+			//frees the slots of the batch for the producers
+			consumerCursor.set(end);
+			next = end;
+		}
+	}
+
+	/**
+	 * An immutable snapshot of the moving average published by the consumer.
+	 */
+	private static final class Snapshot {
+
+		private final BigDecimal movingAverage;
+
+		/** The number of elements added before the moving average was calculated. */
+		private final long count;
+
+		private Snapshot(BigDecimal movingAverage, long count) {
+			this.movingAverage = movingAverage;
+			this.count = count;
+		}
+	}
+}
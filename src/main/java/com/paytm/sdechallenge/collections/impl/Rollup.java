@@ -0,0 +1,103 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * The Class Rollup, the aggregates of a range of elements: the open, high, low and close elements, their sum and
+ * their number. All the values have the scale of the rollups.
+ */
+public final class Rollup {
+
+	private final int from;
+
+	private final int count;
+
+	private final BigDecimal open;
+
+	private final BigDecimal high;
+
+	private final BigDecimal low;
+
+	private final BigDecimal close;
+
+	private final BigDecimal sum;
+
+	Rollup(int from, int count, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, BigDecimal sum) {
+		this.from = from;
+		this.count = count;
+		this.open = open;
+		this.high = high;
+		this.low = low;
+		this.close = close;
+		this.sum = sum;
+	}
+
+	/**
+	 * Gets the global index of the first element of the range.
+	 *
+	 * @return the first index
+	 */
+	public int getFrom() {
+		return from;
+	}
+
+	/**
+	 * Gets the number of elements of the range.
+	 *
+	 * @return the count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the first element of the range.
+	 *
+	 * @return the open
+	 */
+	public BigDecimal getOpen() {
+		return open;
+	}
+
+	/**
+	 * Gets the largest element of the range.
+	 *
+	 * @return the high
+	 */
+	public BigDecimal getHigh() {
+		return high;
+	}
+
+	/**
+	 * Gets the smallest element of the range.
+	 *
+	 * @return the low
+	 */
+	public BigDecimal getLow() {
+		return low;
+	}
+
+	/**
+	 * Gets the last element of the range.
+	 *
+	 * @return the close
+	 */
+	public BigDecimal getClose() {
+		return close;
+	}
+
+	/**
+	 * Gets the exact sum of the elements of the range.
+	 *
+	 * @return the sum
+	 */
+	public BigDecimal getSum() {
+		return sum;
+	}
+
+	@Override
+	public String toString() {
+		return "Rollup [from=" + from + ", count=" + count + ", open=" + open + ", high=" + high + ", low=" + low
+				+ ", close=" + close + ", sum=" + sum + "]";
+	}
+}
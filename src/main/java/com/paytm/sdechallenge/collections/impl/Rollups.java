@@ -0,0 +1,298 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * The Class Rollups, the aggregates of the elements of a calculator per block of a fixed number of elements, kept at
+ * several levels of resolution.
+ *
+ * Each level splits the global indices into blocks of blockSize elements, a power of two, each level being coarser
+ * than the previous one. For each block, the open, high, low and close elements are kept as unscaled longs at the
+ * scale of the rollups, and their sum as a 128 bit value in two longs, all in primitive arrays growing with the
+ * number of blocks. Every level is updated as each element is added.
+ *
+ * A range is aggregated from the coarsest blocks that fit inside it, then finer blocks towards its edges, and only
+ * the elements at the edges that are not aligned on a block of the finest level are read from the history.
+ */
+final class Rollups {
+
+	/** The initial number of blocks of a level. */
+	private static final int INITIAL_BLOCKS = 16;
+
+	/** Error message when a block size is invalid. */
+	private static String BLOCK_SIZE_INVALID = "Block size is invalid : %s";
+
+	/** The scale of the unscaled values. */
+	private final int scale;
+
+	/** The levels, from the finest to the coarsest. */
+	private final Level[] levels;
+
+	/** The global index of the first element aggregated. */
+	private final int start;
+
+	/**
+	 * Instantiates new rollups.
+	 *
+	 * @param scale the scale of the unscaled values
+	 * @param blockSizes the block sizes of the levels, increasing powers of two, at least one
+	 * @param start the global index of the first element aggregated
+	 */
+	Rollups(int scale, int[] blockSizes, int start) {
+		this.scale = scale;
+		this.start = start;
+		this.levels = new Level[blockSizes.length];
+		for(int i = 0; i < blockSizes.length; ++i) {
+			int blockSize = blockSizes[i];
+			if(blockSize <= 0 || Integer.bitCount(blockSize) != 1 || i > 0 && blockSize <= blockSizes[i - 1]) {
+				throw new IllegalArgumentException(String.format(BLOCK_SIZE_INVALID, blockSize));
+			}
+			levels[i] = new Level(Integer.numberOfTrailingZeros(blockSize), start);
+		}
+	}
+
+	/**
+	 * Converts an element to an unscaled long at the scale of the rollups.
+	 *
+	 * @param element the element
+	 * @return the unscaled long
+	 * @throws ArithmeticException if the element has more decimal places than the scale or does not fit in a long
+	 */
+	long toUnscaled(BigDecimal element) {
+		return FixedPointMath.toUnscaled(element, scale);
+	}
+
+	/**
+	 * Adds an element to the block holding it at each level.
+	 *
+	 * @param index the global index of the element, the one after the last element added
+	 * @param unscaled the unscaled value of the element
+	 */
+	void add(int index, long unscaled) {
+		for(Level level : levels) {
+			level.add(index, unscaled);
+		}
+	}
+
+	int getStart() {
+		return start;
+	}
+
+	/**
+	 * Gets the block sizes of the levels.
+	 *
+	 * @return the block sizes, from the finest to the coarsest
+	 */
+	int[] getBlockSizes() {
+		int[] blockSizes = new int[levels.length];
+		for(int i = 0; i < levels.length; ++i) {
+			blockSizes[i] = 1 << levels[i].shift;
+		}
+		return blockSizes;
+	}
+
+	/**
+	 * Gets the level of a block size.
+	 *
+	 * @param blockSize the block size
+	 * @return the level, null if no level has the block size
+	 */
+	private Level level(int blockSize) {
+		for(Level level : levels) {
+			if(1 << level.shift == blockSize) {
+				return level;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if a block size is the one of a level.
+	 *
+	 * @param blockSize the block size
+	 * @return true, if a level has the block size
+	 */
+	boolean hasLevel(int blockSize) {
+		return level(blockSize) != null;
+	}
+
+	/**
+	 * Aggregates a range of elements, from the coarsest blocks inside it.
+	 *
+	 * @param history the history, read for the elements at the edges of the range not aligned on a block
+	 * @param from the global index of the first element, inclusive
+	 * @param to the global index of the last element, exclusive, greater than from
+	 * @return the aggregates of the range
+	 */
+	Rollup aggregate(ElementHistory history, int from, int to) {
+		Aggregate aggregate = new Aggregate();
+		int position = from;
+		while(position < to) {
+			Level coarsest = null;
+			if(position >= start) {
+				for(Level level : levels) {
+					int blockSize = 1 << level.shift;
+					if((position & (blockSize - 1)) == 0 && to - position >= blockSize) {
+						coarsest = level;
+					}
+				}
+			}
+			if(coarsest == null) {
+				long unscaled = toUnscaled(history.get(position));
+				aggregate.add(unscaled, unscaled, unscaled, unscaled, unscaled >> 63, unscaled, 1);
+				++position;
+			} else {
+				int block = coarsest.block(position);
+				aggregate.add(coarsest.open[block], coarsest.high[block], coarsest.low[block], coarsest.close[block],
+						coarsest.sumHigh[block], coarsest.sumLow[block], 1 << coarsest.shift);
+				position += 1 << coarsest.shift;
+			}
+		}
+		return aggregate.toRollup(from);
+	}
+
+	/**
+	 * Gets the aggregates of the blocks of a level holding a range of elements.
+	 *
+	 * @param blockSize the block size of the level
+	 * @param from the global index of the first element, inclusive, at or after the start of the rollups
+	 * @param to the global index of the last element, exclusive, at most the number of elements added
+	 * @param size the number of elements added
+	 * @return the aggregates of each block, the last one being partial if elements are still added to it
+	 */
+	Rollup[] series(int blockSize, int from, int to, int size) {
+		Level level = level(blockSize);
+		if(from >= to) {
+			return new Rollup[0];
+		}
+		int firstBlock = from >>> level.shift;
+		int lastBlock = (to - 1) >>> level.shift;
+		Rollup[] series = new Rollup[lastBlock - firstBlock + 1];
+		for(int block = firstBlock; block <= lastBlock; ++block) {
+			int blockStart = Math.max(start, block << level.shift);
+			int blockEnd = (int) Math.min(size, (long) (block + 1) << level.shift);
+			int i = level.block(blockStart);
+			Aggregate aggregate = new Aggregate();
+			aggregate.add(level.open[i], level.high[i], level.low[i], level.close[i], level.sumHigh[i],
+					level.sumLow[i], blockEnd - blockStart);
+			series[block - firstBlock] = aggregate.toRollup(blockStart);
+		}
+		return series;
+	}
+
+	/**
+	 * The blocks of one level.
+	 */
+	private static final class Level {
+
+		/** The shift giving the block of a global index. */
+		private final int shift;
+
+		/** The block of the first element aggregated. */
+		private final int firstBlock;
+
+		/** The number of blocks started. */
+		private int blocks;
+
+		private long[] open = new long[INITIAL_BLOCKS];
+
+		private long[] high = new long[INITIAL_BLOCKS];
+
+		private long[] low = new long[INITIAL_BLOCKS];
+
+		private long[] close = new long[INITIAL_BLOCKS];
+
+		/** The high 64 bits of the sums. */
+		private long[] sumHigh = new long[INITIAL_BLOCKS];
+
+		/** The low 64 bits of the sums. */
+		private long[] sumLow = new long[INITIAL_BLOCKS];
+
+		private Level(int shift, int start) {
+			this.shift = shift;
+			this.firstBlock = start >>> shift;
+		}
+
+		/**
+		 * Gets the index in the arrays of the block holding an element.
+		 *
+		 * @param index the global index of the element
+		 * @return the index of the block in the arrays
+		 */
+		private int block(int index) {
+			return (index >>> shift) - firstBlock;
+		}
+
+		private void add(int index, long unscaled) {
+			int block = block(index);
+			if(block == blocks) {
+				if(block == open.length) {
+					int capacity = block << 1;
+					open = Arrays.copyOf(open, capacity);
+					high = Arrays.copyOf(high, capacity);
+					low = Arrays.copyOf(low, capacity);
+					close = Arrays.copyOf(close, capacity);
+					sumHigh = Arrays.copyOf(sumHigh, capacity);
+					sumLow = Arrays.copyOf(sumLow, capacity);
+				}
+				open[block] = unscaled;
+				high[block] = unscaled;
+				low[block] = unscaled;
+				close[block] = unscaled;
+				sumHigh[block] = unscaled >> 63;
+				sumLow[block] = unscaled;
+				++blocks;
+				return;
+			}
+			if(unscaled > high[block]) {
+				high[block] = unscaled;
+			} else if(unscaled < low[block]) {
+				low[block] = unscaled;
+			}
+			close[block] = unscaled;
+			sumHigh[block] = FixedPointMath.addHigh(sumHigh[block], sumLow[block], unscaled);
+			sumLow[block] += unscaled;
+		}
+	}
+
+	/**
+	 * The aggregates of consecutive pieces of a range, combined in order.
+	 */
+	private final class Aggregate {
+
+		private int count;
+
+		private long open;
+
+		private long high = Long.MIN_VALUE;
+
+		private long low = Long.MAX_VALUE;
+
+		private long close;
+
+		private long sumHigh;
+
+		private long sumLow;
+
+		private void add(long open, long high, long low, long close, long sumHigh, long sumLow, int count) {
+			if(this.count == 0) {
+				this.open = open;
+			}
+			this.high = Math.max(this.high, high);
+			this.low = Math.min(this.low, low);
+			this.close = close;
+			//adds the 128 bit sums, with the carry out of the low 64 bits
+			long totalLow = this.sumLow + sumLow;
+			this.sumHigh += sumHigh + (Long.compareUnsigned(totalLow, this.sumLow) < 0 ? 1L : 0L);
+			this.sumLow = totalLow;
+			this.count += count;
+		}
+
+		private Rollup toRollup(int from) {
+			return new Rollup(from, count, BigDecimal.valueOf(open, scale), BigDecimal.valueOf(high, scale),
+					BigDecimal.valueOf(low, scale), BigDecimal.valueOf(close, scale),
+					new BigDecimal(FixedPointMath.toBigInteger(sumHigh, sumLow), scale));
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * The Class ShardWindow, the elements of one shard of a series spread over several shards, which answers the partial
+ * window of the shard ending at any cut sequence.
+ *
+ * Storing Data
+ *
+ *
+ *  Each element is added with its sequence, its position in the whole series from 0, the sequences of a shard being
+ *  strictly increasing. The last retention elements of the shard are kept in two rings : their sequences as longs,
+ *  and the prefix sums of the shard up to and including each of them as exact BigDecimals. The elements themselves are
+ *  not kept.
+ *
+ *  The prefix sum and sequence of the last element evicted from the rings are kept, so a range starting after it is
+ *  still summed exactly.
+ *
+ *
+ * Partial Window Calculation
+ *
+ *
+ *  The partial window ending at a cut is the range of sequences (cut - window, cut]. The last elements at or before
+ *  both ends of the range are found by binary search over the sequences, and the sum of the range is the difference
+ *  of their prefix sums, the count the difference of their positions.
+ *
+ *  The shards keep ShardWindows rather than MovingAverageCalculatorImpls, whose indices are positions in their own
+ *  series and not the sequences of the whole series, so a calculator cannot answer the partial window of a cut.
+ *
+ *  A retention of at least the window always answers the cuts at or after the last sequence of the shard, since the
+ *  shard holds at most window elements of any range. A larger retention also answers older cuts, for a coordinator
+ *  reading shards that are ahead of the others.
+ *
+ *
+ * Complexities
+ *
+ *
+ *  add -  Time Complexity - O(1)			Space Complexity - O(retention)
+ *
+ *  partial -  Time Complexity - O(log(retention))			Space Complexity - O(1)
+ *
+ *
+ * The class is not thread safe, a shard being fed by one thread.
+ */
+public class ShardWindow implements WindowShard {
+
+	/** Error message when the retention is smaller than the window. */
+	private static String RETENTION_INVALID = "Retention is invalid : %s";
+
+	/** Error message when Element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** Error message when a sequence is not after the last one. */
+	private static String SEQUENCE_INVALID = "Sequence is invalid : %s";
+
+	/** Error message when the cut is negative. */
+	private static String CUT_INVALID = "Cut is invalid : %s";
+
+	/** Error message when the range of a cut starts among the elements evicted. */
+	private static String CUT_NOT_RETAINED = "Cut is no longer retained : %s";
+
+	/** The number of sequences of the window. */
+	private final int window;
+
+	/** The sequences of the elements retained, as a ring. */
+	private final long[] sequences;
+
+	/** The prefix sums of the shard up to each element retained, as a ring. */
+	private final BigDecimal[] prefixSums;
+
+	/** The ring position of the oldest element retained. */
+	private int head;
+
+	/** The number of elements retained. */
+	private int retained;
+
+	/** The number of elements evicted from the rings. */
+	private long evicted;
+
+	/** The sequence of the last element evicted, -1 if none. */
+	private long evictedSequence = -1L;
+
+	/** The prefix sum up to the last element evicted. */
+	private BigDecimal evictedPrefixSum = BigDecimal.ZERO;
+
+	/** The prefix sum up to the last element added. */
+	private BigDecimal prefixSum = BigDecimal.ZERO;
+
+	/** The sequence of the last element added, -1 if none. */
+	private long lastSequence = -1L;
+
+	/**
+	 * Instantiates a new shard window, retaining window elements.
+	 *
+	 * @param window the number of sequences of the window, the same for every shard
+	 */
+	public ShardWindow(int window) {
+		this(window, window);
+	}
+
+	/**
+	 * Instantiates a new shard window.
+	 *
+	 * @param window the number of sequences of the window, the same for every shard
+	 * @param retention the number of elements of the shard retained, at least the window
+	 */
+	public ShardWindow(int window, int retention) {
+		MovingAverageValidator.validateWindow(window);
+		if(retention < window) {
+			throw new IllegalArgumentException(String.format(RETENTION_INVALID, retention));
+		}
+		this.window = window;
+		this.sequences = new long[retention];
+		this.prefixSums = new BigDecimal[retention];
+	}
+
+	/**
+	 * Adds an element of the shard.
+	 *
+	 * @param sequence the sequence of the element in the whole series, after the last one of the shard
+	 * @param element the element
+	 */
+	public void add(long sequence, BigDecimal element) {
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		if(sequence <= lastSequence) {
+			throw new IllegalArgumentException(String.format(SEQUENCE_INVALID, sequence));
+		}
+		prefixSum = prefixSum.add(element);
+		lastSequence = sequence;
+		int position;
+		if(retained == sequences.length) {
+			evictedSequence = sequences[head];
+			evictedPrefixSum = prefixSums[head];
+			++evicted;
+			position = head;
+			head = head + 1 == sequences.length ? 0 : head + 1;
+		} else {
+			position = ring(retained);
+			++retained;
+		}
+		sequences[position] = sequence;
+		prefixSums[position] = prefixSum;
+	}
+
+	/**
+	 * Gets the partial window of the shard ending at a cut.
+	 *
+	 * @param cut the last sequence of the window
+	 * @return the sum and count of the elements of the shard in (cut - window, cut]
+	 * @throws IllegalStateException if elements of the range were evicted
+	 */
+	@Override
+	public PartialWindow partial(long cut) {
+		if(cut < 0) {
+			throw new IllegalArgumentException(String.format(CUT_INVALID, cut));
+		}
+		long before = cut - window;
+		if(evicted > 0 && evictedSequence > before) {
+			throw new IllegalStateException(String.format(CUT_NOT_RETAINED, cut));
+		}
+		int last = retainedUpTo(cut);
+		int first = retainedUpTo(before);
+		BigDecimal sum = prefixSumOf(last).subtract(prefixSumOf(first));
+		return new PartialWindow(Math.max(0L, before + 1), cut, last - first, sum);
+	}
+
+	/**
+	 * Gets the partial window of the shard ending at its last sequence.
+	 *
+	 * @return the partial window
+	 */
+	public PartialWindow partial() {
+		return partial(Math.max(0L, lastSequence));
+	}
+
+	/**
+	 * Gets the sequence of the last element added.
+	 *
+	 * @return the last sequence, -1 if none
+	 */
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Gets the number of elements added to the shard.
+	 *
+	 * @return the number of elements
+	 */
+	public long size() {
+		return evicted + retained;
+	}
+
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Counts the elements retained whose sequence is at or before a sequence.
+	 *
+	 * @param sequence the sequence
+	 * @return the number of elements, the position after the last of them
+	 */
+	private int retainedUpTo(long sequence) {
+		int low = 0;
+		int high = retained;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sequences[ring(middle)] <= sequence) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Gets the prefix sum up to the elements retained before a position.
+	 *
+	 * @param count the number of elements retained counted
+	 * @return the prefix sum, that of the last element evicted if none
+	 */
+	private BigDecimal prefixSumOf(int count) {
+		return count == 0 ? evictedPrefixSum : prefixSums[ring(count - 1)];
+	}
+
+	private int ring(int position) {
+		int index = head + position;
+		return index >= sequences.length ? index - sequences.length : index;
+	}
+}
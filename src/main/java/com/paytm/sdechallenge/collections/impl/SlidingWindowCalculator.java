@@ -0,0 +1,18 @@
+package com.paytm.sdechallenge.collections.impl;
+
+/**
+ * The Interface SlidingWindowCalculator, implemented by the calculators whose moving average only depends on the
+ * last elements added, as many as the window size.
+ *
+ * The collectors of MovingAverageStreams use it to combine the parts of a parallel stream: only the first window - 1
+ * moving averages of a later part depend on the elements of the earlier part.
+ */
+interface SlidingWindowCalculator {
+
+	/**
+	 * Gets the window size.
+	 *
+	 * @return the number of last elements the moving average depends on
+	 */
+	int getWindow();
+}
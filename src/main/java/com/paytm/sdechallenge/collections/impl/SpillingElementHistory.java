@@ -0,0 +1,269 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The Class SpillingElementHistory, which keeps the newest chunks in memory and spills older chunks to disk.
+ *
+ * The elements are stored in fixed size chunks. At most hotChunks chunks are held in memory (the hot tier). When a
+ * new chunk is needed and the hot tier is full, the oldest hot chunk is encoded and appended to a segment file, and
+ * its array is reused for the new chunk. The segment file is deleted when the history is closed.
+ *
+ * Each element is encoded compactly as the zigzag varint of its scale, the varint length of its unscaled value and
+ * the two's complement bytes of its unscaled value. The file offset of every spilled chunk is kept, so that reading a
+ * spilled element decodes only its chunk. The last chunk read from disk is cached.
+ */
+class SpillingElementHistory implements ElementHistory {
+
+	/** The chunks in memory, in a circular array, the oldest at hotHead. */
+	private final BigDecimal[][] hot;
+
+	/** The index in hot of the oldest chunk in memory. */
+	private int hotHead;
+
+	/** The number of chunks in memory. */
+	private int hotCount;
+
+	/** The number of chunks spilled to disk, which is also the number of the oldest chunk in memory. */
+	private int spilledChunks;
+
+	/** The file offset of each spilled chunk. */
+	private long[] chunkOffsets = new long[16];
+
+	/** The number of bytes written to the segment file. */
+	private long segmentLength;
+
+	/** The segment file holding the spilled chunks. */
+	private final FileChannel segment;
+
+	/** The buffer used to encode and decode chunks. */
+	private ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE * 8);
+
+	/** The number of the spilled chunk in coldChunk, -1 if none. */
+	private int coldChunkNumber = -1;
+
+	/** The last spilled chunk read from disk. */
+	private final BigDecimal[] coldChunk = new BigDecimal[CHUNK_SIZE];
+
+	/** The number of elements added. */
+	private int size;
+
+	/**
+	 * Instantiates a new spilling element history.
+	 *
+	 * @param directory the directory in which the segment file is created
+	 * @param hotChunks the number of chunks kept in memory
+	 */
+	SpillingElementHistory(Path directory, int hotChunks) {
+		this.hot = new BigDecimal[hotChunks][];
+		try {
+			Path file = Files.createTempFile(directory, "history", ".seg");
+			this.segment = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void add(BigDecimal element) {
+		if((size & CHUNK_MASK) == 0) {
+			nextChunk();
+		}
+		int last = hotHead + hotCount - 1;
+		hot[last < hot.length ? last : last - hot.length][size & CHUNK_MASK] = element;
+		++size;
+	}
+
+	@Override
+	public BigDecimal get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		int chunk = index >>> CHUNK_SHIFT;
+		if(chunk >= spilledChunks) {
+			int position = hotHead + chunk - spilledChunks;
+			return hot[position < hot.length ? position : position - hot.length][index & CHUNK_MASK];
+		}
+		if(chunk != coldChunkNumber) {
+			readChunk(chunk);
+		}
+		return coldChunk[index & CHUNK_MASK];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int firstIndex() {
+		return 0;
+	}
+
+	@Override
+	public boolean isConcurrentlyReadable() {
+		//reading a spilled chunk replaces the cold chunk
+		return false;
+	}
+
+	/**
+	 * Gets the number of elements of the hot tier, and of the cold chunk if a spilled chunk was read.
+	 */
+	@Override
+	public int residentSize() {
+		return size - (spilledChunks << CHUNK_SHIFT) + (coldChunkNumber >= 0 ? CHUNK_SIZE : 0);
+	}
+
+	@Override
+	public long offHeapBytes() {
+		return segmentLength;
+	}
+
+	@Override
+	public void close() {
+		try {
+			segment.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Makes room for a new chunk, spilling the oldest chunk in memory when the hot tier is full.
+	 */
+	private void nextChunk() {
+		if(hotCount < hot.length) {
+			int position = hotHead + hotCount;
+			position = position < hot.length ? position : position - hot.length;
+			if(hot[position] == null) {
+				hot[position] = new BigDecimal[CHUNK_SIZE];
+			}
+			++hotCount;
+			return;
+		}
+		spill(hot[hotHead]);
+		//the spilled array is reused as the newest chunk
+		Arrays.fill(hot[hotHead], null);
+		if(++hotHead == hot.length) {
+			hotHead = 0;
+		}
+	}
+
+	/**
+	 * Appends the chunk to the segment file.
+	 *
+	 * @param chunk the full chunk
+	 */
+	private void spill(BigDecimal[] chunk) {
+		buffer.clear();
+		for(BigDecimal element : chunk) {
+			byte[] unscaled = element.unscaledValue().toByteArray();
+			ensureRemaining(10 + unscaled.length);
+			int scale = element.scale();
+			putVarint((scale << 1) ^ (scale >> 31));
+			putVarint(unscaled.length);
+			buffer.put(unscaled);
+		}
+		buffer.flip();
+		//the length is only updated once the whole chunk is written, so that a failed spill is written again over
+		//its partial bytes, the chunk staying hot and the element that needed it not being added
+		long end = segmentLength;
+		try {
+			while(buffer.hasRemaining()) {
+				end += segment.write(buffer, end);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if(spilledChunks + 1 >= chunkOffsets.length) {
+			chunkOffsets = Arrays.copyOf(chunkOffsets, chunkOffsets.length << 1);
+		}
+		segmentLength = end;
+		chunkOffsets[++spilledChunks] = segmentLength;
+	}
+
+	/**
+	 * Reads and decodes a spilled chunk into coldChunk.
+	 *
+	 * @param chunk the number of the chunk
+	 */
+	private void readChunk(int chunk) {
+		long offset = chunkOffsets[chunk];
+		int length = (int) (chunkOffsets[chunk + 1] - offset);
+		buffer.clear();
+		ensureRemaining(length);
+		buffer.limit(length);
+		try {
+			while(buffer.hasRemaining()) {
+				if(segment.read(buffer, offset + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of segment file");
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		buffer.flip();
+		for(int i = 0; i < CHUNK_SIZE; ++i) {
+			int zigzag = getVarint();
+			int scale = (zigzag >>> 1) ^ -(zigzag & 1);
+			byte[] unscaled = new byte[getVarint()];
+			buffer.get(unscaled);
+			coldChunk[i] = new BigDecimal(new BigInteger(unscaled), scale);
+		}
+		coldChunkNumber = chunk;
+	}
+
+	/**
+	 * Grows the buffer if it has fewer bytes remaining than required.
+	 *
+	 * @param required the number of bytes required
+	 */
+	private void ensureRemaining(int required) {
+		if(buffer.capacity() - buffer.position() < required) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, buffer.position() + required));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+	}
+
+	/**
+	 * Writes an unsigned varint.
+	 *
+	 * @param value the value
+	 */
+	private void putVarint(int value) {
+		while((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 *
+	 * @return the value
+	 */
+	private int getVarint() {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while(b < 0);
+		return value;
+	}
+}
@@ -0,0 +1,300 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class StripedMovingAverageCalculator, a MovingAverageCalculator for many producer threads feeding one series.
+ *
+ * Producers
+ *
+ *
+ *  Each producer thread gets its own stripe the first time it adds an element: a bounded single producer, single
+ *  consumer ring buffer. add only writes into the stripe of the calling thread, so producers never share a lock or
+ *  a written memory location. When its stripe is full, a producer merges the stripes itself before retrying.
+ *
+ *
+ * Merging
+ *
+ *
+ *  merge drains every stripe into the target calculator, in one addAll per stripe, under a lock only taken by
+ *  merges. A stripe only holds its thread weakly, and is dropped by the first merge that finds its thread terminated,
+ *  once its last elements are drained. The reading methods
+ *  (movingAverage, size, get, getAll) are answered by the target, so they reflect every element merged so far, not
+ *  the elements still waiting in stripes. merge should be called periodically, for example by a scheduled task, or
+ *  before reading. Readers running concurrently with merges need a thread safe target, like
+ *  ConcurrentMovingAverageCalculator.
+ *
+ *
+ * Ordering Guarantee
+ *
+ *
+ *  The elements added by one producer thread are merged in the order that thread added them. Elements of different
+ *  producers are ordered by merge: within one merge the stripes are drained one after the other, in the order their
+ *  threads first added an element, and each stripe is drained of the elements published to it when its turn comes.
+ *  A merge therefore appends every element published before it started, and may also append elements published
+ *  while it runs to the stripes it has not drained yet. No global sequence number is taken, as a shared counter
+ *  would be written by all producers on every add.
+ *
+ */
+public class StripedMovingAverageCalculator implements MovingAverageCalculator {
+
+	/** Error message when the stripe capacity is invalid. */
+	private static String STRIPE_CAPACITY_INVALID = "Stripe capacity is invalid : %s";
+
+	/** Error message when the target is null. */
+	private static String TARGET_NULL = "Target calculator is null";
+
+	/** Error message when Element is null. */
+	private static String ELEMENT_NULL = "Element is null";
+
+	/** The calculator receiving the merged elements. */
+	private final MovingAverageCalculator target;
+
+	/** The capacity of each stripe, a power of two. */
+	private final int stripeCapacity;
+
+	/** The stripes, in the order they were created. */
+	private final List<Stripe> stripes = new CopyOnWriteArrayList<>();
+
+	/** The stripe of each producer thread. */
+	private final ThreadLocal<Stripe> threadStripe = new ThreadLocal<>();
+
+	/** The lock sequencing merges. */
+	private final ReentrantLock mergeLock = new ReentrantLock();
+
+	/**
+	 * Instantiates a new striped moving average calculator.
+	 *
+	 * @param target the calculator receiving the merged elements
+	 * @param stripeCapacity the number of elements each producer can add before a merge is required, rounded up to a
+	 * power of two
+	 */
+	public StripedMovingAverageCalculator(MovingAverageCalculator target, int stripeCapacity) {
+		if(null == target) {
+			throw new IllegalArgumentException(TARGET_NULL);
+		}
+		if(stripeCapacity <= 0 || stripeCapacity > 1 << 30) {
+			throw new IllegalArgumentException(String.format(STRIPE_CAPACITY_INVALID, stripeCapacity));
+		}
+		int capacity = 1;
+		while(capacity < stripeCapacity) {
+			capacity <<= 1;
+		}
+		this.target = target;
+		this.stripeCapacity = capacity;
+	}
+
+	/**
+	 * Adds the new element to the stripe of the calling thread. The element is only visible to readers once merged.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		if(null == element) {
+			throw new IllegalArgumentException(ELEMENT_NULL);
+		}
+		Stripe stripe = threadStripe.get();
+		if(stripe == null) {
+			stripe = new Stripe(stripeCapacity, Thread.currentThread());
+			stripes.add(stripe);
+			threadStripe.set(stripe);
+		}
+		while(!stripe.offer(element)) {
+			merge();
+		}
+	}
+
+	/**
+	 * Merges the elements waiting in the stripes into the target calculator, and drops the stripes of terminated
+	 * threads. If the target rejects the batch of a stripe, that batch is dropped and the exception is thrown, the
+	 * stripes after it being merged by the next call.
+	 *
+	 * @return the number of elements merged
+	 */
+	public int merge() {
+		mergeLock.lock();
+		try {
+			int merged = 0;
+			List<Stripe> reclaimed = null;
+			for(Stripe stripe : stripes) {
+				//checked before draining, a terminated thread cannot publish after the drain
+				boolean terminated = stripe.isOwnerTerminated();
+				merged += stripe.drainTo(target);
+				if(terminated) {
+					if(reclaimed == null) {
+						reclaimed = new ArrayList<>();
+					}
+					reclaimed.add(stripe);
+				}
+			}
+			if(reclaimed != null) {
+				stripes.removeAll(reclaimed);
+			}
+			return merged;
+		} finally {
+			mergeLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of stripes, one per producer thread which is alive or was alive at the last merge.
+	 *
+	 * @return the number of stripes
+	 */
+	public int getStripeCount() {
+		return stripes.size();
+	}
+
+	/**
+	 * Calculates the Moving average of the elements merged so far.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale of the target
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		return target.movingAverage();
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int number of elements merged so far
+	 */
+	@Override
+	public int size() {
+		return target.size();
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if no element was merged so far
+	 */
+	@Override
+	public boolean isEmpty() {
+		return target.isEmpty();
+	}
+
+	/**
+	 * Gets the element at a given index, in merge order.
+	 *
+	 * @param index the index
+	 * @return the big decimal value
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return target.get(index);
+	}
+
+	/**
+	 * Gets the list of elements merged so far, in merge order.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return target.getAll();
+	}
+
+	/**
+	 * A single producer, single consumer ring buffer holding the elements added by one thread.
+	 */
+	private static final class Stripe {
+
+		/** The elements, indexed by sequence & mask. */
+		private final BigDecimal[] buffer;
+
+		/** The mask giving the index of a sequence in buffer. */
+		private final int mask;
+
+		/** The sequence of the next element added, written by the producer. */
+		private final AtomicLong tail = new AtomicLong();
+
+		/** The sequence of the next element merged, written by the consumer. */
+		private final AtomicLong head = new AtomicLong();
+
+		/** The last head read by the producer, so that it only reads head when the stripe looks full. */
+		private long cachedHead;
+
+		/** The producer thread, held weakly so that the stripe does not keep it reachable. */
+		private final WeakReference<Thread> owner;
+
+		private Stripe(int capacity, Thread owner) {
+			this.buffer = new BigDecimal[capacity];
+			this.mask = capacity - 1;
+			this.owner = new WeakReference<>(owner);
+		}
+
+		/**
+		 * Checks if the producer thread terminated, after which no element is added to the stripe.
+		 *
+		 * @return true, if the producer thread terminated or was garbage collected
+		 */
+		boolean isOwnerTerminated() {
+			Thread thread = owner.get();
+			return thread == null || !thread.isAlive();
+		}
+
+		/**
+		 * Adds an element, called by the producer thread only.
+		 *
+		 * @param element the element
+		 * @return true, if added, false if the stripe is full
+		 */
+		boolean offer(BigDecimal element) {
+			long sequence = tail.get();
+			if(sequence - cachedHead == buffer.length) {
+				cachedHead = head.get();
+				if(sequence - cachedHead == buffer.length) {
+					return false;
+				}
+			}
+			buffer[(int) sequence & mask] = element;
+			//publishes the element to the consumer
+			tail.lazySet(sequence + 1);
+			return true;
+		}
+
+		/**
+		 * Adds the published elements to the target in a single addAll, called under the merge lock only. The slots
+		 * are freed even if the target throws, the batch it rejected being dropped, so that one failed batch does not
+		 * fail every later merge and block the producer.
+		 *
+		 * @param target the target calculator
+		 * @return the number of elements drained
+		 */
+		int drainTo(MovingAverageCalculator target) {
+			long first = head.get();
+			long last = tail.get();
+			int count = (int) (last - first);
+			if(count == 0) {
+				return 0;
+			}
+			//the published elements are at most two contiguous runs of the ring
+			BigDecimal[] batch = new BigDecimal[count];
+			int start = (int) first & mask;
+			int firstRun = Math.min(count, buffer.length - start);
+			System.arraycopy(buffer, start, batch, 0, firstRun);
+			System.arraycopy(buffer, 0, batch, firstRun, count - firstRun);
+			try {
+				target.addAll(batch);
+			} finally {
+				Arrays.fill(buffer, start, start + firstRun, null);
+				Arrays.fill(buffer, 0, count - firstRun, null);
+				//releases the slots to the producer
+				head.lazySet(last);
+			}
+			return count;
+		}
+	}
+}
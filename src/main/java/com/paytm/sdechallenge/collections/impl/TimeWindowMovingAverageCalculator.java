@@ -0,0 +1,250 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.Arrays;
+
+/**
+ * The Class TimeWindowMovingAverageCalculator, which calculates the moving average of the elements added during the
+ * last period of time, for example the last 60 seconds.
+ *
+ * Storing Data
+ *
+ *
+ *  buckets - The window is divided into buckets of a fixed duration. Each bucket holds the sum and the number of the
+ *  elements whose timestamp falls in its period, so the memory used only depends on the window and the bucket
+ *  duration, never on the rate of elements. The buckets are arranged in a ring: the bucket of a period reuses the
+ *  slot of the bucket one window older.
+ *
+ *  windowSum, windowCount - The sum and the number of elements in all buckets of the window, updated on each add and
+ *  when buckets leave the window, so that the moving average calculation can be done without any iteration.
+ *
+ *
+ * Time
+ *
+ *
+ *  The current time is read from a Clock, which tests can replace to control time. The window covers the bucket of
+ *  the current time and the buckets before it, so elements leave the window one whole bucket at a time, and the
+ *  moving average is accurate to the bucket duration.
+ *
+ *  Elements may arrive out of order. An element is accepted if its timestamp is not older than the current time
+ *  minus the lateness, not in the future, and still inside the window. Other elements are rejected.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, count methods have an amortized time complexity of O(1), each bucket leaving the window
+ *  being evicted once
+ *
+ *  Space Complexity:
+ *  O(b), where b is the number of buckets in the window
+ *
+ */
+public class TimeWindowMovingAverageCalculator extends AbstractAverageCalculator {
+
+	/** Error message when the window duration is invalid. */
+	private static String WINDOW_DURATION_INVALID = "Window duration is invalid : %s";
+
+	/** Error message when the bucket duration is invalid. */
+	private static String BUCKET_DURATION_INVALID = "Bucket duration is invalid : %s";
+
+	/** Error message when the lateness is invalid. */
+	private static String LATENESS_INVALID = "Lateness is invalid : %s";
+
+	/** Error message when the clock is null. */
+	private static String CLOCK_NULL = "Clock is null";
+
+	/** The duration of a bucket, in milliseconds. */
+	private final long bucketMillis;
+
+	/** The maximum delay accepted between the timestamp of an element and the current time, in milliseconds. */
+	private final long latenessMillis;
+
+	/** The clock giving the current time. */
+	private final Clock clock;
+
+	/** The sum of the elements of each bucket. */
+	private final BigDecimal[] bucketSums;
+
+	/** The number of elements of each bucket. */
+	private final long[] bucketCounts;
+
+	/** The period of the last time the buckets were advanced, a period being a timestamp divided by bucketMillis. */
+	private long currentPeriod;
+
+	/** The sum of elements in the window. */
+	private BigDecimal windowSum = BigDecimal.ZERO;
+
+	/** The number of elements in the window. */
+	private long windowCount;
+
+	/**
+	 * Instantiates a new time window moving average calculator, using the system clock.
+	 *
+	 * @param windowMillis the duration of the window, in milliseconds
+	 * @param bucketMillis the duration of a bucket, in milliseconds, dividing the window duration
+	 * @param latenessMillis the maximum delay of an element, in milliseconds
+	 */
+	public TimeWindowMovingAverageCalculator(long windowMillis, long bucketMillis, long latenessMillis) {
+		this(windowMillis, bucketMillis, latenessMillis, Clock.systemUTC(), 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new time window moving average calculator.
+	 *
+	 * @param windowMillis the duration of the window, in milliseconds
+	 * @param bucketMillis the duration of a bucket, in milliseconds, dividing the window duration
+	 * @param latenessMillis the maximum delay of an element, in milliseconds
+	 * @param clock the clock giving the current time
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public TimeWindowMovingAverageCalculator(long windowMillis, long bucketMillis, long latenessMillis, Clock clock,
+			int scale, RoundingMode roundingMode) {
+		if(bucketMillis <= 0) {
+			throw new IllegalArgumentException(String.format(BUCKET_DURATION_INVALID, bucketMillis));
+		}
+		if(windowMillis <= 0 || windowMillis % bucketMillis != 0 || windowMillis / bucketMillis > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format(WINDOW_DURATION_INVALID, windowMillis));
+		}
+		if(latenessMillis < 0) {
+			throw new IllegalArgumentException(String.format(LATENESS_INVALID, latenessMillis));
+		}
+		if(null == clock) {
+			throw new IllegalArgumentException(CLOCK_NULL);
+		}
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		int buckets = (int) (windowMillis / bucketMillis);
+		this.bucketMillis = bucketMillis;
+		this.latenessMillis = latenessMillis;
+		this.clock = clock;
+		this.bucketSums = new BigDecimal[buckets];
+		this.bucketCounts = new long[buckets];
+		this.currentPeriod = Math.floorDiv(clock.millis(), bucketMillis);
+		Arrays.fill(bucketSums, BigDecimal.ZERO);
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Adds the new element, timestamped with the current time.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	public void add(BigDecimal element) {
+		add(clock.millis(), element);
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param timestamp the time of the element, in milliseconds since the epoch
+	 * @param element the BigDecimal element
+	 * @return true, if the element was accepted, false if it is later than the lateness, in the future or no longer
+	 * inside the window
+	 */
+	public boolean add(long timestamp, BigDecimal element) {
+		long now = clock.millis();
+		advance(now);
+		long period = Math.floorDiv(timestamp, bucketMillis);
+		if(timestamp < now - latenessMillis || period > currentPeriod || period <= currentPeriod - bucketSums.length) {
+			return false;
+		}
+		//the slot of a period inside the window was emptied when the period started
+		int bucket = bucketIndex(period);
+		bucketSums[bucket] = bucketSums[bucket].add(element);
+		++bucketCounts[bucket];
+		windowSum = windowSum.add(element);
+		++windowCount;
+		return true;
+	}
+
+	/**
+	 * Calculates the Moving average of the elements inside the window at the current time.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	public BigDecimal movingAverage() {
+		advance(clock.millis());
+		if(windowCount == 0) {
+			return BigDecimal.ZERO.setScale(scale);
+		}
+		return windowSum.divide(BigDecimal.valueOf(windowCount), scale, roundingMode);
+	}
+
+	/**
+	 * Counts the elements inside the window at the current time.
+	 *
+	 * @return the number of elements
+	 */
+	public long count() {
+		advance(clock.millis());
+		return windowCount;
+	}
+
+	/**
+	 * Gets the duration of the window.
+	 *
+	 * @return the window duration, in milliseconds
+	 */
+	public long getWindowMillis() {
+		return bucketMillis * bucketSums.length;
+	}
+
+	/**
+	 * Gets the duration of a bucket.
+	 *
+	 * @return the bucket duration, in milliseconds
+	 */
+	public long getBucketMillis() {
+		return bucketMillis;
+	}
+
+	/**
+	 * Gets the lateness.
+	 *
+	 * @return the maximum delay of an element, in milliseconds
+	 */
+	public long getLatenessMillis() {
+		return latenessMillis;
+	}
+
+	/**
+	 * Evicts the buckets leaving the window when the current time moves to a later period. A clock going backwards
+	 * does not move the window back.
+	 *
+	 * @param now the current time, in milliseconds since the epoch
+	 */
+	private void advance(long now) {
+		long period = Math.floorDiv(now, bucketMillis);
+		if(period <= currentPeriod) {
+			return;
+		}
+		//past one window, every bucket leaves, so at most one eviction per bucket is needed
+		long steps = Math.min(period - currentPeriod, bucketSums.length);
+		for(long p = period - steps + 1; p <= period; ++p) {
+			int bucket = bucketIndex(p);
+			if(bucketCounts[bucket] != 0) {
+				windowSum = windowSum.subtract(bucketSums[bucket]);
+				windowCount -= bucketCounts[bucket];
+				bucketSums[bucket] = BigDecimal.ZERO;
+				bucketCounts[bucket] = 0;
+			}
+		}
+		currentPeriod = period;
+	}
+
+	/**
+	 * Gets the index of the bucket of a period.
+	 *
+	 * @param period the period
+	 * @return the index in the bucket arrays
+	 */
+	private int bucketIndex(long period) {
+		return (int) Math.floorMod(period, (long) bucketSums.length);
+	}
+}
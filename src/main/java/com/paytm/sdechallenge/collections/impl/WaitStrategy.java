@@ -0,0 +1,42 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Enum WaitStrategy, how a thread of a RingBufferIngestor waits: the consumer for elements to be published, and
+ * a producer for room in a full ring buffer. The strategies trade the latency of noticing a change against the CPU
+ * used while waiting.
+ */
+public enum WaitStrategy {
+
+	/** Spins on the sequence, the lowest latency, using a whole core while waiting. */
+	BUSY_SPIN {
+		@Override
+		void idle() {
+		}
+	},
+
+	/** Yields the core to other threads between checks of the sequence. */
+	YIELD {
+		@Override
+		void idle() {
+			Thread.yield();
+		}
+	},
+
+	/** Parks the thread for PARK_NANOS between checks of the sequence, using almost no CPU while waiting. */
+	PARK {
+		@Override
+		void idle() {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	};
+
+	/** The time a parked thread sleeps before checking the sequence again. */
+	static final long PARK_NANOS = 50_000L;
+
+	/**
+	 * Waits before the sequence is checked again.
+	 */
+	abstract void idle();
+}
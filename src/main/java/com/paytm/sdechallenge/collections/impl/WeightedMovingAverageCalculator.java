@@ -0,0 +1,157 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+
+/**
+ * The Class WeightedMovingAverageCalculator, a MovingAverageCalculator returning the linearly weighted moving average
+ * of the last n elements.
+ *
+ * Moving Average Calculation
+ *
+ *
+ *  The newest element of the window has the weight n, where n is the number of elements in the window, the one before
+ *  it n - 1, down to the oldest element with the weight 1. The moving average is weightedSum / (n * (n + 1) / 2).
+ *
+ *  windowSum - The sum of the elements in the window.
+ *
+ *  weightedSum - The sum of the elements in the window multiplied by their weight. When an element is added to a full
+ *  window, every element already in the window loses a weight of 1 and the oldest one leaves with a weight of 0, so
+ *  weightedSum = weightedSum - windowSum + window * element, before windowSum itself is updated. Both sums are exact.
+ *
+ *
+ * Complexities
+ *
+ *  Time Complexity:
+ *  The add, movingAverage, get, getAll, size, isEmpty methods have time complexity O(1)
+ *
+ */
+public class WeightedMovingAverageCalculator extends AbstractAverageCalculator
+		implements MovingAverageCalculator, SlidingWindowCalculator {
+
+	/** The history storing the elements. */
+	private final ElementHistory elements = HistoryPolicy.keepAll().createHistory();
+
+	/** The window size to calculate moving average. */
+	private final int window;
+
+	/** The sum of elements in the window. */
+	private BigDecimal windowSum = BigDecimal.ZERO;
+
+	/** The sum of elements in the window multiplied by their weight. */
+	private BigDecimal weightedSum = BigDecimal.ZERO;
+
+	/**
+	 * Instantiates a new weighted moving average calculator.
+	 *
+	 * @param window the window size
+	 */
+	public WeightedMovingAverageCalculator(int window) {
+		this(window, 5, RoundingMode.HALF_DOWN);
+	}
+
+	/**
+	 * Instantiates a new weighted moving average calculator.
+	 *
+	 * @param window the window size
+	 * @param scale the scale
+	 * @param roundingMode the rounding mode
+	 */
+	public WeightedMovingAverageCalculator(int window, int scale, RoundingMode roundingMode) {
+		MovingAverageValidator.validateWindow(window);
+		MovingAverageValidator.validateScale(scale);
+		MovingAverageValidator.validateRoundingMode(roundingMode);
+
+		this.window = window;
+		this.scale = scale;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Adds the new element.
+	 *
+	 * @param element the BigDecimal element
+	 */
+	@Override
+	public void add(BigDecimal element) {
+		int size = elements.size();
+		if(size >= window) {
+			weightedSum = weightedSum.subtract(windowSum).add(element.multiply(BigDecimal.valueOf(window)));
+			windowSum = windowSum.subtract(elements.get(size - window)).add(element);
+		} else {
+			//while the window fills, the weights of the elements already in it do not change
+			weightedSum = weightedSum.add(element.multiply(BigDecimal.valueOf(size + 1)));
+			windowSum = windowSum.add(element);
+		}
+		elements.add(element);
+	}
+
+	/**
+	 * Calculates the weighted Moving average.
+	 *
+	 * @return the big decimal Moving Average, with decimal places equal to the scale set
+	 */
+	@Override
+	public BigDecimal movingAverage() {
+		long count = Math.min(window, elements.size());
+		if(count == 0) {
+			return BigDecimal.ZERO.setScale(scale);
+		}
+		return weightedSum.divide(BigDecimal.valueOf(count * (count + 1) / 2), scale, roundingMode);
+	}
+
+	/**
+	 * Size method.
+	 *
+	 * @return the int size of elements
+	 */
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Checks if is empty.
+	 *
+	 * @return true, if is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return elements.size() == 0;
+	}
+
+	/**
+	 * Gets the element at a given index.
+	 *
+	 * @param index the index
+	 * @return the big decimal value
+	 */
+	@Override
+	public BigDecimal get(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Gets the list of elements.
+	 * The list returned is a read only view of the elements.
+	 *
+	 * @return the list of bigdecimal elements
+	 */
+	@Override
+	public List<BigDecimal> getAll() {
+		return new ElementHistoryView(elements);
+	}
+
+	/**
+	 * Gets the window size.
+	 *
+	 * @return the window size
+	 */
+	@Override
+	public int getWindow() {
+		return window;
+	}
+}
@@ -0,0 +1,19 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.io.IOException;
+
+/**
+ * The Interface WindowShard, a shard of a series as seen by a MovingAverageCoordinator : a ShardWindow in the same
+ * process, or a client reading the serialized partial windows of a remote shard.
+ */
+public interface WindowShard {
+
+	/**
+	 * Gets the partial window of the shard ending at a cut.
+	 *
+	 * @param cut the last sequence of the window
+	 * @return the partial window
+	 * @throws IOException if the shard cannot be reached
+	 */
+	PartialWindow partial(long cut) throws IOException;
+}
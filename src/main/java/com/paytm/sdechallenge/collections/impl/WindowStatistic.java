@@ -0,0 +1,23 @@
+package com.paytm.sdechallenge.collections.impl;
+
+/**
+ * The Enum WindowStatistic, the statistics of the window a MovingAverageCalculatorImpl can maintain next to the
+ * moving average. Each statistic is opt-in, so that calculators only returning the moving average do not pay for it.
+ */
+public enum WindowStatistic {
+
+	/** The smallest element of the window. */
+	MIN,
+
+	/** The largest element of the window. */
+	MAX,
+
+	/** The population variance of the window, and its standard deviation. */
+	VARIANCE,
+
+	/** The exact percentiles of the window, including its median. */
+	PERCENTILE,
+
+	/** The percentiles of the window, estimated within a relative accuracy from a sketch of bounded size. */
+	APPROXIMATE_PERCENTILE
+}
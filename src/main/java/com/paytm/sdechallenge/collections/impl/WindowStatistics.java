@@ -0,0 +1,283 @@
+package com.paytm.sdechallenge.collections.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Set;
+
+/**
+ * The Class WindowStatistics, which maintains the enabled statistics of a window as elements enter and leave it.
+ *
+ * MIN, MAX - A monotonic deque of the elements of the window which are smaller (or larger) than every element added
+ * after them. The first element of the deque is the minimum (or maximum) of the window. Each element is added and
+ * removed once, so an add has an amortized complexity of O(1).
+ *
+ * VARIANCE - The exact sum of the squares of the elements of the window, the variance being derived from it and the
+ * window sum as (n * sumOfSquares - sum * sum) / (n * n).
+ *
+ * PERCENTILE - An OrderStatisticTree of the elements of the window, giving the element of any rank in O(log n).
+ *
+ * APPROXIMATE_PERCENTILE - A QuantileSketch of the window, estimating the element of any rank within a relative
+ * accuracy, with a memory independent of the window size.
+ */
+final class WindowStatistics {
+
+	/** The deque giving the minimum, null if not enabled. */
+	private final MonotonicDeque min;
+
+	/** The deque giving the maximum, null if not enabled. */
+	private final MonotonicDeque max;
+
+	/** Whether the sum of squares is maintained. */
+	private final boolean variance;
+
+	/** The tree giving the exact percentiles, null if not enabled. */
+	private final OrderStatisticTree percentiles;
+
+	/** The sketch giving the approximate percentiles, null if not enabled. */
+	private final QuantileSketch approximatePercentiles;
+
+	/** The sum of the squares of the elements of the window. */
+	private BigDecimal sumOfSquares = BigDecimal.ZERO;
+
+	/**
+	 * Instantiates new window statistics.
+	 *
+	 * @param enabled the statistics to maintain
+	 * @param window the window size
+	 * @param percentileAccuracy the relative accuracy of the approximate percentiles
+	 */
+	WindowStatistics(Set<WindowStatistic> enabled, int window, double percentileAccuracy) {
+		this.min = enabled.contains(WindowStatistic.MIN) ? new MonotonicDeque(window, false) : null;
+		this.max = enabled.contains(WindowStatistic.MAX) ? new MonotonicDeque(window, true) : null;
+		this.variance = enabled.contains(WindowStatistic.VARIANCE);
+		this.percentiles = enabled.contains(WindowStatistic.PERCENTILE) ? new OrderStatisticTree() : null;
+		this.approximatePercentiles = enabled.contains(WindowStatistic.APPROXIMATE_PERCENTILE)
+				? new QuantileSketch(percentileAccuracy) : null;
+	}
+
+	/**
+	 * Updates the statistics with an element entering the window.
+	 *
+	 * @param index the global index of the element
+	 * @param element the element entering the window
+	 * @param evicted the element leaving the window, null if none
+	 * @param firstIndex the global index of the oldest element of the window, once the element is added
+	 */
+	void add(int index, BigDecimal element, BigDecimal evicted, int firstIndex) {
+		if(min != null) {
+			min.add(index, element, firstIndex);
+		}
+		if(max != null) {
+			max.add(index, element, firstIndex);
+		}
+		if(variance) {
+			if(evicted != null) {
+				sumOfSquares = sumOfSquares.subtract(evicted.multiply(evicted));
+			}
+			sumOfSquares = sumOfSquares.add(element.multiply(element));
+		}
+		if(percentiles != null) {
+			if(evicted != null) {
+				//the evicted element is the one just before the oldest element of the window
+				percentiles.remove(evicted, firstIndex - 1);
+			}
+			percentiles.add(element, index);
+		}
+		if(approximatePercentiles != null) {
+			if(evicted != null) {
+				approximatePercentiles.remove(evicted.doubleValue());
+			}
+			approximatePercentiles.add(element.doubleValue());
+		}
+	}
+
+	/**
+	 * Checks if a statistic is maintained.
+	 *
+	 * @param statistic the statistic
+	 * @return true, if enabled
+	 */
+	boolean isEnabled(WindowStatistic statistic) {
+		switch (statistic) {
+		case MIN:
+			return min != null;
+		case MAX:
+			return max != null;
+		case PERCENTILE:
+			return percentiles != null;
+		case APPROXIMATE_PERCENTILE:
+			return approximatePercentiles != null;
+		default:
+			return variance;
+		}
+	}
+
+	/**
+	 * Gets the minimum of the window.
+	 *
+	 * @return the minimum, null if the window is empty
+	 */
+	BigDecimal min() {
+		return min.first();
+	}
+
+	/**
+	 * Gets the maximum of the window.
+	 *
+	 * @return the maximum, null if the window is empty
+	 */
+	BigDecimal max() {
+		return max.first();
+	}
+
+	/**
+	 * Gets the element of a given rank in the window.
+	 *
+	 * @param rank the rank, 0 being the smallest element
+	 * @return the element
+	 */
+	BigDecimal percentile(int rank) {
+		return percentiles.select(rank);
+	}
+
+	/**
+	 * Estimates the element of a given rank in the window.
+	 *
+	 * @param rank the rank, 0 being the smallest element
+	 * @return the estimate, within the relative accuracy of the element
+	 */
+	double approximatePercentile(int rank) {
+		return approximatePercentiles.select(rank);
+	}
+
+	/**
+	 * Calculates the population variance of the window.
+	 *
+	 * @param sum the sum of the window
+	 * @param count the number of elements in the window, greater than 0
+	 * @param scale the scale of the result
+	 * @param roundingMode the rounding mode of the result
+	 * @return the variance
+	 */
+	BigDecimal variance(BigDecimal sum, int count, int scale, RoundingMode roundingMode) {
+		BigDecimal n = new BigDecimal(count);
+		return varianceNumerator(sum, n).divide(n.multiply(n), scale, roundingMode);
+	}
+
+	/**
+	 * Calculates the population standard deviation of the window, the square root of the exact variance rounded once.
+	 *
+	 * @param sum the sum of the window
+	 * @param count the number of elements in the window, greater than 0
+	 * @param scale the scale of the result
+	 * @param roundingMode the rounding mode of the result
+	 * @return the standard deviation
+	 */
+	BigDecimal standardDeviation(BigDecimal sum, int count, int scale, RoundingMode roundingMode) {
+		BigDecimal n = new BigDecimal(count);
+		//sqrt(variance) * 10^(scale + 1) = sqrt(numerator * 10^(2 * scale + 2)) / n
+		BigDecimal scaled = varianceNumerator(sum, n).movePointRight(2 * scale + 2);
+		BigDecimal[] quotient = scaled.divideAndRemainder(n.multiply(n));
+		BigInteger radicand = quotient[0].toBigInteger();
+		BigInteger root = sqrt(radicand);
+		if(quotient[1].signum() == 0 && root.multiply(root).equals(radicand)) {
+			return new BigDecimal(root, scale + 1).setScale(scale, roundingMode);
+		}
+		//the root lies strictly between root and root + 1, a trailing 1 lets every rounding mode see it
+		return new BigDecimal(root.multiply(BigInteger.TEN).add(BigInteger.ONE), scale + 2).setScale(scale, roundingMode);
+	}
+
+	/**
+	 * Calculates n * sumOfSquares - sum * sum, never negative.
+	 *
+	 * @param sum the sum of the window
+	 * @param n the number of elements in the window
+	 * @return the numerator of the variance
+	 */
+	private BigDecimal varianceNumerator(BigDecimal sum, BigDecimal n) {
+		return n.multiply(sumOfSquares).subtract(sum.multiply(sum));
+	}
+
+	/**
+	 * Calculates the integer square root, the largest integer whose square is not greater than the value.
+	 *
+	 * @param value the value, not negative
+	 * @return the integer square root
+	 */
+	private static BigInteger sqrt(BigInteger value) {
+		if(value.signum() == 0) {
+			return value;
+		}
+		//Newton's iteration from a value above the root decreases to the root
+		BigInteger root = BigInteger.ONE.shiftLeft((value.bitLength() + 1) / 2);
+		while(true) {
+			BigInteger next = root.add(value.divide(root)).shiftRight(1);
+			if(next.compareTo(root) >= 0) {
+				return root;
+			}
+			root = next;
+		}
+	}
+
+	/**
+	 * A monotonic deque of the elements of the window, in a circular array of size window.
+	 */
+	private static final class MonotonicDeque {
+
+		/** The global indices of the elements. */
+		private final int[] indices;
+
+		/** The elements. */
+		private final BigDecimal[] values;
+
+		/** True to keep the maximum, false to keep the minimum. */
+		private final boolean keepMax;
+
+		/** The index of the first element. */
+		private int head;
+
+		/** The number of elements. */
+		private int count;
+
+		private MonotonicDeque(int window, boolean keepMax) {
+			this.indices = new int[window];
+			this.values = new BigDecimal[window];
+			this.keepMax = keepMax;
+		}
+
+		private void add(int index, BigDecimal element, int firstIndex) {
+			//evicts first, so that the deque never holds more than window elements
+			while(count > 0 && indices[head] < firstIndex) {
+				values[head] = null;
+				if(++head == values.length) {
+					head = 0;
+				}
+				--count;
+			}
+			//an element that can no longer be the first one is dropped
+			while(count > 0) {
+				int last = slot(count - 1);
+				int comparison = values[last].compareTo(element);
+				if(keepMax ? comparison > 0 : comparison < 0) {
+					break;
+				}
+				values[last] = null;
+				--count;
+			}
+			int tail = slot(count);
+			indices[tail] = index;
+			values[tail] = element;
+			++count;
+		}
+
+		private BigDecimal first() {
+			return count == 0 ? null : values[head];
+		}
+
+		private int slot(int position) {
+			int slot = head + position;
+			return slot < values.length ? slot : slot - values.length;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.paytm.SDEChallenge;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import com.paytm.sdechallenge.collections.impl.CalculatorMetrics;
+import com.paytm.sdechallenge.collections.impl.HistoryPolicy;
+import com.paytm.sdechallenge.collections.impl.MetricsSnapshot;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for CalculatorMetrics.
+ */
+public class CalculatorMetricsTest extends TestCase {
+
+	public void test_Snapshot_Of_Detached_Metrics() {
+		MetricsSnapshot snapshot = new CalculatorMetrics().snapshot();
+		assertEquals(0, snapshot.getAddCount());
+		assertEquals(0, snapshot.getWindow());
+		assertEquals(0, snapshot.getAddLatencyMaxNanos());
+	}
+
+	public void test_Records_Adds_Queries_And_Gauges() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4);
+		maCalculator.add(new BigDecimal(1));
+		CalculatorMetrics metrics = new CalculatorMetrics();
+		maCalculator.setMetrics(metrics);
+		for(int i = 0; i < 5; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		maCalculator.addAll(new BigDecimal[] {BigDecimal.ONE, BigDecimal.TEN});
+		maCalculator.movingAverage();
+		maCalculator.movingAverage();
+
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(7, snapshot.getAddCount());
+		assertEquals(2, snapshot.getQueryCount());
+		assertEquals(4, snapshot.getWindow());
+		assertEquals(4, snapshot.getWindowFill());
+		assertEquals(8, snapshot.getHistorySize());
+		assertEquals(8 * 48, snapshot.getHistoryEstimatedBytes());
+		assertTrue(snapshot.getAddLatencyP50Nanos() <= snapshot.getAddLatencyP99Nanos());
+		assertTrue(snapshot.getAddLatencyP99Nanos() <= snapshot.getAddLatencyMaxNanos());
+		assertTrue(snapshot.getQueryLatencyMaxNanos() > 0);
+
+		metrics.reset();
+		assertEquals(0, metrics.snapshot().getAddCount());
+		assertEquals(8, metrics.snapshot().getHistorySize());
+	}
+
+	public void test_Records_Recomputes() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4);
+		CalculatorMetrics metrics = new CalculatorMetrics();
+		maCalculator.setMetrics(metrics);
+		for(int i = 0; i < 10; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		maCalculator.setWindow(7);
+		maCalculator.setWindow(6);
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(2, snapshot.getRecomputeCount());
+		assertEquals(3 + 1, snapshot.getRecomputedElements());
+		assertEquals(6, snapshot.getWindowFill());
+	}
+
+	public void test_History_Size_Of_Bounded_History() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 5,
+				java.math.RoundingMode.HALF_DOWN, HistoryPolicy.keepLast(3));
+		CalculatorMetrics metrics = new CalculatorMetrics();
+		maCalculator.setMetrics(metrics);
+		for(int i = 0; i < 10; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(3, metrics.snapshot().getHistorySize());
+	}
+
+	public void test_History_Bytes_Of_Spilling_And_Persistent_Histories() throws Exception {
+		Path directory = Files.createTempDirectory("metrics");
+		MovingAverageCalculatorImpl spilling = new MovingAverageCalculatorImpl(4, 5, RoundingMode.HALF_DOWN,
+				HistoryPolicy.spillToDisk(directory, 1000));
+		MovingAverageCalculatorImpl persistent = new MovingAverageCalculatorImpl(4, 5, RoundingMode.HALF_DOWN,
+				HistoryPolicy.persistent(directory.resolve("log"), 4096));
+		try {
+			CalculatorMetrics spillingMetrics = new CalculatorMetrics();
+			spilling.setMetrics(spillingMetrics);
+			CalculatorMetrics persistentMetrics = new CalculatorMetrics();
+			persistent.setMetrics(persistentMetrics);
+			for(int i = 0; i < 10 * 1024; ++i) {
+				spilling.add(new BigDecimal(i));
+				persistent.add(new BigDecimal(i));
+			}
+			//two chunks of 1024 elements are kept in memory, the other eight are in the segment file
+			MetricsSnapshot snapshot = spillingMetrics.snapshot();
+			assertEquals(10 * 1024, snapshot.getHistorySize());
+			assertEquals(2 * 1024 * 48, snapshot.getHistoryEstimatedBytes());
+			assertTrue(snapshot.getHistoryOffHeapBytes() > 8 * 1024);
+			//elements of a persistent history are only held in the segment files
+			snapshot = persistentMetrics.snapshot();
+			assertEquals(10 * 1024, snapshot.getHistorySize());
+			assertEquals(0, snapshot.getHistoryEstimatedBytes());
+			assertTrue(snapshot.getHistoryOffHeapBytes() > 0);
+			assertEquals(0, snapshot.getHistoryOffHeapBytes() % 4096);
+		} finally {
+			spilling.close();
+			persistent.close();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.resolve("log"))) {
+				for(Path file : stream) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory.resolve("log"));
+			Files.delete(directory);
+		}
+	}
+
+	public void test_Disabled_Metrics_Stop_Recording() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2);
+		CalculatorMetrics metrics = new CalculatorMetrics();
+		maCalculator.setMetrics(metrics);
+		maCalculator.add(BigDecimal.ONE);
+		maCalculator.setMetrics(null);
+		maCalculator.add(BigDecimal.ONE);
+		assertNull(maCalculator.getMetrics());
+		assertEquals(1, metrics.snapshot().getAddCount());
+		assertEquals(0, metrics.snapshot().getWindow());
+	}
+
+	public void test_Metrics_Attached_To_One_Calculator() {
+		CalculatorMetrics metrics = new CalculatorMetrics();
+		new MovingAverageCalculatorImpl(2).setMetrics(metrics);
+		try {
+			new MovingAverageCalculatorImpl(2).setMetrics(metrics);
+			fail("Expected exception when the metrics are attached to a second calculator");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Exposed_Through_JMX() throws Exception {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		CalculatorMetrics metrics = new CalculatorMetrics();
+		maCalculator.setMetrics(metrics);
+		maCalculator.add(new BigDecimal(5));
+		metrics.register("prices");
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("com.paytm.sdechallenge:type=MovingAverageCalculator,name=\"prices\"");
+			CompositeData snapshot = (CompositeData) server.getAttribute(name, "Snapshot");
+			assertEquals(1L, snapshot.get("addCount"));
+			assertEquals(3, snapshot.get("window"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0, metrics.snapshot().getAddCount());
+		} finally {
+			metrics.unregister();
+		}
+		assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(
+				new ObjectName("com.paytm.sdechallenge:*"), null).isEmpty());
+	}
+}
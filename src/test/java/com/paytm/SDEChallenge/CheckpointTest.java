@@ -0,0 +1,301 @@
+package com.paytm.SDEChallenge;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.FixedPointMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.HistoryPolicy;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.WindowStatistic;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the checkpoint and restore of the calculators.
+ */
+public class CheckpointTest extends TestCase {
+
+	private static byte[] checkpoint(MovingAverageCalculatorImpl calculator, boolean includeHistory)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		calculator.checkpoint(out, includeHistory);
+		return out.toByteArray();
+	}
+
+	private static MovingAverageCalculatorImpl restore(byte[] checkpoint) throws IOException {
+		return MovingAverageCalculatorImpl.restore(new ByteArrayInputStream(checkpoint));
+	}
+
+	public void test_RoundTrip_With_History() throws IOException {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4, 3, RoundingMode.HALF_UP);
+		Random random = new Random(7);
+		for(int i = 0; i < 5000; ++i) {
+			maCalculator.add(BigDecimal.valueOf(random.nextInt(2000000) - 1000000, random.nextInt(4)));
+		}
+		//an element whose unscaled value does not fit in a long, and a negative scale
+		maCalculator.add(new BigDecimal("123456789012345678901234567890.123"));
+		maCalculator.add(new BigDecimal("5E+3"));
+
+		MovingAverageCalculatorImpl restored = restore(checkpoint(maCalculator, true));
+		assertEquals(maCalculator.size(), restored.size());
+		assertEquals(0, restored.getFirstIndex());
+		assertEquals(maCalculator.getAll(), restored.getAll());
+		assertEquals(4, restored.getWindow());
+		assertEquals(3, restored.getScale());
+		assertEquals(RoundingMode.HALF_UP, restored.getRoundingMode());
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+
+		//the restored calculator continues as the original one
+		maCalculator.add(new BigDecimal("1.5"));
+		restored.add(new BigDecimal("1.5"));
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+		maCalculator.setWindow(1000);
+		restored.setWindow(1000);
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+	}
+
+	public void test_RoundTrip_Window_Only() throws IOException {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3, 2);
+		for(int i = 1; i <= 10; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		byte[] windowOnly = checkpoint(maCalculator, false);
+		assertTrue(windowOnly.length < checkpoint(maCalculator, true).length);
+
+		MovingAverageCalculatorImpl restored = restore(windowOnly);
+		assertEquals(10, restored.size());
+		assertEquals(7, restored.getFirstIndex());
+		assertEquals(new BigDecimal(8), restored.get(7));
+		assertEquals(Arrays.asList(new BigDecimal(8), new BigDecimal(9), new BigDecimal(10)), restored.getAll());
+		assertEquals(new BigDecimal("9.00"), restored.movingAverage());
+		try {
+			restored.get(6);
+			fail("Expected exception when the element was not checkpointed");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+		try {
+			restored.setWindow(4);
+			fail("Expected exception when the window requires elements not checkpointed");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		restored.setWindow(2);
+		assertEquals(new BigDecimal("9.50"), restored.movingAverage());
+	}
+
+	public void test_RoundTrip_Empty_And_Partial_Window() throws IOException {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(5);
+		MovingAverageCalculatorImpl restored = restore(checkpoint(maCalculator, true));
+		assertTrue(restored.isEmpty());
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+
+		maCalculator.add(new BigDecimal("1.1"));
+		maCalculator.add(new BigDecimal("2.2"));
+		restored = restore(checkpoint(maCalculator, false));
+		assertEquals(2, restored.size());
+		assertEquals(0, restored.getFirstIndex());
+		assertEquals(new BigDecimal("1.65000"), restored.movingAverage());
+	}
+
+	public void test_RoundTrip_Bounded_History() throws IOException {
+		MovingAverageCalculatorImpl maCalculator =
+				new MovingAverageCalculatorImpl(5, 2, RoundingMode.HALF_DOWN, HistoryPolicy.keepLast(20));
+		for(int i = 0; i < 100; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		MovingAverageCalculatorImpl restored = restore(checkpoint(maCalculator, true));
+		assertEquals(100, restored.size());
+		assertEquals(maCalculator.getFirstIndex(), restored.getFirstIndex());
+		assertEquals(maCalculator.getAll(), restored.getAll());
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+	}
+
+	public void test_RoundTrip_Statistics() throws IOException {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(10, 2);
+		maCalculator.enableStatistics(WindowStatistic.MIN, WindowStatistic.MAX, WindowStatistic.VARIANCE,
+				WindowStatistic.PERCENTILE);
+		maCalculator.enableApproximatePercentiles(0.02);
+		for(int i = 0; i < 50; ++i) {
+			maCalculator.add(new BigDecimal((i * 37) % 23));
+		}
+		MovingAverageCalculatorImpl restored = restore(checkpoint(maCalculator, false));
+		assertEquals(maCalculator.min(), restored.min());
+		assertEquals(maCalculator.max(), restored.max());
+		assertEquals(maCalculator.variance(), restored.variance());
+		assertEquals(maCalculator.median(), restored.median());
+		assertEquals(maCalculator.approximatePercentile(0.9), restored.approximatePercentile(0.9));
+	}
+
+	public void test_RoundTrip_File() throws IOException {
+		Path file = Files.createTempFile("checkpoint", ".bin");
+		try {
+			MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+			maCalculator.addAll(new BigDecimal[] {new BigDecimal(1), new BigDecimal(2), new BigDecimal(4)});
+			maCalculator.checkpoint(file, true);
+			MovingAverageCalculatorImpl restored = MovingAverageCalculatorImpl.restore(file);
+			assertEquals(maCalculator.getAll(), restored.getAll());
+			assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	public void test_FixedPoint_RoundTrip() throws IOException {
+		FixedPointMovingAverageCalculator maCalculator =
+				new FixedPointMovingAverageCalculator(7, 2, 3, RoundingMode.HALF_EVEN);
+		Random random = new Random(11);
+		for(int i = 0; i < 1000; ++i) {
+			maCalculator.add(random.nextLong() >> 2);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		maCalculator.checkpoint(out);
+		FixedPointMovingAverageCalculator restored =
+				FixedPointMovingAverageCalculator.restore(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(1000, restored.size());
+		assertEquals(2, restored.getInputScale());
+		assertEquals(3, restored.getScale());
+		assertEquals(RoundingMode.HALF_EVEN, restored.getRoundingMode());
+		assertEquals(maCalculator.getAll(), restored.getAll());
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+
+		maCalculator.add(150L);
+		restored.add(150L);
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+		maCalculator.setWindow(100);
+		restored.setWindow(100);
+		assertEquals(maCalculator.movingAverage(), restored.movingAverage());
+	}
+
+	public void test_Restore_Leaves_Stream_After_Checkpoint() throws IOException {
+		MovingAverageCalculatorImpl first = new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP);
+		FixedPointMovingAverageCalculator second = new FixedPointMovingAverageCalculator(2, 2, 2,
+				RoundingMode.HALF_UP);
+		for(int i = 1; i <= 10; ++i) {
+			first.add(new BigDecimal(i));
+			second.add(new BigDecimal(i * 2));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		first.checkpoint(out, true);
+		second.checkpoint(out);
+		out.write(42);
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		assertEquals(first.movingAverage(), MovingAverageCalculatorImpl.restore(in).movingAverage());
+		assertEquals(second.movingAverage(), FixedPointMovingAverageCalculator.restore(in).movingAverage());
+		assertEquals(42, in.read());
+		assertEquals(-1, in.read());
+	}
+
+	/**
+	 * Replaces the window, size and window count of a checkpoint of a calculator holding one element, each written in
+	 * one byte after the header, by the largest int.
+	 */
+	private static byte[] claimLargestSizes(byte[] checkpoint, boolean window, boolean size) {
+		byte[] largest = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(checkpoint, 0, 6);
+		out.write(window ? largest : new byte[] {checkpoint[6]}, 0, window ? largest.length : 1);
+		out.write(checkpoint, 7, 11);
+		for(int i = 18; i < 20; ++i) {
+			out.write(size ? largest : new byte[] {checkpoint[i]}, 0, size ? largest.length : 1);
+		}
+		out.write(checkpoint, 20, checkpoint.length - 20);
+		return out.toByteArray();
+	}
+
+	public void test_Restore_Does_Not_Trust_Sizes() throws IOException {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP);
+		maCalculator.add(new BigDecimal(6));
+		byte[] checkpoint = checkpoint(maCalculator, true);
+		try {
+			restore(claimLargestSizes(checkpoint, true, true));
+			fail("Expected exception when the checkpoint claims more elements than it holds");
+		} catch (EOFException e) {
+			//pass
+		}
+		//a window larger than the elements held is valid, its array grows as elements are added
+		MovingAverageCalculatorImpl restored = restore(claimLargestSizes(checkpoint, true, false));
+		assertEquals(Integer.MAX_VALUE, restored.getWindow());
+		assertEquals(1, restored.size());
+		MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(1000, 2, RoundingMode.HALF_UP);
+		reference.add(new BigDecimal(6));
+		for(int i = 0; i < 100; ++i) {
+			restored.add(new BigDecimal(i));
+			reference.add(new BigDecimal(i));
+		}
+		restored.addAll(new BigDecimal[] {BigDecimal.ONE, BigDecimal.TEN});
+		reference.addAll(new BigDecimal[] {BigDecimal.ONE, BigDecimal.TEN});
+		restored.setWindow(1000);
+		assertEquals(reference.movingAverage(), restored.movingAverage());
+		//a restored window fills up to its size
+		MovingAverageCalculatorImpl small = restore(checkpoint);
+		for(int i = 0; i < 5; ++i) {
+			small.add(new BigDecimal(i));
+		}
+		assertEquals(new BigDecimal("3.00"), small.movingAverage());
+		small.addAll(new BigDecimal[] {BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.TEN});
+		assertEquals(new BigDecimal("4.00"), small.movingAverage());
+	}
+
+	public void test_Invalid_Checkpoints() throws IOException {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		maCalculator.add(BigDecimal.ONE);
+		byte[] checkpoint = checkpoint(maCalculator, true);
+
+		byte[] corrupted = checkpoint.clone();
+		corrupted[0] = 0;
+		try {
+			restore(corrupted);
+			fail("Expected exception when the magic number is invalid");
+		} catch (IOException e) {
+			//pass
+		}
+		try {
+			FixedPointMovingAverageCalculator.restore(new ByteArrayInputStream(checkpoint));
+			fail("Expected exception when the checkpoint is of another calculator");
+		} catch (IOException e) {
+			//pass
+		}
+		try {
+			restore(Arrays.copyOf(checkpoint, checkpoint.length - 1));
+			fail("Expected exception when the checkpoint is truncated");
+		} catch (EOFException e) {
+			//pass
+		}
+		//the scale is the zigzag encoded byte after the window
+		assertEquals(10, checkpoint[7]);
+		corrupted = checkpoint.clone();
+		corrupted[7] = 1;
+		try {
+			restore(corrupted);
+			fail("Expected exception when the scale is negative");
+		} catch (IOException e) {
+			//pass
+		}
+		//the window count follows the size
+		assertEquals(1, checkpoint[19]);
+		corrupted = checkpoint.clone();
+		corrupted[19] = 0;
+		try {
+			restore(corrupted);
+			fail("Expected exception when the window does not hold the last elements");
+		} catch (IOException e) {
+			//pass
+		}
+		try {
+			maCalculator.checkpoint((OutputStream) null, true);
+			fail("Expected exception when the stream is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+}
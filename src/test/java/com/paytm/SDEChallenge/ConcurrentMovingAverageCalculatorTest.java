@@ -0,0 +1,190 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.paytm.sdechallenge.collections.impl.ConcurrentMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for ConcurrentMovingAverageCalculator.
+ */
+public class ConcurrentMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_WindowSize() {
+		ConcurrentMovingAverageCalculator maCalculator = new ConcurrentMovingAverageCalculator(2);
+		assertTrue(maCalculator.getAll().isEmpty());
+		assertEquals(5, maCalculator.getScale());
+		assertEquals(RoundingMode.HALF_DOWN, maCalculator.getRoundingMode());
+		assertEquals(2, maCalculator.getWindow());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new ConcurrentMovingAverageCalculator(0);
+			fail("Expected exception when window size less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new ConcurrentMovingAverageCalculator(2, -1);
+			fail("Expected exception when scale less than 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new ConcurrentMovingAverageCalculator(2, RoundingMode.UNNECESSARY);
+			fail("Expected exception when rounding mode is RoundingMode.UNNECESSARY");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Same_Results_As_MovingAverageCalculatorImpl() {
+		ConcurrentMovingAverageCalculator maCalculator = new ConcurrentMovingAverageCalculator(3, 2, RoundingMode.HALF_UP);
+		MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP);
+		for(int i = 0; i < 3000; ++i) {
+			BigDecimal element = BigDecimal.valueOf(i * 7919L % 1000, 1);
+			maCalculator.add(element);
+			reference.add(element);
+			assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+			if(i % 1000 == 999) {
+				maCalculator.setWindow(i / 100);
+				reference.setWindow(i / 100);
+				assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+			}
+		}
+		assertEquals(reference.size(), maCalculator.size());
+		assertEquals(reference.get(2048), maCalculator.get(2048));
+	}
+
+	public void test_GetAll_Is_A_Stable_View() {
+		ConcurrentMovingAverageCalculator maCalculator = new ConcurrentMovingAverageCalculator(2);
+		maCalculator.add(new BigDecimal(10));
+		List<BigDecimal> elements = maCalculator.getAll();
+		maCalculator.add(new BigDecimal(5));
+		assertEquals(1, elements.size());
+		assertEquals(2, maCalculator.getAll().size());
+		assertEquals(new BigDecimal(5), maCalculator.get(1));
+	}
+
+	public void test_Readers_Never_See_Torn_State_Under_Concurrent_Writes() throws Exception {
+		final int writers = 4;
+		final int readers = 4;
+		final int elementsPerWriter = 50000;
+		final ConcurrentMovingAverageCalculator maCalculator = new ConcurrentMovingAverageCalculator(100, 2);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+		try {
+			List<Future<?>> writerResults = new ArrayList<>();
+			for(int w = 0; w < writers; ++w) {
+				writerResults.add(executor.submit(() -> {
+					start.await();
+					//every element is 7, so any consistent (sum, count) snapshot averages to exactly 7
+					BigDecimal seven = new BigDecimal(7);
+					for(int i = 0; i < elementsPerWriter; ++i) {
+						maCalculator.add(seven);
+						if(i % 10000 == 0) {
+							maCalculator.setWindow(50 + i % 97);
+						}
+					}
+					return null;
+				}));
+			}
+			List<Future<?>> readerResults = new ArrayList<>();
+			for(int r = 0; r < readers; ++r) {
+				readerResults.add(executor.submit(() -> {
+					start.await();
+					BigDecimal expected = new BigDecimal("7.00");
+					int lastSize = 0;
+					while(writing.get()) {
+						int size = maCalculator.size();
+						assertTrue("size must never decrease", size >= lastSize);
+						lastSize = size;
+						if(size > 0) {
+							assertEquals(expected, maCalculator.movingAverage());
+							assertEquals(new BigDecimal(7), maCalculator.get(size - 1));
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for(Future<?> result : writerResults) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+			writing.set(false);
+			for(Future<?> result : readerResults) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(writers * elementsPerWriter, maCalculator.size());
+		assertEquals(new BigDecimal("7.00"), maCalculator.movingAverage());
+	}
+
+	public void test_AddAll_Same_Results_As_Add() {
+		ConcurrentMovingAverageCalculator maCalculator = new ConcurrentMovingAverageCalculator(3, 2);
+		MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(3, 2);
+		BigDecimal[] batch = new BigDecimal[5];
+		BigDecimal[] movingAverages = new BigDecimal[5];
+		for(int round = 0; round < 300; ++round) {
+			for(int i = 0; i < batch.length; ++i) {
+				batch[i] = BigDecimal.valueOf((round * 5 + i) * 7919L % 1000, 1);
+			}
+			if(round % 2 == 0) {
+				maCalculator.addAll(batch);
+				reference.addAll(batch);
+			} else {
+				maCalculator.addAll(batch, movingAverages);
+				for(int i = 0; i < batch.length; ++i) {
+					reference.add(batch[i]);
+					assertEquals(reference.movingAverage(), movingAverages[i]);
+				}
+			}
+			assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+		}
+		assertEquals(reference.getAll(), maCalculator.getAll());
+	}
+
+	public void test_AddAll_Rejects_Batch_With_Null_Element() {
+		ConcurrentMovingAverageCalculator maCalculator = new ConcurrentMovingAverageCalculator(3, 2);
+		maCalculator.add(BigDecimal.ONE);
+		BigDecimal[] batch = {BigDecimal.TEN, BigDecimal.TEN, null};
+		try {
+			maCalculator.addAll(batch);
+			fail("Expected exception when an element of the batch is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.addAll(batch, new BigDecimal[3]);
+			fail("Expected exception when an element of the batch is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.add(null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		assertEquals(1, maCalculator.size());
+		assertEquals(new BigDecimal("1.00"), maCalculator.movingAverage());
+		maCalculator.add(BigDecimal.TEN);
+		assertEquals(new BigDecimal("5.50"), maCalculator.movingAverage());
+	}
+}
@@ -0,0 +1,167 @@
+package com.paytm.SDEChallenge;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.DecimalEncoding;
+import com.paytm.sdechallenge.collections.impl.DecimalIngestion;
+import com.paytm.sdechallenge.collections.impl.FixedPointMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for DecimalIngestion and DecimalEncoding.
+ */
+public class DecimalIngestionTest extends TestCase {
+
+	private static List<String> randomValues(int count) {
+		Random random = new Random(3);
+		List<String> values = new ArrayList<>();
+		for(int i = 0; i < count; ++i) {
+			values.add(BigDecimal.valueOf(random.nextInt(20000000) - 10000000, random.nextInt(5)).toPlainString());
+		}
+		return values;
+	}
+
+	private static ByteBuffer ascii(String text) {
+		return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	public void test_DelimitedText_Matches_BigDecimal_Parsing() {
+		List<String> values = randomValues(10000);
+		values.add("-0.00");
+		values.add("+7");
+		values.add(".5");
+		values.add("9223372036854775807");
+		values.add("-9223372036854775808");
+		values.add("123456789012345678901234567890.5");
+		values.add("1.5E+3");
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < values.size(); ++i) {
+			text.append(values.get(i)).append(i % 3 == 0 ? "," : i % 3 == 1 ? "\r\n" : " ; ");
+		}
+		MovingAverageCalculatorImpl expected = new MovingAverageCalculatorImpl(50, 4);
+		for(String value : values) {
+			expected.add(new BigDecimal(value));
+		}
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(50, 4);
+		ByteBuffer buffer = ascii(text.toString());
+		assertEquals(values.size(), DecimalIngestion.addAll(maCalculator, buffer, DecimalEncoding.delimitedText()));
+		assertFalse(buffer.hasRemaining());
+		assertEquals(expected.getAll(), maCalculator.getAll());
+		assertEquals(expected.movingAverage(), maCalculator.movingAverage());
+	}
+
+	public void test_FixedWidthText() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3, 2);
+		long count = DecimalIngestion.addAll(maCalculator, ascii("   1.50  -2.25\n     10\n"),
+				DecimalEncoding.fixedWidthText(7));
+		assertEquals(3, count);
+		assertEquals(new BigDecimal("1.50"), maCalculator.get(0));
+		assertEquals(new BigDecimal("-2.25"), maCalculator.get(1));
+		assertEquals(new BigDecimal("10"), maCalculator.get(2));
+		assertEquals(new BigDecimal("3.08"), maCalculator.movingAverage());
+		try {
+			DecimalIngestion.addAll(maCalculator, ascii("   1.50  -2"), DecimalEncoding.fixedWidthText(7));
+			fail("Expected exception when the last field is truncated");
+		} catch (NumberFormatException e) {
+			//pass
+		}
+	}
+
+	public void test_Binary_Records() {
+		for(ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+			ByteBuffer buffer = ByteBuffer.allocate(3 * 12).order(order);
+			buffer.putLong(150).putInt(2).putLong(-3).putInt(0).putLong(Long.MAX_VALUE).putInt(18);
+			buffer.flip();
+			MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+			assertEquals(3, DecimalIngestion.addAll(maCalculator, buffer, DecimalEncoding.binary(order)));
+			assertEquals(new BigDecimal("1.50"), maCalculator.get(0));
+			assertEquals(new BigDecimal("-3"), maCalculator.get(1));
+			assertEquals(BigDecimal.valueOf(Long.MAX_VALUE, 18), maCalculator.get(2));
+		}
+		ByteBuffer truncated = ByteBuffer.allocate(20);
+		try {
+			DecimalIngestion.addAll(new MovingAverageCalculatorImpl(3), truncated, DecimalEncoding.binary(
+					ByteOrder.BIG_ENDIAN));
+			fail("Expected exception when the last record is truncated");
+		} catch (NumberFormatException e) {
+			//pass
+		}
+	}
+
+	public void test_FixedPoint_Rescales_To_Input_Scale() {
+		FixedPointMovingAverageCalculator maCalculator =
+				new FixedPointMovingAverageCalculator(2, 2, 3, RoundingMode.HALF_UP);
+		assertEquals(3, DecimalIngestion.addAll(maCalculator, ascii("1.5,2,3.25"), DecimalEncoding.delimitedText()));
+		assertEquals(150L, maCalculator.getUnscaled(0));
+		assertEquals(200L, maCalculator.getUnscaled(1));
+		assertEquals(325L, maCalculator.getUnscaled(2));
+		assertEquals(new BigDecimal("2.625"), maCalculator.movingAverage());
+		try {
+			DecimalIngestion.addAll(maCalculator, ascii("4,1.125,5"), DecimalEncoding.delimitedText());
+			fail("Expected exception when a value has more decimal places than the input scale");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		//the values before the invalid one are added
+		assertEquals(4, maCalculator.size());
+	}
+
+	public void test_Invalid_Text() {
+		for(String text : new String[] {"1.2.3", "12a", "-", ".", "e5", "1,,x"}) {
+			try {
+				DecimalIngestion.addAll(new MovingAverageCalculatorImpl(3), ascii(text), DecimalEncoding.delimitedText());
+				fail("Expected exception when the value is invalid : " + text);
+			} catch (NumberFormatException e) {
+				//pass
+			}
+		}
+		try {
+			DecimalEncoding.fixedWidthText(0);
+			fail("Expected exception when the width is less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Channel_And_Mapped_File() throws IOException {
+		//larger than the buffer a channel is read through, so values straddle two reads
+		List<String> values = randomValues(40000);
+		MovingAverageCalculatorImpl expected = new MovingAverageCalculatorImpl(1000, 3);
+		StringBuilder text = new StringBuilder();
+		for(String value : values) {
+			expected.add(new BigDecimal(value));
+			text.append(value).append('\n');
+		}
+		Path file = Files.createTempFile("values", ".csv");
+		try {
+			Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+			MovingAverageCalculatorImpl read = new MovingAverageCalculatorImpl(1000, 3);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				assertEquals(values.size(), DecimalIngestion.addAll(read, channel, DecimalEncoding.delimitedText()));
+			}
+			assertEquals(expected.getAll(), read.getAll());
+			assertEquals(expected.movingAverage(), read.movingAverage());
+
+			MovingAverageCalculatorImpl mapped = new MovingAverageCalculatorImpl(1000, 3);
+			assertEquals(values.size(), DecimalIngestion.addAll(mapped, file, DecimalEncoding.delimitedText()));
+			assertEquals(expected.getAll(), mapped.getAll());
+			assertEquals(expected.movingAverage(), mapped.movingAverage());
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.DoubleMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for DoubleMovingAverageCalculator, against the exact averages of MovingAverageCalculatorImpl.
+ */
+public class DoubleMovingAverageCalculatorTest extends TestCase {
+
+	/**
+	 * Feeds the same doubles to both calculators, the exact calculator receiving their exact binary values, and checks
+	 * the double moving average against the exact one within the documented bound.
+	 */
+	private static void assertWithinBound(DoubleMovingAverageCalculator doubleCalculator, double[] stream,
+			int checkEvery) {
+		MovingAverageCalculatorImpl exactCalculator =
+				new MovingAverageCalculatorImpl(doubleCalculator.getWindow(), 40, RoundingMode.HALF_EVEN);
+		for(int i = 0; i < stream.length; ++i) {
+			doubleCalculator.add(stream[i]);
+			exactCalculator.add(new BigDecimal(stream[i]));
+			if(i % checkEvery == 0 || i == stream.length - 1) {
+				BigDecimal error = new BigDecimal(doubleCalculator.movingAverageDouble())
+						.subtract(exactCalculator.movingAverage()).abs();
+				BigDecimal bound = new BigDecimal(doubleCalculator.movingAverageErrorBound())
+						.add(BigDecimal.ONE.movePointLeft(40));
+				assertTrue("Error " + error.round(MathContext.DECIMAL64) + " above "
+						+ bound.round(MathContext.DECIMAL64) + " after " + (i + 1) + " elements",
+						error.compareTo(bound) <= 0);
+			}
+		}
+	}
+
+	public void test_Long_Random_Stream_Within_Bound() {
+		Random random = new Random(25);
+		double[] stream = new double[1000000];
+		for(int i = 0; i < stream.length; ++i) {
+			stream[i] = (random.nextInt(200000000) - 100000000) / 100.0;
+		}
+		assertWithinBound(new DoubleMovingAverageCalculator(1000, 2, RoundingMode.HALF_UP), stream, 997);
+		//re-anchoring often, and over a window larger than the interval
+		assertWithinBound(new DoubleMovingAverageCalculator(5000, 2, RoundingMode.HALF_UP, 777), stream, 1009);
+	}
+
+	public void test_Cancelling_Magnitudes_Within_Bound() {
+		//large elements cancel out while small ones remain, where a plain double sum drifts away
+		Random random = new Random(52);
+		double[] stream = new double[400000];
+		for(int i = 0; i < stream.length; ++i) {
+			stream[i] = i % 2 == 0 ? random.nextDouble() * 1e15 : random.nextDouble() * 1e-3;
+			if(i % 4 == 2) {
+				stream[i] = -stream[i - 2];
+			}
+		}
+		DoubleMovingAverageCalculator doubleCalculator = new DoubleMovingAverageCalculator(64, 10,
+				RoundingMode.HALF_EVEN, 1 << 16);
+		assertWithinBound(doubleCalculator, stream, 101);
+		//after a re-anchoring, the sum is the exact sum rounded once
+		doubleCalculator.reanchor();
+		BigDecimal exact = BigDecimal.ZERO;
+		for(int i = stream.length - 64; i < stream.length; ++i) {
+			exact = exact.add(new BigDecimal(stream[i]));
+		}
+		double average = exact.doubleValue() / 64;
+		assertEquals(average, doubleCalculator.movingAverageDouble(), Math.ulp(average));
+	}
+
+	public void test_Decimal_Elements() {
+		DoubleMovingAverageCalculator doubleCalculator = new DoubleMovingAverageCalculator(3, 2, RoundingMode.HALF_UP);
+		MovingAverageCalculatorImpl exactCalculator = new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP);
+		assertEquals(new BigDecimal("0.00"), doubleCalculator.movingAverage());
+		assertTrue(doubleCalculator.isEmpty());
+		String[] elements = {"0.1", "0.2", "0.3", "10.25", "-3.7", "1000000.01", "2.5"};
+		for(String element : elements) {
+			doubleCalculator.add(new BigDecimal(element));
+			exactCalculator.add(new BigDecimal(element));
+			assertEquals(exactCalculator.movingAverage(), doubleCalculator.movingAverage());
+		}
+		assertEquals(7, doubleCalculator.size());
+		assertEquals(new BigDecimal("0.1"), doubleCalculator.get(0));
+		assertEquals(new BigDecimal("1000000.01"), doubleCalculator.getAll().get(5));
+		doubleCalculator.setWindow(5);
+		exactCalculator.setWindow(5);
+		assertEquals(exactCalculator.movingAverage(), doubleCalculator.movingAverage());
+		doubleCalculator.setScale(4);
+		assertEquals(new BigDecimal("200001.8720"), doubleCalculator.movingAverage());
+		//unscaled values are converted to the same doubles as their BigDecimals
+		long[] unscaled = {1, -35, 123456789, Long.MAX_VALUE, 7};
+		doubleCalculator.addAll(unscaled, 2);
+		doubleCalculator.addAll(new long[] {5}, -3);
+		for(int i = 0; i < unscaled.length; ++i) {
+			assertEquals(BigDecimal.valueOf(unscaled[i], 2).doubleValue(), doubleCalculator.getDouble(7 + i));
+		}
+		assertEquals(5000.0, doubleCalculator.getDouble(12));
+	}
+
+	public void test_Largest_Elements_Do_Not_Overflow() {
+		DoubleMovingAverageCalculator doubleCalculator = new DoubleMovingAverageCalculator(4, 2, RoundingMode.HALF_UP,
+				3);
+		double largest = 0x1p990;
+		for(int i = 0; i < 11; ++i) {
+			doubleCalculator.add(i % 3 == 0 ? -largest : largest);
+		}
+		//the window holds largest, largest, -largest, largest
+		assertEquals(largest / 2, doubleCalculator.movingAverageDouble());
+		assertEquals(new BigDecimal(largest / 2).setScale(2), doubleCalculator.movingAverage());
+		assertTrue(Double.isFinite(doubleCalculator.movingAverageErrorBound()));
+	}
+
+	public void test_Rounding_Modes() {
+		double[] values = {-2.25, -1.35, -0.75, -0.05, 0.0, 0.05, 0.75, 1.25, 1.35, 2.25, 7.0, 1e17, -123456.78125};
+		for(RoundingMode roundingMode : RoundingMode.values()) {
+			if(roundingMode == RoundingMode.UNNECESSARY) {
+				continue;
+			}
+			DoubleMovingAverageCalculator doubleCalculator = new DoubleMovingAverageCalculator(1, 1, roundingMode);
+			for(double value : values) {
+				doubleCalculator.add(value);
+				//the average times ten to the power of the scale is rounded, so 1.35 is a tie as written
+				assertEquals(roundingMode + " " + value,
+						new BigDecimal(value * 10).setScale(0, roundingMode).movePointLeft(1),
+						doubleCalculator.movingAverage());
+			}
+		}
+	}
+
+	public void test_Invalid_Arguments() {
+		try {
+			new DoubleMovingAverageCalculator(0);
+			fail("Expected exception when the window is invalid");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new DoubleMovingAverageCalculator(10, 2, RoundingMode.HALF_UP, 0);
+			fail("Expected exception when the reanchor interval is invalid");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		DoubleMovingAverageCalculator doubleCalculator = new DoubleMovingAverageCalculator(10);
+		try {
+			doubleCalculator.add((BigDecimal) null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		for(double element : new double[] {Double.NaN, Double.POSITIVE_INFINITY, -Double.MAX_VALUE, 0x1p991}) {
+			try {
+				doubleCalculator.add(element);
+				fail("Expected exception when the element is not finite : " + element);
+			} catch (IllegalArgumentException e) {
+				//pass
+			}
+		}
+		try {
+			doubleCalculator.add(new BigDecimal("1e400"));
+			fail("Expected exception when the element is beyond a double");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			doubleCalculator.addAll((double[]) null);
+			fail("Expected exception when the batch is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			doubleCalculator.addAll(new double[] {1.0, Double.MAX_VALUE});
+			fail("Expected exception when an element of the batch is too large");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			doubleCalculator.addAll(new long[] {1, 1}, -300);
+			fail("Expected exception when an unscaled element is too large");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		assertEquals(0, doubleCalculator.size());
+		try {
+			doubleCalculator.get(0);
+			fail("Expected exception when the index is out of bounds");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+		assertEquals(1 << 20, doubleCalculator.getReanchorInterval());
+	}
+}
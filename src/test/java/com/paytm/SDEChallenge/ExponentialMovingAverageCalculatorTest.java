@@ -0,0 +1,83 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import com.paytm.sdechallenge.collections.impl.ExponentialMovingAverageCalculator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for ExponentialMovingAverageCalculator.
+ */
+public class ExponentialMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_Span() {
+		ExponentialMovingAverageCalculator maCalculator = new ExponentialMovingAverageCalculator(3);
+		assertEquals(0, new BigDecimal("0.5").compareTo(maCalculator.getSmoothingFactor()));
+		assertEquals(5, maCalculator.getScale());
+		assertEquals(RoundingMode.HALF_DOWN, maCalculator.getRoundingMode());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new ExponentialMovingAverageCalculator(0);
+			fail("Expected exception when span less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new ExponentialMovingAverageCalculator(BigDecimal.ZERO);
+			fail("Expected exception when smoothing factor less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new ExponentialMovingAverageCalculator(new BigDecimal("1.1"));
+			fail("Expected exception when smoothing factor greater than 1");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new ExponentialMovingAverageCalculator(new BigDecimal("0.5"), 2, RoundingMode.UNNECESSARY);
+			fail("Expected exception when rounding mode is RoundingMode.UNNECESSARY");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_MovingAverage() {
+		ExponentialMovingAverageCalculator maCalculator = new ExponentialMovingAverageCalculator(new BigDecimal("0.5"), 2,
+				RoundingMode.HALF_UP);
+		maCalculator.add(new BigDecimal(10));
+		assertEquals(new BigDecimal("10.00"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(20));
+		assertEquals(new BigDecimal("15.00"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(5));
+		assertEquals(new BigDecimal("10.00"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(1));
+		assertEquals(new BigDecimal("5.50"), maCalculator.movingAverage());
+		assertEquals(4, maCalculator.size());
+		assertEquals(new BigDecimal(5), maCalculator.get(2));
+	}
+
+	public void test_Same_Results_As_Recomputing_The_Weights() {
+		ExponentialMovingAverageCalculator maCalculator = new ExponentialMovingAverageCalculator(9, 6, RoundingMode.HALF_EVEN);
+		BigDecimal alpha = new BigDecimal("0.2");
+		for(int i = 0; i < 200; ++i) {
+			maCalculator.add(BigDecimal.valueOf(i * 7919L % 1000 - 500, 2));
+			//ema_n = (1 - alpha)^n * x_0 + sum of alpha * (1 - alpha)^(n - k) * x_k for k from 1 to n
+			BigDecimal expected = BigDecimal.ZERO;
+			for(int k = 0; k <= i; ++k) {
+				BigDecimal weight = BigDecimal.ONE.subtract(alpha).pow(i - k, MathContext.DECIMAL128);
+				if(k > 0) {
+					weight = weight.multiply(alpha);
+				}
+				expected = expected.add(maCalculator.get(k).multiply(weight, MathContext.DECIMAL128));
+			}
+			assertEquals(expected.setScale(6, RoundingMode.HALF_EVEN), maCalculator.movingAverage());
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.DecimalHolder;
+import com.paytm.sdechallenge.collections.impl.FixedPointMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for FixedPointMovingAverageCalculator.
+ */
+public class FixedPointMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_Window_And_InputScale() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(2, 3);
+		assertTrue(maCalculator.getAll().isEmpty());
+		assertEquals(3, maCalculator.getInputScale());
+		assertEquals(5, maCalculator.getScale());
+		assertEquals(RoundingMode.HALF_DOWN, maCalculator.getRoundingMode());
+		assertEquals(2, maCalculator.getWindow());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new FixedPointMovingAverageCalculator(0, 2);
+			fail("Expected exception when window size less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new FixedPointMovingAverageCalculator(2, 19);
+			fail("Expected exception when input scale greater than 18");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new FixedPointMovingAverageCalculator(2, 2, RoundingMode.UNNECESSARY);
+			fail("Expected exception when rounding mode is RoundingMode.UNNECESSARY");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Add() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(2, 2);
+		maCalculator.add(new BigDecimal(10));
+		maCalculator.add(new BigDecimal("10.5"));
+		maCalculator.add(500L);
+		assertEquals(3, maCalculator.size());
+		assertEquals(new BigDecimal("10.50"), maCalculator.get(1));
+		assertEquals(500L, maCalculator.getUnscaled(2));
+		assertEquals(new BigDecimal("7.75000"), maCalculator.movingAverage());
+		assertEquals(775000L, maCalculator.movingAverageUnscaled());
+		DecimalHolder holder = new DecimalHolder();
+		maCalculator.movingAverage(holder);
+		assertEquals(new BigDecimal("7.75000"), holder.toBigDecimal());
+	}
+
+	public void test_Add_Rejects_Element_With_Larger_Scale() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(2, 2);
+		try {
+			maCalculator.add(new BigDecimal("1.005"));
+			fail("Expected exception when element has more decimal places than the input scale");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		assertTrue(maCalculator.isEmpty());
+	}
+
+	public void test_Get_Throws_Exception_When_IndexInvalid() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(2, 0);
+		maCalculator.add(1L);
+		try {
+			maCalculator.get(1);
+			fail("Exception expected when index = count of elements");
+		} catch (IndexOutOfBoundsException ex) {
+			//pass
+		}
+	}
+
+	public void test_Set_Window() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(3, 0);
+		maCalculator.add(10L);
+		maCalculator.add(10L);
+		maCalculator.add(5L);
+		maCalculator.setWindow(2);
+		assertEquals(new BigDecimal("7.50000"), maCalculator.movingAverage());
+		maCalculator.add(1L);
+		assertEquals(new BigDecimal("3.00000"), maCalculator.movingAverage());
+		maCalculator.setWindow(5);
+		assertEquals(new BigDecimal("6.50000"), maCalculator.movingAverage());
+	}
+
+	public void test_Sum_Does_Not_Overflow() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(4, 0, 0);
+		for(int i = 0; i < 4; ++i) {
+			maCalculator.add(Long.MAX_VALUE);
+		}
+		assertEquals(BigDecimal.valueOf(Long.MAX_VALUE), maCalculator.movingAverage());
+		for(int i = 0; i < 4; ++i) {
+			maCalculator.add(Long.MIN_VALUE);
+		}
+		assertEquals(BigDecimal.valueOf(Long.MIN_VALUE), maCalculator.movingAverage());
+	}
+
+	public void test_Same_Results_As_MovingAverageCalculatorImpl() {
+		Random random = new Random(42);
+		for(RoundingMode roundingMode : RoundingMode.values()) {
+			if(roundingMode == RoundingMode.UNNECESSARY) {
+				continue;
+			}
+			for(int scale = 0; scale <= 8; scale += 2) {
+				int inputScale = random.nextInt(7);
+				int window = 1 + random.nextInt(20);
+				FixedPointMovingAverageCalculator fixedPoint =
+						new FixedPointMovingAverageCalculator(window, inputScale, scale, roundingMode);
+				MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(window, scale, roundingMode);
+				for(int i = 0; i < 500; ++i) {
+					BigDecimal element = BigDecimal.valueOf(random.nextLong() % 100000000000L,
+							random.nextInt(inputScale + 1));
+					fixedPoint.add(element);
+					reference.add(element);
+					assertEquals(reference.movingAverage(), fixedPoint.movingAverage());
+				}
+			}
+		}
+	}
+
+	public void test_AddAll_Same_Results_As_Add() {
+		Random random = new Random(7);
+		//the largest batches cross the chunks holding the elements
+		for(int batch : new int[] {1, 3, 10, 50, 700}) {
+			FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(10, 2);
+			FixedPointMovingAverageCalculator reference = new FixedPointMovingAverageCalculator(10, 2);
+			for(int round = 0; round < 20; ++round) {
+				long[] unscaled = new long[batch];
+				for(int i = 0; i < batch; ++i) {
+					unscaled[i] = random.nextInt(100000) - 50000;
+					reference.add(unscaled[i]);
+				}
+				maCalculator.addAll(unscaled);
+				assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+				assertEquals(reference.size(), maCalculator.size());
+			}
+			assertEquals(reference.getAll(), maCalculator.getAll());
+		}
+	}
+
+	public void test_AddAll_Converts_Scale() {
+		FixedPointMovingAverageCalculator maCalculator = new FixedPointMovingAverageCalculator(2, 2);
+		maCalculator.addAll(new long[] {15, 25}, 1);
+		assertEquals(150, maCalculator.getUnscaled(0));
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal("3.5")});
+		assertEquals(new BigDecimal("3.00000"), maCalculator.movingAverage());
+		try {
+			//4.5 and 5.5 fit at the input scale, 0.125 needs rounding
+			maCalculator.addAll(new long[] {4500, 5500, 125}, 3);
+			fail("Expected exception when a value needs rounding at the input scale");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		try {
+			maCalculator.addAll(new long[] {1, Long.MAX_VALUE}, 0);
+			fail("Expected exception when a value overflows at the input scale");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		//no element of the rejected batches was added
+		assertEquals(3, maCalculator.size());
+		assertEquals(new BigDecimal("3.00000"), maCalculator.movingAverage());
+	}
+}
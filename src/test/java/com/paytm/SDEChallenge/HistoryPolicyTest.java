@@ -0,0 +1,225 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.HistoryPolicy;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the HistoryPolicy of MovingAverageCalculatorImpl.
+ */
+public class HistoryPolicyTest extends TestCase {
+
+	public void test_Invalid_Policies() {
+		try {
+			HistoryPolicy.keepLast(0);
+			fail("Expected exception when number of elements retained less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			HistoryPolicy.spillToDisk(null, 10);
+			fail("Expected exception when directory is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MovingAverageCalculatorImpl(2, 5, RoundingMode.HALF_DOWN, null);
+			fail("Expected exception when history policy is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_KeepAll_Across_Chunks() {
+		MovingAverageCalculatorImpl maCalculator =
+				new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP, HistoryPolicy.keepAll());
+		for(int i = 0; i < 5000; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(5000, maCalculator.size());
+		assertEquals(0, maCalculator.getFirstIndex());
+		assertEquals(new BigDecimal(1024), maCalculator.get(1024));
+		assertEquals(new BigDecimal(4999), maCalculator.getAll().get(4999));
+		assertEquals(new BigDecimal("4998.00"), maCalculator.movingAverage());
+	}
+
+	public void test_KeepLast() {
+		MovingAverageCalculatorImpl maCalculator =
+				new MovingAverageCalculatorImpl(2, 2, RoundingMode.HALF_UP, HistoryPolicy.keepLast(3));
+		for(int i = 0; i < 10; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(10, maCalculator.size());
+		assertEquals(7, maCalculator.getFirstIndex());
+		assertEquals(new BigDecimal(7), maCalculator.get(7));
+		assertEquals(new BigDecimal(9), maCalculator.get(9));
+		try {
+			maCalculator.get(6);
+			fail("Exception expected when element is no longer retained");
+		} catch (IndexOutOfBoundsException ex) {
+			//pass
+		}
+		List<BigDecimal> retained = maCalculator.getAll();
+		assertEquals(3, retained.size());
+		assertEquals(new BigDecimal(7), retained.get(0));
+
+		maCalculator.setWindow(3);
+		assertEquals(new BigDecimal("8.00"), maCalculator.movingAverage());
+		try {
+			maCalculator.setWindow(4);
+			fail("Exception expected when window requires elements no longer retained");
+		} catch (IllegalArgumentException ex) {
+			//pass
+		}
+		assertEquals(3, maCalculator.getWindow());
+	}
+
+	public void test_SpillToDisk() throws Exception {
+		Path directory = Files.createTempDirectory("history");
+		Random random = new Random(7);
+		BigDecimal[] added = new BigDecimal[10000];
+		MovingAverageCalculatorImpl maCalculator =
+				new MovingAverageCalculatorImpl(50, 4, RoundingMode.HALF_EVEN, HistoryPolicy.spillToDisk(directory, 1500));
+		MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(50, 4, RoundingMode.HALF_EVEN);
+		try {
+			for(int i = 0; i < added.length; ++i) {
+				added[i] = BigDecimal.valueOf(random.nextLong(), random.nextInt(20) - 5);
+				maCalculator.add(added[i]);
+				reference.add(added[i]);
+			}
+			assertEquals(added.length, maCalculator.size());
+			for(int i = 0; i < added.length; i += 7) {
+				assertEquals(added[i], maCalculator.get(i));
+			}
+			assertEquals(added[0], maCalculator.get(0));
+			assertEquals(added[added.length - 1], maCalculator.get(added.length - 1));
+
+			maCalculator.setWindow(5000);
+			reference.setWindow(5000);
+			assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+			assertEquals(reference.sum(0, added.length), maCalculator.sum(0, added.length));
+			assertTrue(Arrays.equals(reference.movingAverageSeries(9000, added.length),
+					maCalculator.movingAverageSeries(9000, added.length)));
+		} finally {
+			maCalculator.close();
+		}
+		assertEquals(0, directory.toFile().list().length);
+		Files.delete(directory);
+	}
+
+	public void test_Persistent_Reopen() throws Exception {
+		Path directory = Files.createTempDirectory("log");
+		try {
+			MovingAverageCalculatorImpl maCalculator =
+					new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP, HistoryPolicy.persistent(directory, 256));
+			for(int i = 0; i < 100; ++i) {
+				maCalculator.add(new BigDecimal(i).movePointLeft(1));
+			}
+			assertEquals(new BigDecimal("9.80"), maCalculator.movingAverage());
+			maCalculator.close();
+			assertTrue(directory.toFile().list().length > 1);
+
+			MovingAverageCalculatorImpl reopened =
+					new MovingAverageCalculatorImpl(4, 2, RoundingMode.HALF_UP, HistoryPolicy.persistent(directory, 256));
+			assertEquals(100, reopened.size());
+			assertEquals(new BigDecimal("9.75"), reopened.movingAverage());
+			for(int i = 0; i < 100; ++i) {
+				assertEquals(new BigDecimal(i).movePointLeft(1), reopened.get(i));
+			}
+			assertEquals(new BigDecimal("5.0"), reopened.get(50));
+			reopened.add(new BigDecimal("10.0"));
+			assertEquals(new BigDecimal("9.85"), reopened.movingAverage());
+			reopened.close();
+			//the segments released on close are mapped again when read or appended to
+			assertEquals(new BigDecimal("0.1"), reopened.get(1));
+			reopened.add(new BigDecimal("11.0"));
+			assertEquals(102, reopened.size());
+			reopened.close();
+			reopened = new MovingAverageCalculatorImpl(2, 2, RoundingMode.HALF_UP, HistoryPolicy.persistent(directory, 256));
+			assertEquals(new BigDecimal("10.50"), reopened.movingAverage());
+			reopened.close();
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	public void test_Persistent_Discards_Incomplete_Record() throws Exception {
+		Path directory = Files.createTempDirectory("log");
+		try {
+			MovingAverageCalculatorImpl maCalculator =
+					new MovingAverageCalculatorImpl(2, 2, RoundingMode.HALF_UP, HistoryPolicy.persistent(directory));
+			for(int i = 1; i <= 3; ++i) {
+				maCalculator.add(new BigDecimal(i));
+			}
+			maCalculator.close();
+
+			//a record whose payload was written, but not its length, after 16 bytes of header and 3 records of 9 bytes
+			try (FileChannel channel = FileChannel.open(directory.toFile().listFiles()[0].toPath(),
+					StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 7, 1, 2, 3}), 16 + 3 * 9);
+			}
+
+			MovingAverageCalculatorImpl reopened =
+					new MovingAverageCalculatorImpl(2, 2, RoundingMode.HALF_UP, HistoryPolicy.persistent(directory));
+			assertEquals(3, reopened.size());
+			assertEquals(new BigDecimal("2.50"), reopened.movingAverage());
+			reopened.add(new BigDecimal(5));
+			reopened.close();
+
+			reopened = new MovingAverageCalculatorImpl(2, 2, RoundingMode.HALF_UP, HistoryPolicy.persistent(directory));
+			assertEquals(4, reopened.size());
+			assertEquals(new BigDecimal("4.00"), reopened.movingAverage());
+			reopened.close();
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	public void test_Persistent_Rejected_Element_Leaves_Calculator_Unchanged() throws Exception {
+		Path directory = Files.createTempDirectory("log");
+		try {
+			MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 2, RoundingMode.HALF_UP,
+					HistoryPolicy.persistent(directory, 64));
+			maCalculator.add(BigDecimal.ONE);
+			maCalculator.add(new BigDecimal(3));
+			try {
+				//an unscaled value of 51 bytes does not fit into a segment of 64 bytes
+				maCalculator.add(new BigDecimal(BigInteger.ONE.shiftLeft(400)));
+				fail("Expected exception when the element is too large for a segment");
+			} catch (IllegalArgumentException e) {
+				//pass
+			}
+			assertEquals(2, maCalculator.size());
+			assertEquals(new BigDecimal("2.00"), maCalculator.movingAverage());
+			assertEquals(Arrays.asList(BigDecimal.ONE, new BigDecimal(3)), maCalculator.getAll());
+			maCalculator.add(new BigDecimal(5));
+			assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage());
+			maCalculator.close();
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	private static void deleteDirectory(Path directory) throws Exception {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for(Path file : stream) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+}
@@ -3,8 +3,16 @@ package com.paytm.SDEChallenge;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
 
+import com.paytm.sdechallenge.collections.impl.DecimalHolder;
+import com.paytm.sdechallenge.collections.impl.HistoryPolicy;
 import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.WindowStatistic;
 
 import junit.framework.TestCase;
 
@@ -236,7 +244,7 @@ public class MovingAverageCalculatorImplTest extends TestCase {
 		maCalculator.add(new BigDecimal(10));
 		maCalculator.add(new BigDecimal(5));
 		assertEquals(2,  maCalculator.getAll().size());
-		assertTrue(maCalculator.getAll() instanceof ArrayList<?>);
+		assertTrue(maCalculator.getAll() instanceof RandomAccess);
 		assertEquals(new BigDecimal(10),  maCalculator.get(0));
 		assertEquals(new BigDecimal(5),  maCalculator.get(1));
 	}
@@ -266,6 +274,45 @@ public class MovingAverageCalculatorImplTest extends TestCase {
 		assertEquals(new BigDecimal("5.00000"), maCalculator.movingAverage());
 	}
 	
+	public void test_Add_After_Window_Shrinks() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		maCalculator.add(new BigDecimal(10));
+		maCalculator.add(new BigDecimal(20));
+		maCalculator.add(new BigDecimal(30));
+		maCalculator.setWindow(2);
+		maCalculator.add(new BigDecimal(40));
+		assertEquals(new BigDecimal("35.00000"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(50));
+		assertEquals(new BigDecimal("45.00000"), maCalculator.movingAverage());
+	}
+	
+	public void test_Add_After_Window_Grows() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2);
+		maCalculator.add(new BigDecimal(10));
+		maCalculator.add(new BigDecimal(20));
+		maCalculator.add(new BigDecimal(30));
+		maCalculator.add(new BigDecimal(40));
+		maCalculator.setWindow(3);
+		assertEquals(new BigDecimal("30.00000"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(50));
+		assertEquals(new BigDecimal("40.00000"), maCalculator.movingAverage());
+		maCalculator.setWindow(10);
+		assertEquals(new BigDecimal("30.00000"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(60));
+		assertEquals(new BigDecimal("35.00000"), maCalculator.movingAverage());
+	}
+	
+	public void test_Set_Window_Shrinks_To_One() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4);
+		for(int i = 1; i <= 6; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		maCalculator.setWindow(1);
+		assertEquals(new BigDecimal("6.00000"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(7));
+		assertEquals(new BigDecimal("7.00000"), maCalculator.movingAverage());
+	}
+	
 	public void test_Get_RoundingMode() {
 		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, RoundingMode.CEILING);
 		assertEquals(RoundingMode.CEILING, maCalculator.getRoundingMode());
@@ -287,4 +334,388 @@ public class MovingAverageCalculatorImplTest extends TestCase {
 		maCalculator.setScale(3);
 		assertEquals(3, maCalculator.getScale());
 	}
+
+	public void test_AddAll_Smaller_Than_Window() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4);
+		maCalculator.add(new BigDecimal(1));
+		maCalculator.add(new BigDecimal(2));
+		maCalculator.add(new BigDecimal(3));
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal(4), new BigDecimal(5)});
+		assertEquals(5, maCalculator.size());
+		assertEquals(new BigDecimal("3.50000"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(6));
+		assertEquals(new BigDecimal("4.50000"), maCalculator.movingAverage());
+	}
+
+	public void test_AddAll_Larger_Than_Window() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2);
+		maCalculator.add(new BigDecimal(100));
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal(1), new BigDecimal(2), new BigDecimal(3)});
+		assertEquals(4, maCalculator.size());
+		assertEquals(new BigDecimal("2.50000"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(5));
+		assertEquals(new BigDecimal("4.00000"), maCalculator.movingAverage());
+		assertEquals(new BigDecimal(100), maCalculator.get(0));
+	}
+
+	public void test_AddAll_Rejects_Invalid_Batch() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		maCalculator.add(new BigDecimal(1));
+		try {
+			maCalculator.addAll(new BigDecimal[] {new BigDecimal(10), null, new BigDecimal(4)});
+			fail("Expected exception when an element of the batch is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.addAll(new BigDecimal[] {new BigDecimal(10), new BigDecimal(4)}, 3);
+			fail("Expected exception when the length is beyond the batch");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.addAll(new BigDecimal[] {new BigDecimal(10)}, -1);
+			fail("Expected exception when the length is negative");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.addAll((BigDecimal[]) null);
+			fail("Expected exception when the batch is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.add(null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		//the rejected batches left the calculator unchanged
+		assertEquals(1, maCalculator.size());
+		assertEquals(Arrays.asList(new BigDecimal(1)), maCalculator.getAll());
+		assertEquals(new BigDecimal("1.00000"), maCalculator.movingAverage());
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal(2), new BigDecimal(6), null}, 2);
+		assertEquals(new BigDecimal("3.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_AddAll_With_MovingAverages() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 1);
+		BigDecimal[] movingAverages = new BigDecimal[3];
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal(1), new BigDecimal(2), new BigDecimal(4)}, movingAverages);
+		assertEquals(new BigDecimal("1.0"), movingAverages[0]);
+		assertEquals(new BigDecimal("1.5"), movingAverages[1]);
+		assertEquals(new BigDecimal("3.0"), movingAverages[2]);
+		try {
+			maCalculator.addAll(new BigDecimal[] {new BigDecimal(1)}, new BigDecimal[0]);
+			fail("Expected exception when the moving averages array is too short");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_AddAll_Unscaled() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 2);
+		maCalculator.addAll(new long[] {150, 250, 350}, 2);
+		assertEquals(new BigDecimal("1.50"), maCalculator.get(0));
+		assertEquals(new BigDecimal("3.00"), maCalculator.movingAverage());
+	}
+
+	public void test_Statistics_Are_Opt_In() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		maCalculator.add(new BigDecimal(1));
+		try {
+			maCalculator.min();
+			fail("Expected exception when the statistic is not enabled");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+		maCalculator.enableStatistics(WindowStatistic.MAX);
+		assertEquals(new BigDecimal(1), maCalculator.max());
+		try {
+			maCalculator.variance();
+			fail("Expected exception when the statistic is not enabled");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+		maCalculator.disableStatistics();
+		try {
+			maCalculator.max();
+			fail("Expected exception when the statistics are disabled");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+	}
+
+	public void test_Statistics() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4, 2, RoundingMode.HALF_UP);
+		maCalculator.enableStatistics(WindowStatistic.MIN, WindowStatistic.MAX, WindowStatistic.VARIANCE);
+		assertNull(maCalculator.min());
+		assertEquals(new BigDecimal("0.00"), maCalculator.variance());
+		maCalculator.add(new BigDecimal(2));
+		maCalculator.add(new BigDecimal(4));
+		maCalculator.add(new BigDecimal(4));
+		maCalculator.add(new BigDecimal(6));
+		assertEquals(new BigDecimal(2), maCalculator.min());
+		assertEquals(new BigDecimal(6), maCalculator.max());
+		//mean 4, squared deviations 4 + 0 + 0 + 4
+		assertEquals(new BigDecimal("2.00"), maCalculator.variance());
+		assertEquals(new BigDecimal("1.41"), maCalculator.standardDeviation());
+		maCalculator.add(new BigDecimal(4));
+		assertEquals(new BigDecimal(4), maCalculator.min());
+		assertEquals(new BigDecimal("0.75"), maCalculator.variance());
+		assertEquals(new BigDecimal("0.87"), maCalculator.standardDeviation());
+	}
+
+	public void test_Statistics_Same_Results_As_Recomputing_The_Window() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(25, 6, RoundingMode.HALF_EVEN);
+		for(int i = 0; i < 10; ++i) {
+			maCalculator.add(BigDecimal.valueOf(i));
+		}
+		maCalculator.enableStatistics(WindowStatistic.MIN, WindowStatistic.MAX, WindowStatistic.VARIANCE);
+		for(int i = 0; i < 2000; ++i) {
+			BigDecimal element = BigDecimal.valueOf(i * 7919L % 1000 - 500, i % 3);
+			if(i % 100 < 90) {
+				maCalculator.add(element);
+			} else {
+				maCalculator.addAll(new BigDecimal[] {element, element.negate(), element.add(BigDecimal.ONE)});
+			}
+			if(i % 400 == 399) {
+				maCalculator.setWindow(5 + i / 40);
+			}
+			int count = Math.min(maCalculator.getWindow(), maCalculator.size());
+			List<BigDecimal> window = new ArrayList<>(maCalculator.getAll().subList(maCalculator.size() - count,
+					maCalculator.size()));
+			assertEquals(Collections.min(window), maCalculator.min());
+			assertEquals(Collections.max(window), maCalculator.max());
+
+			BigDecimal n = new BigDecimal(count);
+			BigDecimal mean = maCalculator.getAll().subList(maCalculator.size() - count, maCalculator.size()).stream()
+					.reduce(BigDecimal.ZERO, BigDecimal::add).divide(n, 30, RoundingMode.HALF_EVEN);
+			BigDecimal squares = BigDecimal.ZERO;
+			for(BigDecimal value : window) {
+				squares = squares.add(value.subtract(mean).pow(2));
+			}
+			BigDecimal variance = squares.divide(n, 20, RoundingMode.HALF_EVEN);
+			assertEquals(variance.setScale(6, RoundingMode.HALF_EVEN), maCalculator.variance());
+			double deviation = Math.sqrt(variance.doubleValue());
+			assertEquals(deviation, maCalculator.standardDeviation().doubleValue(), 0.0000011);
+		}
+	}
+
+	public void test_Large_Batch_Rebuilds_Statistics() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2);
+		maCalculator.enableStatistics(WindowStatistic.MIN, WindowStatistic.MAX);
+		maCalculator.add(new BigDecimal(-100));
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal(1), new BigDecimal(3), new BigDecimal(2)});
+		assertEquals(new BigDecimal(2), maCalculator.min());
+		assertEquals(new BigDecimal(3), maCalculator.max());
+	}
+
+	public void test_Percentiles() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(100);
+		maCalculator.enableStatistics(WindowStatistic.PERCENTILE);
+		assertNull(maCalculator.median());
+		for(int i = 100; i >= 1; --i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(new BigDecimal(50), maCalculator.median());
+		assertEquals(new BigDecimal(7), maCalculator.percentile(0.07));
+		assertEquals(new BigDecimal(95), maCalculator.percentile(0.95));
+		assertEquals(new BigDecimal(1), maCalculator.percentile(0));
+		assertEquals(new BigDecimal(100), maCalculator.percentile(1));
+		try {
+			maCalculator.percentile(1.5);
+			fail("Expected exception when the quantile is greater than 1");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Percentiles_Same_Results_As_Sorting_The_Window() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(50, 8, RoundingMode.HALF_EVEN);
+		maCalculator.enableStatistics(WindowStatistic.PERCENTILE);
+		maCalculator.enableApproximatePercentiles(0.02);
+		double[] quantiles = {0, 0.01, 0.25, 0.5, 0.95, 0.99, 1};
+		for(int i = 0; i < 3000; ++i) {
+			//duplicates, negative values and zeros
+			maCalculator.add(BigDecimal.valueOf(i * 7919L % 301 - 150, i % 2));
+			if(i == 1500) {
+				maCalculator.setWindow(173);
+			}
+			int count = Math.min(maCalculator.getWindow(), maCalculator.size());
+			List<BigDecimal> window = new ArrayList<>(maCalculator.getAll().subList(maCalculator.size() - count,
+					maCalculator.size()));
+			Collections.sort(window);
+			for(double q : quantiles) {
+				BigDecimal expected = window.get(Math.max(0, (int) Math.ceil(q * count - 1e-9) - 1));
+				assertEquals(expected, maCalculator.percentile(q));
+				double estimate = maCalculator.approximatePercentile(q).doubleValue();
+				assertEquals(expected.doubleValue(), estimate, Math.abs(expected.doubleValue()) * 0.02 + 1e-8);
+			}
+		}
+	}
+
+	public void test_Approximate_Percentile_Beyond_Normal_Doubles() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(4, 320, RoundingMode.HALF_EVEN);
+		maCalculator.enableApproximatePercentiles(0.01);
+		//the double values of the elements are infinite, subnormal and normal
+		maCalculator.add(new BigDecimal("-1e400"));
+		maCalculator.add(new BigDecimal("1e-310"));
+		maCalculator.add(new BigDecimal(5));
+		maCalculator.add(new BigDecimal("1e400"));
+		assertEquals(-Double.MAX_VALUE, maCalculator.approximatePercentile(0).doubleValue());
+		assertEquals(Double.MAX_VALUE, maCalculator.approximatePercentile(1).doubleValue());
+		//the subnormal element is counted with the smallest normal double
+		assertEquals(Double.MIN_NORMAL, maCalculator.approximatePercentile(0.5).doubleValue(),
+				Double.MIN_NORMAL * 0.01);
+		assertEquals(5, maCalculator.approximatePercentile(0.75).doubleValue(), 5 * 0.01);
+		//the elements leaving the window are removed from the same buckets
+		for(int i = 0; i < 3; ++i) {
+			maCalculator.add(new BigDecimal(7));
+		}
+		assertEquals(7, maCalculator.approximatePercentile(0).doubleValue(), 7 * 0.01);
+		assertEquals(Double.MAX_VALUE, maCalculator.approximatePercentile(1).doubleValue());
+	}
+
+	public void test_Moving_Average_Cached_Until_Invalidated() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 1, RoundingMode.HALF_UP);
+		maCalculator.add(new BigDecimal(1));
+		maCalculator.add(new BigDecimal(2));
+		BigDecimal movingAverage = maCalculator.movingAverage();
+		assertEquals(new BigDecimal("1.5"), movingAverage);
+		assertSame(movingAverage, maCalculator.movingAverage());
+
+		maCalculator.setRoundingMode(RoundingMode.DOWN);
+		assertEquals(new BigDecimal("1.5"), maCalculator.movingAverage());
+		maCalculator.setScale(0);
+		assertEquals(new BigDecimal("1"), maCalculator.movingAverage());
+		maCalculator.setRoundingMode(RoundingMode.UP);
+		assertEquals(new BigDecimal("2"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(6));
+		assertEquals(new BigDecimal("4"), maCalculator.movingAverage());
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal(9)});
+		assertEquals(new BigDecimal("8"), maCalculator.movingAverage());
+		maCalculator.setWindow(3);
+		assertEquals(new BigDecimal("6"), maCalculator.movingAverage());
+	}
+
+	public void test_Moving_Average_Unscaled() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 2);
+		assertEquals(0L, maCalculator.movingAverageUnscaled());
+		maCalculator.add(new BigDecimal(10));
+		maCalculator.add(new BigDecimal("5.5"));
+		assertEquals(775L, maCalculator.movingAverageUnscaled());
+		DecimalHolder holder = new DecimalHolder();
+		maCalculator.movingAverage(holder);
+		assertEquals(775L, holder.getUnscaledValue());
+		assertEquals(2, holder.getScale());
+		assertEquals(new BigDecimal("7.75"), holder.toBigDecimal());
+
+		maCalculator.setScale(3);
+		maCalculator.movingAverage(holder);
+		assertEquals(new BigDecimal("7.750"), holder.toBigDecimal());
+		maCalculator.add(new BigDecimal("1.5"));
+		assertEquals(3500L, maCalculator.movingAverageUnscaled());
+	}
+
+	public void test_Moving_Average_Unscaled_Overflow() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(2, 18);
+		maCalculator.add(new BigDecimal(100));
+		try {
+			maCalculator.movingAverageUnscaled();
+			fail("Expected exception when the unscaled moving average does not fit in a long");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		maCalculator.setScale(2);
+		assertEquals(10000L, maCalculator.movingAverageUnscaled());
+	}
+
+	public void test_Range_Sum_And_Average() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP);
+		for(int i = 1; i <= 5; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(new BigDecimal(9), maCalculator.sum(1, 4));
+		assertEquals(BigDecimal.ZERO, maCalculator.sum(2, 2));
+		assertEquals(new BigDecimal("2.50"), maCalculator.average(0, 4));
+		try {
+			maCalculator.average(2, 2);
+			fail("Expected exception when the range is empty");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.sum(0, 6);
+			fail("Expected exception when the range is out of bounds");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+	}
+
+	public void test_Large_Range_Operations_Same_Results_As_Sequential() {
+		Random random = new Random(11);
+		BigDecimal[] added = new BigDecimal[50000];
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(10, 6, RoundingMode.HALF_EVEN);
+		for(int i = 0; i < added.length; ++i) {
+			added[i] = BigDecimal.valueOf(random.nextLong(), random.nextInt(12));
+			maCalculator.add(added[i]);
+		}
+		BigDecimal expected = BigDecimal.ZERO;
+		for(int i = 1234; i < 45678; ++i) {
+			expected = expected.add(added[i]);
+		}
+		assertEquals(expected, maCalculator.sum(1234, 45678));
+		assertEquals(expected.divide(new BigDecimal(45678 - 1234), 6, RoundingMode.HALF_EVEN),
+				maCalculator.average(1234, 45678));
+
+		maCalculator.setWindow(40000);
+		BigDecimal windowSum = BigDecimal.ZERO;
+		for(int i = added.length - 40000; i < added.length; ++i) {
+			windowSum = windowSum.add(added[i]);
+		}
+		assertEquals(windowSum.divide(new BigDecimal(40000), 6, RoundingMode.HALF_EVEN), maCalculator.movingAverage());
+		maCalculator.setWindow(30000);
+		maCalculator.setWindow(9000);
+		windowSum = BigDecimal.ZERO;
+		for(int i = added.length - 9000; i < added.length; ++i) {
+			windowSum = windowSum.add(added[i]);
+		}
+		assertEquals(windowSum.divide(new BigDecimal(9000), 6, RoundingMode.HALF_EVEN), maCalculator.movingAverage());
+	}
+
+	public void test_Moving_Average_Series() {
+		Random random = new Random(13);
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(1000, 4, RoundingMode.HALF_UP);
+		MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(1000, 4, RoundingMode.HALF_UP);
+		List<BigDecimal> expected = new ArrayList<>();
+		for(int i = 0; i < 30000; ++i) {
+			BigDecimal element = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, 2);
+			maCalculator.add(element);
+			reference.add(element);
+			expected.add(reference.movingAverage());
+		}
+		BigDecimal[] series = maCalculator.movingAverageSeries(0, 30000);
+		assertEquals(expected, Arrays.asList(series));
+		series = maCalculator.movingAverageSeries(20500, 29000);
+		assertEquals(expected.subList(20500, 29000), Arrays.asList(series));
+		assertEquals(0, maCalculator.movingAverageSeries(5, 5).length);
+	}
+
+	public void test_Moving_Average_Series_Not_Retained() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP,
+				HistoryPolicy.keepLast(5));
+		for(int i = 0; i < 10; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(Collections.singletonList(new BigDecimal("8.00")),
+				Arrays.asList(maCalculator.movingAverageSeries(9, 10)));
+		try {
+			maCalculator.movingAverageSeries(5, 10);
+			fail("Expected exception when the windows of the range are no longer retained");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
 }
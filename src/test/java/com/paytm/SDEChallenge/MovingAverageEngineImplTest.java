@@ -0,0 +1,115 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.MovingAverageEngineImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for MovingAverageEngineImpl.
+ */
+public class MovingAverageEngineImplTest extends TestCase {
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new MovingAverageEngineImpl(0, 2);
+			fail("Expected exception when window size less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MovingAverageEngineImpl(2, -1);
+			fail("Expected exception when input scale less than 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MovingAverageEngineImpl(2, 2, 2, RoundingMode.UNNECESSARY);
+			fail("Expected exception when rounding mode is RoundingMode.UNNECESSARY");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Add_Creates_Series_With_Defaults() {
+		MovingAverageEngineImpl engine = new MovingAverageEngineImpl(2, 2);
+		assertFalse(engine.contains(42L));
+		engine.add(42L, new BigDecimal("10.5"));
+		engine.add(42L, 950L);
+		engine.add(42L, new BigDecimal(5));
+		assertTrue(engine.contains(42L));
+		assertEquals(1, engine.seriesCount());
+		assertEquals(2, engine.getWindow(42L));
+		assertEquals(new BigDecimal("7.25000"), engine.movingAverage(42L));
+		assertEquals(725000L, engine.movingAverageUnscaled(42L));
+	}
+
+	public void test_Rejected_Element_Does_Not_Create_Series() {
+		MovingAverageEngineImpl engine = new MovingAverageEngineImpl(2, 2);
+		try {
+			engine.add(42L, new BigDecimal("1.125"));
+			fail("Expected exception when the element has more decimal places than the input scale");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		assertFalse(engine.contains(42L));
+		assertEquals(0, engine.seriesCount());
+		engine.add(42L, new BigDecimal("1.25"));
+		assertEquals(1, engine.seriesCount());
+		assertEquals(new BigDecimal("1.25000"), engine.movingAverage(42L));
+	}
+
+	public void test_Register() {
+		MovingAverageEngineImpl engine = new MovingAverageEngineImpl(2, 2);
+		engine.register(-1L, 3, 0, 1);
+		assertEquals(new BigDecimal("0.0"), engine.movingAverage(-1L));
+		engine.add(-1L, 1L);
+		engine.add(-1L, 2L);
+		assertEquals(new BigDecimal("1.5"), engine.movingAverage(-1L));
+		try {
+			engine.register(-1L, 3, 0, 1);
+			fail("Expected exception when series already registered");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_MovingAverage_Of_Unknown_Series() {
+		MovingAverageEngineImpl engine = new MovingAverageEngineImpl(2, 2);
+		try {
+			engine.movingAverage(7L);
+			fail("Expected exception when series not found");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Same_Results_As_MovingAverageCalculatorImpl_For_Many_Series() {
+		MovingAverageEngineImpl engine = new MovingAverageEngineImpl(5, 3, 4, RoundingMode.HALF_EVEN);
+		Map<Long, MovingAverageCalculatorImpl> references = new HashMap<>();
+		Random random = new Random(3);
+		for(int i = 0; i < 200000; ++i) {
+			long key = random.nextInt(5000) * 0x100000000L;
+			MovingAverageCalculatorImpl reference = references.get(key);
+			if(reference == null) {
+				int window = 1 + random.nextInt(30);
+				engine.register(key, window, 3, 4);
+				reference = new MovingAverageCalculatorImpl(window, 4, RoundingMode.HALF_EVEN);
+				references.put(key, reference);
+			}
+			BigDecimal element = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, 3);
+			engine.add(key, element);
+			reference.add(element);
+		}
+		assertEquals(references.size(), engine.seriesCount());
+		for(Map.Entry<Long, MovingAverageCalculatorImpl> entry : references.entrySet()) {
+			assertEquals(entry.getValue().movingAverage(), engine.movingAverage(entry.getKey()));
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.paytm.sdechallenge.collections.impl.FixedPointMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.MovingAverageProcessor;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for MovingAverageProcessor.
+ */
+public class MovingAverageProcessorTest extends TestCase {
+
+	public void test_Constructor_With_Null_Calculator() {
+		try {
+			new MovingAverageProcessor(null);
+			fail("Expected exception when the calculator is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Emits_Moving_Averages_On_Demand() {
+		RangePublisher publisher = new RangePublisher(1, 5);
+		MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(2, 1));
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(processor);
+		processor.subscribe(subscriber);
+		assertEquals(0, publisher.requested);
+
+		subscriber.subscription.request(2);
+		assertEquals(2, publisher.requested);
+		assertEquals(Arrays.asList(new BigDecimal("1.0"), new BigDecimal("1.5")), subscriber.received);
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(10);
+		assertEquals(Arrays.asList(new BigDecimal("1.0"), new BigDecimal("1.5"), new BigDecimal("2.5"),
+				new BigDecimal("3.5"), new BigDecimal("4.5")), subscriber.received);
+		assertTrue(subscriber.completed);
+	}
+
+	public void test_Demand_Before_Subscription_To_Publisher() {
+		MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		processor.subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		subscriber.subscription.request(5);
+		RangePublisher publisher = new RangePublisher(1, 4);
+		publisher.subscribe(processor);
+		assertEquals(Long.MAX_VALUE, publisher.requested);
+		assertEquals(4, subscriber.received.size());
+		assertTrue(subscriber.completed);
+	}
+
+	public void test_Cancel_Cancels_Publisher() {
+		RangePublisher publisher = new RangePublisher(1, 100);
+		MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(processor);
+		processor.subscribe(subscriber);
+		subscriber.subscription.request(3);
+		subscriber.subscription.cancel();
+		assertTrue(publisher.cancelled);
+		subscriber.subscription.request(3);
+		assertEquals(3, subscriber.received.size());
+		assertFalse(subscriber.completed);
+	}
+
+	public void test_Invalid_Request() {
+		RangePublisher publisher = new RangePublisher(1, 100);
+		MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(processor);
+		processor.subscribe(subscriber);
+		subscriber.subscription.request(0);
+		assertTrue(publisher.cancelled);
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+	}
+
+	public void test_Invalid_Request_Racing_Publisher_Does_Not_Overlap_OnNext() throws Exception {
+		final MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		final RangePublisher upstream = new RangePublisher(1, 0);
+		processor.onSubscribe(upstream.new RangeSubscription(processor));
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicBoolean overlapped = new AtomicBoolean();
+		final List<Throwable> errors = new CopyOnWriteArrayList<>();
+		final Subscription[] subscription = new Subscription[1];
+		processor.subscribe(new Subscriber<BigDecimal>() {
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription[0] = s;
+			}
+
+			@Override
+			public void onNext(BigDecimal element) {
+				enter();
+				entered.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				inFlight.decrementAndGet();
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				enter();
+				errors.add(throwable);
+				inFlight.decrementAndGet();
+			}
+
+			@Override
+			public void onComplete() {
+			}
+
+			private void enter() {
+				if(inFlight.incrementAndGet() > 1) {
+					overlapped.set(true);
+				}
+			}
+		});
+		subscription[0].request(5);
+		//the publisher emits on its own thread, and is inside onNext when the invalid request is made
+		Thread publisherThread = new Thread(() -> {
+			processor.onNext(BigDecimal.ONE);
+			processor.onNext(BigDecimal.TEN);
+		});
+		publisherThread.start();
+		assertTrue(entered.await(10, TimeUnit.SECONDS));
+		subscription[0].request(0);
+		assertTrue(upstream.cancelled);
+		assertTrue(errors.isEmpty());
+		release.countDown();
+		publisherThread.join(10000);
+		assertFalse(overlapped.get());
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0) instanceof IllegalArgumentException);
+		assertEquals(1, processor.getCalculator().size());
+	}
+
+	public void test_Calculator_Error_Cancels_Publisher() {
+		RangePublisher publisher = new RangePublisher(1, 100);
+		publisher.scale = 3;
+		MovingAverageProcessor processor = new MovingAverageProcessor(new FixedPointMovingAverageCalculator(3, 2));
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(processor);
+		processor.subscribe(subscriber);
+		subscriber.subscription.request(10);
+		assertTrue(publisher.cancelled);
+		assertTrue(subscriber.error instanceof ArithmeticException);
+		assertTrue(subscriber.received.isEmpty());
+	}
+
+	public void test_Terminal_Signal_Before_Subscriber() {
+		MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		new RangePublisher(1, 0).subscribe(processor);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		processor.subscribe(subscriber);
+		assertTrue(subscriber.completed);
+
+		processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		IllegalStateException error = new IllegalStateException();
+		processor.onError(error);
+		subscriber = new RecordingSubscriber();
+		processor.subscribe(subscriber);
+		assertSame(error, subscriber.error);
+	}
+
+	public void test_Single_Subscriber() {
+		MovingAverageProcessor processor = new MovingAverageProcessor(new MovingAverageCalculatorImpl(3));
+		processor.subscribe(new RecordingSubscriber());
+		RecordingSubscriber second = new RecordingSubscriber();
+		processor.subscribe(second);
+		assertTrue(second.error instanceof IllegalStateException);
+	}
+
+	/**
+	 * A synchronous publisher of the integers from first, emitting only what is requested.
+	 */
+	private static final class RangePublisher implements Publisher<BigDecimal> {
+
+		private final int first;
+
+		private final int count;
+
+		private int scale;
+
+		private long requested;
+
+		private boolean cancelled;
+
+		private RangePublisher(int first, int count) {
+			this.first = first;
+			this.count = count;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super BigDecimal> subscriber) {
+			subscriber.onSubscribe(new RangeSubscription(subscriber));
+			if(count == 0) {
+				subscriber.onComplete();
+			}
+		}
+
+		private final class RangeSubscription implements Subscription {
+
+			private final Subscriber<? super BigDecimal> subscriber;
+
+			private int emitted;
+
+			private RangeSubscription(Subscriber<? super BigDecimal> subscriber) {
+				this.subscriber = subscriber;
+			}
+
+			@Override
+			public void request(long n) {
+				requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+				while(!cancelled && emitted < count && emitted < requested) {
+					BigDecimal element = BigDecimal.valueOf(first + emitted, 0).setScale(scale);
+					if(scale > 0) {
+						element = element.add(BigDecimal.valueOf(1, scale));
+					}
+					++emitted;
+					subscriber.onNext(element);
+					if(emitted == count) {
+						subscriber.onComplete();
+					}
+				}
+			}
+
+			@Override
+			public void cancel() {
+				cancelled = true;
+			}
+		}
+	}
+
+	/**
+	 * A subscriber recording the signals it receives.
+	 */
+	private static final class RecordingSubscriber implements Subscriber<BigDecimal> {
+
+		private final List<BigDecimal> received = new ArrayList<>();
+
+		private Subscription subscription;
+
+		private boolean completed;
+
+		private Throwable error;
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(BigDecimal element) {
+			received.add(element);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+}
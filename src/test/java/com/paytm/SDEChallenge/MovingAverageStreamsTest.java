@@ -0,0 +1,134 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.paytm.sdechallenge.collections.MovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.HistoryPolicy;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.MovingAverageStreams;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for MovingAverageStreams.
+ */
+public class MovingAverageStreamsTest extends TestCase {
+
+	private static final Supplier<MovingAverageCalculator> WINDOW_OF_3 = new Supplier<MovingAverageCalculator>() {
+		@Override
+		public MovingAverageCalculator get() {
+			return new MovingAverageCalculatorImpl(3, 2, RoundingMode.HALF_UP);
+		}
+	};
+
+	public void test_Invalid_Arguments() {
+		try {
+			MovingAverageStreams.movingAverage(null);
+			fail("Expected exception when the calculator supplier is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			MovingAverageStreams.movingAverages(Stream.<BigDecimal>empty(), null);
+			fail("Expected exception when the calculator is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Collect_Moving_Average() {
+		BigDecimal movingAverage = Stream.of(1, 2, 3, 4, 6).map(BigDecimal::valueOf)
+				.collect(MovingAverageStreams.movingAverage(WINDOW_OF_3));
+		assertEquals(new BigDecimal("4.33"), movingAverage);
+		assertEquals(new BigDecimal("0.00"),
+				Stream.<BigDecimal>empty().collect(MovingAverageStreams.movingAverage(WINDOW_OF_3)));
+	}
+
+	public void test_Collect_Moving_Average_Series() {
+		List<BigDecimal> series = Stream.of(1, 2, 3, 4, 6).map(BigDecimal::valueOf)
+				.collect(MovingAverageStreams.movingAverageSeries(WINDOW_OF_3));
+		assertEquals(Arrays.asList(new BigDecimal("1.00"), new BigDecimal("1.50"), new BigDecimal("2.00"),
+				new BigDecimal("3.00"), new BigDecimal("4.33")), series);
+	}
+
+	public void test_Collect_Parallel_Stream_Same_Results_As_Sequential() {
+		List<BigDecimal> elements = IntStream.range(0, 20000).mapToObj(i -> BigDecimal.valueOf(i * 7919L % 1013, 1))
+				.collect(Collectors.toList());
+		assertEquals(elements.stream().collect(MovingAverageStreams.movingAverageSeries(WINDOW_OF_3)),
+				elements.parallelStream().collect(MovingAverageStreams.movingAverageSeries(WINDOW_OF_3)));
+		assertEquals(elements.stream().collect(MovingAverageStreams.movingAverage(WINDOW_OF_3)),
+				elements.parallelStream().collect(MovingAverageStreams.movingAverage(WINDOW_OF_3)));
+	}
+
+	public void test_Collect_Parallel_Stream_Keeping_Last_Elements() {
+		//the parts only retain the last elements of the window, so they are combined from their first and last ones
+		Supplier<MovingAverageCalculator> keepLast = () -> new MovingAverageCalculatorImpl(250, 3, RoundingMode.HALF_EVEN,
+				HistoryPolicy.keepLast(250));
+		for(int size : new int[] {1, 249, 250, 251, 1000, 100000}) {
+			List<BigDecimal> elements = IntStream.range(0, size)
+					.mapToObj(i -> BigDecimal.valueOf(i * 7919L % 1013 - 500, 2)).collect(Collectors.toList());
+			assertEquals(elements.stream().collect(MovingAverageStreams.movingAverageSeries(keepLast)),
+					elements.parallelStream().collect(MovingAverageStreams.movingAverageSeries(keepLast)));
+			assertEquals(elements.stream().collect(MovingAverageStreams.movingAverage(keepLast)),
+					elements.parallelStream().collect(MovingAverageStreams.movingAverage(keepLast)));
+		}
+	}
+
+	public void test_Collect_Parallel_Stream_With_Empty_Parts() {
+		//the filter leaves the later parts of the parallel stream empty
+		List<BigDecimal> elements = IntStream.rangeClosed(1, 4000).mapToObj(BigDecimal::valueOf)
+				.collect(Collectors.toList());
+		Supplier<MovingAverageCalculator> window = () -> new MovingAverageCalculatorImpl(3);
+		assertEquals(new BigDecimal("999.00000"), elements.stream().filter(e -> e.intValue() <= 1000)
+				.collect(MovingAverageStreams.movingAverage(window)));
+		assertEquals(new BigDecimal("999.00000"), elements.parallelStream().filter(e -> e.intValue() <= 1000)
+				.collect(MovingAverageStreams.movingAverage(window)));
+		assertEquals(elements.stream().filter(e -> e.intValue() <= 1000)
+				.collect(MovingAverageStreams.movingAverageSeries(window)),
+				elements.parallelStream().filter(e -> e.intValue() <= 1000)
+				.collect(MovingAverageStreams.movingAverageSeries(window)));
+	}
+
+	public void test_Moving_Averages_Stream_Is_Lazy() {
+		AtomicInteger pulled = new AtomicInteger();
+		MovingAverageCalculator calculator = WINDOW_OF_3.get();
+		Stream<BigDecimal> elements = Stream.iterate(BigDecimal.ONE, e -> e.add(BigDecimal.ONE))
+				.peek(e -> pulled.incrementAndGet());
+		Iterator<BigDecimal> movingAverages = MovingAverageStreams.movingAverages(elements, calculator).iterator();
+		assertEquals(0, pulled.get());
+		assertEquals(new BigDecimal("1.00"), movingAverages.next());
+		assertEquals(new BigDecimal("1.50"), movingAverages.next());
+		assertEquals(2, calculator.size());
+		assertEquals(new BigDecimal("2.00"), movingAverages.next());
+		assertEquals(new BigDecimal("3.00"), movingAverages.next());
+		assertEquals(4, pulled.get());
+	}
+
+	public void test_Moving_Averages_Stream_Keeps_Encounter_Order() {
+		List<BigDecimal> elements = new ArrayList<>();
+		for(int i = 0; i < 5000; ++i) {
+			elements.add(BigDecimal.valueOf(i % 17));
+		}
+		List<BigDecimal> expected = elements.stream().collect(MovingAverageStreams.movingAverageSeries(WINDOW_OF_3));
+		List<BigDecimal> actual = MovingAverageStreams.movingAverages(elements.parallelStream(), WINDOW_OF_3.get())
+				.collect(Collectors.toList());
+		assertEquals(expected, actual);
+	}
+
+	public void test_Closing_Moving_Averages_Stream_Closes_Elements() {
+		AtomicInteger closed = new AtomicInteger();
+		Stream<BigDecimal> elements = Stream.of(BigDecimal.ONE).onClose(closed::incrementAndGet);
+		MovingAverageStreams.movingAverages(elements, WINDOW_OF_3.get()).close();
+		assertEquals(1, closed.get());
+	}
+}
@@ -0,0 +1,146 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.MultiWindowMovingAverageCalculator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for MultiWindowMovingAverageCalculator.
+ */
+public class MultiWindowMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_Windows() {
+		MultiWindowMovingAverageCalculator maCalculator = new MultiWindowMovingAverageCalculator(new int[] {20, 5});
+		assertTrue(maCalculator.getAll().isEmpty());
+		assertEquals(20, maCalculator.getWindow());
+		assertTrue(Arrays.equals(new int[] {5, 20}, maCalculator.getWindows()));
+		assertEquals(5, maCalculator.getScale());
+		assertEquals(RoundingMode.HALF_DOWN, maCalculator.getRoundingMode());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage(5));
+	}
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new MultiWindowMovingAverageCalculator(new int[0]);
+			fail("Expected exception when no window is given");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MultiWindowMovingAverageCalculator(new int[] {5, 0});
+			fail("Expected exception when window size less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MultiWindowMovingAverageCalculator(new int[] {5, 5});
+			fail("Expected exception when a window is given twice");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MultiWindowMovingAverageCalculator(new int[] {5}, -1, RoundingMode.HALF_UP);
+			fail("Expected exception when scale less than 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_MovingAverage() {
+		MultiWindowMovingAverageCalculator maCalculator = new MultiWindowMovingAverageCalculator(new int[] {2, 3}, 2,
+				RoundingMode.HALF_UP);
+		maCalculator.add(new BigDecimal(1));
+		maCalculator.add(new BigDecimal(2));
+		maCalculator.add(new BigDecimal(6));
+		assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage());
+		assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage(2));
+		assertEquals(new BigDecimal("3.00"), maCalculator.movingAverage(3));
+		assertEquals(3, maCalculator.size());
+		assertEquals(new BigDecimal(2), maCalculator.get(1));
+		try {
+			maCalculator.add(null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		//no window sum was updated
+		assertEquals(3, maCalculator.size());
+		assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage(2));
+		assertEquals(new BigDecimal("3.00"), maCalculator.movingAverage(3));
+		maCalculator.add(new BigDecimal(4));
+		assertEquals(new BigDecimal("5.00"), maCalculator.movingAverage(2));
+		assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage(3));
+	}
+
+	public void test_MovingAverage_Of_Unregistered_Window() {
+		MultiWindowMovingAverageCalculator maCalculator = new MultiWindowMovingAverageCalculator(new int[] {2});
+		try {
+			maCalculator.movingAverage(3);
+			fail("Expected exception when the window is not registered");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Add_And_Remove_Windows() {
+		MultiWindowMovingAverageCalculator maCalculator = new MultiWindowMovingAverageCalculator(new int[] {5});
+		for(int i = 1; i <= 10; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		maCalculator.addWindow(2);
+		maCalculator.addWindow(8);
+		maCalculator.addWindow(50);
+		assertEquals(new BigDecimal("9.50000"), maCalculator.movingAverage(2));
+		assertEquals(new BigDecimal("6.50000"), maCalculator.movingAverage(8));
+		assertEquals(new BigDecimal("5.50000"), maCalculator.movingAverage(50));
+		maCalculator.removeWindow(8);
+		assertTrue(Arrays.equals(new int[] {2, 5, 50}, maCalculator.getWindows()));
+		maCalculator.add(new BigDecimal(11));
+		assertEquals(new BigDecimal("10.50000"), maCalculator.movingAverage(2));
+		assertEquals(new BigDecimal("9.00000"), maCalculator.movingAverage());
+		try {
+			maCalculator.removeWindow(5);
+			fail("Expected exception when the primary window is removed");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.removeWindow(8);
+			fail("Expected exception when the window is not registered");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Same_Results_As_MovingAverageCalculatorImpl() {
+		int[] windows = {5, 20, 50, 200};
+		MultiWindowMovingAverageCalculator maCalculator = new MultiWindowMovingAverageCalculator(windows, 3,
+				RoundingMode.HALF_EVEN);
+		MovingAverageCalculatorImpl[] references = new MovingAverageCalculatorImpl[windows.length];
+		for(int w = 0; w < windows.length; ++w) {
+			references[w] = new MovingAverageCalculatorImpl(windows[w], 3, RoundingMode.HALF_EVEN);
+		}
+		for(int i = 0; i < 1000; ++i) {
+			BigDecimal element = BigDecimal.valueOf(i * 7919L % 1000 - 500, 2);
+			maCalculator.add(element);
+			for(int w = 0; w < windows.length; ++w) {
+				references[w].add(element);
+				assertEquals(references[w].movingAverage(), maCalculator.movingAverage(windows[w]));
+			}
+			if(i == 500) {
+				maCalculator.addWindow(37);
+			}
+			if(i > 500) {
+				MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(37, 3, RoundingMode.HALF_EVEN);
+				reference.addAll(maCalculator.getAll().subList(i - 36, i + 1));
+				assertEquals(reference.movingAverage(), maCalculator.movingAverage(37));
+			}
+		}
+	}
+}
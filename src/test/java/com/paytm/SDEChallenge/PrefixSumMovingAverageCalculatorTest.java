@@ -0,0 +1,112 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.PrefixSumMovingAverageCalculator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for PrefixSumMovingAverageCalculator.
+ */
+public class PrefixSumMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_WindowSize() {
+		PrefixSumMovingAverageCalculator maCalculator = new PrefixSumMovingAverageCalculator(2);
+		assertTrue(maCalculator.getAll().isEmpty());
+		assertEquals(2, maCalculator.getWindow());
+		assertEquals(5, maCalculator.getScale());
+		assertEquals(RoundingMode.HALF_DOWN, maCalculator.getRoundingMode());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new PrefixSumMovingAverageCalculator(0);
+			fail("Expected exception when window size less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new PrefixSumMovingAverageCalculator(2, -1, RoundingMode.HALF_UP);
+			fail("Expected exception when scale less than 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Average_Of_Range() {
+		PrefixSumMovingAverageCalculator maCalculator = new PrefixSumMovingAverageCalculator(2, 2, RoundingMode.HALF_UP);
+		maCalculator.add(new BigDecimal("1.5"));
+		maCalculator.add(new BigDecimal("2"));
+		maCalculator.add(new BigDecimal("4.25"));
+		maCalculator.add(new BigDecimal("-1"));
+		assertEquals(new BigDecimal("2.58"), maCalculator.average(0, 3));
+		assertEquals(new BigDecimal("1.75"), maCalculator.average(1, 4));
+		assertEquals(new BigDecimal("4.25"), maCalculator.sum(2, 3));
+		assertEquals(BigDecimal.ZERO, maCalculator.sum(2, 2));
+		try {
+			maCalculator.average(2, 2);
+			fail("Expected exception when the range is empty");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.average(0, 5);
+			fail("Expected exception when the range is out of bounds");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+		try {
+			maCalculator.add(null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		assertEquals(4, maCalculator.size());
+		maCalculator.add(new BigDecimal("3"));
+		assertEquals(new BigDecimal("2.06"), maCalculator.average(1, 5));
+	}
+
+	public void test_MovingAverageAt() {
+		PrefixSumMovingAverageCalculator maCalculator = new PrefixSumMovingAverageCalculator(3);
+		for(int i = 1; i <= 6; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(new BigDecimal("1.50000"), maCalculator.movingAverageAt(1, 3));
+		assertEquals(new BigDecimal("3.50000"), maCalculator.movingAverageAt(3, 2));
+		try {
+			maCalculator.movingAverageAt(6, 3);
+			fail("Expected exception when the index is out of bounds");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+	}
+
+	public void test_Same_Results_As_MovingAverageCalculatorImpl() {
+		PrefixSumMovingAverageCalculator maCalculator = new PrefixSumMovingAverageCalculator(7, 3, RoundingMode.HALF_EVEN);
+		MovingAverageCalculatorImpl reference = new MovingAverageCalculatorImpl(7, 3, RoundingMode.HALF_EVEN);
+		BigDecimal[] history = new BigDecimal[3000];
+		for(int i = 0; i < history.length; ++i) {
+			history[i] = BigDecimal.valueOf(i * 7919L % 1000 - 500, i % 4);
+			maCalculator.add(history[i]);
+			reference.add(history[i]);
+			assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+			if(i % 500 == 499) {
+				maCalculator.setWindow(i / 50);
+				reference.setWindow(i / 50);
+				assertEquals(reference.movingAverage(), maCalculator.movingAverage());
+			}
+		}
+		for(int index = 0; index < history.length; index += 97) {
+			MovingAverageCalculatorImpl past = new MovingAverageCalculatorImpl(40, 3, RoundingMode.HALF_EVEN);
+			for(int i = 0; i <= index; ++i) {
+				past.add(history[i]);
+			}
+			assertEquals(past.movingAverage(), maCalculator.movingAverageAt(index, 40));
+		}
+		assertEquals(reference.getAll(), maCalculator.getAll());
+	}
+}
@@ -0,0 +1,208 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.paytm.sdechallenge.collections.impl.FullBufferPolicy;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.RingBufferIngestor;
+import com.paytm.sdechallenge.collections.impl.WaitStrategy;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for RingBufferIngestor.
+ */
+public class RingBufferIngestorTest extends TestCase {
+
+	public void test_Invalid_Arguments() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(3);
+		try {
+			new RingBufferIngestor(null, 8);
+			fail("Expected exception when the calculator is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new RingBufferIngestor(calculator, 12);
+			fail("Expected exception when the capacity is not a power of two");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new RingBufferIngestor(calculator, 8, null, FullBufferPolicy.BLOCK);
+			fail("Expected exception when the wait strategy is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new RingBufferIngestor(calculator, 8, WaitStrategy.PARK, null);
+			fail("Expected exception when the full buffer policy is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Publish_And_Flush() {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(2, 1);
+		RingBufferIngestor ingestor = new RingBufferIngestor(calculator, 4);
+		assertEquals(new BigDecimal("0.0"), ingestor.movingAverage());
+		for(int i = 1; i <= 10; ++i) {
+			assertTrue(ingestor.publish(new BigDecimal(i)));
+		}
+		ingestor.flush();
+		assertEquals(10, ingestor.getVisibleCount());
+		assertEquals(new BigDecimal("9.5"), ingestor.movingAverage());
+		assertTrue(ingestor.publishToVisibleNanos(0.5) <= ingestor.publishToVisibleNanos(0.99));
+		assertTrue(ingestor.publishToVisibleNanos(0.99) > 0);
+		ingestor.close();
+		try {
+			ingestor.publish(BigDecimal.ONE);
+			fail("Expected exception when publishing to a closed ingestor");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+	}
+
+	public void test_Multiple_Producers() throws Exception {
+		final int producers = 4;
+		final int perProducer = 5000;
+		for(WaitStrategy waitStrategy : WaitStrategy.values()) {
+			final RingBufferIngestor ingestor = new RingBufferIngestor(new MovingAverageCalculatorImpl(
+					producers * perProducer, 2), 64, waitStrategy, FullBufferPolicy.BLOCK);
+			Thread[] threads = new Thread[producers];
+			for(int p = 0; p < producers; ++p) {
+				final int value = p + 1;
+				threads[p] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for(int i = 0; i < perProducer; ++i) {
+							ingestor.publish(new BigDecimal(value));
+						}
+					}
+				});
+				threads[p].start();
+			}
+			for(Thread thread : threads) {
+				thread.join();
+			}
+			ingestor.close();
+			assertEquals(producers * perProducer, ingestor.getVisibleCount());
+			assertEquals(new BigDecimal("2.50"), ingestor.movingAverage());
+			assertEquals(0, ingestor.getDroppedCount());
+		}
+	}
+
+	public void test_Drop_When_Full() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		RingBufferIngestor ingestor = new RingBufferIngestor(new BlockingCalculator(release), 4, WaitStrategy.YIELD,
+				FullBufferPolicy.DROP);
+		for(int i = 0; i < 4; ++i) {
+			assertTrue(ingestor.publish(new BigDecimal(i)));
+		}
+		assertFalse(ingestor.publish(BigDecimal.TEN));
+		assertEquals(1, ingestor.getDroppedCount());
+		release.countDown();
+		ingestor.flush();
+		assertEquals(4, ingestor.getVisibleCount());
+		assertEquals(new BigDecimal("1.50000"), ingestor.movingAverage());
+		ingestor.close();
+	}
+
+	public void test_Block_When_Full() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		final RingBufferIngestor ingestor = new RingBufferIngestor(new BlockingCalculator(release), 4,
+				WaitStrategy.PARK, FullBufferPolicy.BLOCK);
+		for(int i = 0; i < 4; ++i) {
+			assertTrue(ingestor.publish(new BigDecimal(i)));
+		}
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				ingestor.publish(new BigDecimal(4));
+			}
+		});
+		producer.start();
+		producer.join(100);
+		assertTrue(producer.isAlive());
+		release.countDown();
+		producer.join();
+		ingestor.close();
+		assertEquals(5, ingestor.getVisibleCount());
+		assertEquals(0, ingestor.getDroppedCount());
+		assertEquals(new BigDecimal("2.00000"), ingestor.movingAverage());
+	}
+
+	public void test_Consumer_Failure_Is_Rethrown() throws Exception {
+		MovingAverageCalculatorImpl calculator = new MovingAverageCalculatorImpl(3, 2);
+		//the rollups only accept whole numbers, so the consumer fails on the first element with decimal places
+		calculator.enableRollups(0, 4);
+		final RingBufferIngestor ingestor = new RingBufferIngestor(calculator, 4, WaitStrategy.PARK,
+				FullBufferPolicy.BLOCK);
+		ingestor.publish(BigDecimal.ONE);
+		ingestor.flush();
+		assertEquals(new BigDecimal("1.00"), ingestor.movingAverage());
+		ingestor.publish(new BigDecimal("1.5"));
+		try {
+			ingestor.flush();
+			fail("Expected exception when the consumer failed");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof ArithmeticException);
+		}
+		try {
+			ingestor.movingAverage();
+			fail("Expected exception when the snapshot is no longer updated");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+		//a producer waiting for room fails instead of waiting for the stopped consumer
+		final AtomicReference<Throwable> thrown = new AtomicReference<>();
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for(int i = 0; i < 8; ++i) {
+						ingestor.publish(BigDecimal.ONE);
+					}
+				} catch (IllegalStateException e) {
+					thrown.set(e);
+				}
+			}
+		});
+		producer.start();
+		producer.join(10000);
+		assertFalse(producer.isAlive());
+		assertTrue(thrown.get().getCause() instanceof ArithmeticException);
+		try {
+			ingestor.close();
+			fail("Expected exception when closing after the consumer failed");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+	}
+
+	/**
+	 * A calculator whose first batch waits for a latch, holding the consumer of the ingestor.
+	 */
+	private static final class BlockingCalculator extends MovingAverageCalculatorImpl {
+
+		private final CountDownLatch release;
+
+		private BlockingCalculator(CountDownLatch release) {
+			super(10);
+			this.release = release;
+		}
+
+		@Override
+		public void addAll(BigDecimal[] batch, int length) {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.addAll(batch, length);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.HistoryPolicy;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.Rollup;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the rollups of MovingAverageCalculatorImpl.
+ */
+public class RollupsTest extends TestCase {
+
+	/**
+	 * Aggregates a range by walking its elements, as getAll would.
+	 */
+	private static void assertAggregate(MovingAverageCalculatorImpl maCalculator, int from, int to, Rollup rollup) {
+		BigDecimal high = maCalculator.get(from);
+		BigDecimal low = maCalculator.get(from);
+		BigDecimal sum = BigDecimal.ZERO;
+		for(int i = from; i < to; ++i) {
+			high = high.max(maCalculator.get(i));
+			low = low.min(maCalculator.get(i));
+			sum = sum.add(maCalculator.get(i));
+		}
+		assertEquals(from, rollup.getFrom());
+		assertEquals(to - from, rollup.getCount());
+		assertEquals(0, maCalculator.get(from).compareTo(rollup.getOpen()));
+		assertEquals(0, maCalculator.get(to - 1).compareTo(rollup.getClose()));
+		assertEquals(0, high.compareTo(rollup.getHigh()));
+		assertEquals(0, low.compareTo(rollup.getLow()));
+		assertEquals(0, sum.compareTo(rollup.getSum()));
+	}
+
+	public void test_Aggregate_Matches_Elements() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(10, 2);
+		maCalculator.enableRollups(3, 16, 128, 1024);
+		Random random = new Random(5);
+		for(int i = 0; i < 5000; ++i) {
+			maCalculator.add(BigDecimal.valueOf(random.nextInt(2000000) - 1000000, random.nextInt(4)));
+		}
+		maCalculator.addAll(new BigDecimal[] {new BigDecimal("1.5"), new BigDecimal("-2.125"), BigDecimal.TEN});
+		assertTrue(Arrays.equals(new int[] {16, 128, 1024}, maCalculator.getRollupBlockSizes()));
+		int[][] ranges = {{0, 5003}, {0, 1024}, {1, 2}, {15, 17}, {100, 4100}, {1023, 3073}, {4990, 5003}};
+		for(int[] range : ranges) {
+			assertAggregate(maCalculator, range[0], range[1], maCalculator.aggregate(range[0], range[1]));
+		}
+		for(int i = 0; i < 100; ++i) {
+			int from = random.nextInt(5003);
+			int to = from + 1 + random.nextInt(5003 - from);
+			assertAggregate(maCalculator, from, to, maCalculator.aggregate(from, to));
+		}
+		assertEquals(new BigDecimal("1.500"), maCalculator.aggregate(5000, 5001).getOpen());
+	}
+
+	public void test_Series_Of_A_Level() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		maCalculator.enableRollups(0, 4, 16);
+		for(int i = 0; i < 38; ++i) {
+			maCalculator.add(new BigDecimal(i % 7));
+		}
+		Rollup[] series = maCalculator.rollups(4, 5, 38);
+		assertEquals(9, series.length);
+		for(int i = 0; i < series.length; ++i) {
+			int from = 4 + 4 * i;
+			assertAggregate(maCalculator, from, Math.min(38, from + 4), series[i]);
+		}
+		//the block in progress is partial
+		assertEquals(2, series[8].getCount());
+		series = maCalculator.rollups(16, 0, 38);
+		assertEquals(3, series.length);
+		assertAggregate(maCalculator, 16, 32, series[1]);
+		assertEquals(0, maCalculator.rollups(16, 10, 10).length);
+	}
+
+	public void test_Enabled_On_Existing_And_Bounded_History() {
+		MovingAverageCalculatorImpl maCalculator =
+				new MovingAverageCalculatorImpl(5, 2, RoundingMode.HALF_DOWN, HistoryPolicy.keepLast(100));
+		for(int i = 0; i < 150; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		maCalculator.enableRollups(0, 8, 32);
+		for(int i = 150; i < 400; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		//the blocks inside the range are aggregated even after their elements left the history
+		Rollup rollup = maCalculator.aggregate(160, 288);
+		assertEquals(new BigDecimal(160), rollup.getOpen());
+		assertEquals(new BigDecimal(287), rollup.getClose());
+		assertEquals(new BigDecimal(287), rollup.getHigh());
+		assertEquals(new BigDecimal(160), rollup.getLow());
+		assertEquals(new BigDecimal((160 + 287) * 128 / 2), rollup.getSum());
+		assertEquals(new BigDecimal(50 + 51 + 52 + 53 + 54 + 55), maCalculator.rollups(8, 50, 56)[0].getSum());
+		try {
+			maCalculator.aggregate(161, 288);
+			fail("Expected exception when the edge of the range is no longer retained");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+		try {
+			maCalculator.rollups(8, 49, 60);
+			fail("Expected exception when the range starts before the rollups");
+		} catch (IndexOutOfBoundsException e) {
+			//pass
+		}
+	}
+
+	public void test_Invalid_Rollups() {
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(3);
+		try {
+			maCalculator.aggregate(0, 1);
+			fail("Expected exception when rollups are not enabled");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+		for(int[] blockSizes : new int[][] {{0}, {3}, {16, 8}, {8, 8}}) {
+			try {
+				maCalculator.enableRollups(2, blockSizes);
+				fail("Expected exception when the block sizes are invalid : " + Arrays.toString(blockSizes));
+			} catch (IllegalArgumentException e) {
+				//pass
+			}
+		}
+		maCalculator.enableRollups(2);
+		assertTrue(Arrays.equals(new int[] {1 << 10, 1 << 16, 1 << 22}, maCalculator.getRollupBlockSizes()));
+		maCalculator.add(new BigDecimal("1.25"));
+		try {
+			maCalculator.add(new BigDecimal("1.125"));
+			fail("Expected exception when the element has more decimal places than the rollups");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		try {
+			maCalculator.addAll(new BigDecimal[] {BigDecimal.ONE, new BigDecimal("1.125")});
+			fail("Expected exception when an element has more decimal places than the rollups");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		assertEquals(1, maCalculator.size());
+		try {
+			maCalculator.rollups(512, 0, 1);
+			fail("Expected exception when the block size is not a level");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			maCalculator.aggregate(1, 1);
+			fail("Expected exception when the range is empty");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		maCalculator.disableRollups();
+		assertEquals(0, maCalculator.getRollupBlockSizes().length);
+		maCalculator.add(new BigDecimal("1.125"));
+		assertEquals(2, maCalculator.size());
+	}
+}
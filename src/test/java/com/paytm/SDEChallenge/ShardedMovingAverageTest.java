@@ -0,0 +1,170 @@
+package com.paytm.SDEChallenge;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCoordinator;
+import com.paytm.sdechallenge.collections.impl.PartialWindow;
+import com.paytm.sdechallenge.collections.impl.ShardWindow;
+import com.paytm.sdechallenge.collections.impl.WindowShard;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for ShardWindow, PartialWindow and MovingAverageCoordinator.
+ */
+public class ShardedMovingAverageTest extends TestCase {
+
+	/**
+	 * Stands in for a remote shard : the partial window crosses a byte array, as it would cross the network.
+	 */
+	private static WindowShard loopback(final ShardWindow shard) {
+		return cut -> PartialWindow.fromByteArray(shard.partial(cut).toByteArray());
+	}
+
+	public void test_Coordinator_Matches_Single_Calculator() throws IOException {
+		int window = 50;
+		ShardWindow[] shards = new ShardWindow[7];
+		List<WindowShard> loopbacks = new ArrayList<>();
+		for(int i = 0; i < shards.length; ++i) {
+			shards[i] = new ShardWindow(window, 4 * window);
+			loopbacks.add(loopback(shards[i]));
+		}
+		MovingAverageCoordinator coordinator = new MovingAverageCoordinator(loopbacks, 4, RoundingMode.HALF_EVEN);
+		MovingAverageCalculatorImpl maCalculator = new MovingAverageCalculatorImpl(window, 4, RoundingMode.HALF_EVEN);
+		Random random = new Random(24);
+		for(long sequence = 0; sequence < 3000; ++sequence) {
+			BigDecimal element = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, random.nextInt(5));
+			//skewed routing, so the shards hold different numbers of elements of each window
+			shards[Math.min(random.nextInt(shards.length), random.nextInt(shards.length))].add(sequence, element);
+			maCalculator.add(element);
+			assertEquals(maCalculator.movingAverage(), coordinator.movingAverage(sequence));
+			PartialWindow merged = coordinator.merge(sequence);
+			assertTrue(merged.isComplete());
+			BigDecimal sum = BigDecimal.ZERO;
+			for(int i = (int) Math.max(0, sequence - window + 1); i <= sequence; ++i) {
+				sum = sum.add(maCalculator.get(i));
+			}
+			assertEquals(0, sum.compareTo(merged.getSum()));
+		}
+	}
+
+	public void test_Older_Cuts_And_Lagging_Shard() throws IOException {
+		ShardWindow even = new ShardWindow(4, 8);
+		ShardWindow odd = new ShardWindow(4, 8);
+		for(long sequence = 0; sequence < 20; ++sequence) {
+			(sequence % 2 == 0 ? even : odd).add(sequence, new BigDecimal(sequence));
+		}
+		MovingAverageCoordinator coordinator = new MovingAverageCoordinator(Arrays.asList(even, odd), 2,
+				RoundingMode.HALF_UP);
+		assertEquals(new BigDecimal("17.50"), coordinator.movingAverage(19));
+		//older cuts are answered while the elements before their range are retained
+		assertEquals(new BigDecimal("9.50"), coordinator.movingAverage(11));
+		//the first windows hold fewer sequences
+		ShardWindow shard = new ShardWindow(4, 8);
+		shard.add(0, BigDecimal.TEN);
+		shard.add(1, BigDecimal.ONE);
+		assertEquals(new BigDecimal("5.50"), new MovingAverageCoordinator(Arrays.asList(shard)).movingAverage(1));
+		try {
+			coordinator.movingAverage(5);
+			fail("Expected exception when the range of the cut was evicted");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+		//sequence 20 is assigned to the odd shard but has not reached it yet
+		even.add(21, new BigDecimal(21));
+		PartialWindow merged = coordinator.merge(21);
+		assertFalse(merged.isComplete());
+		assertEquals(3, merged.getCount());
+		try {
+			coordinator.movingAverage(21);
+			fail("Expected exception when the window is incomplete");
+		} catch (IllegalStateException e) {
+			//pass
+		}
+		odd.add(20, new BigDecimal(20));
+		assertEquals(new BigDecimal("19.50"), coordinator.movingAverage(21));
+	}
+
+	public void test_Serialized_Form() throws IOException {
+		ShardWindow shard = new ShardWindow(1000);
+		for(long sequence = 0; sequence < 5000; sequence += 3) {
+			shard.add(sequence, new BigDecimal("123456.789"));
+		}
+		PartialWindow partial = shard.partial(4999);
+		byte[] bytes = partial.toByteArray();
+		assertTrue(bytes.length < 24);
+		PartialWindow read = PartialWindow.fromByteArray(bytes);
+		assertEquals(partial.toString(), read.toString());
+		assertEquals(4000, read.getFromSequence());
+		assertEquals(333, read.getCount());
+		//sums beyond a long
+		ShardWindow large = new ShardWindow(3);
+		large.add(0, new BigDecimal(Long.MAX_VALUE));
+		large.add(1, new BigDecimal(Long.MAX_VALUE));
+		read = PartialWindow.fromByteArray(large.partial().toByteArray());
+		assertEquals(new BigDecimal(Long.MAX_VALUE).multiply(new BigDecimal(2)), read.getSum());
+		try {
+			PartialWindow.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1));
+			fail("Expected exception when the bytes are truncated");
+		} catch (IOException e) {
+			//pass
+		}
+		try {
+			PartialWindow.fromByteArray(Arrays.copyOf(bytes, bytes.length + 1));
+			fail("Expected exception when bytes remain after the partial window");
+		} catch (IOException e) {
+			//pass
+		}
+		bytes[5] = 1;
+		try {
+			PartialWindow.fromByteArray(bytes);
+			fail("Expected exception when the bytes are of another kind");
+		} catch (IOException e) {
+			//pass
+		}
+	}
+
+	public void test_Invalid_Arguments() {
+		try {
+			new ShardWindow(10, 9);
+			fail("Expected exception when the retention is smaller than the window");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		ShardWindow shard = new ShardWindow(10);
+		shard.add(5, BigDecimal.ONE);
+		try {
+			shard.add(5, BigDecimal.ONE);
+			fail("Expected exception when the sequence is not after the last one");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			shard.add(6, null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			shard.partial(12).merge(new ShardWindow(5).partial(12));
+			fail("Expected exception when the partial windows cover different sequences");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new MovingAverageCoordinator(new ArrayList<WindowShard>());
+			fail("Expected exception when there is no shard");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		assertEquals(5, shard.getLastSequence());
+		assertEquals(1, shard.size());
+	}
+}
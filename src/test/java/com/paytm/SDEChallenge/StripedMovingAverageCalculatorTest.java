@@ -0,0 +1,166 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.paytm.sdechallenge.collections.impl.ConcurrentMovingAverageCalculator;
+import com.paytm.sdechallenge.collections.impl.MovingAverageCalculatorImpl;
+import com.paytm.sdechallenge.collections.impl.StripedMovingAverageCalculator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for StripedMovingAverageCalculator.
+ */
+public class StripedMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new StripedMovingAverageCalculator(null, 16);
+			fail("Expected exception when target is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new StripedMovingAverageCalculator(new MovingAverageCalculatorImpl(2), 0);
+			fail("Expected exception when stripe capacity less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_Elements_Visible_Once_Merged() {
+		StripedMovingAverageCalculator maCalculator =
+				new StripedMovingAverageCalculator(new MovingAverageCalculatorImpl(2), 16);
+		maCalculator.add(new BigDecimal(10));
+		maCalculator.add(new BigDecimal(5));
+		assertTrue(maCalculator.isEmpty());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+		assertEquals(2, maCalculator.merge());
+		assertEquals(2, maCalculator.size());
+		assertEquals(new BigDecimal(10), maCalculator.get(0));
+		assertEquals(new BigDecimal("7.50000"), maCalculator.movingAverage());
+		assertEquals(0, maCalculator.merge());
+	}
+
+	public void test_Rejected_Batch_Does_Not_Block_Later_Merges() {
+		MovingAverageCalculatorImpl target = new MovingAverageCalculatorImpl(2, 1);
+		//the rollups only accept whole numbers, so the target rejects a batch holding 1.5
+		target.enableRollups(0, 4);
+		StripedMovingAverageCalculator maCalculator = new StripedMovingAverageCalculator(target, 4);
+		try {
+			maCalculator.add(null);
+			fail("Expected exception when the element is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		maCalculator.add(new BigDecimal(1));
+		maCalculator.add(new BigDecimal("1.5"));
+		try {
+			maCalculator.merge();
+			fail("Expected exception when the target rejects the batch");
+		} catch (ArithmeticException e) {
+			//pass
+		}
+		assertEquals(0, maCalculator.size());
+		//the rejected batch was dropped, the stripe accepts and merges new elements, including a full stripe
+		for(int i = 1; i <= 5; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		assertEquals(1, maCalculator.merge());
+		assertEquals(5, maCalculator.size());
+		assertEquals(new BigDecimal("4.5"), maCalculator.movingAverage());
+	}
+
+	public void test_Full_Stripe_Is_Merged_By_Producer() {
+		StripedMovingAverageCalculator maCalculator =
+				new StripedMovingAverageCalculator(new MovingAverageCalculatorImpl(3), 3);
+		for(int i = 1; i <= 5; ++i) {
+			maCalculator.add(new BigDecimal(i));
+		}
+		//the stripe capacity is rounded up to 4, the fifth add merges the first four elements
+		assertEquals(4, maCalculator.size());
+		maCalculator.merge();
+		assertEquals(new BigDecimal("4.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_Producer_Order_Preserved_Under_Concurrent_Adds() throws Exception {
+		final int producers = 6;
+		final int elementsPerProducer = 20000;
+		final StripedMovingAverageCalculator maCalculator =
+				new StripedMovingAverageCalculator(new ConcurrentMovingAverageCalculator(1000, 2), 256);
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(producers + 1);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for(int p = 0; p < producers; ++p) {
+				final long producer = p;
+				results.add(executor.submit(() -> {
+					start.await();
+					for(int i = 0; i < elementsPerProducer; ++i) {
+						maCalculator.add(BigDecimal.valueOf(producer * 1000000L + i));
+					}
+					return null;
+				}));
+			}
+			Future<?> merger = executor.submit(() -> {
+				start.await();
+				while(maCalculator.size() < producers * elementsPerProducer) {
+					maCalculator.merge();
+					maCalculator.movingAverage();
+				}
+				return null;
+			});
+			start.countDown();
+			for(Future<?> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+			merger.get(60, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(producers * elementsPerProducer, maCalculator.size());
+		long[] next = new long[producers];
+		for(BigDecimal element : maCalculator.getAll()) {
+			int producer = (int) (element.longValue() / 1000000L);
+			assertEquals(next[producer]++, element.longValue() % 1000000L);
+		}
+	}
+
+	public void test_Stripes_Of_Terminated_Threads_Are_Reclaimed() throws Exception {
+		final StripedMovingAverageCalculator maCalculator =
+				new StripedMovingAverageCalculator(new MovingAverageCalculatorImpl(4), 8);
+		maCalculator.add(BigDecimal.ONE);
+		for(int t = 0; t < 3; ++t) {
+			final BigDecimal element = BigDecimal.valueOf(t);
+			Thread thread = new Thread(() -> {
+				for(int i = 0; i < 5; ++i) {
+					maCalculator.add(element);
+				}
+				//drops the stripe of the previous thread, and the next adds wrap around the ring of 8 slots
+				maCalculator.merge();
+				for(int i = 0; i < 6; ++i) {
+					maCalculator.add(element);
+				}
+			});
+			thread.start();
+			thread.join();
+		}
+		assertEquals(2, maCalculator.getStripeCount());
+		//the elements of the terminated thread are merged before its stripe is dropped
+		assertEquals(6, maCalculator.merge());
+		assertEquals(1, maCalculator.getStripeCount());
+		assertEquals(34, maCalculator.size());
+		assertEquals(new BigDecimal("2.00000"), maCalculator.movingAverage());
+		maCalculator.add(BigDecimal.TEN);
+		assertEquals(1, maCalculator.merge());
+		assertEquals(new BigDecimal("4.00000"), maCalculator.movingAverage());
+	}
+}
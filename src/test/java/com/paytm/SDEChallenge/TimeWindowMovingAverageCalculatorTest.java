@@ -0,0 +1,154 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import com.paytm.sdechallenge.collections.impl.TimeWindowMovingAverageCalculator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for TimeWindowMovingAverageCalculator.
+ */
+public class TimeWindowMovingAverageCalculatorTest extends TestCase {
+
+	private final ManualClock clock = new ManualClock(1000000);
+
+	/** A 60 second window of 1 second buckets, accepting elements up to 5 seconds late. */
+	private final TimeWindowMovingAverageCalculator maCalculator = new TimeWindowMovingAverageCalculator(60000, 1000,
+			5000, clock, 2, RoundingMode.HALF_UP);
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new TimeWindowMovingAverageCalculator(60000, 0, 0);
+			fail("Expected exception when bucket duration less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new TimeWindowMovingAverageCalculator(60500, 1000, 0);
+			fail("Expected exception when bucket duration does not divide the window");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new TimeWindowMovingAverageCalculator(60000, 1000, -1);
+			fail("Expected exception when lateness less than 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new TimeWindowMovingAverageCalculator(60000, 1000, 0, null, 2, RoundingMode.HALF_UP);
+			fail("Expected exception when clock is null");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_MovingAverage_WhenEmpty() {
+		assertEquals(new BigDecimal("0.00"), maCalculator.movingAverage());
+		assertEquals(0, maCalculator.count());
+		assertEquals(60000, maCalculator.getWindowMillis());
+	}
+
+	public void test_Elements_Leave_The_Window_By_Bucket() {
+		maCalculator.add(new BigDecimal(10));
+		clock.advance(30000);
+		maCalculator.add(new BigDecimal(20));
+		assertEquals(new BigDecimal("15.00"), maCalculator.movingAverage());
+		clock.advance(29999);
+		assertEquals(2, maCalculator.count());
+		clock.advance(1);
+		assertEquals(1, maCalculator.count());
+		assertEquals(new BigDecimal("20.00"), maCalculator.movingAverage());
+		clock.advance(3600000);
+		assertEquals(0, maCalculator.count());
+		assertEquals(new BigDecimal("0.00"), maCalculator.movingAverage());
+	}
+
+	public void test_Late_And_Future_Elements() {
+		clock.advance(10000);
+		long now = clock.millis();
+		assertTrue(maCalculator.add(now - 5000, new BigDecimal(4)));
+		assertFalse(maCalculator.add(now - 5001, new BigDecimal(100)));
+		assertFalse(maCalculator.add(now + 1000, new BigDecimal(100)));
+		assertTrue(maCalculator.add(now, new BigDecimal(8)));
+		assertEquals(new BigDecimal("6.00"), maCalculator.movingAverage());
+		//the late element falls in an older bucket, so it leaves the window first
+		clock.advance(55000);
+		assertEquals(new BigDecimal("8.00"), maCalculator.movingAverage());
+	}
+
+	public void test_Clock_Going_Backwards_Keeps_The_Window() {
+		maCalculator.add(new BigDecimal(3));
+		clock.advance(-30000);
+		assertEquals(1, maCalculator.count());
+		//still inside the window, which does not move back
+		assertTrue(maCalculator.add(clock.millis(), new BigDecimal(5)));
+		assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage());
+	}
+
+	public void test_Same_Results_As_Recomputing_The_Window() {
+		long[] timestamps = new long[5000];
+		BigDecimal[] elements = new BigDecimal[timestamps.length];
+		for(int i = 0; i < timestamps.length; ++i) {
+			//bursts and pauses, with some elements up to 4 seconds late
+			clock.advance(i % 100 < 50 ? 37 : 1013);
+			timestamps[i] = clock.millis() - (i % 7 == 0 ? 4000 : 0);
+			elements[i] = BigDecimal.valueOf(i * 7919L % 1000, 1);
+			assertTrue(maCalculator.add(timestamps[i], elements[i]));
+
+			long firstPeriod = Math.floorDiv(clock.millis(), 1000) - 59;
+			BigDecimal sum = BigDecimal.ZERO;
+			int count = 0;
+			for(int j = 0; j <= i; ++j) {
+				if(Math.floorDiv(timestamps[j], 1000) >= firstPeriod) {
+					sum = sum.add(elements[j]);
+					++count;
+				}
+			}
+			assertEquals(count, maCalculator.count());
+			assertEquals(sum.divide(new BigDecimal(count), 2, RoundingMode.HALF_UP), maCalculator.movingAverage());
+		}
+	}
+
+	/**
+	 * A clock only moving when the test advances it.
+	 */
+	private static final class ManualClock extends Clock {
+
+		private long millis;
+
+		private ManualClock(long millis) {
+			this.millis = millis;
+		}
+
+		private void advance(long delta) {
+			millis += delta;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.paytm.SDEChallenge;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.paytm.sdechallenge.collections.impl.WeightedMovingAverageCalculator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for WeightedMovingAverageCalculator.
+ */
+public class WeightedMovingAverageCalculatorTest extends TestCase {
+
+	public void test_Constructor_With_WindowSize() {
+		WeightedMovingAverageCalculator maCalculator = new WeightedMovingAverageCalculator(3);
+		assertTrue(maCalculator.getAll().isEmpty());
+		assertEquals(3, maCalculator.getWindow());
+		assertEquals(new BigDecimal("0.00000"), maCalculator.movingAverage());
+	}
+
+	public void test_Constructor_With_Invalid_Arguments() {
+		try {
+			new WeightedMovingAverageCalculator(0);
+			fail("Expected exception when window size less than or equal to 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+		try {
+			new WeightedMovingAverageCalculator(3, -1, RoundingMode.HALF_UP);
+			fail("Expected exception when scale less than 0");
+		} catch (IllegalArgumentException e) {
+			//pass
+		}
+	}
+
+	public void test_MovingAverage() {
+		WeightedMovingAverageCalculator maCalculator = new WeightedMovingAverageCalculator(3, 2, RoundingMode.HALF_UP);
+		maCalculator.add(new BigDecimal(6));
+		assertEquals(new BigDecimal("6.00"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(3));
+		//(6 + 2 * 3) / 3
+		assertEquals(new BigDecimal("4.00"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(12));
+		//(6 + 2 * 3 + 3 * 12) / 6
+		assertEquals(new BigDecimal("8.00"), maCalculator.movingAverage());
+		maCalculator.add(new BigDecimal(0));
+		//(3 + 2 * 12 + 3 * 0) / 6
+		assertEquals(new BigDecimal("4.50"), maCalculator.movingAverage());
+	}
+
+	public void test_Same_Results_As_Recomputing_The_Window() {
+		int window = 20;
+		WeightedMovingAverageCalculator maCalculator = new WeightedMovingAverageCalculator(window, 4, RoundingMode.HALF_EVEN);
+		for(int i = 0; i < 500; ++i) {
+			maCalculator.add(BigDecimal.valueOf(i * 7919L % 1000 - 500, i % 3));
+			int count = Math.min(window, i + 1);
+			BigDecimal weighted = BigDecimal.ZERO;
+			for(int k = 0; k < count; ++k) {
+				weighted = weighted.add(maCalculator.get(i + 1 - count + k).multiply(BigDecimal.valueOf(k + 1)));
+			}
+			BigDecimal expected = weighted.divide(BigDecimal.valueOf(count * (count + 1) / 2), 4, RoundingMode.HALF_EVEN);
+			assertEquals(expected, maCalculator.movingAverage());
+		}
+	}
+}